@@ -61,6 +61,9 @@ angular.module('adminNg.controllers')
         name:  'creator',
         label: 'SYSTEMS.JOBS.TABLE.CREATOR',
         sortable: true
+      }, {
+        name:  'progress',
+        label: 'SYSTEMS.JOBS.TABLE.PROGRESS'
       }],
       caption:    'SYSTEMS.JOBS.TABLE.CAPTION',
       resource:   'jobs',
@@ -38,6 +38,10 @@ angular.module('adminNg.resources')
         row.creator = r.creator;
         row.processingHost = r.processingHost;
         row.processingNode = r.processingNode;
+        if (r.progress) {
+          row.progress = (angular.isNumber(r.progress.completed) ? r.progress.completed + ' % ' : '')
+            + '(' + r.progress.speed + 'x)';
+        }
         return row;
       };
 
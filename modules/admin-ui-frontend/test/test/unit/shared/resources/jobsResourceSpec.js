@@ -36,7 +36,11 @@ describe('Jobs API Resource', function () {
                 status: 'SUCCEEDED',
                 submitted: 'Mon Mar 31 08:33:40 CEST 2014',
                 title: 'Job with serie',
-                workflow: 'Encode, Analyze, and Distribute'
+                workflow: 'Encode, Analyze, and Distribute',
+                progress: {
+                    completed: 25,
+                    speed: 1.5
+                }
             }],
             total: 2
         };
@@ -55,6 +59,8 @@ describe('Jobs API Resource', function () {
             expect(data.rows[0].operation).toBe(sampleJSON.results[0].operation);
             expect(data.rows[0].name).toBe(sampleJSON.results[0].name);
             expect(data.rows[0].status).toBe(sampleJSON.results[0].status);
+            expect(data.rows[0].progress).toBeUndefined();
+            expect(data.rows[1].progress).toBe('25 % (1.5x)');
         });
     });
 });
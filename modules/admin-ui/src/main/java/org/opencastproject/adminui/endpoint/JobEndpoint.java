@@ -30,11 +30,13 @@ import static org.opencastproject.util.DateTimeSupport.toUTC;
 import static org.opencastproject.util.doc.rest.RestParameter.Type.STRING;
 
 import org.opencastproject.adminui.exception.JobEndpointException;
+import org.opencastproject.composer.api.ComposerService;
 import org.opencastproject.index.service.resources.list.query.JobsListQuery;
 import org.opencastproject.index.service.util.RestUtils;
 import org.opencastproject.job.api.Incident;
 import org.opencastproject.job.api.IncidentTree;
 import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.security.api.User;
 import org.opencastproject.security.api.UserDirectoryService;
 import org.opencastproject.serviceregistry.api.HostRegistration;
@@ -420,20 +422,45 @@ public class JobEndpoint {
       String processingHost = job.getProcessingHost();
       String processingNode = jobEx.getNodeName();
 
-      jsonList.add(obj(f("id", v(id)),
-              f("type", v(jobType)),
-              f("operation", v(operation)),
-              f("status", v(JOB_STATUS_TRANSLATION_PREFIX + status.toString())),
-              f("submitted", v(created, Jsons.BLANK)),
-              f("started", v(started, Jsons.BLANK)),
-              f("creator", v(creator, Jsons.BLANK)),
-              f("processingHost", v(processingHost, Jsons.BLANK)),
-              f("processingNode", v(processingNode, Jsons.BLANK))));
+      List<Field> fields = new ArrayList<>();
+      fields.add(f("id", v(id)));
+      fields.add(f("type", v(jobType)));
+      fields.add(f("operation", v(operation)));
+      fields.add(f("status", v(JOB_STATUS_TRANSLATION_PREFIX + status.toString())));
+      fields.add(f("submitted", v(created, Jsons.BLANK)));
+      fields.add(f("started", v(started, Jsons.BLANK)));
+      fields.add(f("creator", v(creator, Jsons.BLANK)));
+      fields.add(f("processingHost", v(processingHost, Jsons.BLANK)));
+      fields.add(f("processingNode", v(processingNode, Jsons.BLANK)));
+      // Only encodings report progress, so do not ask for the progress of other jobs
+      if (status == Job.Status.RUNNING && ComposerService.JOB_TYPE.equals(jobType)) {
+        getJobProgress(id).ifPresent(progress -> fields.add(f("progress", getJobProgressAsJSON(progress))));
+      }
+      jsonList.add(obj(fields));
     }
 
     return jsonList;
   }
 
+  private Optional<JobProgress> getJobProgress(long id) {
+    try {
+      return serviceRegistry.getJobProgress(id);
+    } catch (NotFoundException | ServiceRegistryException e) {
+      logger.debug("Unable to get the progress of job {}", id, e);
+      return Optional.empty();
+    }
+  }
+
+  private JObject getJobProgressAsJSON(JobProgress progress) {
+    Float completed = progress.getCompleted();
+    Long remaining = progress.getEstimatedTimeRemaining();
+    return obj(f("completed", v(completed != null ? Math.round(completed * 100) : null, Jsons.BLANK)),
+            f("processed", v(progress.getProcessedTime() / 1000)),
+            f("speed", v(Math.round(progress.getSpeed() * 100) / 100.0)),
+            f("remaining", v(remaining != null ? remaining / 1000 : null, Jsons.BLANK)),
+            f("updated", v(toUTC(progress.getUpdated()))));
+  }
+
   /**
    * Returns the list of tasks matching the given query as JSON Object
    *
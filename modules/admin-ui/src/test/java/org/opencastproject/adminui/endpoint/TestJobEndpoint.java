@@ -24,6 +24,7 @@ package org.opencastproject.adminui.endpoint;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.mediapackage.MediaPackageBuilderImpl;
 import org.opencastproject.serviceregistry.api.HostRegistration;
@@ -46,6 +47,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
 
 import javax.ws.rs.Path;
 
@@ -105,6 +107,13 @@ public class TestJobEndpoint extends JobEndpoint {
 
 
     EasyMock.expect(serviceRegistry.getJob(EasyMock.anyLong())).andReturn(job).anyTimes();
+    final JobProgress progress = JobProgress.fromJson("{\"job\":5,\"jobType\":\"org.opencastproject.composer\","
+            + "\"operation\":\"Encode\",\"started\":" + DateTimeSupport.fromUTC("2014-06-05T09:05:00Z")
+            + ",\"duration\":600000,\"processedTime\":150000,\"frames\":3750,\"speed\":1.5,\"updated\":"
+            + DateTimeSupport.fromUTC("2014-06-05T09:07:00Z") + "}");
+    // Only the running composer jobs are asked for their progress
+    EasyMock.expect(serviceRegistry.getJobProgress(1L)).andReturn(Optional.empty()).anyTimes();
+    EasyMock.expect(serviceRegistry.getJobProgress(5L)).andReturn(Optional.of(progress)).anyTimes();
     EasyMock.expect(workflowService.getWorkflowInstances(EasyMock.anyObject(WorkflowQuery.class)))
             .andReturn(workflowSet).anyTimes();
     EasyMock.expect(workflowService.countWorkflowInstances()).andReturn(workflowSet.size()).anyTimes();
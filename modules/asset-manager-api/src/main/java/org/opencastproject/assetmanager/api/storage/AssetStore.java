@@ -59,6 +59,16 @@ public interface AssetStore extends StorageUsage {
    */
   boolean delete(DeletionSelector sel) throws AssetStoreException;
 
+  /**
+   * Returns whether the store deduplicates content by the checksum of a {@link Source} on its own. Callers do not need
+   * to look for already stored copies of an asset in this case but can simply {@link #put(StoragePath, Source)} it.
+   *
+   * @return true, if the store is content addressed
+   */
+  default boolean isContentAddressed() {
+    return false;
+  }
+
   /**
    * Returns the store.type property
    *
@@ -472,13 +472,39 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
    *         The API index to update
    */
   private void updateEventInIndex(Snapshot snapshot, ElasticsearchIndex index) {
+    String eventId = snapshot.getMediaPackage().getIdentifier().toString();
+    final String organization = securityService.getOrganization().getId();
+    final User user = securityService.getUser();
+    logger.debug("Updating event {} in the {} index.", eventId, index.getIndexName());
+
+    Function<Optional<Event>, Optional<Event>> updateFunction = getEventUpdateFunction(snapshot, index);
+
+    // Persist the scheduling event
+    try {
+      index.addOrUpdateEvent(eventId, updateFunction, organization, user);
+      logger.debug("Event {} updated in the {} index.", eventId, index.getIndexName());
+    } catch (SearchIndexException e) {
+      logger.error("Error updating the event {} in the {} index.", eventId, index.getIndexName(), e);
+    }
+  }
+
+  /**
+   * Create the function updating an event in the API index with the data of a snapshot.
+   *
+   * @param snapshot
+   *         The newest snapshot of the event to update
+   * @param index
+   *         The API index to update
+   * @return the update function
+   */
+  private Function<Optional<Event>, Optional<Event>> getEventUpdateFunction(Snapshot snapshot,
+          ElasticsearchIndex index) {
     final MediaPackage mp = snapshot.getMediaPackage();
     String eventId = mp.getIdentifier().toString();
     final String organization = securityService.getOrganization().getId();
     final User user = securityService.getUser();
-    logger.debug("Updating event {} in the {} index.", eventId, index.getIndexName());
 
-    Function<Optional<Event>, Optional<Event>> updateFunction = (Optional<Event> eventOpt) -> {
+    return (Optional<Event> eventOpt) -> {
       Event event = eventOpt.orElse(new Event(eventId, organization));
 
       AccessControlList acl = authorizationService.getActiveAcl(mp).getA();
@@ -511,14 +537,6 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
       }
       return Optional.of(event);
     };
-
-    // Persist the scheduling event
-    try {
-      index.addOrUpdateEvent(eventId, updateFunction, organization, user);
-      logger.debug("Event {} updated in the {} index.", eventId, index.getIndexName());
-    } catch (SearchIndexException e) {
-      logger.error("Error updating the event {} in the {} index.", eventId, index.getIndexName(), e);
-    }
   }
 
   /**
@@ -896,14 +914,24 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
           securityService.setOrganization(snapshotOrg);
           securityService.setUser(SecurityUtil.createSystemUser(systemUserName, snapshotOrg));
 
-          for (Snapshot snapshot : byOrg.get(orgId)) {
-            current += 1;
+          // Update the events in bulk, failing events are logged and skipped by the index
+          final List<Snapshot> snapshots = byOrg.get(orgId);
+          final int bulkSize = index.getBulkSize();
+          for (int offset = 0; offset < snapshots.size(); offset += bulkSize) {
+            final List<Snapshot> batch = snapshots.subList(offset, Math.min(offset + bulkSize, snapshots.size()));
+            final Map<String, Function<Optional<Event>, Optional<Event>>> updateFunctions = new LinkedHashMap<>();
+            for (Snapshot snapshot : batch) {
+              updateFunctions.put(snapshot.getMediaPackage().getIdentifier().toString(),
+                      getEventUpdateFunction(snapshot, index));
+            }
+            current += batch.size();
             try {
-              updateEventInIndex(snapshot, index);
-            } catch (Throwable t) {
-              logSkippingElement(logger, "event", snapshot.getMediaPackage().getIdentifier().toString(), org, t);
+              index.bulkAddOrUpdateEvents(updateFunctions, orgId, securityService.getUser());
+            } catch (SearchIndexException e) {
+              logger.error("Error updating {} events of organization '{}' in the {} index, skipping.", batch.size(),
+                      orgId, index.getIndexName(), e);
             }
-            logIndexRebuildProgress(logger, index.getIndexName(), total, current);
+            logIndexRebuildProgress(logger, index.getIndexName(), total, current, batch.size());
           }
         } catch (Throwable t) {
           logIndexRebuildError(logger, index.getIndexName(), t, org);
@@ -1107,6 +1135,12 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
         continue;
       }
 
+      if (isDeduplicatedByStore(e, store)) {
+        store.put(storagePath, mkSource(e));
+        getDatabase().setAssetStorageLocation(VersionImpl.mk(version), mpId, e.getIdentifier(), store.getStoreType());
+        continue;
+      }
+
       // find asset in versions & stores
       final Opt<StoragePath> existingAssetOpt = getDatabase().findAssetByChecksumAndStore(e.getChecksum().toString(),
               store.getStoreType()).map(new Fn<AssetDtos.Full, StoragePath>() {
@@ -1133,8 +1167,7 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
           ));
         }
       } else {
-        final Opt<Long> size = e.getSize() > 0 ? Opt.some(e.getSize()) : Opt.none();
-        store.put(storagePath, Source.mk(e.getURI(), size, Opt.nul(e.getMimeType())));
+        store.put(storagePath, mkSource(e));
       }
       getDatabase().setAssetStorageLocation(VersionImpl.mk(version), mpId, e.getIdentifier(), store.getStoreType());
     }
@@ -1297,6 +1330,10 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
     for (final MediaPackageElement e : pmp.getElements()) {
       logger.debug("Archiving {} {} {}", e.getFlavor(), e.getMimeType(), e.getURI());
       final StoragePath storagePath = StoragePath.mk(orgId, mpId, version, e.getIdentifier());
+      if (isDeduplicatedByStore(e, getLocalAssetStore())) {
+        getLocalAssetStore().put(storagePath, mkSource(e));
+        continue;
+      }
       // find asset in versions
       final Opt<StoragePath> existingAssetOpt = getDatabase().findAssetByChecksumAndStore(e.getChecksum().toString(),
               getLocalAssetStore().getStoreType())
@@ -1324,12 +1361,25 @@ public class AssetManagerImpl extends AbstractIndexProducer implements AssetMana
           ));
         }
       } else {
-        final Opt<Long> size = e.getSize() > 0 ? Opt.some(e.getSize()) : Opt.none();
-        getLocalAssetStore().put(storagePath, Source.mk(e.getURI(), size, Opt.nul(e.getMimeType())));
+        getLocalAssetStore().put(storagePath, mkSource(e));
       }
     }
   }
 
+  /**
+   * Returns whether the store takes care of deduplicating the content of an element itself, so that there is no need
+   * to look for an already archived asset with the same checksum.
+   */
+  private static boolean isDeduplicatedByStore(final MediaPackageElement e, final AssetStore store) {
+    return store.isContentAddressed() && e.getChecksum() != null;
+  }
+
+  /** Create the source to put the content of an element into an asset store. */
+  private static Source mkSource(final MediaPackageElement e) {
+    final Opt<Long> size = e.getSize() > 0 ? Opt.some(e.getSize()) : Opt.none();
+    return Source.mk(e.getURI(), size, Opt.nul(e.getMimeType()), Opt.nul(e.getChecksum()));
+  }
+
   private void storeManifest(final PartialMediaPackage pmp, final Version version) throws Exception {
     final String mpId = pmp.getMediaPackage().getIdentifier().toString();
     final String orgId = securityService.getOrganization().getId();
@@ -37,6 +37,7 @@ import org.opencastproject.assetmanager.api.storage.AssetStoreException;
 import org.opencastproject.assetmanager.api.storage.DeletionSelector;
 import org.opencastproject.assetmanager.api.storage.Source;
 import org.opencastproject.assetmanager.api.storage.StoragePath;
+import org.opencastproject.util.Checksum;
 import org.opencastproject.util.FileSupport;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.data.Option;
@@ -66,12 +67,69 @@ public abstract class AbstractFileSystemAssetStore implements AssetStore {
   /** The store type e.g. filesystem (short-term), aws (long-term), other implementations */
   protected String storeType = null;
 
+  /** The content addressed storage backing the version tree, or null if assets are stored per version only */
+  private volatile BlobStore blobStore = null;
+
   protected abstract Workspace getWorkspace();
 
   protected abstract String getRootDirectory();
 
+  /**
+   * Switches the store to content addressed storage. From now on, each distinct content is stored only once, keyed by
+   * its checksum, and linked into the version tree.
+   *
+   * @param migrate
+   *          whether to convert the existing version tree in the background, unless this has been done before
+   */
+  protected void enableContentAddressedStorage(boolean migrate) {
+    final BlobStore blobs = new BlobStore(new File(getRootDirectory()));
+    blobStore = blobs;
+    if (migrate && !blobs.isMigrated()) {
+      final Thread migration = new Thread(() -> {
+        try {
+          migrateToContentAddressedStorage();
+        } catch (AssetStoreException e) {
+          logger.error("Migration of asset store {} to content addressed storage failed", getRootDirectory(), e);
+        }
+      }, "asset-store-migration");
+      migration.setDaemon(true);
+      migration.start();
+    }
+  }
+
+  /**
+   * Converts the existing version tree to content addressed storage in place. Files which have already been converted
+   * are skipped, so this can safely be run again after an interruption.
+   *
+   * @return the number of files converted
+   */
+  public long migrateToContentAddressedStorage() throws AssetStoreException {
+    final BlobStore blobs = blobStore;
+    if (blobs == null) {
+      throw new AssetStoreException("Content addressed storage is not enabled");
+    }
+    logger.info("Migrating asset store {} to content addressed storage", getRootDirectory());
+    try {
+      final long migrated = blobs.migrate();
+      logger.info("Migrated {} files of asset store {} to content addressed storage", migrated, getRootDirectory());
+      return migrated;
+    } catch (IOException e) {
+      throw new AssetStoreException(e);
+    }
+  }
+
+  @Override
+  public boolean isContentAddressed() {
+    return blobStore != null;
+  }
+
   @Override
   public void put(StoragePath storagePath, Source source) throws AssetStoreException {
+    final BlobStore blobs = blobStore;
+    if (blobs != null && source.getChecksum().isSome()) {
+      putBlob(blobs, storagePath, source);
+      return;
+    }
     // Retrieving the file from the workspace has the advantage that in most cases the file already exists in the local
     // working file repository. In the very few cases where the file is not in the working file repository,
     // this strategy leads to a minor overhead because the file not only gets downloaded and stored in the file system
@@ -91,6 +149,28 @@ public abstract class AbstractFileSystemAssetStore implements AssetStore {
     }
   }
 
+  /** Link the blob with the content of <code>source</code> into the version tree, storing it first if necessary. */
+  private void putBlob(BlobStore blobs, StoragePath storagePath, Source source) {
+    final Checksum checksum = source.getChecksum().get();
+    final File destination = createFile(storagePath, source);
+    mkParent(destination);
+    try {
+      if (blobs.link(checksum, destination)) {
+        logger.debug("Content of {} with checksum {} is already stored", destination, checksum);
+        return;
+      }
+      final File origin = getUniqueFileFromWorkspace(source);
+      try {
+        blobs.add(checksum, origin, destination);
+      } finally {
+        FileUtils.deleteQuietly(origin);
+      }
+    } catch (IOException e) {
+      logger.error("Error while storing content with checksum {} at {}: {}", checksum, destination, getMessage(e));
+      throw new AssetStoreException(e);
+    }
+  }
+
   private File getUniqueFileFromWorkspace(Source source) {
     try {
       return getWorkspace().get(source.getUri(), true);
@@ -111,6 +191,14 @@ public abstract class AbstractFileSystemAssetStore implements AssetStore {
         mkParent(t);
         logger.debug("Copying {} to {}", f.getAbsolutePath(), t.getAbsolutePath());
         try {
+          final BlobStore blobs = blobStore;
+          if (blobs != null) {
+            for (Checksum checksum : blobs.lookup(f)) {
+              if (blobs.link(checksum, t)) {
+                return true;
+              }
+            }
+          }
           link(f, t, true);
         } catch (IOException e) {
           logger.error("Error copying archive file {} to {}", f, t);
@@ -145,6 +233,7 @@ public abstract class AbstractFileSystemAssetStore implements AssetStore {
   public boolean delete(DeletionSelector sel) throws AssetStoreException {
     File dir = getDeletionSelectorDir(sel);
     try {
+      releaseBlobs(sel, dir);
       FileUtils.deleteDirectory(dir);
       // also delete the media package directory if all versions have been deleted
       FileSupport.deleteHierarchyIfEmpty(file(path(getRootDirectory(), sel.getOrganizationId())), dir.getParentFile());
@@ -155,6 +244,24 @@ public abstract class AbstractFileSystemAssetStore implements AssetStore {
     }
   }
 
+  /** Release the blobs referenced by the version directories about to be deleted. */
+  private void releaseBlobs(DeletionSelector sel, File dir) throws IOException {
+    final BlobStore blobs = blobStore;
+    if (blobs == null || !dir.isDirectory()) {
+      return;
+    }
+    if (sel.getVersion().isSome()) {
+      blobs.release(dir);
+    } else {
+      final File[] versionDirs = dir.listFiles(File::isDirectory);
+      if (versionDirs != null) {
+        for (File versionDir : versionDirs) {
+          blobs.release(versionDir);
+        }
+      }
+    }
+  }
+
   /**
    * Returns the directory file from a deletion selector
    *
@@ -0,0 +1,369 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.assetmanager.storage.impl.fs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import org.opencastproject.assetmanager.api.storage.AssetStoreException;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.FileTransfer;
+
+import com.entwinemedia.fn.data.Opt;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Content addressed storage backing the files of an {@link AbstractFileSystemAssetStore}.
+ * <p>
+ * Each distinct content is stored exactly once as a blob keyed by its checksum. The files in the version tree of the
+ * asset store are hard links to these blobs (or copies, if the file system does not support links), so that they can
+ * still be accessed directly. References are counted explicitly, a blob is removed as soon as the last version
+ * referencing it gets deleted. The layout is
+ * <pre>
+ * &lt;root&gt;/.blobs/&lt;type&gt;/&lt;ab&gt;/&lt;cd&gt;/&lt;abcd...&gt;        the blob
+ * &lt;root&gt;/.blobs/&lt;type&gt;/&lt;ab&gt;/&lt;cd&gt;/&lt;abcd...&gt;.refs   its reference count
+ * &lt;root&gt;/&lt;org&gt;/&lt;mp&gt;/&lt;version&gt;/.blobs                   the blobs referenced by the version
+ * </pre>
+ */
+final class BlobStore {
+  /** Log facility */
+  private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+  /** Name of the blob directory within the root directory of the asset store */
+  private static final String BLOB_DIR = ".blobs";
+
+  /** Name of the index file within each version directory */
+  private static final String INDEX_FILE = ".blobs";
+
+  /** Name of the file marking a completed migration of the version tree */
+  private static final String MIGRATED_MARKER = ".migrated";
+
+  /** Suffix of the reference count files */
+  private static final String REFS_SUFFIX = ".refs";
+
+  /** Separator between file name and checksum in index files */
+  private static final String INDEX_SEPARATOR = "\t";
+
+  /** Number of lock stripes */
+  private static final int LOCK_STRIPES = 256;
+
+  /** The root directory of the asset store */
+  private final File root;
+
+  /** The blob directory */
+  private final File blobDir;
+
+  /** Locks for blobs, striped by checksum */
+  private final Object[] blobLocks = new Object[LOCK_STRIPES];
+
+  /** Locks for index files, striped by version directory */
+  private final Object[] indexLocks = new Object[LOCK_STRIPES];
+
+  BlobStore(File root) {
+    this.root = root;
+    this.blobDir = new File(root, BLOB_DIR);
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      blobLocks[i] = new Object();
+      indexLocks[i] = new Object();
+    }
+  }
+
+  /**
+   * Links <code>target</code> to the blob with the given checksum, if this blob exists.
+   *
+   * @return true, if the blob exists and has been linked
+   */
+  boolean link(Checksum checksum, File target) throws IOException {
+    final Opt<Checksum> replaced;
+    synchronized (blobLock(checksum)) {
+      final File blob = getBlob(checksum);
+      if (!blob.isFile()) {
+        return false;
+      }
+      replaced = reference(checksum, blob, target);
+    }
+    for (Checksum c : replaced) {
+      unreference(c);
+    }
+    return true;
+  }
+
+  /**
+   * Stores <code>origin</code> as the blob with the given checksum, unless it already exists, and links
+   * <code>target</code> to it. The checksum is trusted and not verified.
+   */
+  void add(Checksum checksum, File origin, File target) throws IOException {
+    final Opt<Checksum> replaced;
+    synchronized (blobLock(checksum)) {
+      final File blob = getBlob(checksum);
+      if (!blob.isFile()) {
+        final File tmp = new File(blob.getParentFile(), blob.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+          FileTransfer.transfer(origin, tmp, true);
+          Files.move(tmp.toPath(), blob.toPath(), ATOMIC_MOVE);
+        } finally {
+          Files.deleteIfExists(tmp.toPath());
+        }
+      }
+      replaced = reference(checksum, blob, target);
+    }
+    for (Checksum c : replaced) {
+      unreference(c);
+    }
+  }
+
+  /**
+   * Returns the checksum of the blob a file in the version tree is linked to.
+   *
+   * @return the checksum or none, if the file is not backed by a blob
+   */
+  Opt<Checksum> lookup(File file) throws IOException {
+    final File versionDir = file.getParentFile();
+    synchronized (indexLock(versionDir)) {
+      return Opt.nul(readIndex(versionDir).get(file.getName()));
+    }
+  }
+
+  /**
+   * Releases all blobs referenced by a version directory. Blobs that are no longer referenced afterwards are removed.
+   * The version directory itself is left untouched.
+   */
+  void release(File versionDir) throws IOException {
+    final Map<String, Checksum> index;
+    synchronized (indexLock(versionDir)) {
+      index = readIndex(versionDir);
+      Files.deleteIfExists(new File(versionDir, INDEX_FILE).toPath());
+    }
+    for (Checksum checksum : index.values()) {
+      unreference(checksum);
+    }
+  }
+
+  /** Returns whether the version tree has been migrated to content addressed storage. */
+  boolean isMigrated() {
+    return new File(blobDir, MIGRATED_MARKER).isFile();
+  }
+
+  /**
+   * Converts the existing version tree in place. The files of each version directory not yet backed by a blob are
+   * hashed and replaced by links to the blob with the same content, or become that blob if there is none yet. The
+   * migration can be interrupted and resumed at any time.
+   *
+   * @return the number of files migrated
+   */
+  long migrate() throws IOException {
+    long migrated = 0;
+    for (File versionDir : listVersionDirectories()) {
+      final File[] files = versionDir.listFiles(File::isFile);
+      if (files == null) {
+        continue;
+      }
+      final Map<String, Checksum> index;
+      synchronized (indexLock(versionDir)) {
+        index = readIndex(versionDir);
+      }
+      for (File file : files) {
+        // Skip the index as well as temporary files
+        if (file.getName().startsWith(".") || index.containsKey(file.getName())) {
+          continue;
+        }
+        final Checksum checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, file);
+        if (!link(checksum, file)) {
+          add(checksum, file, file);
+        }
+        migrated++;
+      }
+    }
+    Files.createDirectories(blobDir.toPath());
+    Files.write(new File(blobDir, MIGRATED_MARKER).toPath(), new byte[0]);
+    return migrated;
+  }
+
+  /** Returns the blob file for a checksum. */
+  File getBlob(Checksum checksum) {
+    final String value = StringUtils.lowerCase(checksum.getValue());
+    if (value.length() < 4 || !StringUtils.isAlphanumeric(value)) {
+      throw new AssetStoreException("Invalid checksum " + checksum);
+    }
+    return new File(new File(new File(new File(blobDir, checksum.getType().getName()), value.substring(0, 2)),
+            value.substring(2, 4)), value);
+  }
+
+  /** Returns the number of references to a blob. */
+  long getReferenceCount(Checksum checksum) throws IOException {
+    synchronized (blobLock(checksum)) {
+      return readReferenceCount(checksum);
+    }
+  }
+
+  /**
+   * Links <code>target</code> to <code>blob</code> and records the reference. Must be called holding the blob lock.
+   *
+   * @return the checksum of the blob previously referenced by <code>target</code>, which needs to be released after
+   *         the blob lock has been given up
+   */
+  private Opt<Checksum> reference(Checksum checksum, File blob, File target) throws IOException {
+    writeReferenceCount(checksum, readReferenceCount(checksum) + 1);
+    if (!target.equals(blob)) {
+      // Replace the target atomically, it may be an existing file that is being migrated
+      final File tmp = new File(target.getParentFile(), "." + UUID.randomUUID() + ".tmp");
+      try {
+        FileTransfer.transfer(blob, tmp, true);
+        Files.move(tmp.toPath(), target.toPath(), ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmp.toPath());
+      }
+    }
+    final Checksum replaced;
+    final File versionDir = target.getParentFile();
+    synchronized (indexLock(versionDir)) {
+      final Map<String, Checksum> index = readIndex(versionDir);
+      replaced = index.put(target.getName(), checksum);
+      writeIndex(versionDir, index);
+    }
+    return Opt.nul(replaced);
+  }
+
+  /** Decrements the reference count of a blob and removes it, once it drops to zero. */
+  private void unreference(Checksum checksum) throws IOException {
+    synchronized (blobLock(checksum)) {
+      final long count = readReferenceCount(checksum) - 1;
+      if (count > 0) {
+        writeReferenceCount(checksum, count);
+        return;
+      }
+      final File blob = getBlob(checksum);
+      logger.debug("Removing blob {} which is no longer referenced", blob);
+      Files.deleteIfExists(blob.toPath());
+      Files.deleteIfExists(refsFile(blob).toPath());
+    }
+  }
+
+  private long readReferenceCount(Checksum checksum) throws IOException {
+    final File refs = refsFile(getBlob(checksum));
+    if (!refs.isFile()) {
+      return 0;
+    }
+    return NumberUtils.toLong(StringUtils.trim(new String(Files.readAllBytes(refs.toPath()), UTF_8)), 0);
+  }
+
+  private void writeReferenceCount(Checksum checksum, long count) throws IOException {
+    writeAtomically(refsFile(getBlob(checksum)), Long.toString(count));
+  }
+
+  private Map<String, Checksum> readIndex(File versionDir) throws IOException {
+    final Map<String, Checksum> index = new LinkedHashMap<>();
+    final File file = new File(versionDir, INDEX_FILE);
+    if (!file.isFile()) {
+      return index;
+    }
+    for (String line : Files.readAllLines(file.toPath(), UTF_8)) {
+      final String[] entry = line.split(INDEX_SEPARATOR);
+      if (entry.length != 2) {
+        continue;
+      }
+      try {
+        index.put(entry[0], Checksum.fromString(entry[1]));
+      } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+        logger.warn("Ignoring invalid entry '{}' in {}", line, file);
+      }
+    }
+    return index;
+  }
+
+  private void writeIndex(File versionDir, Map<String, Checksum> index) throws IOException {
+    final StringBuilder content = new StringBuilder();
+    for (Map.Entry<String, Checksum> entry : index.entrySet()) {
+      content.append(entry.getKey()).append(INDEX_SEPARATOR).append(entry.getValue()).append('\n');
+    }
+    writeAtomically(new File(versionDir, INDEX_FILE), content.toString());
+  }
+
+  private static void writeAtomically(File file, String content) throws IOException {
+    Files.createDirectories(file.getParentFile().toPath());
+    final Path tmp = new File(file.getParentFile(), file.getName() + "." + UUID.randomUUID() + ".tmp").toPath();
+    try {
+      Files.write(tmp, content.getBytes(UTF_8));
+      try {
+        Files.move(tmp, file.toPath(), ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tmp, file.toPath(), REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /** Lists all version directories, i.e. <code>&lt;root&gt;/&lt;org&gt;/&lt;mp&gt;/&lt;version&gt;</code>. */
+  private List<File> listVersionDirectories() {
+    final List<File> result = new ArrayList<>();
+    for (File org : listDirectories(root)) {
+      if (BLOB_DIR.equals(org.getName())) {
+        continue;
+      }
+      for (File mp : listDirectories(org)) {
+        result.addAll(listDirectories(mp));
+      }
+    }
+    return result;
+  }
+
+  private static List<File> listDirectories(File dir) {
+    final File[] dirs = dir.listFiles(File::isDirectory);
+    final List<File> result = new ArrayList<>();
+    if (dirs != null) {
+      for (File d : dirs) {
+        result.add(d);
+      }
+    }
+    return result;
+  }
+
+  private static File refsFile(File blob) {
+    return new File(blob.getParentFile(), blob.getName() + REFS_SUFFIX);
+  }
+
+  private Object blobLock(Checksum checksum) {
+    return blobLocks[Math.floorMod(checksum.hashCode(), LOCK_STRIPES)];
+  }
+
+  private Object indexLock(File versionDir) {
+    return indexLocks[Math.floorMod(versionDir.getAbsolutePath().hashCode(), LOCK_STRIPES)];
+  }
+}
@@ -26,6 +26,7 @@ import org.opencastproject.assetmanager.api.storage.AssetStore;
 import org.opencastproject.util.PathSupport;
 import org.opencastproject.workspace.api.Workspace;
 
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
@@ -60,6 +61,9 @@ public class OsgiFileSystemAssetStore extends AbstractFileSystemAssetStore {
   /** Configuration key for the archive root directory. */
   public static final String CONFIG_STORE_ROOT_DIR = "org.opencastproject.episode.rootdir";
 
+  /** Configuration key for switching to content addressed storage. */
+  public static final String CONFIG_CONTENT_ADDRESSED = "org.opencastproject.episode.content.addressed";
+
   /** The root directory for storing files */
   private String rootDirectory;
 
@@ -104,5 +108,10 @@ public class OsgiFileSystemAssetStore extends AbstractFileSystemAssetStore {
     }
     mkDirs(file(rootDirectory));
     logger.info("Start asset manager files system store at " + rootDirectory);
+
+    if (BooleanUtils.toBoolean(cc.getBundleContext().getProperty(CONFIG_CONTENT_ADDRESSED))) {
+      logger.info("Using content addressed storage for asset manager file system store");
+      enableContentAddressedStorage(true);
+    }
   }
 }
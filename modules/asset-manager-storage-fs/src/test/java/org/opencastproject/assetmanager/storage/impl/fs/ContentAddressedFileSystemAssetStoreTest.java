@@ -0,0 +1,195 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.assetmanager.storage.impl.fs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.assetmanager.api.storage.DeletionSelector;
+import org.opencastproject.assetmanager.api.storage.Source;
+import org.opencastproject.assetmanager.api.storage.StoragePath;
+import org.opencastproject.assetmanager.impl.VersionImpl;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.IoSupport;
+import org.opencastproject.util.PathSupport;
+import org.opencastproject.workspace.api.Workspace;
+
+import com.entwinemedia.fn.data.Opt;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ContentAddressedFileSystemAssetStoreTest {
+  private static final String ORG_ID = "sampleOrgId";
+
+  private static final String MP_ID = "sampleMediaPackageId";
+
+  private static final String MP_ELEM_ID = "sampleMediaPackageElementId";
+
+  private static final String FILE_NAME = "dublincore.xml";
+
+  private static final VersionImpl VERSION_1 = new VersionImpl(1);
+
+  private static final VersionImpl VERSION_2 = new VersionImpl(2);
+
+  private final AtomicInteger workspaceDownloads = new AtomicInteger();
+
+  private File asset;
+
+  private File tmpRoot;
+
+  private Checksum checksum;
+
+  private URI uri;
+
+  private AbstractFileSystemAssetStore repo;
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Before
+  public void setUp() throws Exception {
+    asset = IoSupport.classPathResourceAsFile("/" + FILE_NAME).get();
+    checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, asset);
+    uri = getClass().getClassLoader().getResource(FILE_NAME).toURI();
+    final Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.get(EasyMock.anyObject(), EasyMock.anyBoolean())).andAnswer(() -> {
+      workspaceDownloads.incrementAndGet();
+      File tmp = tmpFolder.newFile();
+      FileUtils.copyFile(asset, tmp);
+      return tmp;
+    }).anyTimes();
+    EasyMock.replay(workspace);
+
+    tmpRoot = tmpFolder.newFolder();
+
+    repo = new AbstractFileSystemAssetStore() {
+      @Override protected Workspace getWorkspace() {
+        return workspace;
+      }
+
+      @Override protected String getRootDirectory() {
+        return tmpRoot.getAbsolutePath();
+      }
+    };
+  }
+
+  private BlobStore blobs() {
+    return new BlobStore(tmpRoot);
+  }
+
+  private File versionFile(VersionImpl version) {
+    return new File(PathSupport.concat(new String[] {
+        tmpRoot.toString(), ORG_ID, MP_ID, version.toString(), MP_ELEM_ID + ".xml" }));
+  }
+
+  private Source source() {
+    return Source.mk(uri, Opt.none(), Opt.none(), Opt.some(checksum));
+  }
+
+  private void assertContent(StoragePath path) throws Exception {
+    try (InputStream in = repo.get(path).get()) {
+      assertArrayEquals(FileUtils.readFileToByteArray(asset), IOUtils.toByteArray(in));
+    }
+  }
+
+  @Test
+  public void testPutDeduplicates() throws Exception {
+    repo.enableContentAddressedStorage(false);
+    assertTrue(repo.isContentAddressed());
+    StoragePath path1 = new StoragePath(ORG_ID, MP_ID, VERSION_1, MP_ELEM_ID);
+    StoragePath path2 = new StoragePath(ORG_ID, MP_ID, VERSION_2, MP_ELEM_ID);
+    repo.put(path1, source());
+    repo.put(path2, source());
+
+    assertEquals(1, workspaceDownloads.get());
+    assertTrue(blobs().getBlob(checksum).isFile());
+    assertEquals(2, blobs().getReferenceCount(checksum));
+    assertContent(path1);
+    assertContent(path2);
+  }
+
+  @Test
+  public void testPutSamePathTwice() throws Exception {
+    repo.enableContentAddressedStorage(false);
+    StoragePath path = new StoragePath(ORG_ID, MP_ID, VERSION_1, MP_ELEM_ID);
+    repo.put(path, source());
+    repo.put(path, source());
+    assertEquals(1, blobs().getReferenceCount(checksum));
+  }
+
+  @Test
+  public void testCopy() throws Exception {
+    repo.enableContentAddressedStorage(false);
+    StoragePath from = new StoragePath(ORG_ID, MP_ID, VERSION_1, MP_ELEM_ID);
+    StoragePath to = new StoragePath(ORG_ID, MP_ID, VERSION_2, MP_ELEM_ID);
+    repo.put(from, source());
+    assertTrue(repo.copy(from, to));
+    assertEquals(2, blobs().getReferenceCount(checksum));
+    assertContent(to);
+  }
+
+  @Test
+  public void testDeleteRemovesUnreferencedBlobs() throws Exception {
+    repo.enableContentAddressedStorage(false);
+    repo.put(new StoragePath(ORG_ID, MP_ID, VERSION_1, MP_ELEM_ID), source());
+    repo.put(new StoragePath(ORG_ID, MP_ID, VERSION_2, MP_ELEM_ID), source());
+    File blob = blobs().getBlob(checksum);
+
+    assertTrue(repo.delete(DeletionSelector.delete(ORG_ID, MP_ID, VERSION_1)));
+    assertTrue(blob.isFile());
+    assertEquals(1, blobs().getReferenceCount(checksum));
+    assertContent(new StoragePath(ORG_ID, MP_ID, VERSION_2, MP_ELEM_ID));
+
+    assertTrue(repo.delete(DeletionSelector.deleteAll(ORG_ID, MP_ID)));
+    assertFalse(blob.exists());
+    assertEquals(0, blobs().getReferenceCount(checksum));
+  }
+
+  @Test
+  public void testMigrate() throws Exception {
+    FileUtils.copyFile(asset, versionFile(VERSION_1));
+    FileUtils.copyFile(asset, versionFile(VERSION_2));
+    repo.enableContentAddressedStorage(false);
+    assertEquals(2, repo.migrateToContentAddressedStorage());
+
+    assertTrue(blobs().isMigrated());
+    assertTrue(blobs().getBlob(checksum).isFile());
+    assertEquals(2, blobs().getReferenceCount(checksum));
+    assertContent(new StoragePath(ORG_ID, MP_ID, VERSION_1, MP_ELEM_ID));
+    assertContent(new StoragePath(ORG_ID, MP_ID, VERSION_2, MP_ELEM_ID));
+    assertEquals(0, repo.migrateToContentAddressedStorage());
+  }
+}
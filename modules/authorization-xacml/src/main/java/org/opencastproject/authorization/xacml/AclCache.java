@@ -0,0 +1,176 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.authorization.xacml;
+
+import org.opencastproject.security.api.AccessControlList;
+import org.opencastproject.util.Checksum;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of access control lists parsed from XACML attachments, keyed by attachment URI and checksum.
+ * <p>
+ * The file behind a URI may be replaced on another node, so attachments without checksum are never cached. Entries
+ * expire after a while nevertheless. Changes made on this node should be announced via {@link #invalidate(URI)}.
+ * <p>
+ * Cached lists are never handed out directly as {@link AccessControlList} is mutable.
+ */
+public class AclCache implements AclCacheMXBean {
+
+  /** The cached access control lists */
+  private final Cache<CacheKey, AccessControlList> cache;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxSize
+   *          the maximum number of cached access control lists
+   * @param expiration
+   *          the time in seconds after which cached access control lists are loaded again
+   */
+  public AclCache(long maxSize, long expiration) {
+    cache = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expiration, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Returns the access control list stored at the given URI, loading it if it is not cached yet. Empty results and
+   * access control lists of attachments without checksum are not cached.
+   *
+   * @param uri
+   *          the URI of the XACML attachment
+   * @param checksum
+   *          the checksum of the XACML attachment or <code>null</code> if unknown
+   * @param loader
+   *          loads the access control list from the given URI
+   * @return a copy of the access control list
+   */
+  public Optional<AccessControlList> get(URI uri, Checksum checksum,
+          Function<URI, Optional<AccessControlList>> loader) {
+    if (checksum == null) {
+      return loader.apply(uri);
+    }
+    try {
+      final AccessControlList acl = cache.get(new CacheKey(uri, checksum),
+              () -> loader.apply(uri).orElseThrow(AclNotFoundException::new));
+      return Optional.of(new AccessControlList(acl.getEntries()));
+    } catch (ExecutionException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Removes all access control lists loaded from the given URI.
+   *
+   * @param uri
+   *          the URI of the XACML attachment
+   */
+  public void invalidate(URI uri) {
+    cache.asMap().keySet().removeIf(key -> key.uri.equals(uri));
+  }
+
+  /** Removes all access control lists from the cache. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * @see org.opencastproject.authorization.xacml.AclCacheMXBean#getHitCount()
+   */
+  @Override
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  /**
+   * @see org.opencastproject.authorization.xacml.AclCacheMXBean#getMissCount()
+   */
+  @Override
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /**
+   * @see org.opencastproject.authorization.xacml.AclCacheMXBean#getHitRate()
+   */
+  @Override
+  public double getHitRate() {
+    return cache.stats().hitRate();
+  }
+
+  /**
+   * @see org.opencastproject.authorization.xacml.AclCacheMXBean#getSize()
+   */
+  @Override
+  public long getSize() {
+    return cache.size();
+  }
+
+  /** Signals that there is no access control list to cache. */
+  private static final class AclNotFoundException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private AclNotFoundException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /** Identifies an XACML attachment by URI and checksum. */
+  private static final class CacheKey {
+    private final URI uri;
+    private final Checksum checksum;
+
+    private CacheKey(URI uri, Checksum checksum) {
+      this.uri = uri;
+      this.checksum = checksum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) o;
+      return uri.equals(other.uri) && Objects.equals(checksum, other.checksum);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(uri, checksum);
+    }
+  }
+
+}
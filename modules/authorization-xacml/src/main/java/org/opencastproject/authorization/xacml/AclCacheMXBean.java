@@ -0,0 +1,57 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.authorization.xacml;
+
+/**
+ * JMX Bean interface exposing statistics of the cache of parsed XACML access control lists
+ */
+public interface AclCacheMXBean {
+
+  /**
+   * Gets the number of access control lists served from the cache
+   *
+   * @return the number of cache hits
+   */
+  long getHitCount();
+
+  /**
+   * Gets the number of access control lists which had to be loaded from the workspace
+   *
+   * @return the number of cache misses
+   */
+  long getMissCount();
+
+  /**
+   * Gets the ratio of requests served from the cache
+   *
+   * @return the hit rate between 0 and 1
+   */
+  double getHitRate();
+
+  /**
+   * Gets the number of access control lists currently cached
+   *
+   * @return the number of cache entries
+   */
+  long getSize();
+
+}
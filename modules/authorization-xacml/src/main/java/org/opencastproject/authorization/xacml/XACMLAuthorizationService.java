@@ -38,16 +38,21 @@ import org.opencastproject.security.api.AuthorizationService;
 import org.opencastproject.security.api.Role;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.User;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.MimeTypes;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.data.Tuple;
+import org.opencastproject.util.jmx.JmxUtil;
 import org.opencastproject.workspace.api.Workspace;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
@@ -61,6 +66,7 @@ import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.Optional;
 
+import javax.management.ObjectInstance;
 import javax.xml.bind.JAXBException;
 
 /**
@@ -94,6 +100,21 @@ public class XACMLAuthorizationService implements AuthorizationService {
   /** Definition of how merging of series and episode ACLs work */
   private static MergeMode mergeMode = MergeMode.OVERRIDE;
 
+  private static final String CONFIG_CACHE_SIZE = "acl.cache.size";
+  private static final long DEFAULT_CACHE_SIZE = 1000;
+
+  private static final String CONFIG_CACHE_EXPIRATION = "acl.cache.expiration";
+  private static final long DEFAULT_CACHE_EXPIRATION = 60;
+
+  /** The JMX type of the ACL cache statistics */
+  private static final String JMX_ACL_CACHE_TYPE = "XACMLAclCache";
+
+  /** The cache of parsed ACLs or <code>null</code> if caching is disabled */
+  private AclCache aclCache = new AclCache(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_EXPIRATION);
+
+  /** The registered ACL cache statistics */
+  private ObjectInstance aclCacheMXBean;
+
   enum MergeMode {
     OVERRIDE, ROLES, ACTIONS
   }
@@ -106,6 +127,7 @@ public class XACMLAuthorizationService implements AuthorizationService {
     if (properties == null) {
       mergeMode = MergeMode.OVERRIDE;
       logger.debug("Merge mode set to {}", mergeMode);
+      configureAclCache(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_EXPIRATION);
       return;
     }
     final String mode = StringUtils.defaultIfBlank((String) properties.get(CONFIG_MERGE_MODE),
@@ -117,6 +139,43 @@ public class XACMLAuthorizationService implements AuthorizationService {
       mergeMode = MergeMode.OVERRIDE;
     }
     logger.debug("Merge mode set to {}", mergeMode);
+
+    final long cacheSize = NumberUtils.toLong((String) properties.get(CONFIG_CACHE_SIZE), DEFAULT_CACHE_SIZE);
+    final long cacheExpiration = NumberUtils.toLong((String) properties.get(CONFIG_CACHE_EXPIRATION),
+        DEFAULT_CACHE_EXPIRATION);
+    configureAclCache(cacheSize, cacheExpiration);
+  }
+
+  @Deactivate
+  public void deactivate() {
+    unregisterAclCacheMXBean();
+  }
+
+  private void unregisterAclCacheMXBean() {
+    if (aclCacheMXBean != null) {
+      JmxUtil.unregisterMXBean(aclCacheMXBean);
+      aclCacheMXBean = null;
+    }
+  }
+
+  /**
+   * Replaces the ACL cache and its JMX statistics.
+   *
+   * @param size
+   *          the maximum number of cached ACLs, caching is disabled if this is not positive
+   * @param expiration
+   *          the time in seconds after which cached ACLs are loaded again
+   */
+  private void configureAclCache(long size, long expiration) {
+    unregisterAclCacheMXBean();
+    if (size <= 0 || expiration <= 0) {
+      logger.info("ACL cache disabled");
+      aclCache = null;
+      return;
+    }
+    aclCache = new AclCache(size, expiration);
+    aclCacheMXBean = JmxUtil.registerMXBean(aclCache, JMX_ACL_CACHE_TYPE);
+    logger.debug("ACL cache set to {} entries expiring after {} seconds", size, expiration);
   }
 
   @Reference(cardinality = ReferenceCardinality.OPTIONAL)
@@ -182,7 +241,8 @@ public class XACMLAuthorizationService implements AuthorizationService {
       } catch (URISyntaxException e) {
         logger.warn("URI {} syntax error, skip decoding", uri);
       }
-      acl = loadAcl(uri);
+      final AclCache cache = aclCache;
+      acl = cache != null ? cache.get(uri, xacml.getChecksum(), this::loadAcl) : loadAcl(uri);
     }
     return acl;
   }
@@ -207,11 +267,14 @@ public class XACMLAuthorizationService implements AuthorizationService {
     // add attachment
     final String elementId = toElementId(scope);
     URI uri;
+    Checksum checksum;
     try (InputStream in = IOUtils.toInputStream(xacmlContent, "UTF-8")) {
       uri = workspace.put(mp.getIdentifier().toString(), elementId, XACML_FILENAME, in);
+      checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, IOUtils.toInputStream(xacmlContent, "UTF-8"));
     } catch (IOException e) {
       throw new MediaPackageException("Error storing xacml for media package " + mp.getIdentifier());
     }
+    invalidateCachedAcl(uri);
 
     if (attachment == null) {
       attachment = (Attachment) MediaPackageElementBuilderFactory.newInstance().newElementBuilder()
@@ -220,8 +283,8 @@ public class XACMLAuthorizationService implements AuthorizationService {
     attachment.setURI(uri);
     attachment.setIdentifier(elementId);
     attachment.setMimeType(MimeTypes.XML);
-    // setting the URI to a new source so the checksum will most like be invalid
-    attachment.setChecksum(null);
+    // The file behind the URI has been replaced, other nodes tell the new ACL apart from cached ones by its checksum
+    attachment.setChecksum(checksum);
     mp.add(attachment);
 
     logger.debug("Saved XACML as {}", uri);
@@ -274,11 +337,28 @@ public class XACMLAuthorizationService implements AuthorizationService {
       } catch (Exception e) {
         logger.warn("Unable to delete XACML file:", e);
       }
+      invalidateCachedAcl(a.getURI());
       mp.remove(a);
     }
     return Tuple.tuple(mp, attachment);
   }
 
+  /** Remove the ACL stored at the given URI from the cache. */
+  private void invalidateCachedAcl(URI uri) {
+    final AclCache cache = aclCache;
+    if (cache == null) {
+      return;
+    }
+    cache.invalidate(uri);
+    if (serializer != null) {
+      try {
+        cache.invalidate(serializer.decodeURI(uri));
+      } catch (URISyntaxException e) {
+        logger.debug("URI {} syntax error, skip decoding", uri);
+      }
+    }
+  }
+
   /** Load an ACL from the given URI. */
   private Optional<AccessControlList> loadAcl(final URI uri) {
     logger.debug("Load Acl from {}", uri);
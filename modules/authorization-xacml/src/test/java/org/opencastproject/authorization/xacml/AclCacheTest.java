@@ -0,0 +1,116 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.authorization.xacml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.security.api.AccessControlEntry;
+import org.opencastproject.security.api.AccessControlList;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tests the cache of parsed access control lists
+ */
+public class AclCacheTest {
+
+  private static final URI XACML_URI = URI.create("http://localhost/files/mediapackage/mp/security/xacml.xml");
+  private static final Checksum CHECKSUM = Checksum.create(ChecksumType.DEFAULT_TYPE, "1234");
+
+  private AclCache cache;
+  private AtomicInteger loads;
+  private Function<URI, Optional<AccessControlList>> loader;
+
+  @Before
+  public void setUp() {
+    cache = new AclCache(10, 60);
+    loads = new AtomicInteger();
+    loader = uri -> {
+      loads.incrementAndGet();
+      return Optional.of(new AccessControlList(new AccessControlEntry("ROLE_USER", "read", true)));
+    };
+  }
+
+  @Test
+  public void testCachedAcl() {
+    assertTrue(cache.get(XACML_URI, CHECKSUM, loader).isPresent());
+    AccessControlList acl = cache.get(XACML_URI, CHECKSUM, loader).get();
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getSize());
+
+    // Modifying a returned list must not affect the cache
+    acl.getEntries().add(new AccessControlEntry("ROLE_USER", "write", true));
+    assertEquals(1, cache.get(XACML_URI, CHECKSUM, loader).get().getEntries().size());
+  }
+
+  @Test
+  public void testAclWithoutChecksumIsNotCached() {
+    assertTrue(cache.get(XACML_URI, null, loader).isPresent());
+    assertTrue(cache.get(XACML_URI, null, loader).isPresent());
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void testChecksumIsPartOfKey() {
+    Checksum checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, "5678");
+    cache.get(XACML_URI, CHECKSUM, loader);
+    cache.get(XACML_URI, checksum, loader);
+    cache.get(XACML_URI, checksum, loader);
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.get(XACML_URI, CHECKSUM, loader);
+    cache.get(XACML_URI, Checksum.create(ChecksumType.DEFAULT_TYPE, "5678"), loader);
+    cache.invalidate(XACML_URI);
+    assertEquals(0, cache.getSize());
+    cache.get(XACML_URI, CHECKSUM, loader);
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testMissingAclIsNotCached() {
+    Function<URI, Optional<AccessControlList>> emptyLoader = uri -> {
+      loads.incrementAndGet();
+      return Optional.empty();
+    };
+    assertFalse(cache.get(XACML_URI, CHECKSUM, emptyLoader).isPresent());
+    assertFalse(cache.get(XACML_URI, CHECKSUM, emptyLoader).isPresent());
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.getSize());
+  }
+
+}
@@ -158,8 +158,8 @@ public class XACMLSecurityTest {
 
     AccessControlList aclEpisode = new AccessControlList();
 
-    // Add the security policy to the mediapackage
-    authzService.setAcl(mediapackage, AclScope.Series, aclSeries1);
+    // Add the security policy to the mediapackage, the checksum identifies the new policy on other nodes
+    Assert.assertNotNull(authzService.setAcl(mediapackage, AclScope.Series, aclSeries1).getB().getChecksum());
 
     // Ensure that the permissions specified are respected by the security service
     currentRoles.clear();
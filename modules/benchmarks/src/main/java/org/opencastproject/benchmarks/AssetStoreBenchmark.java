@@ -0,0 +1,186 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.assetmanager.api.storage.Source;
+import org.opencastproject.assetmanager.api.storage.StoragePath;
+import org.opencastproject.assetmanager.impl.VersionImpl;
+import org.opencastproject.assetmanager.storage.impl.fs.AbstractFileSystemAssetStore;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.workspace.api.Workspace;
+
+import com.entwinemedia.fn.data.Opt;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Taking a snapshot of a media package in the file system asset store, where only one of its elements has changed
+ * since the previous version. This compares the versioned layout, in which the asset manager copies unchanged files
+ * from the previous version, with the content addressed layout, in which all files are put along with their checksum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetStoreBenchmark {
+
+  private static final String ORGANIZATION = "mh_default_org";
+
+  private static final String MEDIA_PACKAGE = "benchmark";
+
+  /** The size of the elements in bytes */
+  private static final int ELEMENT_SIZE = 64 * 1024;
+
+  /** The number of elements in the media package */
+  @Param({ "10", "100", "1000" })
+  private int elements;
+
+  /** Whether the store uses the content addressed layout */
+  @Param({ "false", "true" })
+  private boolean contentAddressed;
+
+  private File sourceDirectory;
+
+  private File rootDirectory;
+
+  private Source[] sources;
+
+  private Store store;
+
+  private long version;
+
+  @Setup(Level.Trial)
+  public void createSources() throws IOException {
+    sourceDirectory = Files.createTempDirectory("asset-store-sources").toFile();
+    sources = new Source[elements];
+    final Random random = new Random(elements);
+    final byte[] content = new byte[ELEMENT_SIZE];
+    for (int i = 0; i < elements; i++) {
+      random.nextBytes(content);
+      final File file = new File(sourceDirectory, "element-" + i + ".bin");
+      FileUtils.writeByteArrayToFile(file, content);
+      sources[i] = Source.mk(file.toURI(), Opt.some((long) ELEMENT_SIZE), Opt.none(),
+              Opt.some(Checksum.create(ChecksumType.DEFAULT_TYPE, file)));
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void createStore() throws IOException {
+    rootDirectory = Files.createTempDirectory("asset-store").toFile();
+    store = new Store(rootDirectory, contentAddressed);
+    // The initial version every subsequent snapshot is based on
+    version = 0;
+    for (int i = 0; i < elements; i++) {
+      store.put(path(version, i), sources[i]);
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteStore() {
+    FileUtils.deleteQuietly(rootDirectory);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteSources() {
+    FileUtils.deleteQuietly(sourceDirectory);
+  }
+
+  @Benchmark
+  public long snapshot() {
+    final long previous = version++;
+    // The first element is the one that has changed, e.g. an updated metadata catalog
+    store.put(path(version, 0), sources[0]);
+    for (int i = 1; i < elements; i++) {
+      if (contentAddressed) {
+        store.put(path(version, i), sources[i]);
+      } else {
+        store.copy(path(previous, i), path(version, i));
+      }
+    }
+    return version;
+  }
+
+  private static StoragePath path(long version, int element) {
+    return new StoragePath(ORGANIZATION, MEDIA_PACKAGE, VersionImpl.mk(version), "element-" + element);
+  }
+
+  /** A file system asset store fetching its sources from the local file system */
+  private static final class Store extends AbstractFileSystemAssetStore {
+
+    private final String rootDirectory;
+
+    private final Workspace workspace;
+
+    Store(File rootDirectory, boolean contentAddressed) {
+      this.rootDirectory = rootDirectory.getAbsolutePath();
+      final File downloads = new File(rootDirectory, "downloads");
+      // Like the actual workspace, hand out a unique copy of the requested file
+      this.workspace = (Workspace) Proxy.newProxyInstance(Workspace.class.getClassLoader(),
+              new Class<?>[] { Workspace.class }, (proxy, method, args) -> {
+                if (!"get".equals(method.getName()) || args.length != 2)
+                  throw new UnsupportedOperationException(method.getName());
+                final File source = new File((URI) args[0]);
+                final File copy = new File(downloads, System.nanoTime() + "-" + source.getName());
+                FileUtils.copyFile(source, copy);
+                return copy;
+              });
+      if (contentAddressed)
+        enableContentAddressedStorage(false);
+    }
+
+    @Override
+    protected Workspace getWorkspace() {
+      return workspace;
+    }
+
+    @Override
+    protected String getRootDirectory() {
+      return rootDirectory;
+    }
+
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the results of a benchmark run with a recorded baseline. Both files have to be written by JMH using
+ * <code>-rf json</code>. The comparison exits with a non-zero status if any benchmark got slower than the baseline by
+ * more than the given tolerance.
+ * <p>
+ * Usage: <code>BaselineComparison &lt;baseline.json&gt; &lt;results.json&gt; [tolerance in percent, default 10]</code>
+ */
+public final class BaselineComparison {
+
+  private static final double DEFAULT_TOLERANCE = 10.0;
+
+  private BaselineComparison() {
+  }
+
+  public static void main(String[] args) throws IOException, ParseException {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println("Usage: BaselineComparison <baseline.json> <results.json> [tolerance in percent]");
+      System.exit(2);
+    }
+    final Map<String, Score> baseline = read(args[0]);
+    final Map<String, Score> results = read(args[1]);
+    final double tolerance = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+
+    int regressions = 0;
+    for (Map.Entry<String, Score> result : results.entrySet()) {
+      final Score before = baseline.get(result.getKey());
+      if (before == null) {
+        System.out.printf("%-80s %12s %12.3f %s%n", result.getKey(), "new", result.getValue().value,
+                result.getValue().unit);
+        continue;
+      }
+      final Score after = result.getValue();
+      // Positive values are always regressions, independent of whether higher or lower scores are better
+      final double change = (after.value - before.value) / before.value * 100 * (after.higherIsBetter ? -1 : 1);
+      final boolean regression = change > tolerance;
+      if (regression)
+        regressions++;
+      System.out.printf("%-80s %12.3f %12.3f %s %+7.1f%%%s%n", result.getKey(), before.value, after.value, after.unit,
+              change, regression ? "  REGRESSION" : "");
+    }
+    for (String missing : baseline.keySet()) {
+      if (!results.containsKey(missing))
+        System.out.printf("%-80s %12s%n", missing, "missing");
+    }
+
+    if (regressions > 0) {
+      System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, tolerance);
+      System.exit(1);
+    }
+  }
+
+  /** Reads the primary scores of a JMH result file, keyed by benchmark name and parameters */
+  private static Map<String, Score> read(String file) throws IOException, ParseException {
+    final JSONArray runs;
+    try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+      runs = (JSONArray) new JSONParser().parse(reader);
+    }
+    final Map<String, Score> scores = new LinkedHashMap<>();
+    for (Object o : runs) {
+      final JSONObject run = (JSONObject) o;
+      final StringBuilder key = new StringBuilder((String) run.get("benchmark"));
+      final JSONObject params = (JSONObject) run.get("params");
+      if (params != null) {
+        // Sort the parameters for a stable key
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> sorted = new TreeMap<>(params);
+        key.append(sorted);
+      }
+      final JSONObject metric = (JSONObject) run.get("primaryMetric");
+      scores.put(key.toString(), new Score(((Number) metric.get("score")).doubleValue(),
+              (String) metric.get("scoreUnit"), "thrpt".equals(run.get("mode"))));
+    }
+    return scores;
+  }
+
+  private static final class Score {
+    private final double value;
+    private final String unit;
+    private final boolean higherIsBetter;
+
+    Score(double value, String unit, boolean higherIsBetter) {
+      this.value = value;
+      this.unit = unit;
+      this.higherIsBetter = higherIsBetter;
+    }
+  }
+
+}
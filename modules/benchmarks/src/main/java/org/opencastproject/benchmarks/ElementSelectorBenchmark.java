@@ -0,0 +1,148 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.Attachment;
+import org.opencastproject.mediapackage.Catalog;
+import org.opencastproject.mediapackage.CatalogImpl;
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.MediaPackageElementFlavor;
+import org.opencastproject.mediapackage.Track;
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.selector.SimpleElementSelector;
+import org.opencastproject.mediapackage.selector.TrackSelector;
+import org.opencastproject.mediapackage.track.TrackImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flavor matching and element selection, as done by almost every workflow operation handler, on media packages of
+ * growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElementSelectorBenchmark {
+
+  private static final String[] TYPES = { "presenter", "presentation", "dublincore", "security", "captions" };
+
+  private static final String[] SUBTYPES = { "source", "work", "delivery", "episode", "preview" };
+
+  /** The number of elements in the media package */
+  @Param({ "10", "100", "1000" })
+  private int elements;
+
+  private MediaPackage mediaPackage;
+
+  private SimpleElementSelector elementSelector;
+
+  private TrackSelector trackSelector;
+
+  private MediaPackageElementFlavor wildcard;
+
+  @Setup
+  public void setUp() throws Exception {
+    mediaPackage = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew();
+    for (int i = 0; i < elements; i++) {
+      final URI uri = new URI("http://localhost/files/" + i);
+      final MediaPackageElement element;
+      switch (i % 3) {
+        case 0:
+          final Track track = TrackImpl.fromURI(uri);
+          mediaPackage.add(track);
+          element = track;
+          break;
+        case 1:
+          final Catalog catalog = CatalogImpl.fromURI(uri);
+          mediaPackage.add(catalog);
+          element = catalog;
+          break;
+        default:
+          final Attachment attachment = AttachmentImpl.fromURI(uri);
+          mediaPackage.add(attachment);
+          element = attachment;
+      }
+      element.setIdentifier("element-" + i);
+      element.setFlavor(new MediaPackageElementFlavor(TYPES[i % TYPES.length], SUBTYPES[(i / 5) % SUBTYPES.length]));
+      element.addTag(i % 2 == 0 ? "engage-download" : "archive");
+      if (i % 7 == 0)
+        element.addTag("internal");
+    }
+
+    elementSelector = new SimpleElementSelector();
+    elementSelector.addFlavor("*/delivery");
+    elementSelector.addFlavor("dublincore/episode");
+    elementSelector.addTag("engage-download");
+    elementSelector.addTag("-internal");
+
+    trackSelector = new TrackSelector();
+    trackSelector.addFlavor("presenter/*");
+    trackSelector.addFlavor("presentation/work");
+
+    wildcard = MediaPackageElementFlavor.parseFlavor("*/source");
+  }
+
+  @Benchmark
+  public Collection<MediaPackageElement> selectElements() {
+    return elementSelector.select(mediaPackage, true);
+  }
+
+  @Benchmark
+  public Collection<Track> selectTracks() {
+    return trackSelector.select(mediaPackage, false);
+  }
+
+  @Benchmark
+  public int matchFlavors() {
+    int matches = 0;
+    for (MediaPackageElement element : mediaPackage.getElements()) {
+      if (wildcard.matches(element.getFlavor()))
+        matches++;
+    }
+    return matches;
+  }
+
+  @Benchmark
+  public MediaPackageElementFlavor parseFlavor() {
+    return MediaPackageElementFlavor.parseFlavor("presenter/delivery");
+  }
+
+}
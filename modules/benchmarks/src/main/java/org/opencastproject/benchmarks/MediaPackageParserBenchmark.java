@@ -0,0 +1,124 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageBuilder;
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.MediaPackageImpl;
+import org.opencastproject.mediapackage.MediaPackageParser;
+import org.opencastproject.util.XmlSafeParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Parsing and serialization of media packages of growing size, comparing reading a manifest from a stream with reading
+ * it from an already parsed DOM, and the streaming serializer with the JAXB marshaller it replaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MediaPackageParserBenchmark {
+
+  /** The number of elements in the media package */
+  @Param({ "10", "100", "1000" })
+  private int elements;
+
+  private String xml;
+
+  private byte[] bytes;
+
+  private MediaPackage mediaPackage;
+
+  private MediaPackageBuilder builder;
+
+  private JAXBContext context;
+
+  @Setup
+  public void setUp() throws Exception {
+    mediaPackage = Resources.mediaPackage(elements);
+    xml = MediaPackageParser.getAsXml(mediaPackage);
+    bytes = xml.getBytes(StandardCharsets.UTF_8);
+    builder = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder();
+    context = JAXBContext.newInstance("org.opencastproject.mediapackage", MediaPackageImpl.class.getClassLoader());
+  }
+
+  @Benchmark
+  public MediaPackage parseXml() throws MediaPackageException {
+    return MediaPackageParser.getFromXml(xml);
+  }
+
+  @Benchmark
+  public MediaPackage loadFromStream() throws MediaPackageException {
+    return builder.loadFromXml(new ByteArrayInputStream(bytes));
+  }
+
+  @Benchmark
+  public MediaPackage loadFromNode() throws MediaPackageException, IOException, SAXException {
+    return builder.loadFromXml(XmlSafeParser.parse(new ByteArrayInputStream(bytes)));
+  }
+
+  @Benchmark
+  public String serializeXml() {
+    return MediaPackageParser.getAsXml(mediaPackage);
+  }
+
+  @Benchmark
+  public String serializeXmlWithJaxb() throws JAXBException {
+    Marshaller marshaller = context.createMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+    StringWriter writer = new StringWriter();
+    marshaller.marshal(mediaPackage, writer);
+    return writer.toString();
+  }
+
+  @Benchmark
+  public String serializeJson() {
+    return MediaPackageParser.getAsJSON(mediaPackage);
+  }
+
+}
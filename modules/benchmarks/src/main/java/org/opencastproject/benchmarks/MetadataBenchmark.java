@@ -0,0 +1,98 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.authorization.xacml.XACMLParsingException;
+import org.opencastproject.authorization.xacml.XACMLUtils;
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageParser;
+import org.opencastproject.metadata.dublincore.DublinCoreCatalog;
+import org.opencastproject.metadata.dublincore.DublinCoreXmlFormat;
+import org.opencastproject.security.api.AccessControlList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+/** Reading and writing the metadata catalogs attached to every event: Dublin Core and XACML. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataBenchmark {
+
+  private String dublinCoreXml;
+
+  private DublinCoreCatalog dublinCore;
+
+  private byte[] xacml;
+
+  private AccessControlList acl;
+
+  private MediaPackage mediaPackage;
+
+  @Setup
+  public void setUp() throws Exception {
+    dublinCoreXml = Resources.read("dublincore.xml");
+    dublinCore = DublinCoreXmlFormat.read(dublinCoreXml);
+    xacml = Resources.read("xacml.xml").getBytes(StandardCharsets.UTF_8);
+    acl = XACMLUtils.parseXacml(new ByteArrayInputStream(xacml));
+    mediaPackage = MediaPackageParser.getFromXml(Resources.read("manifest.xml"));
+  }
+
+  @Benchmark
+  public DublinCoreCatalog readDublinCore() throws Exception {
+    return DublinCoreXmlFormat.read(dublinCoreXml);
+  }
+
+  @Benchmark
+  public Document writeDublinCore() throws Exception {
+    return DublinCoreXmlFormat.writeDocument(dublinCore);
+  }
+
+  @Benchmark
+  public AccessControlList parseXacml() throws XACMLParsingException {
+    return XACMLUtils.parseXacml(new ByteArrayInputStream(xacml));
+  }
+
+  @Benchmark
+  public String writeXacml() throws JAXBException {
+    return XACMLUtils.getXacml(mediaPackage, acl);
+  }
+
+}
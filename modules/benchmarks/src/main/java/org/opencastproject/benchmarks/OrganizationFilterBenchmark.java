@@ -0,0 +1,180 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.kernel.security.OrganizationDirectoryServiceImpl;
+import org.opencastproject.kernel.security.OrganizationFilter;
+import org.opencastproject.kernel.security.persistence.OrganizationDatabase;
+import org.opencastproject.security.api.JaxbOrganization;
+import org.opencastproject.security.api.Organization;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.util.NotFoundException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Overhead of the organization filter, which every HTTP request passes to resolve the organization by the server the
+ * request is addressed to. Each organization is mapped to a server of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrganizationFilterBenchmark {
+
+  /** Number of organizations. With a single organization, the filter does not need to look at the server. */
+  @Param({ "1", "10", "100" })
+  private int organizations;
+
+  private final FilterChain chain = (request, response) -> { };
+
+  private OrganizationFilter filter;
+
+  private HttpServletRequest request;
+
+  private HttpServletResponse response;
+
+  @Setup
+  public void setUp() {
+    final List<Organization> orgs = new ArrayList<>(organizations);
+    for (int i = 0; i < organizations; i++) {
+      orgs.add(new JaxbOrganization("org" + i, "Organization " + i, Collections.singletonMap(host(i), 443),
+              "ROLE_ADMIN", "ROLE_ANONYMOUS", Collections.emptyMap()));
+    }
+
+    final OrganizationDirectoryServiceImpl directory = new OrganizationDirectoryServiceImpl();
+    directory.setOrgPersistence(new StaticOrganizationDatabase(orgs));
+
+    filter = new OrganizationFilter();
+    filter.setOrganizationDirectoryService(directory);
+    filter.setSecurityService(stub(SecurityService.class));
+
+    final String url = "https://" + host(organizations - 1) + "/engage/ui/watch.html";
+    request = (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+            new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getRequestURL":
+                  return new StringBuffer(url);
+                case "getRemoteAddr":
+                  return "10.0.0.1";
+                default:
+                  return null;
+              }
+            });
+    response = stub(HttpServletResponse.class);
+  }
+
+  private static String host(int i) {
+    return "tenant" + i + ".example.org";
+  }
+
+  /** Creates a stub of the given interface, doing nothing and returning <code>null</code> on every call. */
+  @SuppressWarnings("unchecked")
+  private static <A> A stub(Class<A> type) {
+    return (A) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> null);
+  }
+
+  @Benchmark
+  public void filter() throws IOException, ServletException {
+    filter.doFilter(request, response, chain);
+  }
+
+  /** Requests on several threads at once, as on a busy engage node. */
+  @Benchmark
+  @Threads(4)
+  public void filterConcurrent() throws IOException, ServletException {
+    filter.doFilter(request, response, chain);
+  }
+
+  /** Serves a fixed set of organizations. */
+  private static final class StaticOrganizationDatabase implements OrganizationDatabase {
+    private final List<Organization> organizations;
+
+    StaticOrganizationDatabase(List<Organization> organizations) {
+      this.organizations = organizations;
+    }
+
+    @Override
+    public List<Organization> getOrganizations() {
+      return new ArrayList<>(organizations);
+    }
+
+    @Override
+    public int countOrganizations() {
+      return organizations.size();
+    }
+
+    @Override
+    public Organization getOrganization(String orgId) throws NotFoundException {
+      return organizations.stream().filter(org -> org.getId().equals(orgId)).findFirst()
+              .orElseThrow(NotFoundException::new);
+    }
+
+    @Override
+    public Organization getOrganizationByHost(String host, int port) throws NotFoundException {
+      return organizations.stream().filter(org -> port == org.getServers().getOrDefault(host, -1)).findFirst()
+              .orElseThrow(NotFoundException::new);
+    }
+
+    @Override
+    public void storeOrganization(Organization organization) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteOrganization(String orgId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsOrganization(String orgId) {
+      return organizations.stream().anyMatch(org -> org.getId().equals(orgId));
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.MediaPackageParser;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/** Access to the sample documents the benchmarks operate on. */
+final class Resources {
+
+  private Resources() {
+  }
+
+  /**
+   * Reads a sample document.
+   *
+   * @param name
+   *          the name of the document, relative to this package
+   * @return the content of the document
+   */
+  static String read(String name) throws IOException {
+    try (InputStream in = Resources.class.getResourceAsStream(name)) {
+      if (in == null) {
+        throw new IOException("Missing sample document " + name);
+      }
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Creates a media package with the given number of elements, copied from the elements of the sample manifest.
+   *
+   * @param elements
+   *          the number of elements
+   * @return the media package
+   */
+  static MediaPackage mediaPackage(int elements) throws IOException, MediaPackageException {
+    final MediaPackage mediaPackage = MediaPackageParser.getFromXml(read("manifest.xml"));
+    final MediaPackageElement[] samples = mediaPackage.getElements();
+    for (MediaPackageElement sample : samples) {
+      mediaPackage.remove(sample);
+    }
+    for (int i = 0; i < elements; i++) {
+      final MediaPackageElement element = (MediaPackageElement) samples[i % samples.length].clone();
+      element.setIdentifier("element-" + i);
+      mediaPackage.add(element);
+    }
+    return mediaPackage;
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.workflow.conditionparser.WorkflowCondition;
+import org.opencastproject.workflow.conditionparser.WorkflowConditionInterpreter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Evaluation of the <code>if</code> conditions of workflow operations. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowConditionBenchmark {
+
+  @Param({
+      "${straightToPublishing}",
+      "${flagForCutting} OR ${flagForReview}",
+      "NOT (${presenter_count} + 1 < 3) AND ${publisher} != 'admin'" })
+  private String condition;
+
+  private Map<String, String> properties;
+
+  private String resolved;
+
+  private WorkflowCondition compiled;
+
+  @Setup
+  public void setUp() {
+    properties = new HashMap<>();
+    properties.put("straightToPublishing", "true");
+    properties.put("flagForCutting", "false");
+    properties.put("flagForReview", "true");
+    properties.put("presenter_count", "2");
+    properties.put("publisher", "opencast");
+    resolved = WorkflowConditionInterpreter.replaceVariables(condition, key -> null, properties, true);
+    compiled = WorkflowCondition.parse(condition);
+  }
+
+  @Benchmark
+  public String replaceVariables() {
+    return WorkflowConditionInterpreter.replaceVariables(condition, key -> null, properties, true);
+  }
+
+  /** Parsing the condition on every evaluation, as done before compiled conditions were cached. */
+  @Benchmark
+  public boolean parseAndEvaluate() {
+    return WorkflowCondition.parse(resolved).evaluate();
+  }
+
+  @Benchmark
+  public boolean interpret() {
+    return WorkflowConditionInterpreter.interpret(resolved);
+  }
+
+  /** Evaluating a condition compiled once, binding the variables at evaluation time. */
+  @Benchmark
+  public boolean evaluateCompiled() {
+    return compiled.evaluate(properties::get);
+  }
+
+}
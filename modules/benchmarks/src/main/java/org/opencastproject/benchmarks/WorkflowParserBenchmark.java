@@ -0,0 +1,84 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.MediaPackageParser;
+import org.opencastproject.workflow.api.WorkflowDefinition;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowParser;
+import org.opencastproject.workflow.api.WorkflowParsingException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing and serialization of workflow definitions and instances. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowParserBenchmark {
+
+  private String definitionXml;
+
+  private String instanceXml;
+
+  private WorkflowInstance instance;
+
+  @Setup
+  public void setUp() throws Exception {
+    definitionXml = Resources.read("workflow-definition.xml");
+    final WorkflowDefinition definition = WorkflowParser.parseWorkflowDefinition(definitionXml);
+    instance = new WorkflowInstanceImpl(definition, MediaPackageParser.getFromXml(Resources.read("manifest.xml")),
+            null, null, null, Collections.singletonMap("straightToPublishing", "true"));
+    instanceXml = WorkflowParser.toXml(instance);
+  }
+
+  @Benchmark
+  public WorkflowDefinition parseDefinition() throws WorkflowParsingException {
+    return WorkflowParser.parseWorkflowDefinition(definitionXml);
+  }
+
+  @Benchmark
+  public WorkflowInstance parseInstance() throws WorkflowParsingException {
+    return WorkflowParser.parseWorkflowInstance(instanceXml);
+  }
+
+  @Benchmark
+  public String serializeInstance() throws WorkflowParsingException {
+    return WorkflowParser.toXml(instance);
+  }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.workflow.api.WorkflowDefinition;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationInstance.OperationState;
+import org.opencastproject.workflow.api.WorkflowParser;
+import org.opencastproject.workflow.api.WorkflowParsingException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies of workflow instances as handed to the workflow listeners on every update. The update benchmarks modify the
+ * instance like a workflow operation does and then create the copy the way the workflow service did before and does
+ * now. The in-memory copy shares the media package, which is only cloned once the workflow instance accesses it again,
+ * as measured by {@link #updateAfterAccessingMediaPackage()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowSnapshotBenchmark {
+
+  /** The number of elements in the media package */
+  @Param({ "10", "100", "1000" })
+  private int elements;
+
+  private WorkflowInstanceImpl instance;
+
+  private long updates = 0;
+
+  @Setup
+  public void setUp() throws Exception {
+    final WorkflowDefinition definition = WorkflowParser.parseWorkflowDefinition(
+            Resources.read("workflow-definition.xml"));
+    instance = new WorkflowInstanceImpl(definition, Resources.mediaPackage(elements), null, null, null,
+            Collections.singletonMap("straightToPublishing", "true"));
+    instance.next();
+  }
+
+  /** The former approach: a full serialization and parsing round trip. */
+  @Benchmark
+  public WorkflowInstance xmlCopy() throws WorkflowParsingException {
+    return WorkflowParser.parseWorkflowInstance(WorkflowParser.toXml(instance));
+  }
+
+  @Benchmark
+  public WorkflowInstance inMemoryCopy() {
+    return new WorkflowInstanceImpl(instance);
+  }
+
+  /** An update before: the listeners always got a copy created through XML. */
+  @Benchmark
+  public WorkflowInstance updateBefore() throws WorkflowParsingException {
+    modify();
+    return WorkflowParser.parseWorkflowInstance(WorkflowParser.toXml(instance));
+  }
+
+  /** An update now, with listeners registered: the copy is created in memory. */
+  @Benchmark
+  public WorkflowInstance updateAfter() {
+    modify();
+    return new WorkflowInstanceImpl(instance);
+  }
+
+  /** An update now, followed by an operation getting the media package, which clones it once. */
+  @Benchmark
+  public MediaPackage updateAfterAccessingMediaPackage() {
+    modify();
+    new WorkflowInstanceImpl(instance);
+    return instance.getMediaPackage();
+  }
+
+  /** An update now, without any listeners: no copy is created at all. */
+  @Benchmark
+  public WorkflowInstance updateAfterWithoutListeners() {
+    modify();
+    return instance;
+  }
+
+  /** Changes the instance like a running workflow operation does. */
+  private void modify() {
+    final WorkflowOperationInstance operation = instance.getCurrentOperation();
+    operation.setState(updates % 2 == 0 ? OperationState.RUNNING : OperationState.SUCCEEDED);
+    instance.setConfiguration("updates", Long.toString(++updates));
+  }
+
+}
@@ -37,6 +37,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * This class is a utility implementation that will wait for all given jobs to change their status to either one of:
@@ -45,6 +47,9 @@ import java.util.Map;
  * <li>{@link Job.Status#FAILED}</li>
  * <li>{@link Job.Status#DELETED}</li>
  * </ul>
+ * If the service registry of this node publishes job completion notifications through the
+ * {@link JobCompletionNotifier}, the barrier is woken up as soon as a job terminates and only falls back to polling the
+ * service registry in the interval announced by the notifier (or the configured polling interval, if that is longer).
  */
 public final class JobBarrier {
   /** The logging facility */
@@ -71,6 +76,12 @@ public final class JobBarrier {
   /** The status map */
   private volatile Result status = null;
 
+  /** Jobs reported as terminated by the {@link JobCompletionNotifier}, by their identifier */
+  private final Map<Long, Job> notifiedJobs = new ConcurrentHashMap<>();
+
+  /** Collects the notifications and wakes up the status updater */
+  private final Consumer<Job> notificationListener = this::jobNotified;
+
   /**
    * Creates a barrier without any jobs, using <code>registry</code> to poll for the outcome of the monitored jobs using
    * the default polling interval {@link #DEFAULT_POLLING_INTERVAL}. The <code>waiter</code> is the job which is waiting
@@ -204,16 +215,26 @@ public final class JobBarrier {
     if (jobs.size() == 0)
       return new Result(new HashMap<Job, Status>());
     this.suspendWaiterJob();
-    synchronized (this) {
-      JobStatusUpdater updater = new JobStatusUpdater(timeout);
-      try {
-        updater.start();
-        wait();
-      } catch (InterruptedException e) {
-        logger.debug("Interrupted while waiting for job");
+    for (Job job : jobs) {
+      JobCompletionNotifier.addListener(job.getId(), notificationListener);
+    }
+    try {
+      synchronized (this) {
+        JobStatusUpdater updater = new JobStatusUpdater(timeout);
+        try {
+          updater.start();
+          wait();
+        } catch (InterruptedException e) {
+          logger.debug("Interrupted while waiting for job");
+        }
+      }
+    } finally {
+      for (Job job : jobs) {
+        JobCompletionNotifier.removeListener(job.getId(), notificationListener);
       }
     }
     if (pollingException != null) {
+      this.wakeWaiterJob();
       if (pollingException instanceof JobCanceledException)
         throw (JobCanceledException) pollingException;
       throw new IllegalStateException(pollingException);
@@ -237,6 +258,19 @@ public final class JobBarrier {
     jobs.add(job);
   }
 
+  /**
+   * Remembers a job reported as terminated and wakes up the status updater.
+   *
+   * @param job
+   *          the terminated job
+   */
+  private void jobNotified(Job job) {
+    notifiedJobs.put(job.getId(), job);
+    synchronized (notifiedJobs) {
+      notifiedJobs.notifyAll();
+    }
+  }
+
   /**
    * Sets the outcome of the various jobs that were monitored.
    *
@@ -276,23 +310,38 @@ public final class JobBarrier {
     public void run() {
       final long endTime = workTime > 0 ? System.currentTimeMillis() + workTime : 0;
       final Map<Job, Job.Status> finishedJobs = new HashMap<Job, Job.Status>();
+      // Notified jobs are picked up right away, everything else is polled in the (possibly longer) fallback interval
+      final long interval = JobCompletionNotifier.isEnabled()
+              ? Math.max(pollingInterval, JobCompletionNotifier.getFallbackPollingInterval())
+              : pollingInterval;
+      // Jobs may have finished before the listeners were registered, so poll right away if relying on notifications
+      long lastPoll = JobCompletionNotifier.isEnabled() ? 0L : System.currentTimeMillis();
       while (true) {
         final long time = System.currentTimeMillis();
         // Wait a little..
         try {
-          final long timeToSleep = Math.min(pollingInterval, Math.abs(endTime - time));
-          Thread.sleep(timeToSleep);
+          final long timeToSleep = Math.min(interval - (time - lastPoll), Math.abs(endTime - time));
+          synchronized (notifiedJobs) {
+            if (notifiedJobs.isEmpty() && timeToSleep > 0) {
+              notifiedJobs.wait(timeToSleep);
+            }
+          }
         } catch (InterruptedException e) {
           logger.debug("Job polling thread was interrupted");
           return;
         }
+        final boolean poll = System.currentTimeMillis() - lastPoll >= interval;
+        if (poll) {
+          lastPoll = System.currentTimeMillis();
+        }
         // Look at all jobs and make sure all of them have reached the expected status
         for (final Job job : jobs) {
-          // Don't ask if we already know
-          if (!finishedJobs.containsKey(job)) {
-            // Get the job status from the service registry
+          final Job notifiedJob = notifiedJobs.remove(job.getId());
+          // Don't ask if we already know or if it is not yet time to ask
+          if (!finishedJobs.containsKey(job) && (poll || notifiedJob != null)) {
+            // Get the job status from the service registry unless it was just handed to us
             try {
-              final Job processedJob = serviceRegistry.getJob(job.getId());
+              final Job processedJob = notifiedJob != null ? notifiedJob : serviceRegistry.getJob(job.getId());
               final Job.Status jobStatus = processedJob.getStatus();
               switch (jobStatus) {
                 case CANCELLED:
@@ -343,7 +392,7 @@ public final class JobBarrier {
           if (finishedJobs.size() == jobs.size()) {
             updateAndNotify(finishedJobs);
             return;
-          } else if (workTime > 0 && endTime >= time) {
+          } else if (workTime > 0 && time >= endTime) {
             pollingException = new InterruptedException("Timeout waiting for job processing");
             updateAndNotify(finishedJobs);
             return;
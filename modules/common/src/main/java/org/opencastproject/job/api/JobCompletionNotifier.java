@@ -0,0 +1,157 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Delivers notifications about jobs reaching a terminal state to the parties waiting for them within this node, e.g. a
+ * {@link JobBarrier}. Notifications are published by the service registry whenever it persists such a state change,
+ * either locally or on behalf of another node of the cluster.
+ * <p>
+ * Publishing is best effort. Waiting parties must keep checking the state of the jobs they are waiting for in larger
+ * intervals in case a notification is missed. As long as no publisher is enabled, they should not rely on notifications
+ * at all.
+ */
+public final class JobCompletionNotifier {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(JobCompletionNotifier.class);
+
+  /** Default polling interval used as a fallback while notifications are published, in milliseconds */
+  public static final long DEFAULT_FALLBACK_POLLING_INTERVAL = 30000L;
+
+  /** The listeners by identifier of the job they are interested in */
+  private static final Map<Long, Set<Consumer<Job>>> listeners = new ConcurrentHashMap<>();
+
+  /** The fallback polling interval or 0 if no publisher is enabled */
+  private static volatile long fallbackPollingInterval = 0L;
+
+  /** Utility classes should not be instantiated */
+  private JobCompletionNotifier() {
+  }
+
+  /**
+   * Marks notifications as being published on this node.
+   *
+   * @param pollingInterval
+   *          the interval in milliseconds in which waiting parties should still check the job state themselves
+   */
+  public static void enable(long pollingInterval) {
+    if (pollingInterval <= 0)
+      throw new IllegalArgumentException("Fallback polling interval must be a positive number");
+    fallbackPollingInterval = pollingInterval;
+    logger.debug("Job completion notifications enabled, falling back to polling every {} ms", pollingInterval);
+  }
+
+  /** Marks notifications as no longer being published on this node. */
+  public static void disable() {
+    fallbackPollingInterval = 0L;
+    logger.debug("Job completion notifications disabled");
+  }
+
+  /**
+   * Returns whether job completion notifications are published on this node.
+   *
+   * @return <code>true</code> if notifications are published
+   */
+  public static boolean isEnabled() {
+    return fallbackPollingInterval > 0;
+  }
+
+  /**
+   * Returns the interval in which parties waiting for notifications should still check the job state themselves.
+   *
+   * @return the interval in milliseconds or 0 if notifications are not published
+   */
+  public static long getFallbackPollingInterval() {
+    return fallbackPollingInterval;
+  }
+
+  /**
+   * Registers a listener to be called once the given job reaches a terminal state.
+   *
+   * @param jobId
+   *          the identifier of the job
+   * @param listener
+   *          the listener, called with the updated job
+   */
+  public static void addListener(long jobId, Consumer<Job> listener) {
+    listeners.computeIfAbsent(jobId, id -> new CopyOnWriteArraySet<>()).add(listener);
+  }
+
+  /**
+   * Removes a listener registered with {@link #addListener(long, Consumer)}.
+   *
+   * @param jobId
+   *          the identifier of the job
+   * @param listener
+   *          the listener
+   */
+  public static void removeListener(long jobId, Consumer<Job> listener) {
+    listeners.computeIfPresent(jobId, (id, jobListeners) -> {
+      jobListeners.remove(listener);
+      return jobListeners.isEmpty() ? null : jobListeners;
+    });
+  }
+
+  /**
+   * Returns whether anybody on this node is waiting for the given job.
+   *
+   * @param jobId
+   *          the identifier of the job
+   * @return <code>true</code> if there are listeners for the job
+   */
+  public static boolean hasListeners(long jobId) {
+    return listeners.containsKey(jobId);
+  }
+
+  /**
+   * Notifies the listeners of a job about its new state. Jobs that are not in a terminal state are ignored.
+   *
+   * @param job
+   *          the updated job
+   */
+  public static void publish(Job job) {
+    if (job == null || job.getStatus() == null || !job.getStatus().isTerminated())
+      return;
+    final Set<Consumer<Job>> jobListeners = listeners.get(job.getId());
+    if (jobListeners == null)
+      return;
+    logger.debug("Notifying {} listeners of {} being {}", jobListeners.size(), job, job.getStatus());
+    for (Consumer<Job> listener : jobListeners) {
+      try {
+        listener.accept(job);
+      } catch (Exception e) {
+        logger.warn("Error notifying listener about {}", job, e);
+      }
+    }
+  }
+
+}
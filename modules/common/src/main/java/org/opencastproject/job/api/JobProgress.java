@@ -0,0 +1,280 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.api;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of a job while it is being processed on this node, e.g. an encoding reporting how much of the media it
+ * has processed so far. Progress is reported by the services processing the jobs and kept in memory only for as long as
+ * the job is running. Nodes interested in the progress of a job running elsewhere need to ask the node processing it.
+ */
+public final class JobProgress {
+
+  /** The progress of the jobs currently reporting on this node, by job identifier */
+  private static final Map<Long, JobProgress> running = new ConcurrentHashMap<>();
+
+  /** The media time processed by all jobs on this node since startup, in milliseconds */
+  private static final AtomicLong totalProcessedTime = new AtomicLong();
+
+  /** The frames processed by all jobs on this node since startup */
+  private static final AtomicLong totalFrames = new AtomicLong();
+
+  private final long jobId;
+  private final String jobType;
+  private final String operation;
+  private final long started;
+  private volatile Long duration;
+  private volatile long processedTime;
+  private volatile long frames;
+  private volatile float speed;
+  private volatile long updated;
+
+  private JobProgress(long jobId, String jobType, String operation, long started, Long duration, long processedTime,
+          long frames, float speed, long updated) {
+    this.jobId = jobId;
+    this.jobType = jobType;
+    this.operation = operation;
+    this.started = started;
+    this.duration = duration;
+    this.processedTime = processedTime;
+    this.frames = frames;
+    this.speed = speed;
+    this.updated = updated;
+  }
+
+  /**
+   * Starts reporting the progress of a job on this node, replacing any progress previously reported for it.
+   *
+   * @param job
+   *          the job
+   * @return the progress to update while processing the job
+   */
+  public static JobProgress start(Job job) {
+    final long now = System.currentTimeMillis();
+    final JobProgress progress = new JobProgress(job.getId(), job.getJobType(), job.getOperation(), now, null, 0L, 0L,
+            0F, now);
+    running.put(progress.jobId, progress);
+    return progress;
+  }
+
+  /**
+   * Returns the progress of a job running on this node.
+   *
+   * @param jobId
+   *          the job identifier
+   * @return the progress or nothing if the job does not report progress on this node
+   */
+  public static Optional<JobProgress> get(long jobId) {
+    return Optional.ofNullable(running.get(jobId));
+  }
+
+  /**
+   * Returns the progress of all jobs currently reporting on this node.
+   *
+   * @return the progress of the running jobs
+   */
+  public static Collection<JobProgress> getRunning() {
+    return new ArrayList<>(running.values());
+  }
+
+  /**
+   * Returns the media time processed by all jobs on this node since startup.
+   *
+   * @return the processed time in milliseconds
+   */
+  public static long getTotalProcessedTime() {
+    return totalProcessedTime.get();
+  }
+
+  /**
+   * Returns the frames processed by all jobs on this node since startup.
+   *
+   * @return the number of frames
+   */
+  public static long getTotalFrames() {
+    return totalFrames.get();
+  }
+
+  /**
+   * Updates the progress. Counters going backwards, e.g. when a process is run a second time for the same job, are not
+   * added to the node totals.
+   *
+   * @param processedTime
+   *          the media time processed so far in milliseconds
+   * @param frames
+   *          the frames processed so far
+   * @param speed
+   *          the current processing speed as a multiple of real time
+   */
+  public synchronized void update(long processedTime, long frames, float speed) {
+    if (processedTime > this.processedTime)
+      totalProcessedTime.addAndGet(processedTime - this.processedTime);
+    if (frames > this.frames)
+      totalFrames.addAndGet(frames - this.frames);
+    this.processedTime = processedTime;
+    this.frames = frames;
+    this.speed = speed;
+    this.updated = System.currentTimeMillis();
+  }
+
+  /**
+   * Sets the expected media duration of the job.
+   *
+   * @param duration
+   *          the duration in milliseconds or <code>null</code> if unknown
+   */
+  public void setDuration(Long duration) {
+    this.duration = duration;
+  }
+
+  /** Stops reporting the progress of the job. */
+  public void finish() {
+    running.remove(jobId, this);
+  }
+
+  public long getJobId() {
+    return jobId;
+  }
+
+  public String getJobType() {
+    return jobType;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  /** @return the time reporting started in milliseconds since the epoch */
+  public long getStarted() {
+    return started;
+  }
+
+  /** @return the expected media duration in milliseconds or <code>null</code> if unknown */
+  public Long getDuration() {
+    return duration;
+  }
+
+  /** @return the media time processed so far in milliseconds */
+  public long getProcessedTime() {
+    return processedTime;
+  }
+
+  public long getFrames() {
+    return frames;
+  }
+
+  /** @return the current processing speed as a multiple of real time */
+  public float getSpeed() {
+    return speed;
+  }
+
+  /** @return the time of the last update in milliseconds since the epoch */
+  public long getUpdated() {
+    return updated;
+  }
+
+  /**
+   * Returns the share of the expected duration processed so far.
+   *
+   * @return the progress between 0 and 1 or <code>null</code> if the duration is unknown
+   */
+  public Float getCompleted() {
+    final Long expected = duration;
+    if (expected == null || expected <= 0)
+      return null;
+    return Math.min(1F, (float) processedTime / expected);
+  }
+
+  /**
+   * Estimates the time needed to process the rest of the expected duration at the current speed.
+   *
+   * @return the estimated time in milliseconds or <code>null</code> if the duration or the speed is unknown
+   */
+  public Long getEstimatedTimeRemaining() {
+    final Long expected = duration;
+    final float currentSpeed = speed;
+    if (expected == null || expected <= 0 || currentSpeed <= 0)
+      return null;
+    return (long) (Math.max(0L, expected - processedTime) / currentSpeed);
+  }
+
+  /**
+   * Serializes the progress to JSON.
+   *
+   * @return the JSON representation
+   */
+  @SuppressWarnings("unchecked")
+  public String toJson() {
+    final JSONObject json = new JSONObject();
+    json.put("job", jobId);
+    json.put("jobType", jobType);
+    json.put("operation", operation);
+    json.put("started", started);
+    json.put("duration", duration);
+    json.put("processedTime", processedTime);
+    json.put("frames", frames);
+    json.put("speed", speed);
+    json.put("updated", updated);
+    json.put("completed", getCompleted());
+    json.put("remaining", getEstimatedTimeRemaining());
+    return json.toJSONString();
+  }
+
+  /**
+   * Parses progress serialized with {@link #toJson()}. Progress parsed this way is not registered on this node.
+   *
+   * @param json
+   *          the JSON representation
+   * @return the progress
+   * @throws IllegalArgumentException
+   *           if the JSON cannot be parsed
+   */
+  public static JobProgress fromJson(String json) {
+    try {
+      final JSONObject obj = (JSONObject) new JSONParser().parse(json);
+      final Number duration = (Number) obj.get("duration");
+      return new JobProgress(((Number) obj.get("job")).longValue(), (String) obj.get("jobType"),
+              (String) obj.get("operation"), ((Number) obj.get("started")).longValue(),
+              duration == null ? null : duration.longValue(), ((Number) obj.get("processedTime")).longValue(),
+              ((Number) obj.get("frames")).longValue(), ((Number) obj.get("speed")).floatValue(),
+              ((Number) obj.get("updated")).longValue());
+    } catch (ParseException | ClassCastException | NullPointerException e) {
+      throw new IllegalArgumentException("Unable to parse job progress " + json, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Progress of job " + jobId + ": " + processedTime + " ms, " + frames + " frames, " + speed + "x";
+  }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands the timings of finished jobs and workflow operations to a metrics recorder, if one is registered on this node.
+ * The services processing jobs and workflows report here regardless of whether anybody is interested, so reporting
+ * must stay cheap: without a recorder it amounts to reading a volatile field.
+ */
+public final class ProcessingMetrics {
+
+  /** Receives the timings reported on this node. Implementations must not block. */
+  public interface Recorder {
+
+    /**
+     * Records a job that has reached a terminal state.
+     *
+     * @param jobType
+     *          the job type
+     * @param operation
+     *          the job's operation
+     * @param status
+     *          the terminal status
+     * @param dispatchWait
+     *          the time between creating and starting the job in milliseconds, or <code>null</code> if it never started
+     * @param executionTime
+     *          the time between starting and terminating the job in milliseconds, or <code>null</code> if it never
+     *          started
+     */
+    void recordJob(String jobType, String operation, Job.Status status, Long dispatchWait, Long executionTime);
+
+    /**
+     * Records a workflow operation that has been executed.
+     *
+     * @param operation
+     *          the name of the workflow operation handler
+     * @param outcome
+     *          the state of the operation after executing it, e.g. <code>SUCCEEDED</code>
+     * @param queueWait
+     *          the time the operation spent waiting for its jobs to be dispatched in milliseconds
+     * @param runTime
+     *          the time it took to execute the operation in milliseconds
+     */
+    void recordWorkflowOperation(String operation, String outcome, long queueWait, long runTime);
+
+  }
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(ProcessingMetrics.class);
+
+  /** The registered recorder or <code>null</code> */
+  private static volatile Recorder recorder = null;
+
+  /** Utility classes should not be instantiated */
+  private ProcessingMetrics() {
+  }
+
+  /**
+   * Registers the recorder for this node, replacing any previously registered one.
+   *
+   * @param recorder
+   *          the recorder
+   */
+  public static synchronized void setRecorder(Recorder recorder) {
+    ProcessingMetrics.recorder = recorder;
+  }
+
+  /**
+   * Unregisters a recorder registered with {@link #setRecorder(Recorder)}. Nothing happens if another recorder has
+   * been registered in the meantime.
+   *
+   * @param recorder
+   *          the recorder
+   */
+  public static synchronized void removeRecorder(Recorder recorder) {
+    if (ProcessingMetrics.recorder == recorder)
+      ProcessingMetrics.recorder = null;
+  }
+
+  /**
+   * Reports a job that has reached a terminal state. Jobs that are not terminated are ignored.
+   *
+   * @param job
+   *          the job
+   */
+  public static void jobTerminated(Job job) {
+    final Recorder current = recorder;
+    if (current == null || job == null || job.getStatus() == null || !job.getStatus().isTerminated())
+      return;
+    try {
+      current.recordJob(job.getJobType(), job.getOperation(), job.getStatus(), job.getQueueTime(), job.getRunTime());
+    } catch (Exception e) {
+      logger.debug("Unable to record metrics of {}", job, e);
+    }
+  }
+
+  /**
+   * Reports a workflow operation that has been executed.
+   *
+   * @param operation
+   *          the name of the workflow operation handler
+   * @param outcome
+   *          the state of the operation after executing it
+   * @param queueWait
+   *          the time the operation spent waiting for its jobs to be dispatched in milliseconds
+   * @param runTime
+   *          the time it took to execute the operation in milliseconds
+   */
+  public static void workflowOperationExecuted(String operation, String outcome, long queueWait, long runTime) {
+    final Recorder current = recorder;
+    if (current == null)
+      return;
+    try {
+      current.recordWorkflowOperation(operation, outcome, queueWait, runTime);
+    } catch (Exception e) {
+      logger.debug("Unable to record metrics of workflow operation {}", operation, e);
+    }
+  }
+
+}
@@ -48,6 +48,8 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlID;
 import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 /**
  * This class provides base functionality for media package elements.
@@ -540,6 +542,89 @@ public abstract class AbstractMediaPackageElement implements MediaPackageElement
     return node;
   }
 
+  /**
+   * Writes this element the way the JAXB marshaller does.
+   *
+   * @param writer
+   *          the stream writer
+   * @param name
+   *          the local name of the element
+   * @throws XMLStreamException
+   *           if writing fails
+   * @see MediaPackageXmlWriter
+   */
+  void writeXml(XMLStreamWriter writer, String name) throws XMLStreamException {
+    MediaPackageXmlWriter.writeStartElement(writer, name);
+    writeXmlAttributes(writer);
+    writeXmlContent(writer);
+    writer.writeEndElement();
+  }
+
+  /**
+   * Writes the elements wrapped into an element of their own, skipping <code>null</code> entries like JAXB does.
+   *
+   * @param writer
+   *          the stream writer
+   * @param wrapper
+   *          the local name of the wrapping element
+   * @param name
+   *          the local name of each element
+   * @param elements
+   *          the elements, all of them extending this class
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  static void writeXmlElements(XMLStreamWriter writer, String wrapper, String name,
+          Iterable<? extends MediaPackageElement> elements) throws XMLStreamException {
+    MediaPackageXmlWriter.writeStartElement(writer, wrapper);
+    for (MediaPackageElement element : elements) {
+      if (element != null)
+        ((AbstractMediaPackageElement) element).writeXml(writer, name);
+    }
+    writer.writeEndElement();
+  }
+
+  /**
+   * Writes the attributes of this element. Subclasses adding attributes write them after the ones of this class.
+   *
+   * @param writer
+   *          the stream writer
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  protected void writeXmlAttributes(XMLStreamWriter writer) throws XMLStreamException {
+    MediaPackageXmlWriter.writeAttribute(writer, "id", id);
+    MediaPackageXmlWriter.writeAttribute(writer, "type", flavor);
+    MediaPackageXmlWriter.writeAttribute(writer, "ref", reference);
+  }
+
+  /**
+   * Writes the child elements of this element. Subclasses adding elements write them after the ones of this class.
+   *
+   * @param writer
+   *          the stream writer
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    MediaPackageXmlWriter.writeElement(writer, "mimetype", mimeType);
+    if (tags != null) {
+      MediaPackageXmlWriter.writeStartElement(writer, "tags");
+      for (String tag : tags)
+        MediaPackageXmlWriter.writeElement(writer, "tag", tag);
+      writer.writeEndElement();
+    }
+    MediaPackageXmlWriter.writeElement(writer, "url", uri);
+    MediaPackageXmlWriter.writeElement(writer, "size", size);
+    if (checksum != null) {
+      MediaPackageXmlWriter.writeStartElement(writer, "checksum");
+      MediaPackageXmlWriter.writeAttribute(writer, "type", checksum.getType());
+      if (checksum.getValue() != null)
+        MediaPackageXmlWriter.writeText(writer, checksum.getValue());
+      writer.writeEndElement();
+    }
+  }
+
   /**
    * @see java.lang.Object#toString()
    */
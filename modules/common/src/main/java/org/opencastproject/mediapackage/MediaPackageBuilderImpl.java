@@ -102,12 +102,14 @@ public class MediaPackageBuilderImpl implements MediaPackageBuilder {
    * @see org.opencastproject.mediapackage.MediaPackageBuilder#loadFromXml(java.io.InputStream)
    */
   public MediaPackage loadFromXml(InputStream is) throws MediaPackageException {
+    if (serializer == null) {
+      // Nothing to rewrite, so there is no need to build a DOM just to serialize it again
+      return MediaPackageImpl.valueOf(is);
+    }
     try {
+      //Convert InputStream to XML document to rewrite the URLs
       Document xml = XmlSafeParser.parse(is);
-      if (serializer != null) {
-        //Convert InputStream to XML document to rewrite the URLs
-        rewriteUrls(xml, serializer);
-      }
+      rewriteUrls(xml, serializer);
       return loadFromXml(xml);
     } catch (Exception e) {
       throw new MediaPackageException("Error deserializing paths in media package", e);
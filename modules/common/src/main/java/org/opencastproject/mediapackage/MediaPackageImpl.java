@@ -41,7 +41,6 @@ import org.w3c.dom.bootstrap.DOMImplementationRegistry;
 import org.w3c.dom.ls.DOMImplementationLS;
 import org.w3c.dom.ls.LSOutput;
 import org.w3c.dom.ls.LSSerializer;
-import org.xml.sax.SAXException;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -70,6 +69,9 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.stream.StreamSource;
 
 /**
@@ -1178,6 +1180,47 @@ public final class MediaPackageImpl implements MediaPackage {
       return "Unknown media package";
   }
 
+  /**
+   * Writes the media package as root element the way the JAXB marshaller does.
+   *
+   * @param writer
+   *          the stream writer
+   * @throws XMLStreamException
+   *           if writing fails
+   * @see MediaPackageXmlWriter
+   */
+  void writeXml(XMLStreamWriter writer) throws XMLStreamException {
+    MediaPackageXmlWriter.writeStartElement(writer, "mediapackage");
+    writer.writeNamespace("", MediaPackageXmlWriter.NAMESPACE);
+    MediaPackageXmlWriter.writeAttribute(writer, "duration", getDuration());
+    MediaPackageXmlWriter.writeAttribute(writer, "id", identifier);
+    MediaPackageXmlWriter.writeAttribute(writer, "start", getStartDateAsString());
+    MediaPackageXmlWriter.writeElement(writer, "title", title);
+    MediaPackageXmlWriter.writeElement(writer, "series", series);
+    MediaPackageXmlWriter.writeElement(writer, "seriestitle", seriesTitle);
+    writeXmlValues(writer, "creators", "creator", creators);
+    writeXmlValues(writer, "contributors", "contributor", contributors);
+    writeXmlValues(writer, "subjects", "subject", subjects);
+    MediaPackageXmlWriter.writeElement(writer, "license", license);
+    MediaPackageXmlWriter.writeElement(writer, "language", language);
+    AbstractMediaPackageElement.writeXmlElements(writer, "media", "track", loadTracks());
+    AbstractMediaPackageElement.writeXmlElements(writer, "metadata", "catalog", loadCatalogs());
+    AbstractMediaPackageElement.writeXmlElements(writer, "attachments", "attachment", loadAttachments());
+    AbstractMediaPackageElement.writeXmlElements(writer, "publications", "publication",
+            Arrays.asList(getPublications()));
+    writer.writeEndElement();
+  }
+
+  private static void writeXmlValues(XMLStreamWriter writer, String wrapper, String name, Set<String> values)
+          throws XMLStreamException {
+    if (values == null)
+      return;
+    MediaPackageXmlWriter.writeStartElement(writer, wrapper);
+    for (String value : values)
+      MediaPackageXmlWriter.writeElement(writer, name, value);
+    writer.writeEndElement();
+  }
+
   /**
    * A JAXB adapter that allows the {@link MediaPackage} interface to be un/marshalled
    */
@@ -1201,18 +1244,33 @@ public final class MediaPackageImpl implements MediaPackage {
    * @return the deserialized media package
    */
   public static MediaPackageImpl valueOf(InputStream xml) throws MediaPackageException {
+    XMLStreamReader reader = null;
     try {
       Unmarshaller unmarshaller = context.createUnmarshaller();
-      return unmarshaller.unmarshal(XmlSafeParser.parse(xml), MediaPackageImpl.class).getValue();
+      // Unmarshal while reading instead of building a DOM first
+      reader = XmlSafeParser.createXMLStreamReader(xml);
+      return unmarshaller.unmarshal(reader, MediaPackageImpl.class).getValue();
     } catch (JAXBException e) {
       throw new MediaPackageException(e.getLinkedException() != null ? e.getLinkedException() : e);
-    } catch (IOException | SAXException e) {
+    } catch (XMLStreamException e) {
       throw new MediaPackageException(e);
     } finally {
+      closeQuietly(reader);
       IoSupport.closeQuietly(xml);
     }
   }
 
+  /** Closes a stream reader, ignoring any errors. */
+  private static void closeQuietly(XMLStreamReader reader) {
+    if (reader == null)
+      return;
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      // Nothing to do
+    }
+  }
+
   /**
    * Reads the media package from an xml node.
    *
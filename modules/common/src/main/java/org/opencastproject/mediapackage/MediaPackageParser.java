@@ -69,6 +69,24 @@ public final class MediaPackageParser {
   public static String getAsXml(MediaPackage mediaPackage) {
     if (mediaPackage == null)
       throw new IllegalArgumentException("Mediapackage must not be null");
+    if (MediaPackageXmlWriter.isSupported(mediaPackage)) {
+      try {
+        return MediaPackageXmlWriter.toXml(mediaPackage);
+      } catch (XMLStreamException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return getAsXmlWithJaxb(mediaPackage);
+  }
+
+  /**
+   * Serializes the media package to a string using the JAXB marshaller.
+   *
+   * @param mediaPackage
+   *          the media package
+   * @return the serialized media package
+   */
+  static String getAsXmlWithJaxb(MediaPackage mediaPackage) {
     try {
       Marshaller marshaller = MediaPackageImpl.context.createMarshaller();
       marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
@@ -91,40 +109,62 @@ public final class MediaPackageParser {
     if (mediaPackage == null) {
       throw new IllegalArgumentException("Mediapackage must not be null");
     }
+    if (MediaPackageXmlWriter.isSupported(mediaPackage)) {
+      StringWriter writer = new StringWriter();
+      try {
+        MediaPackageXmlWriter.write(mediaPackage, newJsonStreamWriter(writer));
+      } catch (XMLStreamException e) {
+        throw new IllegalStateException(e);
+      }
+      return writer.toString();
+    }
+    return getAsJSONWithJaxb(mediaPackage);
+  }
+
+  /**
+   * Serializes the media package to a JSON string using the JAXB marshaller.
+   *
+   * @param mediaPackage
+   *          the media package
+   * @return the serialized media package
+   */
+  static String getAsJSONWithJaxb(MediaPackage mediaPackage) {
     try {
       Marshaller marshaller = MediaPackageImpl.context.createMarshaller();
-
-      Configuration config = new Configuration();
-      config.setSupressAtAttributes(true);
-      MappedNamespaceConvention con = new MappedNamespaceConvention(config);
       StringWriter writer = new StringWriter();
-      XMLStreamWriter xmlStreamWriter = new MappedXMLStreamWriter(con, writer) {
-        @Override
-        public void writeStartElement(String prefix, String local, String uri) throws XMLStreamException {
-          super.writeStartElement("", local, "");
-        }
-
-        @Override
-        public void writeStartElement(String uri, String local) throws XMLStreamException {
-          super.writeStartElement("", local, "");
-        }
-
-        @Override
-        public void setPrefix(String pfx, String uri) throws XMLStreamException {
-        }
-
-        @Override
-        public void setDefaultNamespace(String uri) throws XMLStreamException {
-        }
-      };
-
-      marshaller.marshal(mediaPackage, xmlStreamWriter);
+      marshaller.marshal(mediaPackage, newJsonStreamWriter(writer));
       return writer.toString();
     } catch (JAXBException e) {
       throw new IllegalStateException(e.getLinkedException() != null ? e.getLinkedException() : e);
     }
   }
 
+  /** Create a stream writer that renders the media package XML events as namespace free JSON. */
+  private static XMLStreamWriter newJsonStreamWriter(StringWriter writer) {
+    Configuration config = new Configuration();
+    config.setSupressAtAttributes(true);
+    MappedNamespaceConvention con = new MappedNamespaceConvention(config);
+    return new MappedXMLStreamWriter(con, writer) {
+      @Override
+      public void writeStartElement(String prefix, String local, String uri) throws XMLStreamException {
+        super.writeStartElement("", local, "");
+      }
+
+      @Override
+      public void writeStartElement(String uri, String local) throws XMLStreamException {
+        super.writeStartElement("", local, "");
+      }
+
+      @Override
+      public void setPrefix(String pfx, String uri) throws XMLStreamException {
+      }
+
+      @Override
+      public void setDefaultNamespace(String uri) throws XMLStreamException {
+      }
+    };
+  }
+
   /** Serializes a media package to a {@link Document} without any further processing. */
   public static Document getAsXmlDocument(MediaPackage mp) {
     try {
@@ -0,0 +1,490 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.mediapackage;
+
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.identifier.Id;
+import org.opencastproject.mediapackage.identifier.IdImpl;
+import org.opencastproject.mediapackage.track.AudioStreamImpl;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.mediapackage.track.VideoStreamImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Streaming serializer for media packages.
+ * <p>
+ * Writes the same sequence of elements, attributes and text that the JAXB marshaller produces for
+ * {@link MediaPackageImpl}, but without going through the JAXB runtime. The XML form is rendered directly into a string
+ * with the formatting of the JAXB reference implementation, while any other {@link XMLStreamWriter}, like the JSON
+ * writer used by {@link MediaPackageParser#getAsJSON(MediaPackage)}, receives the same calls JAXB would make.
+ * <p>
+ * Only the implementations of this module are supported, see {@link #isSupported(MediaPackage)}. Media packages
+ * containing other implementations still need to be serialized by JAXB.
+ */
+public final class MediaPackageXmlWriter {
+
+  /** The media package namespace */
+  public static final String NAMESPACE = "http://mediapackage.opencastproject.org";
+
+  /** The XML declaration written by the JAXB marshaller */
+  private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+  /**
+   * Private constructor to prohibit instances of this static utility class.
+   */
+  private MediaPackageXmlWriter() {
+    // Nothing to do
+  }
+
+  /**
+   * Returns <code>true</code> if the media package and all of its elements are implementations this writer knows how
+   * to serialize.
+   *
+   * @param mediaPackage
+   *          the media package
+   * @return <code>true</code> if the media package can be written without JAXB
+   */
+  static boolean isSupported(MediaPackage mediaPackage) {
+    if (!(mediaPackage instanceof MediaPackageImpl))
+      return false;
+    Id identifier = mediaPackage.getIdentifier();
+    if (identifier != null && identifier.getClass() != IdImpl.class)
+      return false;
+    for (Publication publication : mediaPackage.getPublications()) {
+      if (publication.getClass() != PublicationImpl.class || !isSupported(publication.getTracks(),
+              publication.getCatalogs(), publication.getAttachments()))
+        return false;
+    }
+    return isSupported(mediaPackage.getTracks(), mediaPackage.getCatalogs(), mediaPackage.getAttachments());
+  }
+
+  private static boolean isSupported(Track[] tracks, Catalog[] catalogs, Attachment[] attachments) {
+    for (Track track : tracks) {
+      if (track == null)
+        continue;
+      if (track.getClass() != TrackImpl.class)
+        return false;
+      TrackImpl trackImpl = (TrackImpl) track;
+      if (trackImpl.getAudio() != null) {
+        for (AudioStream audio : trackImpl.getAudio()) {
+          if (audio != null && audio.getClass() != AudioStreamImpl.class)
+            return false;
+        }
+      }
+      if (trackImpl.getVideo() != null) {
+        for (VideoStream video : trackImpl.getVideo()) {
+          if (video != null && video.getClass() != VideoStreamImpl.class)
+            return false;
+        }
+      }
+    }
+    for (Catalog catalog : catalogs) {
+      if (catalog != null && catalog.getClass() != CatalogImpl.class)
+        return false;
+    }
+    for (Attachment attachment : attachments) {
+      if (attachment != null && attachment.getClass() != AttachmentImpl.class)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Serializes the media package to an XML string identical to the one written by the JAXB marshaller.
+   *
+   * @param mediaPackage
+   *          the media package, which must be {@link #isSupported(MediaPackage) supported}
+   * @return the serialized media package
+   * @throws XMLStreamException
+   *           if serializing fails
+   */
+  static String toXml(MediaPackage mediaPackage) throws XMLStreamException {
+    XmlTextWriter writer = new XmlTextWriter();
+    write(mediaPackage, writer);
+    return writer.toString();
+  }
+
+  /**
+   * Writes the media package as a document to the stream writer.
+   *
+   * @param mediaPackage
+   *          the media package, which must be {@link #isSupported(MediaPackage) supported}
+   * @param writer
+   *          the stream writer
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  static void write(MediaPackage mediaPackage, XMLStreamWriter writer) throws XMLStreamException {
+    writer.writeStartDocument();
+    ((MediaPackageImpl) mediaPackage).writeXml(writer);
+    writer.writeEndDocument();
+    writer.flush();
+  }
+
+  /**
+   * Starts an element in the media package namespace.
+   *
+   * @param writer
+   *          the stream writer
+   * @param name
+   *          the local name of the element
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  public static void writeStartElement(XMLStreamWriter writer, String name) throws XMLStreamException {
+    writer.writeStartElement("", name, NAMESPACE);
+  }
+
+  /**
+   * Writes an unqualified attribute, unless its value is <code>null</code>.
+   *
+   * @param writer
+   *          the stream writer
+   * @param name
+   *          the attribute name
+   * @param value
+   *          the attribute value, may be <code>null</code>
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  public static void writeAttribute(XMLStreamWriter writer, String name, Object value) throws XMLStreamException {
+    if (value != null)
+      writer.writeAttribute(name, print(value));
+  }
+
+  /**
+   * Writes an element containing the value as text, unless the value is <code>null</code>.
+   *
+   * @param writer
+   *          the stream writer
+   * @param name
+   *          the local name of the element
+   * @param value
+   *          the element value, may be <code>null</code>
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  public static void writeElement(XMLStreamWriter writer, String name, Object value) throws XMLStreamException {
+    if (value == null)
+      return;
+    writeStartElement(writer, name);
+    writeText(writer, print(value));
+    writer.writeEndElement();
+  }
+
+  /**
+   * Writes the text content of an element. Like JAXB does for stream writers, line breaks are passed on as character
+   * references so that they survive parsing.
+   *
+   * @param writer
+   *          the stream writer
+   * @param text
+   *          the text
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  public static void writeText(XMLStreamWriter writer, String text) throws XMLStreamException {
+    if (writer instanceof XmlTextWriter) {
+      writer.writeCharacters(text);
+      return;
+    }
+    char[] chars = text.toCharArray();
+    int start = 0;
+    for (int i = 0; i < chars.length; i++) {
+      char c = chars[i];
+      if (c == '\r' || c == '\n') {
+        if (i != start)
+          writer.writeCharacters(chars, start, i - start);
+        start = i + 1;
+        writer.writeEntityRef("#x" + Integer.toHexString(c));
+      }
+    }
+    if (start != chars.length)
+      writer.writeCharacters(chars, start, chars.length - start);
+  }
+
+  /**
+   * Returns the lexical representation JAXB uses for the value.
+   */
+  private static String print(Object value) {
+    if (value instanceof Float) {
+      float f = (Float) value;
+      if (Float.isNaN(f))
+        return "NaN";
+      if (Float.isInfinite(f))
+        return f > 0 ? "INF" : "-INF";
+      return String.valueOf(f);
+    }
+    if (value instanceof Enum)
+      return ((Enum<?>) value).name();
+    return value.toString();
+  }
+
+  /**
+   * Minimal stream writer rendering XML text the way the JAXB reference implementation does: with a standalone
+   * declaration, namespace declarations following the attributes, empty elements collapsed and only the characters
+   * escaped that have to be.
+   */
+  private static final class XmlTextWriter implements XMLStreamWriter {
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    private final Deque<String> elements = new ArrayDeque<>();
+
+    private final List<String> namespaces = new ArrayList<>();
+
+    private boolean startTagOpen = false;
+
+    @Override
+    public void writeStartDocument() {
+      out.append(XML_DECLARATION);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) {
+      closeStartTag();
+      String name = prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+      out.append('<').append(name);
+      elements.push(name);
+      startTagOpen = true;
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) {
+      namespaces.add(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix);
+      namespaces.add(namespaceURI);
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) {
+      out.append(' ').append(localName).append("=\"");
+      escape(value, true);
+      out.append('"');
+    }
+
+    @Override
+    public void writeCharacters(String text) {
+      closeStartTag();
+      escape(text, false);
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) {
+      writeCharacters(new String(text, start, len));
+    }
+
+    @Override
+    public void writeEndElement() {
+      String name = elements.pop();
+      if (startTagOpen) {
+        writeNamespaces();
+        out.append("/>");
+        startTagOpen = false;
+      } else {
+        out.append("</").append(name).append('>');
+      }
+    }
+
+    @Override
+    public void writeEndDocument() {
+      while (!elements.isEmpty())
+        writeEndElement();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+      return out.toString();
+    }
+
+    private void closeStartTag() {
+      if (startTagOpen) {
+        writeNamespaces();
+        out.append('>');
+        startTagOpen = false;
+      }
+    }
+
+    private void writeNamespaces() {
+      for (int i = 0; i < namespaces.size(); i += 2) {
+        out.append(' ').append(namespaces.get(i)).append("=\"");
+        escape(namespaces.get(i + 1), true);
+        out.append('"');
+      }
+      namespaces.clear();
+    }
+
+    private void escape(String text, boolean attribute) {
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        switch (c) {
+          case '&':
+            out.append("&amp;");
+            break;
+          case '<':
+            out.append("&lt;");
+            break;
+          case '>':
+            out.append("&gt;");
+            break;
+          case '\r':
+            out.append("&#xD;");
+            break;
+          case '\n':
+            out.append(attribute ? "&#xA;" : "\n");
+            break;
+          case '"':
+            out.append(attribute ? "&quot;" : "\"");
+            break;
+          default:
+            out.append(c);
+        }
+      }
+    }
+
+    @Override
+    public void writeStartElement(String localName) {
+      writeStartElement("", localName, "");
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) {
+      writeStartElement("", localName, namespaceURI);
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) {
+      writeNamespace("", namespaceURI);
+    }
+
+    @Override
+    public void writeComment(String data) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeCData(String data) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeDTD(String dtd) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeEntityRef(String name) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeStartDocument(String version) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getPrefix(String uri) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object getProperty(String name) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
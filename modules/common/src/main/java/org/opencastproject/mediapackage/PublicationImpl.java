@@ -36,6 +36,8 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 @XmlAccessorType(XmlAccessType.NONE)
 @XmlType(name = "publication", namespace = "http://mediapackage.opencastproject.org")
@@ -169,6 +171,20 @@ public class PublicationImpl extends AbstractMediaPackageElement implements Publ
     }
   }
 
+  @Override
+  protected void writeXmlAttributes(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlAttributes(writer);
+    MediaPackageXmlWriter.writeAttribute(writer, "channel", channel);
+  }
+
+  @Override
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlContent(writer);
+    writeXmlElements(writer, "media", "track", tracks);
+    writeXmlElements(writer, "attachments", "attachment", attachments);
+    writeXmlElements(writer, "metadata", "catalog", catalogs);
+  }
+
   /** JAXB adapter */
   public static class Adapter extends XmlAdapter<PublicationImpl, Publication> {
     @Override
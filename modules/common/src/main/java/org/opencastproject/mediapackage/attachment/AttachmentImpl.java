@@ -24,6 +24,7 @@ package org.opencastproject.mediapackage.attachment;
 import org.opencastproject.mediapackage.AbstractMediaPackageElement;
 import org.opencastproject.mediapackage.Attachment;
 import org.opencastproject.mediapackage.MediaPackageElementFlavor;
+import org.opencastproject.mediapackage.MediaPackageXmlWriter;
 import org.opencastproject.util.Checksum;
 import org.opencastproject.util.MimeType;
 import org.opencastproject.util.MimeTypes;
@@ -42,6 +43,8 @@ import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.XmlValue;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 /**
  * Basic implementation of an attachment.
@@ -120,6 +123,23 @@ public class AttachmentImpl extends AbstractMediaPackageElement implements Attac
     return properties;
   }
 
+  @Override
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlContent(writer);
+    if (properties == null || properties.isEmpty())
+      return;
+    MediaPackageXmlWriter.writeStartElement(writer, "additionalProperties");
+    for (String key : properties.keySet()) {
+      MediaPackageXmlWriter.writeStartElement(writer, "property");
+      MediaPackageXmlWriter.writeAttribute(writer, "key", key);
+      String value = properties.get(key);
+      if (value != null)
+        MediaPackageXmlWriter.writeText(writer, value);
+      writer.writeEndElement();
+    }
+    writer.writeEndElement();
+  }
+
   /**
    * JAXB properties xml adapter class.
    */
@@ -23,6 +23,7 @@
 package org.opencastproject.mediapackage.track;
 
 import org.opencastproject.mediapackage.MediaPackageSerializer;
+import org.opencastproject.mediapackage.MediaPackageXmlWriter;
 import org.opencastproject.mediapackage.Stream;
 
 import org.w3c.dom.Document;
@@ -35,6 +36,8 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlID;
 import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 @XmlTransient
 @XmlAccessorType(XmlAccessType.NONE)
@@ -144,6 +147,48 @@ public abstract class AbstractStreamImpl implements Stream {
     this.encoder.vendor = encoderLibraryVendor;
   }
 
+  /**
+   * Writes this stream the way the JAXB marshaller does.
+   *
+   * @param writer
+   *          the stream writer
+   * @param name
+   *          the local name of the element
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  void writeXml(XMLStreamWriter writer, String name) throws XMLStreamException {
+    MediaPackageXmlWriter.writeStartElement(writer, name);
+    MediaPackageXmlWriter.writeAttribute(writer, "id", identifier);
+    writeXmlContent(writer);
+    writer.writeEndElement();
+  }
+
+  /**
+   * Writes the child elements of this stream. Subclasses write their elements after the ones of this class.
+   *
+   * @param writer
+   *          the stream writer
+   * @throws XMLStreamException
+   *           if writing fails
+   */
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    if (device != null)
+      writeSoftware(writer, "device", device.type, device.version, device.vendor);
+    if (encoder != null)
+      writeSoftware(writer, "encoder", encoder.type, encoder.version, encoder.vendor);
+    MediaPackageXmlWriter.writeElement(writer, "framecount", frameCount);
+  }
+
+  private static void writeSoftware(XMLStreamWriter writer, String name, String type, String version, String vendor)
+          throws XMLStreamException {
+    MediaPackageXmlWriter.writeStartElement(writer, name);
+    MediaPackageXmlWriter.writeAttribute(writer, "type", type);
+    MediaPackageXmlWriter.writeAttribute(writer, "version", version);
+    MediaPackageXmlWriter.writeAttribute(writer, "vendor", vendor);
+    writer.writeEndElement();
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -24,6 +24,7 @@ package org.opencastproject.mediapackage.track;
 
 import org.opencastproject.mediapackage.AudioStream;
 import org.opencastproject.mediapackage.MediaPackageSerializer;
+import org.opencastproject.mediapackage.MediaPackageXmlWriter;
 
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Document;
@@ -36,6 +37,8 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathException;
@@ -76,6 +79,18 @@ public class AudioStreamImpl extends AbstractStreamImpl implements AudioStream {
     super(identifier);
   }
 
+  @Override
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlContent(writer);
+    MediaPackageXmlWriter.writeElement(writer, "bitdepth", bitdepth);
+    MediaPackageXmlWriter.writeElement(writer, "channels", channels);
+    MediaPackageXmlWriter.writeElement(writer, "samplingrate", samplingrate);
+    MediaPackageXmlWriter.writeElement(writer, "bitrate", bitrate);
+    MediaPackageXmlWriter.writeElement(writer, "peakleveldb", pkLevDb);
+    MediaPackageXmlWriter.writeElement(writer, "rmsleveldb", rmsLevDb);
+    MediaPackageXmlWriter.writeElement(writer, "rmspeakdb", rmsPkDb);
+  }
+
   /**
    * @see org.opencastproject.mediapackage.ManifestContributor#toManifest(org.w3c.dom.Document,
    *      org.opencastproject.mediapackage.MediaPackageSerializer)
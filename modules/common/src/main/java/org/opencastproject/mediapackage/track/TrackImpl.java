@@ -27,6 +27,7 @@ import org.opencastproject.mediapackage.AudioStream;
 import org.opencastproject.mediapackage.MediaPackageElementFlavor;
 import org.opencastproject.mediapackage.MediaPackageException;
 import org.opencastproject.mediapackage.MediaPackageSerializer;
+import org.opencastproject.mediapackage.MediaPackageXmlWriter;
 import org.opencastproject.mediapackage.Stream;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.mediapackage.VideoStream;
@@ -49,6 +50,8 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 /**
  * This class is the base implementation for a media track, which itself is part of a media package, representing e. g.
@@ -281,6 +284,33 @@ public class TrackImpl extends AbstractMediaPackageElement implements Track {
     return node;
   }
 
+  @Override
+  protected void writeXmlAttributes(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlAttributes(writer);
+    MediaPackageXmlWriter.writeAttribute(writer, "transport", transport);
+  }
+
+  @Override
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlContent(writer);
+    MediaPackageXmlWriter.writeElement(writer, "duration", duration);
+    if (audio != null) {
+      for (AudioStream s : audio) {
+        if (s != null)
+          ((AbstractStreamImpl) s).writeXml(writer, "audio");
+      }
+    }
+    if (video != null) {
+      for (VideoStream s : video) {
+        if (s != null)
+          ((AbstractStreamImpl) s).writeXml(writer, "video");
+      }
+    }
+    MediaPackageXmlWriter.writeElement(writer, "live", live);
+    MediaPackageXmlWriter.writeElement(writer, "master", master);
+    MediaPackageXmlWriter.writeElement(writer, "logicalname", logicalname);
+  }
+
   /**
    * This implementation returns the track's mime type.
    *
@@ -23,6 +23,7 @@
 package org.opencastproject.mediapackage.track;
 
 import org.opencastproject.mediapackage.MediaPackageSerializer;
+import org.opencastproject.mediapackage.MediaPackageXmlWriter;
 import org.opencastproject.mediapackage.VideoStream;
 
 import org.apache.commons.lang3.StringUtils;
@@ -37,6 +38,8 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathException;
@@ -193,6 +196,20 @@ public class VideoStreamImpl extends AbstractStreamImpl implements VideoStream {
     return vs;
   }
 
+  @Override
+  protected void writeXmlContent(XMLStreamWriter writer) throws XMLStreamException {
+    super.writeXmlContent(writer);
+    MediaPackageXmlWriter.writeElement(writer, "bitrate", bitRate);
+    MediaPackageXmlWriter.writeElement(writer, "framerate", frameRate);
+    MediaPackageXmlWriter.writeElement(writer, "resolution", resolution);
+    if (scanType != null) {
+      MediaPackageXmlWriter.writeStartElement(writer, "scantype");
+      MediaPackageXmlWriter.writeAttribute(writer, "type", scanType.type);
+      MediaPackageXmlWriter.writeAttribute(writer, "order", scanType.order);
+      writer.writeEndElement();
+    }
+  }
+
   /**
    * @see org.opencastproject.mediapackage.ManifestContributor#toManifest(org.w3c.dom.Document,
    *      org.opencastproject.mediapackage.MediaPackageSerializer)
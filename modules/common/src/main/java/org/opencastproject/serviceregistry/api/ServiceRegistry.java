@@ -23,10 +23,12 @@ package org.opencastproject.serviceregistry.api;
 
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.serviceregistry.api.SystemLoad.NodeLoad;
 import org.opencastproject.util.NotFoundException;
 
 import java.util.List;
+import java.util.Optional;
 
 /** Manages clustered services and the {@link Job}s they may create to enable asynchronous job handling. */
 public interface ServiceRegistry {
@@ -342,6 +344,19 @@ public interface ServiceRegistry {
    */
   Job getJob(long id) throws NotFoundException, ServiceRegistryException;
 
+  /**
+   * Gets the progress reported by a running job, asking the node processing it if necessary.
+   *
+   * @param id
+   *          the job id
+   * @return the progress or nothing if the job is not running or does not report progress
+   * @throws NotFoundException
+   *           if the job does not exist
+   * @throws ServiceRegistryException
+   *           if there is a problem accessing the job
+   */
+  Optional<JobProgress> getJobProgress(long id) throws NotFoundException, ServiceRegistryException;
+
   /**
    * Deletes the given jobs from the service registry
    *
@@ -27,6 +27,7 @@ import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobImpl;
 import org.opencastproject.job.api.JobParser;
 import org.opencastproject.job.api.JobProducer;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
@@ -51,6 +52,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -608,6 +610,20 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobProgress(long)
+   */
+  @Override
+  public Optional<JobProgress> getJobProgress(long id) throws NotFoundException, ServiceRegistryException {
+    synchronized (jobs) {
+      if (!jobs.containsKey(id))
+        throw new NotFoundException(Long.toString(id));
+    }
+    return JobProgress.get(id);
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -0,0 +1,291 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.util;
+
+import static java.lang.String.format;
+import static java.nio.file.Files.createLink;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.exists;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transfers files between the storage areas of a node (working file repository, workspace, asset manager) using the
+ * cheapest mechanism the underlying storage supports. In order, this is
+ * <ol>
+ * <li>a hard link, if allowed by the caller,</li>
+ * <li>a reflink (copy-on-write clone) on file systems supporting it, like Btrfs or XFS,</li>
+ * <li>a kernel side copy using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},</li>
+ * <li>a plain stream copy.</li>
+ * </ol>
+ * The number of files and bytes transferred using each of the modes are counted for monitoring purposes.
+ */
+public final class FileTransfer {
+
+  /** The mechanism used to transfer a file */
+  public enum Mode {
+    /** The target is a hard link to the source */
+    LINK,
+    /** The target is a copy-on-write clone of the source */
+    REFLINK,
+    /** The source has been renamed to the target */
+    RENAME,
+    /** The data has been copied by the kernel */
+    CHANNEL,
+    /** The data has been copied through a buffer */
+    STREAM
+  }
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(FileTransfer.class);
+
+  /** The number of files transferred per mode */
+  private static final Map<Mode, AtomicLong> files = new EnumMap<>(Mode.class);
+
+  /** The number of bytes transferred per mode */
+  private static final Map<Mode, AtomicLong> bytes = new EnumMap<>(Mode.class);
+
+  static {
+    for (Mode mode : Mode.values()) {
+      files.put(mode, new AtomicLong());
+      bytes.put(mode, new AtomicLong());
+    }
+  }
+
+  /** The file stores on which creating a reflink failed before */
+  private static final Set<FileStore> reflinkUnsupported = ConcurrentHashMap.newKeySet();
+
+  /** Whether reflinks are tried at all. Creating them relies on GNU coreutils <code>cp</code>. */
+  private static volatile boolean reflinkEnabled = SystemUtils.IS_OS_LINUX;
+
+  /** Disable construction of this utility class */
+  private FileTransfer() {
+  }
+
+  /**
+   * Transfers <code>source</code> to <code>target</code>, replacing an existing file at the target location. Missing
+   * parent directories of the target are created.
+   * <p>
+   * Note that a hard link shares its data with the source, so changes made to one of the files will affect the other.
+   * Callers must only allow linking if neither of the files is modified in place later on.
+   *
+   * @param source
+   *          the source file
+   * @param target
+   *          the target file
+   * @param allowLink
+   *          <code>true</code> to try to create a hard link first
+   * @return the mode used to transfer the file
+   * @throws IOException
+   *           if the file could not be transferred
+   */
+  public static Mode transfer(File source, File target, boolean allowLink) throws IOException {
+    final Path sourcePath = requireNonNull(source).toPath();
+    final Path targetPath = requireNonNull(target).toPath();
+    if (!Files.isRegularFile(sourcePath))
+      throw new IOException(format("No file found at %s", sourcePath));
+    if (sourcePath.toAbsolutePath().normalize().equals(targetPath.toAbsolutePath().normalize()))
+      throw new IOException("Source and target locations must be different");
+
+    Files.createDirectories(targetPath.toAbsolutePath().getParent());
+    deleteIfExists(targetPath);
+    final long size = Files.size(sourcePath);
+
+    if (allowLink) {
+      try {
+        createLink(targetPath, sourcePath);
+        return count(Mode.LINK, size);
+      } catch (UnsupportedOperationException | IOException e) {
+        logger.debug("Unable to create a hard link from {} to {}: {}", sourcePath, targetPath, e.getMessage());
+      }
+    }
+
+    if (reflink(sourcePath, targetPath))
+      return count(Mode.REFLINK, size);
+
+    try {
+      channelCopy(sourcePath, targetPath, size);
+      return count(Mode.CHANNEL, size);
+    } catch (IOException e) {
+      logger.debug("Unable to copy {} to {} using channels, falling back to stream copy: {}", sourcePath, targetPath,
+              e.getMessage());
+    }
+
+    try (InputStream in = Files.newInputStream(sourcePath); OutputStream out = Files.newOutputStream(targetPath)) {
+      IOUtils.copyLarge(in, out);
+    } catch (IOException e) {
+      deleteIfExists(targetPath);
+      throw e;
+    }
+    return count(Mode.STREAM, size);
+  }
+
+  /**
+   * Moves <code>source</code> to <code>target</code>, replacing an existing file at the target location. The file is
+   * renamed if both locations are on the same file system and transferred using
+   * {@link #transfer(File, File, boolean)} followed by removing the source otherwise.
+   *
+   * @param source
+   *          the source file
+   * @param target
+   *          the target file
+   * @return the mode used to transfer the file
+   * @throws IOException
+   *           if the file could not be moved
+   */
+  public static Mode move(File source, File target) throws IOException {
+    final Path sourcePath = requireNonNull(source).toPath();
+    final Path targetPath = requireNonNull(target).toPath();
+    if (!exists(sourcePath))
+      throw new IOException(format("No file found at %s", sourcePath));
+
+    Files.createDirectories(targetPath.toAbsolutePath().getParent());
+    final long size = Files.size(sourcePath);
+    try {
+      Files.move(sourcePath, targetPath, ATOMIC_MOVE);
+      return count(Mode.RENAME, size);
+    } catch (IOException e) {
+      logger.debug("Unable to rename {} to {}: {}", sourcePath, targetPath, e.getMessage());
+    }
+
+    // A hard link is fine here, since the source is removed anyway
+    final Mode mode = transfer(source, target, true);
+    Files.delete(sourcePath);
+    return mode;
+  }
+
+  /**
+   * Enables or disables the use of reflinks.
+   *
+   * @param enabled
+   *          <code>true</code> to try to create reflinks on Linux systems
+   */
+  public static void setReflinkEnabled(boolean enabled) {
+    reflinkEnabled = enabled && SystemUtils.IS_OS_LINUX;
+    reflinkUnsupported.clear();
+  }
+
+  /**
+   * Returns the number of files transferred using the given mode since the start of this node.
+   *
+   * @param mode
+   *          the transfer mode
+   * @return the number of files
+   */
+  public static long getFileCount(Mode mode) {
+    return files.get(mode).get();
+  }
+
+  /**
+   * Returns the number of bytes transferred using the given mode since the start of this node. Linked, cloned and
+   * renamed files are counted with their full size, even though no data is actually copied.
+   *
+   * @param mode
+   *          the transfer mode
+   * @return the number of bytes
+   */
+  public static long getByteCount(Mode mode) {
+    return bytes.get(mode).get();
+  }
+
+  private static Mode count(Mode mode, long size) {
+    files.get(mode).incrementAndGet();
+    bytes.get(mode).addAndGet(size);
+    return mode;
+  }
+
+  /**
+   * Tries to create a copy-on-write clone of the source file. Clones can only be created within a file system, file
+   * stores which turn out not to support them are not tried again.
+   */
+  private static boolean reflink(Path sourcePath, Path targetPath) {
+    if (!reflinkEnabled)
+      return false;
+
+    final FileStore store;
+    try {
+      store = Files.getFileStore(sourcePath);
+      if (reflinkUnsupported.contains(store))
+        return false;
+      if (!store.equals(Files.getFileStore(targetPath.toAbsolutePath().getParent())))
+        return false;
+    } catch (IOException e) {
+      return false;
+    }
+
+    try {
+      final Process process = new ProcessBuilder("cp", "--reflink=always", "--", sourcePath.toString(),
+              targetPath.toString()).redirectErrorStream(true).redirectOutput(Redirect.DISCARD).start();
+      if (process.waitFor() == 0)
+        return true;
+      logger.info("File system {} does not support reflinks, falling back to copying files", store);
+      reflinkUnsupported.add(store);
+    } catch (IOException e) {
+      logger.info("Unable to create reflinks, falling back to copying files: {}", e.getMessage());
+      reflinkEnabled = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      deleteIfExists(targetPath);
+    } catch (IOException e) {
+      logger.debug("Unable to remove {} after failed reflink attempt", targetPath, e);
+    }
+    return false;
+  }
+
+  private static void channelCopy(Path sourcePath, Path targetPath, long size) throws IOException {
+    try (FileChannel in = FileChannel.open(sourcePath, StandardOpenOption.READ);
+         FileChannel out = FileChannel.open(targetPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+      long position = 0;
+      while (position < size) {
+        final long transferred = in.transferTo(position, size - position, out);
+        if (transferred <= 0)
+          throw new IOException(format("Channel copy of %s stalled after %d of %d bytes", sourcePath, position, size));
+        position += transferred;
+      }
+    }
+  }
+
+}
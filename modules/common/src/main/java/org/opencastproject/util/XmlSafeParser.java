@@ -34,6 +34,11 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.SAXParserFactory;
+// CHECKSTYLE:OFF
+import javax.xml.stream.XMLInputFactory;
+// CHECKSTYLE:ON
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.TransformerFactory;
 
 
@@ -97,6 +102,47 @@ public final class XmlSafeParser {
     return f;
   }
 
+  /**
+   * Creates a preconfigured StAX input factory, which does not support DTDs and external entities and is therefore
+   * guarded against XXE and billion laugh attacks.
+   * @return the preconfigured input factory
+   */
+  // CHECKSTYLE:OFF
+  private static XMLInputFactory newXMLInputFactory() {
+    XMLInputFactory f = XMLInputFactory.newInstance();
+    try {
+      f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      f.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    }
+    catch (Exception e) {
+      // this shouldn't occur
+      logger.error("Failed to configure safe XMLInputFactory to prevent XXE.");
+      throw new AssertionError("Failed to configure safe XMLInputFactory to prevent XXE.", e);
+    }
+
+    return f;
+  }
+
+  /**
+   * The StAX input factories for {@link #createXMLStreamReader(InputStream)}, one per thread like the DocumentBuilder
+   * below.
+   */
+  private static ThreadLocal<XMLInputFactory> xif = ThreadLocal.withInitial(XmlSafeParser::newXMLInputFactory);
+  // CHECKSTYLE:ON
+
+  /**
+   * Creates a namespace aware StAX reader for the given document, which is guarded against XXE and billion laugh
+   * attacks.
+   * Unlike {@link #parse(InputStream)}, this does not build a DOM tree and allows the Unmarshaller to process the
+   * document while it is read.
+   * @param in the document to read
+   * @return the stream reader
+   */
+  public static XMLStreamReader createXMLStreamReader(InputStream in) throws XMLStreamException {
+    return xif.get().createXMLStreamReader(in);
+  }
+
   /**
    * Creates a preconfigured default TransformerFactory, which is guarded against XXE and billion laugh attacks.
    * @return the preconfigured TransformerFactory
@@ -22,7 +22,10 @@
 package org.opencastproject.job.api;
 
 import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.opencastproject.util.data.Collections.toArray;
 import static org.opencastproject.util.data.Monadics.mlist;
 
@@ -56,6 +59,88 @@ public class JobBarrierTest {
     }
   }
 
+  @Test
+  public void testWaitForJobsNotified() throws Exception {
+    final JobImpl job = new JobImpl(42L);
+    job.setStatus(Job.Status.RUNNING);
+    final JobImpl finishedJob = new JobImpl(42L);
+    finishedJob.setStatus(Job.Status.FINISHED);
+    finishedJob.setPayload("result");
+
+    // the service registry keeps reporting the job as running, so only the notification can end the wait
+    final ServiceRegistry sr = createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(sr.getJob(42L)).andReturn(job).anyTimes();
+    EasyMock.replay(sr);
+
+    JobCompletionNotifier.enable(60000L);
+    try {
+      final Thread publisher = new Thread(() -> {
+        while (!JobCompletionNotifier.hasListeners(42L)) {
+          Thread.yield();
+        }
+        JobCompletionNotifier.publish(finishedJob);
+      });
+      publisher.start();
+      final long start = System.currentTimeMillis();
+      final JobBarrier.Result result = new JobBarrier(null, sr, 10, job).waitForJobs();
+      publisher.join();
+
+      assertTrue(result.isSuccess());
+      assertEquals("result", job.getPayload());
+      assertTrue("Barrier did not wake up on notification", System.currentTimeMillis() - start < 60000L);
+      assertFalse(JobCompletionNotifier.hasListeners(42L));
+    } finally {
+      JobCompletionNotifier.disable();
+    }
+  }
+
+  @Test
+  public void testWaitForJobsFinishedBeforeRegistration() throws Exception {
+    final JobImpl job = new JobImpl(43L);
+    job.setStatus(Job.Status.RUNNING);
+    final JobImpl finishedJob = new JobImpl(43L);
+    finishedJob.setStatus(Job.Status.FINISHED);
+
+    // the job is already done, so no notification will ever be published
+    final ServiceRegistry sr = createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(sr.getJob(43L)).andReturn(finishedJob).anyTimes();
+    EasyMock.replay(sr);
+
+    JobCompletionNotifier.enable(60000L);
+    try {
+      final long start = System.currentTimeMillis();
+      final JobBarrier.Result result = new JobBarrier(null, sr, 10, job).waitForJobs();
+
+      assertTrue(result.isSuccess());
+      assertTrue("Barrier did not poll right away", System.currentTimeMillis() - start < 60000L);
+    } finally {
+      JobCompletionNotifier.disable();
+    }
+  }
+
+  @Test
+  public void testWaitForJobsTimeout() throws Exception {
+    final JobImpl waiter = new JobImpl(44L);
+    waiter.setStatus(Job.Status.RUNNING);
+    final JobImpl job = new JobImpl(45L);
+    job.setStatus(Job.Status.QUEUED);
+
+    // the job is never dispatched
+    final ServiceRegistry sr = createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(sr.getJob(44L)).andReturn(waiter).anyTimes();
+    EasyMock.expect(sr.getJob(45L)).andReturn(job).anyTimes();
+    EasyMock.replay(sr);
+
+    final long start = System.currentTimeMillis();
+    try {
+      new JobBarrier(waiter, sr, 10, job).waitForJobs(500);
+      fail("The barrier did not time out");
+    } catch (IllegalStateException e) {
+      assertTrue("Barrier returned before the timeout", System.currentTimeMillis() - start >= 500);
+      assertEquals(Job.Status.RUNNING, waiter.getStatus());
+    }
+  }
+
   private void runWaitForJobsTest(Function<Long, TestJob> jobCreator) throws Exception {
     // create a bunch of jobs
     final Map<Long, TestJob> jobs = new HashMap<Long, TestJob>();
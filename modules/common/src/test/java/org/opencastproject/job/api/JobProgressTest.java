@@ -0,0 +1,94 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class JobProgressTest {
+
+  private Job createJob(long id) {
+    return new JobImpl(id, "test", "test_org", 0L, "simple", "encode", Collections.emptyList(), Job.Status.RUNNING,
+            "localhost", "localhost", null, null, null, null, null, null, null, null, true, null, 1.0F);
+  }
+
+  @Test
+  public void testLifecycle() throws Exception {
+    final JobProgress progress = JobProgress.start(createJob(101L));
+    assertTrue(JobProgress.get(101L).isPresent());
+    assertNull(progress.getCompleted());
+    assertNull(progress.getEstimatedTimeRemaining());
+
+    progress.setDuration(60000L);
+    progress.update(15000L, 375L, 2.5F);
+    assertEquals(0.25F, progress.getCompleted(), 0.001F);
+    assertEquals(18000L, progress.getEstimatedTimeRemaining().longValue());
+
+    progress.finish();
+    assertFalse(JobProgress.get(101L).isPresent());
+  }
+
+  @Test
+  public void testTotals() throws Exception {
+    final long processedTime = JobProgress.getTotalProcessedTime();
+    final long frames = JobProgress.getTotalFrames();
+    final JobProgress progress = JobProgress.start(createJob(102L));
+    progress.update(1000L, 25L, 1F);
+    progress.update(3000L, 75L, 1F);
+    // A restarted process must not decrease the totals
+    progress.update(500L, 10L, 1F);
+    progress.finish();
+    assertEquals(processedTime + 3000L, JobProgress.getTotalProcessedTime());
+    assertEquals(frames + 75L, JobProgress.getTotalFrames());
+  }
+
+  @Test
+  public void testJson() throws Exception {
+    final JobProgress progress = JobProgress.start(createJob(103L));
+    progress.setDuration(10000L);
+    progress.update(5000L, 125L, 0.5F);
+    progress.finish();
+
+    final JobProgress parsed = JobProgress.fromJson(progress.toJson());
+    assertEquals(103L, parsed.getJobId());
+    assertEquals("simple", parsed.getJobType());
+    assertEquals("encode", parsed.getOperation());
+    assertEquals(10000L, parsed.getDuration().longValue());
+    assertEquals(5000L, parsed.getProcessedTime());
+    assertEquals(125L, parsed.getFrames());
+    assertEquals(0.5F, parsed.getSpeed(), 0.001F);
+    assertEquals(progress.getUpdated(), parsed.getUpdated());
+    assertFalse(JobProgress.get(103L).isPresent());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidJson() throws Exception {
+    JobProgress.fromJson("{\"job\":\"x\"}");
+  }
+
+}
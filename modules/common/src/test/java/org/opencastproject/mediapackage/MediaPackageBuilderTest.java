@@ -127,4 +127,18 @@ public class MediaPackageBuilderTest extends AbstractMediaPackageTest {
     // Test presence of attachments
     assertEquals(2, mediaPackage.getAttachments().length);
   }
+
+  /**
+   * Make sure that reading a manifest from a stream and from a DOM node yield the same media package.
+   */
+  @Test
+  public void testLoadFromStreamEqualsLoadFromNode() throws Exception {
+    DocumentBuilder docBuilder = XmlSafeParser.newDocumentBuilderFactory().newDocumentBuilder();
+    MediaPackage fromNode = mediaPackageBuilder.loadFromXml(docBuilder.parse(manifestFile));
+    MediaPackage fromStream;
+    try (FileInputStream in = new FileInputStream(manifestFile)) {
+      fromStream = mediaPackageBuilder.loadFromXml(in);
+    }
+    assertEquals(MediaPackageParser.getAsXml(fromNode), MediaPackageParser.getAsXml(fromStream));
+  }
 }
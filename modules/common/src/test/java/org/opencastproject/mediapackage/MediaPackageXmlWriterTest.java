@@ -0,0 +1,166 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.mediapackage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.identifier.IdImpl;
+import org.opencastproject.mediapackage.track.AudioStreamImpl;
+import org.opencastproject.mediapackage.track.ScanOrder;
+import org.opencastproject.mediapackage.track.ScanType;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.mediapackage.track.VideoStreamImpl;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.MimeTypes;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Date;
+
+/**
+ * Tests that the streaming serializer writes exactly what the JAXB marshaller writes.
+ */
+public class MediaPackageXmlWriterTest {
+
+  private static final String SPECIAL = "A & B <c> \"d\" 'e'\r\nnext\tline";
+
+  @Test
+  public void testEmptyMediaPackage() throws Exception {
+    MediaPackage mp = new MediaPackageImpl(new IdImpl("empty"));
+    assertTrue(MediaPackageXmlWriter.isSupported(mp));
+    assertEquals(MediaPackageParser.getAsXmlWithJaxb(mp), MediaPackageParser.getAsXml(mp));
+    assertEquals(MediaPackageParser.getAsJSONWithJaxb(mp), MediaPackageParser.getAsJSON(mp));
+  }
+
+  @Test
+  public void testMediaPackage() throws Exception {
+    MediaPackage mp = createMediaPackage();
+    assertTrue(MediaPackageXmlWriter.isSupported(mp));
+    assertEquals(MediaPackageParser.getAsXmlWithJaxb(mp), MediaPackageParser.getAsXml(mp));
+    assertEquals(MediaPackageParser.getAsJSONWithJaxb(mp), MediaPackageParser.getAsJSON(mp));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    MediaPackage mp = createMediaPackage();
+    String xml = MediaPackageParser.getAsXml(mp);
+    MediaPackage parsed = MediaPackageParser.getFromXml(xml);
+    assertEquals(xml, MediaPackageParser.getAsXml(parsed));
+    assertEquals(SPECIAL, parsed.getTitle());
+    assertEquals(mp.getTracks().length, parsed.getTracks().length);
+    assertEquals(mp.getPublications()[0].getTracks().length, parsed.getPublications()[0].getTracks().length);
+  }
+
+  @Test
+  public void testUnsupportedElementsFallBackToJaxb() throws Exception {
+    MediaPackage mp = new MediaPackageImpl(new IdImpl("custom"));
+    Catalog catalog = new CatalogImpl() {
+      private static final long serialVersionUID = 1L;
+    };
+    catalog.setURI(new URI("http://localhost/custom.xml"));
+    mp.add(catalog);
+    assertFalse(MediaPackageXmlWriter.isSupported(mp));
+    assertEquals(MediaPackageParser.getAsXmlWithJaxb(mp), MediaPackageParser.getAsXml(mp));
+  }
+
+  private static MediaPackage createMediaPackage() throws Exception {
+    MediaPackage mp = new MediaPackageImpl(new IdImpl("10.0000/5819"));
+    mp.setTitle(SPECIAL);
+    mp.setSeries("series");
+    mp.setSeriesTitle("");
+    mp.addCreator("Creator 1");
+    mp.addCreator("Creator 2");
+    mp.addContributor("Contributor");
+    mp.addSubject(SPECIAL);
+    mp.setLicense("CC-BY");
+    mp.setLanguage("en");
+    mp.setDate(new Date(1500000000000L));
+
+    TrackImpl track = TrackImpl.fromURI(new URI("http://localhost/video.mp4?a=1&b=2"));
+    track.setIdentifier("track-1");
+    track.setFlavor(MediaPackageElements.PRESENTER_SOURCE);
+    track.setDuration(60000L);
+    track.setSize(1024L);
+    track.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, "123456abcd"));
+    track.setTransport(TrackImpl.StreamingProtocol.HLS);
+    track.setMaster(true);
+    track.setLogicalName(SPECIAL);
+    track.addTag("engage");
+    track.addTag("archive");
+    AudioStreamImpl audio = new AudioStreamImpl("audio-1");
+    audio.setBitDepth(16);
+    audio.setChannels(2);
+    audio.setSamplingRate(44100);
+    audio.setBitRate(128000.5f);
+    audio.setPkLevDb(Float.NEGATIVE_INFINITY);
+    audio.setRmsLevDb(Float.NaN);
+    audio.setRmsPkDb(-3.25f);
+    audio.setCaptureDevice("mic");
+    audio.setFormat("AAC");
+    audio.setFormatVersion("2");
+    audio.setEncoderLibraryVendor(SPECIAL);
+    track.addStream(audio);
+    VideoStreamImpl video = new VideoStreamImpl("video-1");
+    video.setBitRate(1.0E7f);
+    video.setFrameRate(25f);
+    video.setFrameWidth(1920);
+    video.setFrameHeight(1080);
+    video.setScanType(ScanType.Progressive);
+    video.setScanOrder(ScanOrder.TopFieldFirst);
+    video.setFrameCount(1500L);
+    track.addStream(video);
+    track.addStream(new VideoStreamImpl("video-2"));
+    mp.add(track);
+
+    TrackImpl live = TrackImpl.fromURI(new URI("rtmp://localhost/live"));
+    live.setLive(true);
+    mp.add(live);
+
+    Catalog catalog = CatalogImpl.fromURI(new URI("http://localhost/episode.xml"));
+    catalog.setFlavor(MediaPackageElements.EPISODE);
+    mp.add(catalog);
+    Catalog derived = CatalogImpl.fromURI(new URI("http://localhost/derived.xml"));
+    mp.addDerived(derived, catalog);
+
+    Attachment attachment = AttachmentImpl.fromURI(new URI("http://localhost/image.png"));
+    attachment.getProperties().put("key", SPECIAL);
+    attachment.getProperties().put(SPECIAL, "");
+    attachment.getProperties().put("other", "value");
+    attachment.setMimeType(MimeTypes.parseMimeType("image/png"));
+    mp.add(attachment);
+
+    Publication publication = PublicationImpl.publication("publication-1", "engage", new URI("http://localhost/play"),
+            MimeTypes.parseMimeType("text/html"));
+    publication.addTrack(TrackImpl.fromURI(new URI("http://localhost/published.mp4")));
+    publication.addAttachment(AttachmentImpl.fromURI(new URI("http://localhost/published.png")));
+    publication.addCatalog(CatalogImpl.fromURI(new URI("http://localhost/published.xml")));
+    mp.add(publication);
+    mp.add(PublicationImpl.publication("publication-2", "oaipmh", new URI("http://localhost/oai"), null));
+    return mp;
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.util.FileTransfer.Mode;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for {@link FileTransfer}
+ */
+public class FileTransferTest {
+
+  private static final String CONTENT = "Opencast";
+
+  private File source;
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Before
+  public void setUp() throws IOException {
+    source = testFolder.newFile("source");
+    FileUtils.writeStringToFile(source, CONTENT, StandardCharsets.UTF_8);
+  }
+
+  @After
+  public void tearDown() {
+    FileTransfer.setReflinkEnabled(true);
+  }
+
+  @Test
+  public void testTransferWithLink() throws Exception {
+    File target = new File(testFolder.getRoot(), "a/b/target");
+    long linked = FileTransfer.getFileCount(Mode.LINK);
+    assertEquals(Mode.LINK, FileTransfer.transfer(source, target, true));
+    assertEquals(CONTENT, FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+    assertEquals(linked + 1, FileTransfer.getFileCount(Mode.LINK));
+  }
+
+  @Test
+  public void testTransferWithoutLink() throws Exception {
+    FileTransfer.setReflinkEnabled(false);
+    File target = new File(testFolder.getRoot(), "target");
+    FileUtils.writeStringToFile(target, "existing content", StandardCharsets.UTF_8);
+    long copiedBytes = FileTransfer.getByteCount(Mode.CHANNEL);
+    assertEquals(Mode.CHANNEL, FileTransfer.transfer(source, target, false));
+    assertEquals(CONTENT, FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+    assertEquals(copiedBytes + CONTENT.length(), FileTransfer.getByteCount(Mode.CHANNEL));
+
+    // The target must be an independent copy
+    FileUtils.writeStringToFile(target, "changed", StandardCharsets.UTF_8);
+    assertEquals(CONTENT, FileUtils.readFileToString(source, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testTransferNeverLinksWhenNotAllowed() throws Exception {
+    File target = new File(testFolder.getRoot(), "target");
+    assertNotEquals(Mode.LINK, FileTransfer.transfer(source, target, false));
+    assertEquals(CONTENT, FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTransferToSource() throws Exception {
+    FileTransfer.transfer(source, source, true);
+  }
+
+  @Test
+  public void testMove() throws Exception {
+    File target = new File(testFolder.getRoot(), "a/target");
+    assertEquals(Mode.RENAME, FileTransfer.move(source, target));
+    assertFalse(source.exists());
+    assertTrue(target.isFile());
+    assertEquals(CONTENT, FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+  }
+
+}
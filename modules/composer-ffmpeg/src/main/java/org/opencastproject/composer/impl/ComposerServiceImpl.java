@@ -22,6 +22,7 @@
 package org.opencastproject.composer.impl;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.opencastproject.composer.impl.EncoderEngine.CMD_SUFFIX;
 import static org.opencastproject.serviceregistry.api.Incidents.NO_DETAILS;
 import static org.opencastproject.util.data.Option.none;
@@ -55,8 +56,10 @@ import org.opencastproject.mediapackage.identifier.IdImpl;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.UserDirectoryService;
+import org.opencastproject.serviceregistry.api.ServiceRegistration;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.serviceregistry.api.SystemLoad;
 import org.opencastproject.smil.api.SmilException;
 import org.opencastproject.smil.api.SmilService;
 import org.opencastproject.smil.entity.api.Smil;
@@ -76,6 +79,7 @@ import org.opencastproject.util.UnknownFileTypeException;
 import org.opencastproject.util.data.Collections;
 import org.opencastproject.util.data.Option;
 import org.opencastproject.util.data.Tuple;
+import org.opencastproject.util.jmx.JmxUtil;
 import org.opencastproject.workspace.api.Workspace;
 
 import com.google.gson.Gson;
@@ -120,8 +124,13 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import javax.management.ObjectInstance;
+
 /** FFMPEG based implementation of the composer service api. */
 @Component(
   property = {
@@ -167,6 +176,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   private static final int PROCESS_SMIL_FAILED = 19;
   private static final int MULTI_ENCODE_FAILED = 20;
   private static final int NO_STREAMS = 23;
+  private static final int DISTRIBUTED_ENCODING_FAILED = 24;
 
   /** The logging instance */
   private static final Logger logger = LoggerFactory.getLogger(ComposerServiceImpl.class);
@@ -220,9 +230,49 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   /** default transition */
   private int transitionDuration = (int) (DEFAULT_PROCESS_SMIL_CLIP_TRANSITION_DURATION * 1000);
 
+  /**
+   * Encoding profile property enabling distributed encoding. Tracks lasting at least twice as long are split into
+   * segments of about this duration in seconds, which are encoded in separate jobs and concatenated afterwards.
+   */
+  public static final String PROP_DISTRIBUTED_SEGMENT_DURATION = "distributed.segment.duration";
+
+  /** Configuration key for the maximum time in seconds to wait for the segments of a distributed encoding */
+  public static final String DISTRIBUTED_ENCODING_TIMEOUT = "distributed.encoding.timeout";
+
+  /** The default maximum time in seconds to wait for the segments of a distributed encoding */
+  private static final long DEFAULT_DISTRIBUTED_ENCODING_TIMEOUT = 4 * 60 * 60;
+
+  /** The maximum time in milliseconds to wait for the segments of a distributed encoding */
+  private long distributedEncodingTimeout = DEFAULT_DISTRIBUTED_ENCODING_TIMEOUT * 1000;
+
+  /** Command line options selecting or combining streams, which prevent encoding video and audio separately */
+  private static final Pattern STREAM_SELECTION_OPTIONS = Pattern.compile("(^|\\s)-(map|filter_complex|lavfi)(\\s|$)");
+
+  /** Configuration key for the maximum size of the encoding result cache in megabytes, 0 disables the cache */
+  public static final String ENCODING_CACHE_SIZE = "encoding.cache.size";
+
+  /** Configuration key for the directory of the encoding result cache */
+  public static final String ENCODING_CACHE_DIRECTORY = "encoding.cache.directory";
+
+  /** The storage directory property used to determine the default cache directory */
+  private static final String CONFIG_STORAGE_DIR = "org.opencastproject.storage.dir";
+
+  /** The JMX type of the encoding cache statistics */
+  private static final String JMX_ENCODING_CACHE_TYPE = "ComposerEncodingCache";
+
+  /** The cache of encoding results or <code>null</code> if caching is disabled */
+  private EncodingCache encodingCache = null;
+
+  /** The registered encoding cache statistics */
+  private ObjectInstance encodingCacheMXBean;
+
+  /** The default directory of the encoding cache or <code>null</code> if there is none */
+  private String defaultEncodingCacheDirectory = null;
+
   /** List of available operations on jobs */
   enum Operation {
-    Encode, Image, ImageConversion, Mux, Trim, Composite, Concat, ImageToVideo, ParallelEncode, Demux, ProcessSmil, MultiEncode
+    Encode, Image, ImageConversion, Mux, Trim, Composite, Concat, ImageToVideo, ParallelEncode, Demux, ProcessSmil,
+    MultiEncode, EncodeSegment
   }
 
   /** tracked encoder engines */
@@ -273,6 +323,10 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     ffmpegBinary = StringUtils.defaultString(cc.getBundleContext().getProperty(CONFIG_FFMPEG_PATH),
             FFMPEG_BINARY_DEFAULT);
     logger.debug("ffmpeg binary: {}", ffmpegBinary);
+    final String storageDir = StringUtils.trimToNull(cc.getBundleContext().getProperty(CONFIG_STORAGE_DIR));
+    if (storageDir != null) {
+      defaultEncodingCacheDirectory = new File(storageDir, "composer-cache").getAbsolutePath();
+    }
     logger.info("Activating composer service");
   }
 
@@ -286,6 +340,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       engine.close();
     }
     logger.debug("Closed encoder engine factory");
+    unregisterEncodingCacheMXBean();
   }
 
   /**
@@ -376,15 +431,40 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
 
     final String targetTrackId = IdImpl.fromUUID().toString();
 
+    // Get the encoding profile
+    final EncodingProfile profile = getProfile(job, profileId);
+
+    // Use the result of an earlier encoding of the same tracks with the same profile if possible
+    final Optional<String> cacheKey = getCacheKey(Operation.Encode, tracks,
+            java.util.Collections.singletonList(profile), null);
+    final Optional<List<File>> cachedOutput = getCachedOutput(cacheKey,
+            tracks.getOrDefault("video", tracks.get("audio")));
+    if (cachedOutput.isPresent()) {
+      return getEncodedTrack(job, cachedOutput.get(), targetTrackId);
+    }
+
+    // Split long tracks into segments encoded by separate jobs if the profile asks for it
+    final Track sourceTrack = tracks.size() == 1 ? tracks.get("video") : null;
+    if (sourceTrack != null) {
+      final long segmentDuration = getDistributedSegmentDuration(job, profile, sourceTrack);
+      if (segmentDuration > 0) {
+        final List<Track> encodedTracks = distributedEncode(job, sourceTrack, profile, segmentDuration, false);
+        if (encodedTracks.size() > 1) {
+          for (Track track : encodedTracks) {
+            cleanupWorkspace(track.getURI());
+          }
+          throw new EncoderException("Encode does not support multiple files as output");
+        }
+        return encodedTracks.isEmpty() ? none() : some(encodedTracks.get(0));
+      }
+    }
+
     Map<String, File> files = new HashMap<>();
     // Get the tracks and make sure they exist
     for (Entry<String, Track> track: tracks.entrySet()) {
       files.put(track.getKey(), loadTrackIntoWorkspace(job, track.getKey(), track.getValue(), false));
     }
 
-    // Get the encoding profile
-    final EncodingProfile profile = getProfile(job, profileId);
-
     List <String> trackMsg = new LinkedList<>();
     for (Entry<String, Track> track: tracks.entrySet()) {
       trackMsg.add(format("%s: %s", track.getKey(), track.getValue().getIdentifier()));
@@ -392,7 +472,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     logger.info("Encoding {} into {} using profile {}", StringUtils.join(trackMsg, ", "), targetTrackId, profileId);
 
     // Do the work
-    final EncoderEngine encoder = getEncoderEngine();
+    final EncoderEngine encoder = getEncoderEngine(job);
     List<File> output;
     try {
       output = encoder.process(files, profile, null);
@@ -408,7 +488,27 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     } finally {
       activeEncoder.remove(encoder);
     }
+    if (output.size() == 1) {
+      cacheOutput(cacheKey, output, files.getOrDefault("video", files.get("audio")));
+    }
+
+    return getEncodedTrack(job, output, targetTrackId);
+  }
 
+  /**
+   * Puts the output of an encoding into the workspace and inspects it.
+   *
+   * @param job
+   *          the job in which context the encoding is done
+   * @param output
+   *          the output files
+   * @param targetTrackId
+   *          the identifier of the encoded track
+   * @return the encoded track or none if there is no output
+   * @throws EncoderException
+   *           if there is more than one output file or the output cannot be put into the workspace or inspected
+   */
+  private Option<Track> getEncodedTrack(Job job, List<File> output, String targetTrackId) throws EncoderException {
     // We expect zero or one file as output
     if (output.size() == 0) {
       return none();
@@ -450,42 +550,20 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     if (job == null) {
       throw new EncoderException("The Job parameter must not be null");
     }
+    final EncodingProfile profile = getProfile(job, profileId);
+
+    // Split long tracks into segments encoded by separate jobs if the profile asks for it
+    final long segmentDuration = getDistributedSegmentDuration(job, profile, mediaTrack);
+    if (segmentDuration > 0) {
+      return distributedEncode(job, mediaTrack, profile, segmentDuration, true);
+    }
+
     // Get the tracks and make sure they exist
     final File mediaFile = loadTrackIntoWorkspace(job, "source", mediaTrack, false);
 
     // Create the engine
-    final EncodingProfile profile = getProfile(profileId);
-    final EncoderEngine encoderEngine = getEncoderEngine();
-
-    // conditional settings based on frame height and width
-    final Optional<VideoStream> videoStream = Arrays.stream(mediaTrack.getStreams())
-            .filter((stream -> stream instanceof VideoStream))
-            .map(stream -> (VideoStream) stream)
-            .findFirst();
-    final int height = videoStream.map(vs -> vs.getFrameHeight()).orElse(0);
-    final int width = videoStream.map(vs -> vs.getFrameWidth()).orElse(0);
-    Map<String, String> properties = new HashMap<>();
-    for (String key: profile.getExtensions().keySet()) {
-      if (key.startsWith(CMD_SUFFIX + ".if-height-geq-")) {
-        final int heightCondition = Integer.parseInt(key.substring((CMD_SUFFIX + ".if-height-geq-").length()));
-        if (heightCondition <= height) {
-          properties.put(key, profile.getExtension(key));
-        }
-      } else if (key.startsWith(CMD_SUFFIX + ".if-height-lt-")) {
-        final int heightCondition = Integer.parseInt(key.substring((CMD_SUFFIX + ".if-height-lt-").length()));
-        if (heightCondition > height) {
-          properties.put(key, profile.getExtension(key));
-        }
-      } else if (key.startsWith(CMD_SUFFIX + ".if-width-or-height-geq-")) {
-        final String[] resCondition = key.substring((CMD_SUFFIX + ".if-width-or-height-geq-").length()).split("-");
-        final int widthCondition = Integer.parseInt(resCondition[0]);
-        final int heightCondition = Integer.parseInt(resCondition[1]);
-
-        if (heightCondition <= height || widthCondition <= width) {
-          properties.put(key, profile.getExtension(key));
-        }
-      }
-    }
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
+    final Map<String, String> properties = getConditionalProperties(profile, mediaTrack);
 
     // List of encoded tracks
     LinkedList<Track> encodedTracks = new LinkedList<>();
@@ -555,6 +633,470 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     return encodedTracks;
   }
 
+  /**
+   * Collects the conditional command line options of an encoding profile which apply to the given track based on the
+   * frame height and width of its first video stream.
+   *
+   * @param profile
+   *          the encoding profile
+   * @param track
+   *          the track to encode
+   * @return the command line options to pass to the encoder engine
+   */
+  private Map<String, String> getConditionalProperties(EncodingProfile profile, Track track) {
+    // conditional settings based on frame height and width
+    final Optional<VideoStream> videoStream = Arrays.stream(track.getStreams())
+            .filter((stream -> stream instanceof VideoStream))
+            .map(stream -> (VideoStream) stream)
+            .findFirst();
+    final int height = videoStream.map(vs -> vs.getFrameHeight()).orElse(0);
+    final int width = videoStream.map(vs -> vs.getFrameWidth()).orElse(0);
+    Map<String, String> properties = new HashMap<>();
+    for (String key: profile.getExtensions().keySet()) {
+      if (key.startsWith(CMD_SUFFIX + ".if-height-geq-")) {
+        final int heightCondition = Integer.parseInt(key.substring((CMD_SUFFIX + ".if-height-geq-").length()));
+        if (heightCondition <= height) {
+          properties.put(key, profile.getExtension(key));
+        }
+      } else if (key.startsWith(CMD_SUFFIX + ".if-height-lt-")) {
+        final int heightCondition = Integer.parseInt(key.substring((CMD_SUFFIX + ".if-height-lt-").length()));
+        if (heightCondition > height) {
+          properties.put(key, profile.getExtension(key));
+        }
+      } else if (key.startsWith(CMD_SUFFIX + ".if-width-or-height-geq-")) {
+        final String[] resCondition = key.substring((CMD_SUFFIX + ".if-width-or-height-geq-").length()).split("-");
+        final int widthCondition = Integer.parseInt(resCondition[0]);
+        final int heightCondition = Integer.parseInt(resCondition[1]);
+
+        if (heightCondition <= height || widthCondition <= width) {
+          properties.put(key, profile.getExtension(key));
+        }
+      }
+    }
+
+    return properties;
+  }
+
+  /**
+   * Returns the duration of the segments in milliseconds if the track should be encoded in a distributed fashion using
+   * the given profile, or <code>0</code> if it should be encoded by a single job. Distributed encoding needs to be
+   * enabled in the profile and the track needs to have video and last at least two segments. Only profiles creating
+   * video are distributed, except for those creating adaptive streaming playlists and those whose commands select or
+   * combine streams, since the video and the audio are encoded separately. Tracks are encoded by a single job as well
+   * if no composer can currently take on a segment.
+   *
+   * @param job
+   *          the job in which context the encoding is done
+   * @param profile
+   *          the encoding profile
+   * @param track
+   *          the track to encode
+   * @return the segment duration in milliseconds or <code>0</code>
+   * @throws EncoderException
+   *           if the segment duration configured in the profile is invalid
+   */
+  private long getDistributedSegmentDuration(Job job, EncodingProfile profile, Track track) throws EncoderException {
+    final String value = StringUtils.trimToNull(profile.getExtension(PROP_DISTRIBUTED_SEGMENT_DURATION));
+    if (value == null || track.getDuration() == null) {
+      return 0;
+    }
+    final long segmentDuration;
+    try {
+      segmentDuration = Math.round(Double.parseDouble(value) * 1000);
+    } catch (NumberFormatException e) {
+      throw new EncoderException(format("Invalid %s '%s' in profile %s", PROP_DISTRIBUTED_SEGMENT_DURATION, value,
+              profile.getIdentifier()), e);
+    }
+    if (segmentDuration <= 0 || track.getDuration() < 2 * segmentDuration || !track.hasVideo()) {
+      return 0;
+    }
+    if (profile.getOutputType() != EncodingProfile.MediaType.Visual
+            && profile.getOutputType() != EncodingProfile.MediaType.AudioVisual) {
+      logger.warn("Ignoring {} of profile {} since it does not create video", PROP_DISTRIBUTED_SEGMENT_DURATION,
+              profile.getIdentifier());
+      return 0;
+    }
+    if (isAdaptiveStreamingProfile(profile)) {
+      logger.warn("Ignoring {} of profile {} since adaptive streaming outputs cannot be concatenated",
+              PROP_DISTRIBUTED_SEGMENT_DURATION, profile.getIdentifier());
+      return 0;
+    }
+    for (Entry<String, String> extension : profile.getExtensions().entrySet()) {
+      if (extension.getKey().startsWith(CMD_SUFFIX)
+              && STREAM_SELECTION_OPTIONS.matcher(extension.getValue()).find()) {
+        logger.warn("Ignoring {} of profile {} since its command selects or combines streams",
+                PROP_DISTRIBUTED_SEGMENT_DURATION, profile.getIdentifier());
+        return 0;
+      }
+    }
+    if (!hasCapacityForSegment(job, profile)) {
+      logger.info("Encoding {} in a single job since no composer can currently take on a segment", track);
+      return 0;
+    }
+    return segmentDuration;
+  }
+
+  /**
+   * Checks whether any composer has enough free capacity for a segment of a distributed encoding. The distributing job
+   * does not count towards the load of its host since it is waiting while the segments are encoded.
+   *
+   * @param job
+   *          the distributing job
+   * @param profile
+   *          the encoding profile
+   * @return whether a segment could be dispatched right away
+   */
+  private boolean hasCapacityForSegment(Job job, EncodingProfile profile) {
+    try {
+      final SystemLoad loads = serviceRegistry.getCurrentHostLoads();
+      for (ServiceRegistration registration : serviceRegistry.getServiceRegistrationsByLoad(JOB_TYPE)) {
+        final SystemLoad.NodeLoad load = loads.get(registration.getHost());
+        if (load == null) {
+          continue;
+        }
+        float currentLoad = load.getCurrentLoad();
+        if (registration.getHost().equals(job.getProcessingHost())) {
+          currentLoad -= job.getJobLoad();
+        }
+        if (currentLoad + profile.getJobLoad() <= load.getMaxLoad()) {
+          return true;
+        }
+      }
+    } catch (ServiceRegistryException e) {
+      logger.warn("Unable to determine the load of the composers", e);
+    }
+    return false;
+  }
+
+  /**
+   * Encodes a track by splitting its video at keyframes into segments of about the given duration, encoding each
+   * segment in a separate job which may be dispatched to any composer and concatenating the encoded segments without
+   * re-encoding. The audio is encoded once from the whole track after the segments are encoded, since audio encoded in
+   * segments has gaps at the segment boundaries, and is muxed into the concatenated video. The job does not count
+   * towards the load of its host while waiting for the segments, so the segments can always be dispatched. Profiles
+   * with multiple outputs are supported as long as every segment produces the same outputs in the same order.
+   *
+   * @param job
+   *          the job in which context the encoding is done
+   * @param track
+   *          the source track
+   * @param profile
+   *          the encoding profile
+   * @param segmentDuration
+   *          the targeted segment duration in milliseconds
+   * @param conditional
+   *          whether to apply the conditional command line options of the profile to the segments
+   * @return the encoded tracks
+   * @throws EncoderException
+   *           if splitting, encoding or concatenating the segments fails or the segments are not encoded in time
+   */
+  private List<Track> distributedEncode(Job job, Track track, EncodingProfile profile, long segmentDuration,
+          boolean conditional) throws EncoderException, MediaPackageException {
+    final File sourceFile = loadTrackIntoWorkspace(job, "source", track, false);
+    final File segmentDir = new File(workspace.rootDirectory(), format("%s-segments-%d", COLLECTION, job.getId()));
+    final List<URI> segmentURIs = new ArrayList<>();
+    final List<URI> encodedSegmentURIs = new ArrayList<>();
+    try {
+      // Split the video at the keyframes following each segment boundary without re-encoding it
+      FileUtils.forceMkdir(segmentDir);
+      final File audioFile = track.hasAudio() && profile.getOutputType() == EncodingProfile.MediaType.AudioVisual
+              ? new File(segmentDir, "audio.mkv") : null;
+      final EncoderEngine encoderEngine = getEncoderEngine(job);
+      try {
+        encoderEngine.process(Arrays.asList("-nostdin", "-nostats", "-i", sourceFile.getAbsolutePath(),
+                "-map", "0:v", "-c", "copy", "-f", "segment",
+                "-segment_time", format(Locale.ROOT, "%.3f", segmentDuration / 1000.0), "-reset_timestamps", "1",
+                new File(segmentDir, "segment_%05d.mkv").getAbsolutePath()));
+        if (audioFile != null) {
+          encoderEngine.process(Arrays.asList("-nostdin", "-nostats", "-i", sourceFile.getAbsolutePath(),
+                  "-map", "0:a", "-c", "copy", audioFile.getAbsolutePath()));
+        }
+      } finally {
+        activeEncoder.remove(encoderEngine);
+      }
+      final File[] segmentFiles = segmentDir.listFiles((dir, name) -> name.startsWith("segment_"));
+      if (segmentFiles == null || segmentFiles.length == 0) {
+        throw new EncoderException("Splitting " + track + " into segments did not produce any output");
+      }
+      Arrays.sort(segmentFiles);
+      segmentURIs.addAll(putToCollection(job, Arrays.asList(segmentFiles), "segment"));
+      logger.info("Encoding {} in {} segments using profile {}", track, segmentURIs.size(), profile.getIdentifier());
+
+      // Dispatch a job per segment
+      final Job[] segmentJobs = new Job[segmentURIs.size()];
+      for (int i = 0; i < segmentJobs.length; i++) {
+        final Track segment = (Track) track.clone();
+        segment.setURI(segmentURIs.get(i));
+        segment.setChecksum(null);
+        try {
+          segmentJobs[i] = serviceRegistry.createJob(JOB_TYPE, Operation.EncodeSegment.toString(),
+                  Arrays.asList(profile.getIdentifier(), MediaPackageElementParser.getAsXml(segment),
+                          Boolean.toString(conditional)), profile.getJobLoad());
+        } catch (ServiceRegistryException e) {
+          incident().recordJobCreationIncident(job, e);
+          throw new EncoderException("Unable to create a job for segment " + i + " of " + track, e);
+        }
+      }
+
+      // Wait for the segments to be encoded, the barrier puts this job into a waiting state meanwhile
+      final JobBarrier barrier = new JobBarrier(job, serviceRegistry, segmentJobs);
+      boolean finished;
+      try {
+        finished = barrier.waitForJobs(distributedEncodingTimeout).isSuccess();
+      } catch (IllegalStateException e) {
+        logger.error("Encoding the segments of {} did not finish within {} seconds", track,
+                distributedEncodingTimeout / 1000, e);
+        cancelQueuedJobs(segmentJobs);
+        finished = false;
+      }
+      if (!finished) {
+        if (barrier.getStatus() != null) {
+          for (Map.Entry<Job, Job.Status> result : barrier.getStatus().getStatus().entrySet()) {
+            if (result.getValue() != Job.Status.FINISHED) {
+              logger.error("Encoding segment failed in job {}: {}", result.getKey(), result.getValue());
+            } else {
+              collectSegmentOutputs(result.getKey(), encodedSegmentURIs);
+            }
+          }
+        }
+        incident().recordFailure(job, DISTRIBUTED_ENCODING_FAILED, Collections.map(
+                tuple("track", track.getURI().toString()), tuple("profile", profile.getIdentifier()),
+                tuple("segments", Integer.toString(segmentJobs.length))));
+        throw new EncoderException("Encoding the segments of " + track + " failed");
+      }
+
+      // Encode the audio of the whole track
+      final List<File> encodedAudio = audioFile != null
+              ? encodeAudio(job, audioFile, track, profile, conditional) : new ArrayList<>();
+
+      // Every segment produces the same outputs in the same order
+      final List<List<URI>> outputs = new ArrayList<>();
+      for (Job segmentJob : segmentJobs) {
+        outputs.add(collectSegmentOutputs(segmentJob, encodedSegmentURIs));
+      }
+      final int outputCount = outputs.get(0).size();
+      for (List<URI> segmentOutputs : outputs) {
+        if (segmentOutputs.size() != outputCount) {
+          throw new EncoderException("Segments of " + track + " produced a different number of outputs");
+        }
+      }
+      if (audioFile != null && encodedAudio.size() != outputCount) {
+        throw new EncoderException("The audio of " + track + " produced a different number of outputs than its video");
+      }
+
+      // Losslessly concatenate the encoded segments of each output and add the encoded audio
+      final List<File> concatenated = new ArrayList<>(outputCount);
+      try {
+        for (int i = 0; i < outputCount; i++) {
+          final List<File> parts = new ArrayList<>(outputs.size());
+          for (List<URI> segmentOutputs : outputs) {
+            parts.add(loadURIIntoWorkspace(job, "encoded segment", segmentOutputs.get(i)));
+          }
+          final File audio = audioFile != null ? encodedAudio.get(i) : null;
+          concatenated.add(concatSegments(job, sourceFile, parts, audio, profile, segmentDir));
+        }
+      } catch (EncoderException e) {
+        cleanup(concatenated.toArray(new File[0]));
+        throw e;
+      }
+      final List<URI> returnURLs = putToCollection(job, concatenated, "encoded file");
+
+      // Have the encoded tracks inspected and return the result
+      final List<Track> encodedTracks = new ArrayList<>(returnURLs.size());
+      for (Track inspectedTrack : inspect(job, returnURLs)) {
+        inspectedTrack.setIdentifier(IdImpl.fromUUID().toString());
+        for (final String tag : profile.getTags()) {
+          if (inspectedTrack.getURI().getPath().endsWith(profile.getSuffix(tag))) {
+            inspectedTrack.addTag(tag);
+          }
+        }
+        encodedTracks.add(inspectedTrack);
+      }
+      return encodedTracks;
+    } catch (IOException e) {
+      throw new EncoderException("Unable to create the segment directory " + segmentDir, e);
+    } finally {
+      cleanupWorkspace(segmentURIs.toArray(new URI[0]));
+      cleanupWorkspace(encodedSegmentURIs.toArray(new URI[0]));
+      FileUtils.deleteQuietly(segmentDir);
+    }
+  }
+
+  /**
+   * Cancels the given jobs unless they have already been dispatched.
+   */
+  private void cancelQueuedJobs(Job... jobs) {
+    for (Job queuedJob : jobs) {
+      try {
+        final Job current = serviceRegistry.getJob(queuedJob.getId());
+        if (current.getStatus() == Job.Status.QUEUED) {
+          current.setStatus(Job.Status.CANCELLED);
+          serviceRegistry.updateJob(current);
+        }
+      } catch (NotFoundException | ServiceRegistryException e) {
+        logger.warn("Unable to cancel job {}", queuedJob.getId(), e);
+      }
+    }
+  }
+
+  /**
+   * Reads the URIs of the files an {@link Operation#EncodeSegment} job produced and remembers them for clean up.
+   */
+  private List<URI> collectSegmentOutputs(Job segmentJob, List<URI> encodedSegmentURIs) throws EncoderException {
+    final List<URI> uris = new ArrayList<>();
+    if (StringUtils.isBlank(segmentJob.getPayload())) {
+      return uris;
+    }
+    try {
+      for (MediaPackageElement element : MediaPackageElementParser.getArrayFromXml(segmentJob.getPayload())) {
+        uris.add(element.getURI());
+      }
+    } catch (MediaPackageException e) {
+      throw new EncoderException("Unable to read the result of segment job " + segmentJob.getId(), e);
+    }
+    encodedSegmentURIs.addAll(uris);
+    return uris;
+  }
+
+  /**
+   * Encodes the audio of a distributed encoding using the encoding profile. Any video options of the profile are
+   * ignored since the source has no video.
+   *
+   * @param job
+   *          the distributing job
+   * @param audioFile
+   *          the audio of the whole track
+   * @param track
+   *          the source track
+   * @param profile
+   *          the encoding profile
+   * @param conditional
+   *          whether to apply the conditional command line options of the profile
+   * @return the encoded files in the order the encoder created them
+   * @throws EncoderException
+   *           if encoding fails
+   */
+  private List<File> encodeAudio(Job job, File audioFile, Track track, EncodingProfile profile, boolean conditional)
+          throws EncoderException {
+    final Map<String, String> properties = conditional ? getConditionalProperties(profile, track) : null;
+    final EncoderEngine encoder = getEncoderEngine(job);
+    try {
+      return encoder.process(Collections.map(tuple("video", audioFile)), profile, properties);
+    } catch (EncoderException e) {
+      Map<String, String> params = new HashMap<>();
+      params.put("audio", track.getURI().toString());
+      params.put("profile", profile.getIdentifier());
+      incident().recordFailure(job, ENCODING_FAILED, e, params, detailsFor(e, encoder));
+      throw e;
+    } finally {
+      activeEncoder.remove(encoder);
+    }
+  }
+
+  /**
+   * Concatenates encoded segments using the concat demuxer, which copies the streams without re-encoding them. The
+   * audio encoded separately, if any, is added without re-encoding it as well. The result is named after the source
+   * file and keeps the suffix of the encoding profile.
+   */
+  private File concatSegments(Job job, File sourceFile, List<File> parts, File audio, EncodingProfile profile,
+          File segmentDir) throws EncoderException {
+    final String partName = parts.get(0).getName();
+    String suffix = "." + FilenameUtils.getExtension(partName);
+    for (String tag : profile.getTags()) {
+      if (partName.endsWith(profile.getSuffix(tag))) {
+        suffix = profile.getSuffix(tag);
+      }
+    }
+    if (profile.getSuffix() != null && partName.endsWith(profile.getSuffix())) {
+      suffix = profile.getSuffix();
+    }
+    final File output = new File(sourceFile.getParentFile(),
+            FilenameUtils.getBaseName(sourceFile.getName()) + "_" + UUID.randomUUID() + suffix);
+
+    final File fileList = new File(segmentDir, "concat_" + UUID.randomUUID() + ".txt");
+    try (PrintWriter printer = new PrintWriter(new FileWriter(fileList))) {
+      for (File part : parts) {
+        printer.append("file '").append(part.getAbsolutePath().replace("'", "'\\''")).append("'\n");
+      }
+    } catch (IOException e) {
+      throw new EncoderException("Cannot create file list for concat", e);
+    }
+
+    final List<String> command = new ArrayList<>(Arrays.asList("-nostdin", "-nostats", "-f", "concat", "-safe", "0",
+            "-i", fileList.getAbsolutePath()));
+    if (audio != null) {
+      command.addAll(Arrays.asList("-i", audio.getAbsolutePath(), "-map", "0:v", "-map", "1:a?"));
+    } else {
+      command.addAll(Arrays.asList("-map", "0"));
+    }
+    command.addAll(Arrays.asList("-c", "copy"));
+    if (StringUtils.equalsAnyIgnoreCase(FilenameUtils.getExtension(output.getName()), "mp4", "m4a", "m4v", "mov")) {
+      command.addAll(Arrays.asList("-movflags", "+faststart"));
+    }
+    command.add(output.getAbsolutePath());
+
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
+    try {
+      encoderEngine.process(command);
+    } catch (EncoderException e) {
+      Map<String, String> params = new HashMap<>();
+      params.put("segments", Integer.toString(parts.size()));
+      params.put("profile", profile.getIdentifier());
+      incident().recordFailure(job, CONCAT_FAILED, e, params, detailsFor(e, encoderEngine));
+      throw e;
+    } finally {
+      activeEncoder.remove(encoderEngine);
+      FileSupport.deleteQuietly(fileList);
+    }
+    if (!output.isFile()) {
+      throw new EncoderException("Concatenating the segments did not produce " + output);
+    }
+    return output;
+  }
+
+  /**
+   * Encodes a single segment of a distributed encoding.
+   *
+   * @param job
+   *          the segment job
+   * @param segment
+   *          the segment to encode
+   * @param profileId
+   *          the encoding profile
+   * @param conditional
+   *          whether to apply the conditional command line options of the profile
+   * @return the encoded files in the order the encoder created them, as tracks which have not been inspected
+   * @throws EncoderException
+   *           if encoding fails
+   */
+  private List<Track> encodeSegment(Job job, Track segment, String profileId, boolean conditional)
+          throws EncoderException {
+    final File segmentFile = loadTrackIntoWorkspace(job, "segment", segment, false);
+    final EncodingProfile profile = getProfile(job, profileId);
+    final Map<String, String> properties = conditional ? getConditionalProperties(profile, segment) : null;
+
+    final EncoderEngine encoder = getEncoderEngine(job);
+    List<File> output;
+    try {
+      output = encoder.process(Collections.map(tuple("video", segmentFile)), profile, properties);
+    } catch (EncoderException e) {
+      Map<String, String> params = new HashMap<>();
+      params.put("segment", segment.getURI().toString());
+      params.put("profile", profile.getIdentifier());
+      incident().recordFailure(job, ENCODING_FAILED, e, params, detailsFor(e, encoder));
+      throw e;
+    } finally {
+      activeEncoder.remove(encoder);
+    }
+
+    final MediaPackageElementBuilder builder = MediaPackageElementBuilderFactory.newInstance().newElementBuilder();
+    final List<Track> encodedSegments = new ArrayList<>(output.size());
+    for (URI uri : putToCollection(job, output, "encoded segment")) {
+      encodedSegments.add((Track) builder.elementFromURI(uri, Track.TYPE, null));
+    }
+    return encodedSegments;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -622,7 +1164,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     final EncodingProfile profile = getProfile(job, profileId);
 
     // Create the engine
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
 
     File output;
     try {
@@ -734,7 +1276,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     final EncodingProfile profile = getProfile(job, profileId);
 
     // Create the engine
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
 
     final String targetTrackId = IdImpl.fromUUID().toString();
     Option<File> upperVideoFile = Option.none();
@@ -922,7 +1464,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
 
     // Create the engine
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
 
     if (onlyAudio) {
       logger.info("Concatenating audio tracks {} into {}", trackFiles, targetTrackId);
@@ -1029,7 +1571,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
 
     // Create the engine
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
 
     logger.info("Converting image attachment {} into video {}", sourceImage.getIdentifier(), targetTrackId);
 
@@ -1167,31 +1709,39 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     // Get the encoding profile
     final EncodingProfile profile = getProfile(job, profileId);
 
-    // Create the encoding engine
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    // Use the images extracted earlier from the same track with the same profile if possible
+    final Optional<String> cacheKey = getCacheKey(Operation.Image,
+            java.util.Collections.singletonMap("video", sourceTrack), java.util.Collections.singletonList(profile),
+            properties, "times", Arrays.toString(times));
+    List<File> encodingOutput = getCachedOutput(cacheKey, sourceTrack).orElse(null);
+    File videoFile = null;
+    if (encodingOutput == null) {
+      // Create the encoding engine
+      final EncoderEngine encoderEngine = getEncoderEngine(job);
 
-    // Finally get the file that needs to be encoded
-    File videoFile = loadTrackIntoWorkspace(job, "video", sourceTrack, true);
+      // Finally get the file that needs to be encoded
+      videoFile = loadTrackIntoWorkspace(job, "video", sourceTrack, true);
 
-    // Do the work
-    List<File> encodingOutput;
-    try {
-      encodingOutput = encoderEngine.extract(videoFile, profile, properties, times);
-      // check for validity of output
-      if (encodingOutput == null || encodingOutput.isEmpty()) {
-        logger.error("Image extraction from video {} with profile {} failed: no images were produced",
-                sourceTrack.getURI(), profile.getIdentifier());
-        throw new EncoderException("Image extraction failed: no images were produced");
+      // Do the work
+      try {
+        encodingOutput = encoderEngine.extract(videoFile, profile, properties, times);
+        // check for validity of output
+        if (encodingOutput == null || encodingOutput.isEmpty()) {
+          logger.error("Image extraction from video {} with profile {} failed: no images were produced",
+                  sourceTrack.getURI(), profile.getIdentifier());
+          throw new EncoderException("Image extraction failed: no images were produced");
+        }
+      } catch (EncoderException e) {
+        Map<String, String> params = new HashMap<>();
+        params.put("video", sourceTrack.getURI().toString());
+        params.put("profile", profile.getIdentifier());
+        params.put("positions", Arrays.toString(times));
+        incident().recordFailure(job, IMAGE_EXTRACTION_FAILED, e, params, detailsFor(e, encoderEngine));
+        throw e;
+      } finally {
+        activeEncoder.remove(encoderEngine);
       }
-    } catch (EncoderException e) {
-      Map<String, String> params = new HashMap<>();
-      params.put("video", sourceTrack.getURI().toString());
-      params.put("profile", profile.getIdentifier());
-      params.put("positions", Arrays.toString(times));
-      incident().recordFailure(job, IMAGE_EXTRACTION_FAILED, e, params, detailsFor(e, encoderEngine));
-      throw e;
-    } finally {
-      activeEncoder.remove(encoderEngine);
+      cacheOutput(cacheKey, encodingOutput, videoFile);
     }
 
     int i = 0;
@@ -1328,7 +1878,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   private List<Attachment> convertImage(Job job, Attachment sourceImage, String... profileIds) throws EncoderException,
           MediaPackageException {
     List<Attachment> convertedImages = new ArrayList<>();
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job);
     try {
       for (String profileId : profileIds) {
         logger.info("Converting {} using encoding profile {}", sourceImage, profileId);
@@ -1336,30 +1886,37 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
         // Get the encoding profile
         final EncodingProfile profile = getProfile(job, profileId);
 
-        // Finally get the file that needs to be encoded
-        File imageFile;
-        try {
-          imageFile = workspace.get(sourceImage.getURI());
-        } catch (NotFoundException e) {
-          incident().recordFailure(job, WORKSPACE_GET_NOT_FOUND, e,
-                  getWorkspaceMediapackageParams("source image", sourceImage), NO_DETAILS);
-          throw new EncoderException("Requested attachment " + sourceImage + " was not found", e);
-        } catch (IOException e) {
-          incident().recordFailure(job, WORKSPACE_GET_IO_EXCEPTION, e,
-                  getWorkspaceMediapackageParams("source image", sourceImage), NO_DETAILS);
-          throw new EncoderException("Error accessing attachment " + sourceImage, e);
-        }
+        // Use the image converted earlier with the same profile if possible
+        final Optional<String> cacheKey = getCacheKey(Operation.ImageConversion,
+                java.util.Collections.singletonMap("image", sourceImage),
+                java.util.Collections.singletonList(profile), null);
+        File output = getCachedOutput(cacheKey, sourceImage).map(files -> files.get(0)).orElse(null);
+        if (output == null) {
+          // Finally get the file that needs to be encoded
+          File imageFile;
+          try {
+            imageFile = workspace.get(sourceImage.getURI());
+          } catch (NotFoundException e) {
+            incident().recordFailure(job, WORKSPACE_GET_NOT_FOUND, e,
+                    getWorkspaceMediapackageParams("source image", sourceImage), NO_DETAILS);
+            throw new EncoderException("Requested attachment " + sourceImage + " was not found", e);
+          } catch (IOException e) {
+            incident().recordFailure(job, WORKSPACE_GET_IO_EXCEPTION, e,
+                    getWorkspaceMediapackageParams("source image", sourceImage), NO_DETAILS);
+            throw new EncoderException("Error accessing attachment " + sourceImage, e);
+          }
 
-        // Do the work
-        File output;
-        try {
-          output = encoderEngine.encode(imageFile, profile, null);
-        } catch (EncoderException e) {
-          Map<String, String> params = new HashMap<>();
-          params.put("image", sourceImage.getURI().toString());
-          params.put("profile", profile.getIdentifier());
-          incident().recordFailure(job, CONVERT_IMAGE_FAILED, e, params, detailsFor(e, encoderEngine));
-          throw e;
+          // Do the work
+          try {
+            output = encoderEngine.encode(imageFile, profile, null);
+          } catch (EncoderException e) {
+            Map<String, String> params = new HashMap<>();
+            params.put("image", sourceImage.getURI().toString());
+            params.put("profile", profile.getIdentifier());
+            incident().recordFailure(job, CONVERT_IMAGE_FAILED, e, params, detailsFor(e, encoderEngine));
+            throw e;
+          }
+          cacheOutput(cacheKey, java.util.Collections.singletonList(output), imageFile);
         }
 
         // encoding did not return a file
@@ -1426,6 +1983,11 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
           firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
           serialized = MediaPackageElementParser.getArrayAsXml(parallelEncode(job, firstTrack, encodingProfile));
           break;
+        case EncodeSegment:
+          firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
+          serialized = MediaPackageElementParser.getArrayAsXml(encodeSegment(job, firstTrack, encodingProfile,
+                  Boolean.parseBoolean(arguments.get(2))));
+          break;
         case Image:
           firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
           List<Attachment> resultingElements;
@@ -1635,8 +2197,8 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
   }
 
-  private EncoderEngine getEncoderEngine() {
-    EncoderEngine engine = new EncoderEngine(ffmpegBinary);
+  private EncoderEngine getEncoderEngine(Job job) {
+    EncoderEngine engine = new EncoderEngine(ffmpegBinary, job);
     activeEncoder.add(engine);
     return engine;
   }
@@ -2058,7 +2620,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       EncodingProfile profile = getProfile(job, encodingProfile);
       // Create the engine/get
       logger.info("Encoding video track {} using profile '{}'", videoTrack.getIdentifier(), profile);
-      final EncoderEngine encoderEngine = getEncoderEngine();
+      final EncoderEngine encoderEngine = getEncoderEngine(job);
 
       // Do the work
       List<File> outputs;
@@ -2132,6 +2694,166 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
     transitionDuration = (int) (1000 * LoadUtil.getConfiguredLoadValue(properties,
             PROCESS_SMIL_CLIP_TRANSITION_DURATION, DEFAULT_PROCESS_SMIL_CLIP_TRANSITION_DURATION, serviceRegistry));
+
+    final String timeout = StringUtils.trimToNull((String) properties.get(DISTRIBUTED_ENCODING_TIMEOUT));
+    try {
+      distributedEncodingTimeout = 1000 * (timeout == null ? DEFAULT_DISTRIBUTED_ENCODING_TIMEOUT
+              : Long.parseLong(timeout));
+    } catch (NumberFormatException e) {
+      throw new ConfigurationException(DISTRIBUTED_ENCODING_TIMEOUT, "Not a number of seconds: " + timeout);
+    }
+
+    final String cacheSize = StringUtils.trimToNull((String) properties.get(ENCODING_CACHE_SIZE));
+    final String cacheDirectory = StringUtils.defaultIfBlank((String) properties.get(ENCODING_CACHE_DIRECTORY),
+            defaultEncodingCacheDirectory);
+    try {
+      configureEncodingCache(cacheSize == null ? 0L : Long.parseLong(cacheSize), cacheDirectory);
+    } catch (NumberFormatException e) {
+      throw new ConfigurationException(ENCODING_CACHE_SIZE, "Not a number of megabytes: " + cacheSize);
+    }
+  }
+
+  /**
+   * Replaces the encoding cache and its JMX statistics.
+   *
+   * @param size
+   *          the maximum size of the cache in megabytes, caching is disabled if this is not positive
+   * @param directory
+   *          the cache directory
+   * @throws ConfigurationException
+   *           if the cache directory cannot be used
+   */
+  private void configureEncodingCache(long size, String directory) throws ConfigurationException {
+    unregisterEncodingCacheMXBean();
+    encodingCache = null;
+    if (size <= 0 || directory == null) {
+      logger.info("Encoding cache disabled");
+      return;
+    }
+    try {
+      encodingCache = new EncodingCache(new File(directory), size * 1024L * 1024L);
+    } catch (IOException e) {
+      throw new ConfigurationException(ENCODING_CACHE_DIRECTORY, "Unable to create cache directory " + directory, e);
+    }
+    encodingCacheMXBean = JmxUtil.registerMXBean(encodingCache, JMX_ENCODING_CACHE_TYPE);
+    logger.info("Caching up to {} MB of encoding results in {}", size, directory);
+  }
+
+  private void unregisterEncodingCacheMXBean() {
+    if (encodingCacheMXBean != null) {
+      JmxUtil.unregisterMXBean(encodingCacheMXBean);
+      encodingCacheMXBean = null;
+    }
+  }
+
+  /**
+   * Determines the key of an encoding result in the encoding cache.
+   *
+   * @param operation
+   *          the composer operation
+   * @param sources
+   *          the source elements by name
+   * @param profiles
+   *          the encoding profiles
+   * @param properties
+   *          the encoding properties, may be <code>null</code>
+   * @param parameters
+   *          further parameters influencing the output as name value pairs
+   * @return the key or nothing if caching is disabled, a source has no checksum, a profile creates adaptive streams or
+   *         the version of FFmpeg cannot be determined
+   */
+  private Optional<String> getCacheKey(Operation operation, Map<String, ? extends MediaPackageElement> sources,
+          List<EncodingProfile> profiles, Map<String, String> properties, Object... parameters) {
+    if (encodingCache == null) {
+      return Optional.empty();
+    }
+    final Optional<String> version = getFfmpegVersion();
+    if (!version.isPresent()) {
+      return Optional.empty();
+    }
+    final EncodingCache.Key key = EncodingCache.key(operation.toString()).add("binary", ffmpegBinary)
+            .add("version", version.get());
+    for (Entry<String, ? extends MediaPackageElement> source : new TreeMap<>(sources).entrySet()) {
+      if (source.getValue().getChecksum() == null) {
+        return Optional.empty();
+      }
+      key.addSource(source.getKey(), source.getValue().getChecksum());
+    }
+    for (EncodingProfile profile : profiles) {
+      if (isAdaptiveStreamingProfile(profile)) {
+        return Optional.empty();
+      }
+      key.addProfile(profile);
+    }
+    key.addAll("property.", properties);
+    for (int i = 0; i + 1 < parameters.length; i += 2) {
+      key.add(String.valueOf(parameters[i]), parameters[i + 1]);
+    }
+    return Optional.of(key.build());
+  }
+
+  /**
+   * Determines the version of FFmpeg. It is asked for each cache key, so upgrading FFmpeg invalidates cached results
+   * without restarting the service.
+   *
+   * @return the output of <code>ffmpeg -version</code> or nothing if FFmpeg cannot be run
+   */
+  private Optional<String> getFfmpegVersion() {
+    try {
+      final Process process = new ProcessBuilder(ffmpegBinary, "-version").redirectErrorStream(true).start();
+      final String version = IOUtils.toString(process.getInputStream(), UTF_8).trim();
+      if (process.waitFor() == 0) {
+        return Optional.of(version);
+      }
+      logger.warn("Not caching encoding results since {} -version failed: {}", ffmpegBinary, version);
+    } catch (IOException e) {
+      logger.warn("Not caching encoding results since the version of {} cannot be determined", ffmpegBinary, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Restores an encoding result from the encoding cache into the workspace.
+   *
+   * @param key
+   *          the cache key, if the result is cacheable
+   * @param source
+   *          the source element
+   * @return the output files or nothing if the result is not cached
+   */
+  private Optional<List<File>> getCachedOutput(Optional<String> key, MediaPackageElement source) {
+    final EncodingCache cache = encodingCache;
+    if (cache == null || !key.isPresent()) {
+      return Optional.empty();
+    }
+    final Optional<List<File>> output = cache.get(key.get(), workspace.rootDirectory(),
+            FilenameUtils.getBaseName(source.getURI().getPath()));
+    output.ifPresent(files -> logger.info("Using cached encoding result {} for {}", key.get(), source));
+    return output;
+  }
+
+  /**
+   * Stores an encoding result in the encoding cache.
+   *
+   * @param key
+   *          the cache key, if the result is cacheable
+   * @param output
+   *          the output files
+   * @param sourceFile
+   *          the source file in the workspace
+   */
+  private void cacheOutput(Optional<String> key, List<File> output, File sourceFile) {
+    final EncodingCache cache = encodingCache;
+    if (cache != null && key.isPresent()) {
+      cache.put(key.get(), output, FilenameUtils.getBaseName(sourceFile.getName()));
+    }
+  }
+
+  private static boolean isAdaptiveStreamingProfile(EncodingProfile profile) {
+    return profile.getExtension(EncoderEngine.ADAPTIVE_TYPE_SUFFIX) != null
+            || StringUtils.contains(profile.getExtension(CMD_SUFFIX), "-f hls");
   }
 
   /**
@@ -2346,7 +3068,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       for (String f : inputfile) {
         inputs.add(new File(f));
       }
-      EncoderEngine encoderEngine = getEncoderEngine();
+      EncoderEngine encoderEngine = getEncoderEngine(job);
       try {
         outputs = encoderEngine.multiTrimConcat(inputs, edits, profiles, transitionDuration,
                 !AUDIO_ONLY.equals(mediaType), !VIDEO_ONLY.equals(mediaType));
@@ -2423,36 +3145,43 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       throw new IllegalArgumentException("Cannot encode without encoding profiles");
     List<File> outputs = null;
     try {
-      final File videoFile = loadTrackIntoWorkspace(job, "source", track, false);
       // Get the encoding profiles
       List<EncodingProfile> profiles = new ArrayList<>();
       for (String profileId : profileIds) {
         EncodingProfile profile = getProfile(job, profileId);
         profiles.add(profile);
       }
-      final long nominalTrim = multiEncodeTrim; // in ms - minimal amount if needed to adjust lipsync
-      List<Long> edits = null;
-      if (nominalTrim > 0) {
-        edits = new ArrayList<>(); // Nominal edit points if there is need to automatically trim off the beginning
-        edits.add((long) 0);
-        edits.add(nominalTrim);
-        edits.add(track.getDuration() - nominalTrim);
-      }
-      logger.info("Encoding source track {} using profiles '{}'", track.getIdentifier(), profileIds);
-      // Do the work
-      EncoderEngine encoderEngine = getEncoderEngine();
-      try {
-        outputs = encoderEngine.multiTrimConcat(Arrays.asList(videoFile), null, profiles, multiEncodeFade,
-                track.hasVideo(),
-                track.hasAudio());
-      } catch (EncoderException e) {
-        Map<String, String> params = new HashMap<>();
-        params.put("videos", videoFile.getName());
-        params.put("profiles", StringUtils.join(profileIds, ","));
-        incident().recordFailure(job, MULTI_ENCODE_FAILED, e, params, detailsFor(e, encoderEngine));
-        throw e;
-      } finally {
-        activeEncoder.remove(encoderEngine);
+      final Optional<String> cacheKey = getCacheKey(Operation.MultiEncode,
+              java.util.Collections.singletonMap("source", track), profiles, null, "fade", multiEncodeFade, "trim",
+              multiEncodeTrim, "video", track.hasVideo(), "audio", track.hasAudio());
+      outputs = getCachedOutput(cacheKey, track).orElse(null);
+      if (outputs == null) {
+        final File videoFile = loadTrackIntoWorkspace(job, "source", track, false);
+        final long nominalTrim = multiEncodeTrim; // in ms - minimal amount if needed to adjust lipsync
+        List<Long> edits = null;
+        if (nominalTrim > 0) {
+          edits = new ArrayList<>(); // Nominal edit points if there is need to automatically trim off the beginning
+          edits.add((long) 0);
+          edits.add(nominalTrim);
+          edits.add(track.getDuration() - nominalTrim);
+        }
+        logger.info("Encoding source track {} using profiles '{}'", track.getIdentifier(), profileIds);
+        // Do the work
+        EncoderEngine encoderEngine = getEncoderEngine(job);
+        try {
+          outputs = encoderEngine.multiTrimConcat(Arrays.asList(videoFile), null, profiles, multiEncodeFade,
+                  track.hasVideo(),
+                  track.hasAudio());
+        } catch (EncoderException e) {
+          Map<String, String> params = new HashMap<>();
+          params.put("videos", videoFile.getName());
+          params.put("profiles", StringUtils.join(profileIds, ","));
+          incident().recordFailure(job, MULTI_ENCODE_FAILED, e, params, detailsFor(e, encoderEngine));
+          throw e;
+        } finally {
+          activeEncoder.remove(encoderEngine);
+        }
+        cacheOutput(cacheKey, outputs, videoFile);
       }
       logger.info("MultiEncode returns {} media files {} ", outputs.size(), outputs);
       List<File> saveFiles = outputs; // names may be changed in the following ops
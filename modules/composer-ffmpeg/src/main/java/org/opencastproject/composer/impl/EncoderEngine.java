@@ -25,6 +25,8 @@ package org.opencastproject.composer.impl;
 import org.opencastproject.composer.api.EncoderException;
 import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.VideoClip;
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.mediapackage.AdaptivePlaylist;
 import org.opencastproject.mediapackage.identifier.IdImpl;
 import org.opencastproject.util.IoSupport;
@@ -78,12 +80,18 @@ public class EncoderEngine implements AutoCloseable {
   private static Logger logger = LoggerFactory.getLogger(EncoderEngine.class);
   /** the encoder binary */
   private String binary = "ffmpeg";
+  /** The job to report the encoding progress for or <code>null</code> */
+  private final Job job;
   /** Set of processes to clean up */
   private Set<Process> processes = new HashSet<>();
 
   private final Pattern outputPattern = Pattern.compile("Output .* (\\S+) to '(.*)':");
   // ffmpeg4 generates HLS output files and may use a .tmp suffix while writing
   private final Pattern outputPatternHLS = Pattern.compile("Opening '([^']+)\\.tmp'|([^']+)' for writing");
+  // Progress is reported as key=value lines if ffmpeg is run with -progress
+  private static final Pattern progressPattern = Pattern.compile("^(\\w+)=\\s*(\\S*)$");
+  // The duration of each input, e.g. "Duration: 00:01:02.50, start: 0.000000, bitrate: 1000 kb/s"
+  private static final Pattern durationPattern = Pattern.compile("^Duration: (\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
 
   // These are common video options that may be mapped in HLS streams. This will help catch some common mistakes
   private static List<String> mappableOptions = Stream.of("-bf", "-b_strategy", "-bitrate", "-bufsize", "-crf",
@@ -96,7 +104,15 @@ public class EncoderEngine implements AutoCloseable {
    * Creates a new abstract encoder engine with or without support for multiple job submission.
    */
   EncoderEngine(String binary) {
+    this(binary, null);
+  }
+
+  /**
+   * Creates a new encoder engine reporting the progress of its encoding processes for the given job.
+   */
+  EncoderEngine(String binary, Job job) {
     this.binary = binary;
+    this.job = job;
   }
 
   /**
@@ -218,6 +234,10 @@ public class EncoderEngine implements AutoCloseable {
     List<File> outFiles = new ArrayList<>();
     BufferedReader in = null;
     Process encoderProcess = null;
+    final ProgressReport progress = new ProgressReport(job);
+    if (params.containsKey(PROP_TRIMMING_DURATION)) {
+      progress.setDuration(params.get(PROP_TRIMMING_DURATION));
+    }
     try {
       ProcessBuilder processBuilder = new ProcessBuilder(command);
       processBuilder.redirectErrorStream(REDIRECT_ERROR_STREAM);
@@ -228,7 +248,7 @@ public class EncoderEngine implements AutoCloseable {
       in = new BufferedReader(new InputStreamReader(encoderProcess.getInputStream()));
       String line;
       while ((line = in.readLine()) != null) {
-        handleEncoderOutput(outFiles, line);
+        handleEncoderOutput(outFiles, line, progress);
       }
 
       // wait until the task is finished
@@ -251,6 +271,7 @@ public class EncoderEngine implements AutoCloseable {
       }
       throw new EncoderException(e);
     } finally {
+      progress.finish();
       IoSupport.closeQuietly(in);
       IoSupport.closeQuietly(encoderProcess);
     }
@@ -280,9 +301,12 @@ public class EncoderEngine implements AutoCloseable {
     Process encoderProcess = null;
     BufferedReader in = null;
     List<File> outFiles = new ArrayList<>();
+    final ProgressReport progress = new ProgressReport(job);
     try {
       List<String> command = new ArrayList<>();
       command.add(binary);
+      command.add("-progress");
+      command.add("pipe:1");
       command.addAll(commandopts);
       logger.info("Executing encoding command: {}", StringUtils.join(command, " "));
 
@@ -293,7 +317,7 @@ public class EncoderEngine implements AutoCloseable {
       in = new BufferedReader(new InputStreamReader(encoderProcess.getInputStream()));
       String line;
       while ((line = in.readLine()) != null) {
-        handleEncoderOutput(outFiles, line); // get names of output files
+        handleEncoderOutput(outFiles, line, progress); // get names of output files
       }
       // wait until the task is finished
       encoderProcess.waitFor();
@@ -315,6 +339,7 @@ public class EncoderEngine implements AutoCloseable {
       }
       throw new EncoderException(e);
     } finally {
+      progress.finish();
       IoSupport.closeQuietly(in);
       IoSupport.closeQuietly(encoderProcess);
     }
@@ -352,6 +377,8 @@ public class EncoderEngine implements AutoCloseable {
     command.add(binary);
     command.add("-nostdin");
     command.add("-nostats");
+    command.add("-progress");
+    command.add("pipe:1");
 
     String commandline = profile.getExtension(CMD_SUFFIX);
 
@@ -434,12 +461,27 @@ public class EncoderEngine implements AutoCloseable {
    *
    * @param message
    *          the message returned by the encoder
+   * @param progress
+   *          the progress report of the encoding process
    */
-  private void handleEncoderOutput(List<File> output, String message) {
+  private void handleEncoderOutput(List<File> output, String message, ProgressReport progress) {
     message = message.trim();
     if ("".equals(message))
       return;
 
+    // Progress reports
+    Matcher progressMatcher = progressPattern.matcher(message);
+    if (progressMatcher.matches()) {
+      logger.trace(message);
+      progress.handle(progressMatcher.group(1), progressMatcher.group(2));
+      return;
+    }
+    Matcher durationMatcher = durationPattern.matcher(message);
+    if (durationMatcher.find()) {
+      progress.addInputDuration(Math.round((Long.parseLong(durationMatcher.group(1)) * 3600
+              + Long.parseLong(durationMatcher.group(2)) * 60 + Double.parseDouble(durationMatcher.group(3))) * 1000));
+    }
+
     // Others go to trace logging
     if (StringUtils.startsWithAny(message.toLowerCase(),
           "ffmpeg version", "configuration", "lib", "size=", "frame=", "built with")) {
@@ -492,6 +534,79 @@ public class EncoderEngine implements AutoCloseable {
     }
   }
 
+  /**
+   * Collects the progress ffmpeg reports in blocks of key=value lines, each terminated by a <code>progress</code> line,
+   * and publishes it for the job being processed.
+   */
+  private static final class ProgressReport {
+
+    /** The published progress or <code>null</code> if there is no job to report for */
+    private final JobProgress progress;
+
+    /** Whether the duration is fixed, e.g. by trimming, instead of being taken from the inputs */
+    private boolean fixedDuration = false;
+
+    private long processedTime = 0L;
+    private long frames = 0L;
+    private float speed = 0F;
+
+    ProgressReport(Job job) {
+      this.progress = job == null ? null : JobProgress.start(job);
+    }
+
+    /** Sets the expected duration in seconds as passed to ffmpeg. */
+    void setDuration(String seconds) {
+      if (progress == null)
+        return;
+      try {
+        progress.setDuration(Math.round(Double.parseDouble(seconds) * 1000));
+        fixedDuration = true;
+      } catch (NumberFormatException e) {
+        logger.debug("Ignoring invalid duration {}", seconds);
+      }
+    }
+
+    /** Takes the longest input as the expected duration. */
+    void addInputDuration(long duration) {
+      if (progress == null || fixedDuration)
+        return;
+      final Long current = progress.getDuration();
+      if (current == null || duration > current)
+        progress.setDuration(duration);
+    }
+
+    void handle(String key, String value) {
+      if (progress == null)
+        return;
+      try {
+        switch (key) {
+          case "out_time_us":
+            processedTime = Math.max(0L, Long.parseLong(value) / 1000);
+            break;
+          case "frame":
+            frames = Long.parseLong(value);
+            break;
+          case "speed":
+            speed = Float.parseFloat(StringUtils.removeEnd(value, "x"));
+            break;
+          case "progress":
+            progress.update(processedTime, frames, speed);
+            break;
+          default:
+            break;
+        }
+      } catch (NumberFormatException e) {
+        // Values are "N/A" until ffmpeg can tell
+      }
+    }
+
+    void finish() {
+      if (progress != null)
+        progress.finish();
+    }
+
+  }
+
   /**
    * Splits a line into tokens - mindful of single and double quoted string as single token Apache common and guava do
    * not deal with quotes
@@ -0,0 +1,463 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+import org.opencastproject.composer.api.EncodingProfile;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.FileTransfer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded cache of encoding results on disk. Results are content addressed: they are keyed by a hash of the
+ * checksums of the source elements, the encoding profiles and all other parameters influencing the output. Each entry
+ * is a directory containing the output files in the order the encoder produced them:
+ *
+ * <pre>
+ * &lt;directory&gt;/&lt;first two characters of the key&gt;/&lt;key&gt;/000-low.mp4
+ * </pre>
+ *
+ * The least recently used entries are evicted once the cached files exceed the maximum size. Entries are published by
+ * atomically renaming a fully written directory, so several nodes may share the cache directory. The directory is
+ * scanned whenever an entry is stored, so the maximum size applies to all entries in the directory, including the ones
+ * stored by other nodes. Entries a node has not used itself are evicted first, oldest first.
+ */
+public class EncodingCache implements EncodingCacheMXBean {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(EncodingCache.class);
+
+  /** Marks directories of entries which are still being written */
+  private static final String TMP_MARKER = ".tmp-";
+
+  /** Time after which entries still being written are considered abandoned, in milliseconds */
+  private static final long TMP_MAX_AGE = 24L * 60 * 60 * 1000;
+
+  /** Length of the random identifier the encoder engine adds to the base name of its output files */
+  private static final int UUID_LENGTH = 36;
+
+  /** The cache directory */
+  private final File directory;
+
+  /** The maximum size of the cached files in bytes */
+  private final long maxSize;
+
+  /** The size of each entry by key, in access order */
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** The size of all entries in bytes */
+  private long size = 0L;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Creates a new cache, picking up the entries already stored in the given directory.
+   *
+   * @param directory
+   *          the cache directory
+   * @param maxSize
+   *          the maximum size of the cached files in bytes
+   * @throws IOException
+   *           if the cache directory cannot be created
+   */
+  public EncodingCache(File directory, long maxSize) throws IOException {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    FileUtils.forceMkdir(directory);
+
+    final Map<String, Long> stored = scan();
+    synchronized (this) {
+      reload(stored);
+      evict();
+    }
+    logger.info("Encoding cache at {} holds {} entries with {} bytes", directory, entries.size(), size);
+  }
+
+  /**
+   * Starts building the key of an encoding result.
+   *
+   * @param operation
+   *          the composer operation
+   * @return the key builder
+   */
+  public static Key key(String operation) {
+    return new Key(operation);
+  }
+
+  /**
+   * Restores the cached result of an encoding. The restored files are named like the ones produced by the encoder
+   * engine and can be handled the same way.
+   *
+   * @param key
+   *          the key of the encoding result
+   * @param targetDirectory
+   *          the directory to restore the files to
+   * @param baseName
+   *          the base name of the source file
+   * @return the restored output files or nothing if the result is not cached
+   */
+  public Optional<List<File>> get(String key, File targetDirectory, String baseName) {
+    final File entry = getEntryDirectory(key);
+    final File[] cached = listFiles(entry);
+    Arrays.sort(cached);
+    if (cached.length == 0) {
+      synchronized (this) {
+        unregister(key);
+      }
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+
+    final List<File> restored = new ArrayList<>(cached.length);
+    try {
+      for (File file : cached) {
+        // The restored files are only read before being removed, so they may share their data with the cache
+        final File target = new File(targetDirectory, baseName + "_" + UUID.randomUUID() + file.getName().substring(3));
+        FileTransfer.transfer(file, target, true);
+        restored.add(target);
+      }
+    } catch (IOException e) {
+      // The entry may have been evicted by another node in the meantime
+      logger.debug("Unable to restore cached encoding result {}", key, e);
+      restored.forEach(FileUtils::deleteQuietly);
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+
+    entry.setLastModified(System.currentTimeMillis());
+    synchronized (this) {
+      // Looking the entry up marks it as recently used, entries stored by other nodes are picked up here
+      if (entries.get(key) == null) {
+        register(key, sizeOf(entry));
+        evict();
+      }
+    }
+    hits.incrementAndGet();
+    logger.debug("Restored cached encoding result {}: {}", key, restored);
+    return Optional.of(restored);
+  }
+
+  /**
+   * Stores the result of an encoding. Results without output files, with empty output files and results exceeding the
+   * maximum size of the cache are not stored.
+   *
+   * @param key
+   *          the key of the encoding result
+   * @param output
+   *          the output files
+   * @param baseName
+   *          the base name of the source file
+   */
+  public void put(String key, List<File> output, String baseName) {
+    long outputSize = 0L;
+    for (File file : output) {
+      if (file.length() == 0) {
+        return;
+      }
+      outputSize += file.length();
+    }
+    if (output.isEmpty() || outputSize > maxSize) {
+      return;
+    }
+
+    final File entry = getEntryDirectory(key);
+    if (entry.isDirectory()) {
+      return;
+    }
+    final File tmp = new File(entry.getParentFile(), key + TMP_MARKER + UUID.randomUUID());
+    try {
+      for (int i = 0; i < output.size(); i++) {
+        final File file = output.get(i);
+        // Output files are not modified once the encoder is done, so the cache may share their data
+        FileTransfer.transfer(file, new File(tmp, format("%03d%s", i, getSuffix(file, baseName))), true);
+      }
+      Files.move(tmp.toPath(), entry.toPath(), ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Another node may have stored the same result in the meantime
+      logger.debug("Unable to cache encoding result {}", key, e);
+      FileUtils.deleteQuietly(tmp);
+      return;
+    }
+
+    // Other nodes sharing the cache directory may have stored entries in the meantime
+    final Map<String, Long> stored = scan();
+    synchronized (this) {
+      reload(stored);
+      register(key, outputSize);
+      evict();
+    }
+    logger.debug("Cached encoding result {} with {} bytes", key, outputSize);
+  }
+
+  /**
+   * Returns the part of an output file name following the base name and random identifier added by the encoder engine,
+   * e.g. <code>-low.mp4</code>. Only the extension is kept for differently named files.
+   */
+  private static String getSuffix(File file, String baseName) {
+    final String name = file.getName();
+    final String prefix = baseName + "_";
+    if (name.startsWith(prefix) && name.length() > prefix.length() + UUID_LENGTH) {
+      return name.substring(prefix.length() + UUID_LENGTH);
+    }
+    return "." + FilenameUtils.getExtension(name);
+  }
+
+  private File getEntryDirectory(String key) {
+    return new File(new File(directory, key.substring(0, 2)), key);
+  }
+
+  /**
+   * Lists the entries stored in the cache directory, oldest first, and removes abandoned entries still being written.
+   *
+   * @return the size of each stored entry by key
+   */
+  private Map<String, Long> scan() {
+    final List<File> stored = new ArrayList<>();
+    for (File prefix : listFiles(directory)) {
+      if (prefix.isDirectory()) {
+        for (File entry : listFiles(prefix)) {
+          if (entry.getName().contains(TMP_MARKER)) {
+            if (System.currentTimeMillis() - entry.lastModified() > TMP_MAX_AGE) {
+              FileUtils.deleteQuietly(entry);
+            }
+          } else if (entry.isDirectory()) {
+            stored.add(entry);
+          }
+        }
+      }
+    }
+    stored.sort(Comparator.comparingLong(File::lastModified));
+    final Map<String, Long> sizes = new LinkedHashMap<>();
+    for (File entry : stored) {
+      sizes.put(entry.getName(), sizeOf(entry));
+    }
+    return sizes;
+  }
+
+  /**
+   * Replaces the registered entries by the stored ones. Entries unknown to this node are registered as less recently
+   * used than the known ones, which keep their order.
+   *
+   * @param stored
+   *          the size of each stored entry by key, oldest first
+   */
+  private void reload(Map<String, Long> stored) {
+    final Set<String> known = new LinkedHashSet<>(entries.keySet());
+    entries.clear();
+    size = 0L;
+    for (Map.Entry<String, Long> entry : stored.entrySet()) {
+      if (!known.contains(entry.getKey())) {
+        register(entry.getKey(), entry.getValue());
+      }
+    }
+    for (String key : known) {
+      final Long entrySize = stored.get(key);
+      if (entrySize != null) {
+        register(key, entrySize);
+      }
+    }
+  }
+
+  private void register(String key, long entrySize) {
+    final Long previous = entries.put(key, entrySize);
+    size += entrySize - (previous == null ? 0L : previous);
+  }
+
+  private void unregister(String key) {
+    final Long previous = entries.remove(key);
+    if (previous != null) {
+      size -= previous;
+    }
+  }
+
+  /** Removes the least recently used entries until the cache fits into its maximum size. */
+  private void evict() {
+    final Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+    while (size > maxSize && eldest.hasNext()) {
+      final Map.Entry<String, Long> entry = eldest.next();
+      eldest.remove();
+      size -= entry.getValue();
+      FileUtils.deleteQuietly(getEntryDirectory(entry.getKey()));
+      evictions.incrementAndGet();
+      logger.debug("Evicted cached encoding result {}", entry.getKey());
+    }
+  }
+
+  private static long sizeOf(File entry) {
+    long entrySize = 0L;
+    for (File file : listFiles(entry)) {
+      entrySize += file.length();
+    }
+    return entrySize;
+  }
+
+  private static File[] listFiles(File dir) {
+    final File[] files = dir.listFiles();
+    return files == null ? new File[0] : files;
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public double getHitRate() {
+    final long requests = hits.get() + misses.get();
+    return requests == 0 ? 0.0 : (double) hits.get() / requests;
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  @Override
+  public synchronized long getEntryCount() {
+    return entries.size();
+  }
+
+  @Override
+  public synchronized long getSize() {
+    return size;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Builds the key of an encoding result by hashing everything the output depends on. */
+  public static final class Key {
+    private final MessageDigest digest;
+
+    private Key(String operation) {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+      add("operation", operation);
+    }
+
+    /**
+     * Adds a parameter of the encoding.
+     *
+     * @param name
+     *          the parameter name
+     * @param value
+     *          the parameter value
+     * @return this builder
+     */
+    public Key add(String name, Object value) {
+      digest.update((name + "=" + value + "\n").getBytes(UTF_8));
+      return this;
+    }
+
+    /**
+     * Adds the checksum of a source element.
+     *
+     * @param name
+     *          the name of the source
+     * @param checksum
+     *          the checksum of the source
+     * @return this builder
+     */
+    public Key addSource(String name, Checksum checksum) {
+      return add("source." + name, checksum.getType() + ":" + checksum.getValue());
+    }
+
+    /**
+     * Adds all parameters of an encoding profile which may influence the output, including the command line.
+     *
+     * @param profile
+     *          the encoding profile
+     * @return this builder
+     */
+    public Key addProfile(EncodingProfile profile) {
+      add("profile", profile.getIdentifier());
+      add("profile.output", profile.getOutputType());
+      add("profile.suffix", profile.getSuffix());
+      for (String tag : profile.getTags()) {
+        add("profile.suffix." + tag, profile.getSuffix(tag));
+      }
+      return addAll("profile.extension.", profile.getExtensions());
+    }
+
+    /**
+     * Adds a set of encoding properties in a stable order.
+     *
+     * @param prefix
+     *          the prefix of the parameter names
+     * @param properties
+     *          the properties, may be <code>null</code>
+     * @return this builder
+     */
+    public Key addAll(String prefix, Map<String, String> properties) {
+      if (properties != null) {
+        for (Map.Entry<String, String> property : new TreeMap<>(properties).entrySet()) {
+          add(prefix + property.getKey(), property.getValue());
+        }
+      }
+      return this;
+    }
+
+    /** @return the key */
+    public String build() {
+      return Checksum.convertToHex(digest.digest());
+    }
+  }
+
+}
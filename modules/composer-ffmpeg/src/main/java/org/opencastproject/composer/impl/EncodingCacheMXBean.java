@@ -0,0 +1,78 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+/**
+ * JMX Bean interface exposing statistics of the cache of encoding results
+ */
+public interface EncodingCacheMXBean {
+
+  /**
+   * Gets the number of encodings served from the cache
+   *
+   * @return the number of cache hits
+   */
+  long getHitCount();
+
+  /**
+   * Gets the number of cacheable encodings which had to be run
+   *
+   * @return the number of cache misses
+   */
+  long getMissCount();
+
+  /**
+   * Gets the ratio of cacheable encodings served from the cache
+   *
+   * @return the hit rate between 0 and 1
+   */
+  double getHitRate();
+
+  /**
+   * Gets the number of encoding results removed to keep the cache within its size limit
+   *
+   * @return the number of evicted cache entries
+   */
+  long getEvictionCount();
+
+  /**
+   * Gets the number of encoding results currently cached
+   *
+   * @return the number of cache entries
+   */
+  long getEntryCount();
+
+  /**
+   * Gets the size of the cached encoding results
+   *
+   * @return the size in bytes
+   */
+  long getSize();
+
+  /**
+   * Gets the maximum size of the cached encoding results
+   *
+   * @return the maximum size in bytes
+   */
+  long getMaxSize();
+
+}
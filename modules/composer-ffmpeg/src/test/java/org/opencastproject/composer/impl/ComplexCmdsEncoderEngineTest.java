@@ -22,6 +22,7 @@ package org.opencastproject.composer.impl;
 
 import static org.easymock.EasyMock.anyBoolean;
 import static org.easymock.EasyMock.capture;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.opencastproject.composer.api.EncoderException;
@@ -31,6 +32,7 @@ import org.opencastproject.inspection.api.MediaInspectionService;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.mediapackage.AdaptivePlaylist;
 import org.opencastproject.mediapackage.MediaPackageElement;
 import org.opencastproject.mediapackage.MediaPackageElementParser;
@@ -763,6 +765,22 @@ public class ComplexCmdsEncoderEngineTest {
     }
   }
 
+  @Test
+  public void testProgressReport() throws Exception {
+    final Job encodeJob = new JobImpl(4711L);
+    encodeJob.setJobType(ComposerServiceImpl.JOB_TYPE);
+    encodeJob.setOperation("Encode");
+    final long processedTime = JobProgress.getTotalProcessedTime();
+    final long frames = JobProgress.getTotalFrames();
+    try (EncoderEngine progressEngine = new EncoderEngine(FFMPEG_BINARY, encodeJob)) {
+      File output = progressEngine.encode(sourceAudioVideo, profileScanner.getProfile("h264-low.http"), null);
+      assertTrue(output.length() > 0);
+    }
+    assertTrue(JobProgress.getTotalProcessedTime() > processedTime);
+    assertTrue(JobProgress.getTotalFrames() > frames);
+    assertFalse(JobProgress.get(4711L).isPresent());
+  }
+
   @Test
   public void testMultiEncodeJob() throws Exception {
     if (!ffmpegInstalled)
@@ -23,6 +23,7 @@ package org.opencastproject.composer.impl;
 
 import static org.easymock.EasyMock.capture;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -42,6 +43,8 @@ import org.opencastproject.mediapackage.Attachment;
 import org.opencastproject.mediapackage.MediaPackageElementParser;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.track.AudioStreamImpl;
+import org.opencastproject.mediapackage.track.TrackImpl;
 import org.opencastproject.security.api.DefaultOrganization;
 import org.opencastproject.security.api.JaxbOrganization;
 import org.opencastproject.security.api.JaxbRole;
@@ -50,7 +53,11 @@ import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.User;
 import org.opencastproject.security.api.UserDirectoryService;
+import org.opencastproject.serviceregistry.api.JaxbServiceRegistration;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.serviceregistry.api.SystemLoad;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.JsonObj;
 import org.opencastproject.util.MimeType;
 import org.opencastproject.util.data.Option;
@@ -77,11 +84,22 @@ import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.imageio.ImageIO;
@@ -282,6 +300,71 @@ public class ComposerServiceTest {
     MediaPackageElementParser.getFromXml(job.getPayload());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testEncodingCache() throws Exception {
+    final File cacheDir = Files.createTempDirectory(testDir.toPath(), "cache").toFile();
+    final File collection = Files.createTempDirectory(testDir.toPath(), "workspace").toFile();
+    final AtomicReference<File> source = new AtomicReference<>(sourceVideoOnly);
+    final List<File> stored = new ArrayList<>();
+
+    Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.rootDirectory()).andReturn(collection.getAbsolutePath()).anyTimes();
+    EasyMock.expect(workspace.get(EasyMock.anyObject())).andAnswer(source::get).anyTimes();
+    EasyMock.expect(workspace.get(EasyMock.anyObject(), EasyMock.anyBoolean())).andAnswer(source::get).anyTimes();
+    EasyMock.expect(workspace.putInCollection(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyObject()))
+            .andAnswer(() -> {
+              final File file = new File(collection, (String) EasyMock.getCurrentArguments()[1]);
+              FileUtils.copyInputStreamToFile((InputStream) EasyMock.getCurrentArguments()[2], file);
+              stored.add(file);
+              return file.toURI();
+            }).anyTimes();
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.createJob(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyObject(),
+            EasyMock.anyFloat())).andAnswer(() -> {
+              final Object[] arguments = EasyMock.getCurrentArguments();
+              Job job = new JobImpl(0);
+              job.setJobType((String) arguments[0]);
+              job.setOperation((String) arguments[1]);
+              job.setArguments((List<String>) arguments[2]);
+              job.setPayload(composerService.process(job));
+              return job;
+            }).anyTimes();
+    EasyMock.replay(workspace, serviceRegistry);
+    composerService.setWorkspace(workspace);
+    composerService.setServiceRegistry(serviceRegistry);
+
+    final Hashtable<String, String> properties = new Hashtable<>();
+    properties.put(ComposerServiceImpl.ENCODING_CACHE_SIZE, "100");
+    properties.put(ComposerServiceImpl.ENCODING_CACHE_DIRECTORY, cacheDir.getAbsolutePath());
+    composerService.updated(properties);
+    try {
+      // Only sources with a checksum are cached
+      final Track track = (Track) sourceVideoTrack.clone();
+      track.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, sourceVideoOnly));
+      final List<String> profiles = Arrays.asList("h264-low.http", "h264-medium.http");
+
+      composerService.encode(track, "av.copy");
+      composerService.multiEncode(track, profiles);
+      final List<File> encoded = new ArrayList<>(stored);
+      assertEquals(3, encoded.size());
+
+      // FFmpeg cannot encode a missing source, so the results need to be restored from the cache
+      source.set(new File(testDir, "missing.mp4"));
+      stored.clear();
+      composerService.encode(track, "av.copy");
+      composerService.multiEncode(track, profiles);
+      assertEquals(encoded.size(), stored.size());
+      for (int i = 0; i < encoded.size(); i++) {
+        assertTrue(FileUtils.contentEquals(encoded.get(i), stored.get(i)));
+      }
+    } finally {
+      composerService.deactivate();
+      FileUtils.deleteQuietly(cacheDir);
+      FileUtils.deleteQuietly(collection);
+    }
+  }
+
   @Test
   public void testParallelEncode() throws Exception {
     assertTrue(sourceVideoOnly.isFile());
@@ -299,6 +382,158 @@ public class ComposerServiceTest {
     assertEquals(3, MediaPackageElementParser.getArrayFromXml(job.getPayload()).size());
   }
 
+  /**
+   * Sets up a workspace storing files in the given collection directory and a service registry running the created
+   * jobs right away, as needed by distributed encoding. There is a single composer with the given load.
+   *
+   * @return the created jobs by identifier
+   */
+  @SuppressWarnings("unchecked")
+  private Map<Long, Job> setUpDistributedEncoding(File source, File collection, float composerLoad) throws Exception {
+    // Segments and encoded files need to be stored in and loaded from the workspace
+    Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.rootDirectory()).andReturn(collection.getAbsolutePath()).anyTimes();
+    EasyMock.expect(workspace.get(EasyMock.anyObject())).andAnswer(() -> {
+      final URI uri = (URI) EasyMock.getCurrentArguments()[0];
+      return "file".equals(uri.getScheme()) ? new File(uri) : source;
+    }).anyTimes();
+    EasyMock.expect(workspace.get(EasyMock.anyObject(), EasyMock.anyBoolean())).andAnswer(() -> {
+      final URI uri = (URI) EasyMock.getCurrentArguments()[0];
+      return "file".equals(uri.getScheme()) ? new File(uri) : source;
+    }).anyTimes();
+    EasyMock.expect(workspace.putInCollection(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyObject()))
+            .andAnswer(() -> {
+              final File file = new File(collection, (String) EasyMock.getCurrentArguments()[1]);
+              FileUtils.copyInputStreamToFile((InputStream) EasyMock.getCurrentArguments()[2], file);
+              return file.toURI();
+            }).anyTimes();
+    workspace.delete(EasyMock.anyObject(URI.class));
+    EasyMock.expectLastCall().andAnswer(() -> {
+      FileUtils.deleteQuietly(new File((URI) EasyMock.getCurrentArguments()[0]));
+      return null;
+    }).anyTimes();
+    composerService.setWorkspace(workspace);
+
+    // The segment jobs need to be known to the job barrier of the distributing job
+    final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    final AtomicLong jobId = new AtomicLong();
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.createJob(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyObject(),
+            EasyMock.anyFloat())).andAnswer(() -> {
+              final Object[] arguments = EasyMock.getCurrentArguments();
+              Job job = new JobImpl(jobId.incrementAndGet());
+              job.setJobType((String) arguments[0]);
+              job.setOperation((String) arguments[1]);
+              job.setArguments((List<String>) arguments[2]);
+              jobs.put(job.getId(), job);
+              job.setPayload(composerService.process(job));
+              job.setStatus(Job.Status.FINISHED);
+              return job;
+            }).anyTimes();
+    EasyMock.expect(serviceRegistry.getJob(EasyMock.anyLong()))
+            .andAnswer(() -> jobs.get((Long) EasyMock.getCurrentArguments()[0])).anyTimes();
+    final SystemLoad loads = new SystemLoad();
+    loads.addNodeLoad(new SystemLoad.NodeLoad("http://localhost", composerLoad, 4.0f));
+    EasyMock.expect(serviceRegistry.getCurrentHostLoads()).andReturn(loads).anyTimes();
+    EasyMock.expect(serviceRegistry.getServiceRegistrationsByLoad(ComposerServiceImpl.JOB_TYPE)).andReturn(
+            java.util.Collections.singletonList(new JaxbServiceRegistration(ComposerServiceImpl.JOB_TYPE,
+                    "http://localhost", "/composer/ffmpeg"))).anyTimes();
+    composerService.setServiceRegistry(serviceRegistry);
+    EasyMock.replay(workspace, serviceRegistry);
+    return jobs;
+  }
+
+  private static List<Job> getSegmentJobs(Map<Long, Job> jobs) {
+    return jobs.values().stream()
+            .filter(j -> ComposerServiceImpl.Operation.EncodeSegment.toString().equals(j.getOperation()))
+            .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the durations in seconds of a media file, by stream type, and of the whole file, as <code>format</code>.
+   */
+  private static Map<String, Double> probeDurations(File file) throws Exception {
+    final Process process = new ProcessBuilder(FFMPEG_BINARY.replace("ffmpeg", "ffprobe"), "-v", "error",
+            "-show_entries", "stream=codec_type,duration:format=duration", "-of", "csv=p=0", file.getAbsolutePath())
+            .redirectErrorStream(true).start();
+    final Map<String, Double> durations = new HashMap<>();
+    for (String line : IOUtils.readLines(process.getInputStream(), StandardCharsets.UTF_8)) {
+      final String[] fields = line.trim().split(",");
+      if (fields.length == 2) {
+        durations.put(fields[0], Double.parseDouble(fields[1]));
+      } else if (fields.length == 1 && !fields[0].isEmpty()) {
+        durations.put("format", Double.parseDouble(fields[0]));
+      }
+    }
+    assertEquals(0, process.waitFor());
+    return durations;
+  }
+
+  @Test
+  public void testDistributedEncode() throws Exception {
+    assertTrue(sourceVideoOnly.isFile());
+    final File collection = Files.createTempDirectory(testDir.toPath(), "workspace").toFile();
+    final Map<Long, Job> jobs = setUpDistributedEncoding(sourceVideoOnly, collection, 0.0f);
+
+    // Profiles need to enable distributed encoding
+    Job job = composerService.encode(sourceVideoTrack, "av.copy");
+    assertEquals(1, jobs.size());
+
+    job = composerService.encode(sourceVideoTrack, "distributed.copy");
+    assertNotNull(MediaPackageElementParser.getFromXml(job.getPayload()));
+    final List<Job> segmentJobs = getSegmentJobs(jobs);
+    assertFalse(segmentJobs.isEmpty());
+    for (Job segmentJob : segmentJobs) {
+      assertEquals(Job.Status.FINISHED, segmentJob.getStatus());
+    }
+
+    // Segments and encoded segments have been removed from the workspace
+    final File[] files = collection.listFiles((dir, name) -> name.endsWith("-distributed.mp4"));
+    assertEquals(1, files.length);
+    assertEquals(2, collection.list().length);
+    FileUtils.deleteQuietly(collection);
+  }
+
+  @Test
+  public void testDistributedEncodeWithoutCapacity() throws Exception {
+    final File collection = Files.createTempDirectory(testDir.toPath(), "workspace").toFile();
+    final Map<Long, Job> jobs = setUpDistributedEncoding(sourceVideoOnly, collection, 4.0f);
+
+    // The segments could not be dispatched, so the track is encoded in a single job
+    Job job = composerService.encode(sourceVideoTrack, "distributed.copy");
+    assertNotNull(MediaPackageElementParser.getFromXml(job.getPayload()));
+    assertEquals(1, jobs.size());
+    assertTrue(getSegmentJobs(jobs).isEmpty());
+    FileUtils.deleteQuietly(collection);
+  }
+
+  @Test
+  public void testDistributedEncodeWithAudio() throws Exception {
+    final File source = new File(testDir, "distributed-av1.mp4");
+    FileUtils.copyFile(getFile("/av1.mp4"), source);
+    final Map<String, Double> sourceDurations = probeDurations(source);
+    final File collection = Files.createTempDirectory(testDir.toPath(), "workspace").toFile();
+    final Map<Long, Job> jobs = setUpDistributedEncoding(source, collection, 0.0f);
+
+    final TrackImpl track = (TrackImpl) sourceVideoTrack.clone();
+    track.setDuration(20022L);
+    track.addStream(new AudioStreamImpl());
+
+    // The video is re-encoded in segments, the audio at once
+    Job job = composerService.encode(track, "distributed.reencode");
+    assertNotNull(MediaPackageElementParser.getFromXml(job.getPayload()));
+    assertTrue(getSegmentJobs(jobs).size() > 1);
+
+    final File[] files = collection.listFiles((dir, name) -> name.endsWith("-reencoded.mp4"));
+    assertEquals(1, files.length);
+    final Map<String, Double> durations = probeDurations(files[0]);
+    assertEquals(sourceDurations.get("video"), durations.get("video"), 0.05);
+    assertEquals(sourceDurations.get("audio"), durations.get("audio"), 0.05);
+    assertEquals(sourceDurations.get("format"), durations.get("format"), 0.05);
+    FileUtils.deleteQuietly(collection);
+    FileUtils.deleteQuietly(source);
+  }
+
   @Test
   public void testTrim() throws Exception {
     assertTrue(sourceVideoOnly.isFile());
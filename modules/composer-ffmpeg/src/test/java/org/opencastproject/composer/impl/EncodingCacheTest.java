@@ -0,0 +1,154 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.composer.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class EncodingCacheTest {
+
+  private static final String BASE_NAME = "source";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File cacheDir;
+  private File workDir;
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = tmp.newFolder("cache");
+    workDir = tmp.newFolder("work");
+  }
+
+  @Test
+  public void testRestoreOutput() throws Exception {
+    final EncodingCache cache = new EncodingCache(cacheDir, 1024);
+    final String key = EncodingCache.key("encode").add("profile", "mp4").build();
+    assertFalse(cache.get(key, workDir, BASE_NAME).isPresent());
+
+    final File low = createOutput("-low.mp4", "low");
+    final File high = createOutput("-high.mp4", "high");
+    cache.put(key, Arrays.asList(low, high), BASE_NAME);
+
+    final Optional<List<File>> restored = cache.get(key, workDir, BASE_NAME);
+    assertTrue(restored.isPresent());
+    assertEquals(2, restored.get().size());
+    assertTrue(restored.get().get(0).getName().matches(BASE_NAME + "_[0-9a-f-]{36}-low\\.mp4"));
+    assertTrue(restored.get().get(1).getName().matches(BASE_NAME + "_[0-9a-f-]{36}-high\\.mp4"));
+    assertEquals("low", FileUtils.readFileToString(restored.get().get(0), UTF_8));
+    assertEquals("high", FileUtils.readFileToString(restored.get().get(1), UTF_8));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate(), 0.0);
+    assertEquals(1, cache.getEntryCount());
+    assertEquals(7, cache.getSize());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws Exception {
+    final EncodingCache cache = new EncodingCache(cacheDir, 10);
+    cache.put("a", Arrays.asList(createOutput(".mp4", "aaaa")), BASE_NAME);
+    cache.put("b", Arrays.asList(createOutput(".mp4", "bbbb")), BASE_NAME);
+    assertTrue(cache.get("a", workDir, BASE_NAME).isPresent());
+    cache.put("c", Arrays.asList(createOutput(".mp4", "cccc")), BASE_NAME);
+
+    assertEquals(2, cache.getEntryCount());
+    assertEquals(1, cache.getEvictionCount());
+    assertTrue(cache.get("a", workDir, BASE_NAME).isPresent());
+    assertFalse(cache.get("b", workDir, BASE_NAME).isPresent());
+    assertTrue(cache.get("c", workDir, BASE_NAME).isPresent());
+  }
+
+  @Test
+  public void testSkipOversizedAndEmptyOutput() throws Exception {
+    final EncodingCache cache = new EncodingCache(cacheDir, 4);
+    cache.put("a", Arrays.asList(createOutput(".mp4", "too large")), BASE_NAME);
+    cache.put("b", Arrays.asList(createOutput(".mp4", "")), BASE_NAME);
+    assertEquals(0, cache.getEntryCount());
+    assertFalse(cache.get("a", workDir, BASE_NAME).isPresent());
+    assertFalse(cache.get("b", workDir, BASE_NAME).isPresent());
+  }
+
+  @Test
+  public void testReloadEntries() throws Exception {
+    new EncodingCache(cacheDir, 1024).put("a", Arrays.asList(createOutput(".jpg", "image")), BASE_NAME);
+    final EncodingCache cache = new EncodingCache(cacheDir, 1024);
+    assertEquals(1, cache.getEntryCount());
+    assertEquals(5, cache.getSize());
+    assertTrue(cache.get("a", workDir, BASE_NAME).isPresent());
+  }
+
+  @Test
+  public void testSharedDirectory() throws Exception {
+    final EncodingCache first = new EncodingCache(cacheDir, 10);
+    final EncodingCache second = new EncodingCache(cacheDir, 10);
+    first.put("a", Arrays.asList(createOutput(".mp4", "aaaa")), BASE_NAME);
+    first.put("b", Arrays.asList(createOutput(".mp4", "bbbb")), BASE_NAME);
+    second.put("c", Arrays.asList(createOutput(".mp4", "cccc")), BASE_NAME);
+
+    // The entries stored by the first node count towards the maximum size of the second one
+    assertEquals(2, second.getEntryCount());
+    assertEquals(8, second.getSize());
+    assertEquals(1, second.getEvictionCount());
+    assertTrue(second.get("c", workDir, BASE_NAME).isPresent());
+    assertEquals(1, Stream.of("a", "b").filter(key -> first.get(key, workDir, BASE_NAME).isPresent()).count());
+  }
+
+  @Test
+  public void testKey() throws Exception {
+    final Checksum checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, "abc");
+    final String key = EncodingCache.key("encode").addSource("source", checksum).add("binary", "ffmpeg").build();
+    assertEquals(key, EncodingCache.key("encode").addSource("source", checksum).add("binary", "ffmpeg").build());
+    assertNotEquals(key, EncodingCache.key("image").addSource("source", checksum).add("binary", "ffmpeg").build());
+    assertNotEquals(key, EncodingCache.key("encode").addSource("source", checksum).add("binary", "avconv").build());
+    assertTrue(key.matches("[0-9a-f]{64}"));
+  }
+
+  private File createOutput(String suffix, String content) throws IOException {
+    final File file = new File(workDir, BASE_NAME + "_" + UUID.randomUUID() + suffix);
+    FileUtils.writeStringToFile(file, content, UTF_8);
+    return file;
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.distribution.aws.s3;
+
+/**
+ * JMX Bean interface exposing the progress and throughput of the uploads to AWS S3.
+ */
+public interface AwsS3DistributionMXBean {
+
+  /**
+   * Gets the number of elements currently being uploaded
+   *
+   * @return the number of uploads
+   */
+  int getRunningUploads();
+
+  /**
+   * Gets the number of bytes transferred so far, including the uploads still running
+   *
+   * @return the number of bytes
+   */
+  long getTransferredBytes();
+
+  /**
+   * Gets the number of bytes of the uploads still running which have not been transferred yet
+   *
+   * @return the number of bytes
+   */
+  long getPendingBytes();
+
+  /**
+   * Gets the total number of objects uploaded successfully
+   *
+   * @return the number of objects
+   */
+  long getUploadedObjects();
+
+  /**
+   * Gets the total number of objects not uploaded because the bucket already contained them with the same checksum
+   *
+   * @return the number of objects
+   */
+  long getSkippedObjects();
+
+  /**
+   * Gets the total number of failed uploads
+   *
+   * @return the number of uploads
+   */
+  long getFailedUploads();
+
+  /**
+   * Gets the average throughput of the completed uploads in bytes per second
+   *
+   * @return the throughput
+   */
+  long getAverageThroughput();
+
+}
@@ -37,16 +37,22 @@ import org.opencastproject.mediapackage.MediaPackageElementParser;
 import org.opencastproject.mediapackage.MediaPackageException;
 import org.opencastproject.mediapackage.MediaPackageParser;
 import org.opencastproject.mediapackage.Track;
+import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.security.api.User;
 import org.opencastproject.security.api.UserDirectoryService;
+import org.opencastproject.security.util.SecurityUtil;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.ConfigurationException;
 import org.opencastproject.util.LoadUtil;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.OsgiUtil;
 import org.opencastproject.util.data.Option;
+import org.opencastproject.util.jmx.JmxUtil;
 import org.opencastproject.workspace.api.Workspace;
 
 import com.amazonaws.AmazonClientException;
@@ -63,11 +69,17 @@ import com.amazonaws.auth.policy.Statement;
 import com.amazonaws.auth.policy.actions.S3Actions;
 import com.amazonaws.auth.policy.resources.S3ObjectResource;
 import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.event.ProgressEvent;
+import com.amazonaws.event.SyncProgressListener;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.BucketWebsiteConfiguration;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.SetBucketWebsiteConfigurationRequest;
 import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -104,9 +116,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.management.ObjectInstance;
 import javax.servlet.http.HttpServletResponse;
 
 @Component(
@@ -118,7 +138,7 @@ import javax.servlet.http.HttpServletResponse;
     }
 )
 public class AwsS3DistributionServiceImpl extends AbstractDistributionService
-        implements AwsS3DistributionService, DistributionService {
+        implements AwsS3DistributionService, DistributionService, AwsS3DistributionMXBean {
 
   /** Logging facility */
   private static final Logger logger = LoggerFactory.getLogger(AwsS3DistributionServiceImpl.class);
@@ -148,6 +168,13 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
   public static final String AWS_S3_MAX_CONNECTIONS = "org.opencastproject.distribution.aws.s3.max.connections";
   public static final String AWS_S3_CONNECTION_TIMEOUT = "org.opencastproject.distribution.aws.s3.connection.timeout";
   public static final String AWS_S3_MAX_RETRIES = "org.opencastproject.distribution.aws.s3.max.retries";
+  // Upload configuration
+  public static final String AWS_S3_UPLOAD_CONCURRENCY = "org.opencastproject.distribution.aws.s3.upload.concurrency";
+  public static final String AWS_S3_UPLOAD_PART_SIZE = "org.opencastproject.distribution.aws.s3.upload.part.size";
+  public static final String AWS_S3_UPLOAD_PART_CONCURRENCY
+      = "org.opencastproject.distribution.aws.s3.upload.part.concurrency";
+  public static final String AWS_S3_UPLOAD_SKIP_UNCHANGED
+      = "org.opencastproject.distribution.aws.s3.upload.skip.unchanged";
   // job loads
   public static final String DISTRIBUTE_JOB_LOAD_KEY = "job.load.aws.s3.distribute";
   public static final String RETRACT_JOB_LOAD_KEY = "job.load.aws.s3.retract";
@@ -163,6 +190,17 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
   public static final int DEFAULT_CONNECTION_TIMEOUT = 10000;
   public static final int DEFAULT_MAX_RETRIES = 100;
 
+  // Upload config defaults
+  public static final int DEFAULT_UPLOAD_CONCURRENCY = 4;
+  public static final int DEFAULT_UPLOAD_PART_SIZE = 16;
+  public static final int DEFAULT_UPLOAD_PART_CONCURRENCY = 10;
+
+  /** Minimum size of the parts of a multipart upload in MiB, as required by S3 */
+  private static final int MINIMUM_UPLOAD_PART_SIZE = 5;
+
+  /** Name of the user metadata holding the checksum of the uploaded file */
+  static final String CHECKSUM_METADATA = "opencast-checksum";
+
   /** The load on the system introduced by creating a distribute job */
   public static final float DEFAULT_DISTRIBUTE_JOB_LOAD = 0.1f;
 
@@ -210,6 +248,26 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
   /** The opencast download distribution url */
   private String opencastDistributionUrl = null;
 
+  /** Runs the uploads of the elements of a publication concurrently */
+  private ExecutorService uploadExecutor = null;
+
+  /** Whether to skip uploading files which are already in the bucket with the same checksum */
+  private boolean skipUnchanged = true;
+
+  /** The JMX bean exposing the upload statistics */
+  private ObjectInstance mxBean = null;
+
+  /** Upload statistics */
+  private final AtomicInteger runningUploads = new AtomicInteger();
+  private final LongAdder transferredBytes = new LongAdder();
+  private final LongAdder runningBytes = new LongAdder();
+  private final LongAdder runningTransferredBytes = new LongAdder();
+  private final LongAdder uploadedObjects = new LongAdder();
+  private final LongAdder skippedObjects = new LongAdder();
+  private final LongAdder failedUploads = new LongAdder();
+  private final LongAdder completedBytes = new LongAdder();
+  private final LongAdder completedMillis = new LongAdder();
+
   private Gson gson = new Gson();
 
   /**
@@ -339,12 +397,48 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
               .withClientConfiguration(clientConfiguration)
               .withPathStyleAccessEnabled(pathStyle).withCredentials(provider).build();
 
-      s3TransferManager = new TransferManager(s3);
+      int partSize = OsgiUtil.getOptCfgAsInt(cc.getProperties(), AWS_S3_UPLOAD_PART_SIZE)
+              .getOrElse(DEFAULT_UPLOAD_PART_SIZE);
+      if (partSize < MINIMUM_UPLOAD_PART_SIZE) {
+        logger.warn("Upload part size of {} MiB is too small, using {} MiB", partSize, MINIMUM_UPLOAD_PART_SIZE);
+        partSize = MINIMUM_UPLOAD_PART_SIZE;
+      }
+      logger.debug("Upload part size: {} MiB", partSize);
+
+      int partConcurrency = OsgiUtil.getOptCfgAsInt(cc.getProperties(), AWS_S3_UPLOAD_PART_CONCURRENCY)
+              .getOrElse(DEFAULT_UPLOAD_PART_CONCURRENCY);
+      logger.debug("Upload part concurrency: {}", partConcurrency);
+
+      // Files larger than one part are uploaded in parts, the parts of all uploads share the part threads
+      final long partBytes = partSize * 1024L * 1024L;
+      final int partThreads = Math.max(1, partConcurrency);
+      s3TransferManager = TransferManagerBuilder.standard()
+              .withS3Client(s3)
+              .withMinimumUploadPartSize(partBytes)
+              .withMultipartUploadThreshold(partBytes)
+              .withExecutorFactory(() -> Executors.newFixedThreadPool(partThreads))
+              .build();
+
+      int uploadConcurrency = OsgiUtil.getOptCfgAsInt(cc.getProperties(), AWS_S3_UPLOAD_CONCURRENCY)
+              .getOrElse(DEFAULT_UPLOAD_CONCURRENCY);
+      logger.debug("Upload concurrency: {}", uploadConcurrency);
+      final AtomicInteger uploadThreads = new AtomicInteger();
+      uploadExecutor = Executors.newFixedThreadPool(Math.max(1, uploadConcurrency), r -> {
+        Thread thread = new Thread(r, "aws-s3-distribution-upload-" + uploadThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+
+      skipUnchanged = BooleanUtils.toBoolean(
+              OsgiUtil.getComponentContextProperty(cc, AWS_S3_UPLOAD_SKIP_UNCHANGED, "true"));
+      logger.debug("Skip unchanged files: {}", skipUnchanged);
 
       // Create AWS S3 bucket if not there yet
       createAWSBucket();
       distributionChannel = OsgiUtil.getComponentContextProperty(cc, CONFIG_KEY_STORE_TYPE);
 
+      mxBean = JmxUtil.registerMXBean(this, "AwsS3Distribution");
+
       logger.info("AwsS3DistributionService activated!");
     }
   }
@@ -360,6 +454,12 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     if (s3TransferManager != null) {
       s3TransferManager.shutdownNow();
     }
+    if (uploadExecutor != null) {
+      uploadExecutor.shutdownNow();
+    }
+    if (mxBean != null) {
+      JmxUtil.unregisterMXBean(mxBean);
+    }
 
     logger.info("AwsS3DistributionService deactivated!");
   }
@@ -441,19 +541,85 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     notNull(channelId, "channelId");
 
     final Set<MediaPackageElement> elements = getElements(mediapackage, elementIds);
-    List<MediaPackageElement> distributedElements = new ArrayList<>();
+    List<Callable<MediaPackageElement>> uploads = new ArrayList<>();
 
     if (AdaptivePlaylist.hasHLSPlaylist(elements)) {
       return distributeHLSElements(channelId, mediapackage, elements, checkAvailability);
     }
 
     for (MediaPackageElement element : elements) {
-      MediaPackageElement distributedElement = distributeElement(channelId, mediapackage, element, checkAvailability);
-      distributedElements.add(distributedElement);
+      uploads.add(() -> distributeElement(channelId, mediapackage, element, checkAvailability));
     }
+    List<MediaPackageElement> distributedElements = runUploads(uploads);
     return distributedElements.toArray(new MediaPackageElement[distributedElements.size()]);
   }
 
+  /**
+   * Runs the uploads of the elements of a publication concurrently, as far as the upload executor allows, in the
+   * security context of the caller.
+   *
+   * @param uploads
+   *          the uploads, each returning the distributed element
+   * @return the distributed elements in the order of the uploads
+   * @throws DistributionException
+   *           if any of the uploads fails, the remaining ones are cancelled
+   */
+  private List<MediaPackageElement> runUploads(List<Callable<MediaPackageElement>> uploads)
+          throws DistributionException {
+    List<MediaPackageElement> distributedElements = new ArrayList<>(uploads.size());
+    if (uploadExecutor == null || uploads.size() < 2) {
+      for (Callable<MediaPackageElement> upload : uploads) {
+        try {
+          distributedElements.add(upload.call());
+        } catch (DistributionException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new DistributionException(e);
+        }
+      }
+      return distributedElements;
+    }
+
+    final Organization organization = securityService.getOrganization();
+    final User user = securityService.getUser();
+    List<Future<MediaPackageElement>> futures = new ArrayList<>(uploads.size());
+    try {
+      for (Callable<MediaPackageElement> upload : uploads) {
+        futures.add(uploadExecutor.submit(() -> {
+          final MediaPackageElement[] result = new MediaPackageElement[1];
+          final Exception[] error = new Exception[1];
+          SecurityUtil.runAs(securityService, organization, user, () -> {
+            try {
+              result[0] = upload.call();
+            } catch (Exception e) {
+              error[0] = e;
+            }
+          });
+          if (error[0] != null) {
+            throw error[0];
+          }
+          return result[0];
+        }));
+      }
+      for (Future<MediaPackageElement> future : futures) {
+        distributedElements.add(future.get());
+      }
+      return distributedElements;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DistributionException("Interrupted while waiting for the uploads to finish", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof DistributionException) {
+        throw (DistributionException) e.getCause();
+      }
+      throw new DistributionException(e.getCause());
+    } finally {
+      for (Future<MediaPackageElement> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
   private Set<MediaPackageElement> getElements(MediaPackage mediapackage, Set<String> elementIds)
           throws IllegalStateException {
     final Set<MediaPackageElement> elements = new HashSet<>();
@@ -499,21 +665,14 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
   private MediaPackageElement distributeElement(String channelId, final MediaPackage mediaPackage,
           MediaPackageElement element, boolean checkAvailability, File source) throws DistributionException {
 
-    // Use TransferManager to take advantage of multipart upload.
-    // TransferManager processes all transfers asynchronously, so this call will return immediately.
     try {
       String objectName = buildObjectName(channelId, mediaPackage.getIdentifier().toString(), element);
-      logger.info("Uploading {} to bucket {}...", objectName, bucketName);
-      Upload upload = s3TransferManager.upload(bucketName, objectName, source);
-      long start = System.currentTimeMillis();
-
-      try {
-        // Block and wait for the upload to finish
-        upload.waitForCompletion();
-        logger.info("Upload of {} to bucket {} completed in {} seconds", objectName, bucketName,
-                (System.currentTimeMillis() - start) / 1000);
-      } catch (AmazonClientException e) {
-        throw new DistributionException("AWS error: " + e.getMessage(), e);
+      Checksum checksum = getChecksum(source);
+      if (checksum != null && isUploaded(objectName, checksum)) {
+        logger.info("Object {} in bucket {} is up to date, skipping upload", objectName, bucketName);
+        skippedObjects.increment();
+      } else {
+        upload(objectName, source, checksum);
       }
 
       // Create a representation of the distributed file in the media package
@@ -579,6 +738,118 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     }
   }
 
+  /**
+   * Uploads a file to the bucket and blocks until the upload has finished. The checksum of the file is stored with the
+   * object so that later uploads of the same content can be skipped.
+   *
+   * @param objectName
+   *          the object name
+   * @param source
+   *          the file to upload
+   * @param checksum
+   *          the checksum of the file, may be <code>null</code>
+   * @throws DistributionException
+   *           if the upload fails
+   * @throws InterruptedException
+   *           if interrupted while waiting for the upload
+   */
+  private void upload(String objectName, File source, Checksum checksum)
+          throws DistributionException, InterruptedException {
+    ObjectMetadata metadata = new ObjectMetadata();
+    if (checksum != null) {
+      metadata.addUserMetadata(CHECKSUM_METADATA, checksum.toString());
+    }
+    final long size = source.length();
+    final LongAdder transferred = new LongAdder();
+    PutObjectRequest request = new PutObjectRequest(bucketName, objectName, source).withMetadata(metadata);
+    // Count synchronously, so that all progress has been counted once the upload has finished
+    request.setGeneralProgressListener(new SyncProgressListener() {
+      @Override
+      public void progressChanged(ProgressEvent event) {
+        switch (event.getEventType()) {
+          case REQUEST_BYTE_TRANSFER_EVENT:
+          case HTTP_REQUEST_CONTENT_RESET_EVENT:
+            transferred.add(event.getBytesTransferred());
+            transferredBytes.add(event.getBytesTransferred());
+            runningTransferredBytes.add(event.getBytesTransferred());
+            break;
+          default:
+            break;
+        }
+      }
+    });
+
+    // Use TransferManager to take advantage of multipart upload.
+    // TransferManager processes all transfers asynchronously, so this call will return immediately.
+    logger.info("Uploading {} to bucket {}...", objectName, bucketName);
+    runningUploads.incrementAndGet();
+    runningBytes.add(size);
+    long start = System.currentTimeMillis();
+    try {
+      Upload upload = s3TransferManager.upload(request);
+      // Block and wait for the upload to finish
+      upload.waitForCompletion();
+      // Account for bytes not reported as progress, e.g. by S3 stand-ins
+      transferredBytes.add(size - transferred.sum());
+      long duration = System.currentTimeMillis() - start;
+      logger.info("Upload of {} to bucket {} completed in {} seconds", objectName, bucketName, duration / 1000);
+      uploadedObjects.increment();
+      completedBytes.add(size);
+      completedMillis.add(duration);
+    } catch (AmazonClientException e) {
+      failedUploads.increment();
+      throw new DistributionException("AWS error: " + e.getMessage(), e);
+    } catch (InterruptedException e) {
+      failedUploads.increment();
+      throw e;
+    } finally {
+      runningUploads.decrementAndGet();
+      runningBytes.add(-size);
+      runningTransferredBytes.add(-transferred.sum());
+    }
+  }
+
+  /**
+   * Computes the checksum of a file to be uploaded.
+   *
+   * @param source
+   *          the file
+   * @return the checksum or <code>null</code> if it cannot be computed
+   */
+  private Checksum getChecksum(File source) {
+    try {
+      return Checksum.create(ChecksumType.DEFAULT_TYPE, source);
+    } catch (IOException e) {
+      logger.warn("Unable to compute the checksum of {}: {}", source, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether the bucket already contains an object uploaded from a file with the given checksum.
+   *
+   * @param objectName
+   *          the object name
+   * @param checksum
+   *          the checksum of the file to upload
+   * @return whether the upload can be skipped
+   */
+  private boolean isUploaded(String objectName, Checksum checksum) {
+    if (!skipUnchanged) {
+      return false;
+    }
+    try {
+      ObjectMetadata metadata = s3.getObjectMetadata(bucketName, objectName);
+      return metadata != null && checksum.toString().equals(metadata.getUserMetaDataOf(CHECKSUM_METADATA));
+    } catch (AmazonS3Exception e) {
+      if (e.getStatusCode() != HttpServletResponse.SC_NOT_FOUND) {
+        logger.warn("Unable to get the metadata of object {} in bucket {}: {}", objectName, bucketName,
+                e.getMessage());
+      }
+      return false;
+    }
+  }
+
   @Override
   public Job retract(String channelId, MediaPackage mediapackage, String elementId) throws DistributionException {
     Set<String> elementIds = new HashSet<>();
@@ -766,12 +1037,12 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
           Set<MediaPackageElement> elements, boolean checkAvailability) throws DistributionException {
 
     List<MediaPackageElement> distributedElements = new ArrayList<MediaPackageElement>();
+    List<Callable<MediaPackageElement>> uploads = new ArrayList<>();
     List<MediaPackageElement> nontrackElements = elements.stream()
             .filter(e -> e.getElementType() != MediaPackageElement.Type.Track).collect(Collectors.toList());
     // Distribute non track items
     for (MediaPackageElement element : nontrackElements) {
-      MediaPackageElement distributedElement = distributeElement(channelId, mediapackage, element, checkAvailability);
-      distributedElements.add(distributedElement);
+      uploads.add(() -> distributeElement(channelId, mediapackage, element, checkAvailability));
     }
     // Then get all tracks from mediapackage and sort them by flavor
     // Each flavor is one video with multiple renditions
@@ -791,7 +1062,7 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     Path tmpDir = null;
     try {
       tmpDir = Files.createTempDirectory(tmpPath, mediapackage.getIdentifier().toString());
-      // Run distribution one flavor at a time
+      // Prepare the playlists one flavor at a time
       for (Entry<MediaPackageElementFlavor, List<Track>> elementSet : trackElementsMap.entrySet()) {
         List<Track> tracks = elementSet.getValue();
         try {
@@ -828,14 +1099,12 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
             transformedTracks.addAll(tracks); // not playlists, distribute anyway
           }
           for (Track track : transformedTracks) {
-            MediaPackageElement distributedElement;
             if (AdaptivePlaylist.isPlaylist(track)) {
-              distributedElement = distributeElement(channelId, mediapackage, track, checkAvailability,
-                      new File(track.getURI()));
+              uploads.add(() -> distributeElement(channelId, mediapackage, track, checkAvailability,
+                      new File(track.getURI())));
             } else {
-              distributedElement = distributeElement(channelId, mediapackage, track, checkAvailability);
+              uploads.add(() -> distributeElement(channelId, mediapackage, track, checkAvailability));
             }
-            distributedElements.add(distributedElement);
           }
         } catch (MediaPackageException | NotFoundException | IOException e1) {
           logger.error("HLS Prepare failed for mediapackage {} in {}: {} ", elementSet.getKey(), mediapackage, e1);
@@ -845,6 +1114,8 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
           throw new DistributionException("Cannot distribute - BAD URI syntax " + mediapackage);
         }
       }
+      // Then upload everything at once, the temporary playlists are needed until all uploads have finished
+      distributedElements = runUploads(uploads);
     } catch (IOException e2) {
       throw new DistributionException("Cannot create tmp dir to process HLS:" + mediapackage + e2.getMessage());
     } finally {
@@ -950,6 +1221,42 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     }
   }
 
+  @Override
+  public int getRunningUploads() {
+    return runningUploads.get();
+  }
+
+  @Override
+  public long getTransferredBytes() {
+    return transferredBytes.sum();
+  }
+
+  @Override
+  public long getPendingBytes() {
+    return Math.max(0L, runningBytes.sum() - runningTransferredBytes.sum());
+  }
+
+  @Override
+  public long getUploadedObjects() {
+    return uploadedObjects.sum();
+  }
+
+  @Override
+  public long getSkippedObjects() {
+    return skippedObjects.sum();
+  }
+
+  @Override
+  public long getFailedUploads() {
+    return failedUploads.sum();
+  }
+
+  @Override
+  public long getAverageThroughput() {
+    long millis = completedMillis.sum();
+    return millis > 0 ? completedBytes.sum() * 1000L / millis : 0L;
+  }
+
   /** The methods below are used by the test class */
 
   protected void setS3(AmazonS3 s3) {
@@ -960,6 +1267,10 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     this.s3TransferManager = s3TransferManager;
   }
 
+  protected void setUploadExecutor(ExecutorService uploadExecutor) {
+    this.uploadExecutor = uploadExecutor;
+  }
+
   protected void setBucketName(String bucketName) {
     this.bucketName = bucketName;
   }
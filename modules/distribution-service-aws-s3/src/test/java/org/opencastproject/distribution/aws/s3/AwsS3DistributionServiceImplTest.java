@@ -28,18 +28,25 @@ import org.opencastproject.mediapackage.MediaPackageParser;
 import org.opencastproject.security.api.DefaultOrganization;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.FileSupport;
 import org.opencastproject.workspace.api.Workspace;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.model.Bucket;
 import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.google.gson.Gson;
 
 import org.apache.commons.io.FileUtils;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
 import org.easymock.EasyMock;
 import org.easymock.IAnswer;
 import org.junit.After;
@@ -55,6 +62,10 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class AwsS3DistributionServiceImplTest {
   private AmazonS3Client s3;
@@ -235,11 +246,8 @@ public class AwsS3DistributionServiceImplTest {
   @Test
   public void testDistributeElement() throws Exception {
     Upload upload = EasyMock.createNiceMock(Upload.class);
-    EasyMock.expect(
-            tm.upload(EasyMock.anyObject(String.class), EasyMock.anyObject(String.class),
-                    EasyMock.anyObject(File.class))).andReturn(
-            upload);
-    EasyMock.replay(upload, tm);
+    EasyMock.expect(tm.upload(EasyMock.anyObject(PutObjectRequest.class))).andReturn(upload);
+    EasyMock.replay(s3, upload, tm);
 
     Set<String> mpeIds = new LinkedHashSet<String>();
     mpeIds.add("presenter-delivery");
@@ -278,9 +286,8 @@ public class AwsS3DistributionServiceImplTest {
     mpURI = AwsS3DistributionServiceImpl.class.getResource("/distributed_hls_mediapackage.xml").toURI();
     distributedMp = builder.loadFromXml(mpURI.toURL().openStream());
     Upload upload = EasyMock.createNiceMock(Upload.class);
-    EasyMock.expect(tm.upload(EasyMock.anyObject(String.class), EasyMock.anyObject(String.class),
-            EasyMock.anyObject(File.class))).andReturn(upload).anyTimes();
-    EasyMock.replay(upload, tm);
+    EasyMock.expect(tm.upload(EasyMock.anyObject(PutObjectRequest.class))).andReturn(upload).anyTimes();
+    EasyMock.replay(s3, upload, tm);
 
     Set<String> mpeIds = new LinkedHashSet<String>();
     mpeIds.add("presenter-mp4");
@@ -300,6 +307,73 @@ public class AwsS3DistributionServiceImplTest {
     Assert.assertFalse(Files.exists(tempfile));
   }
 
+  @Test
+  public void testDistributeElementsConcurrently() throws Exception {
+    MediaPackageBuilder builder = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder();
+    mp = builder.loadFromXml(getClass().getResourceAsStream("/hls_mediapackage.xml"));
+
+    // Each upload only completes once both of them have been started
+    CountDownLatch started = new CountDownLatch(2);
+    Upload upload = EasyMock.createNiceMock(Upload.class);
+    upload.waitForCompletion();
+    EasyMock.expectLastCall().andAnswer(() -> {
+      if (!started.await(10, TimeUnit.SECONDS)) {
+        throw new AmazonClientException("Uploads did not run concurrently");
+      }
+      return null;
+    }).anyTimes();
+    Capture<PutObjectRequest> requests = Capture.newInstance(CaptureType.ALL);
+    EasyMock.expect(tm.upload(EasyMock.capture(requests))).andAnswer(() -> {
+      started.countDown();
+      return upload;
+    }).anyTimes();
+    EasyMock.replay(s3, upload, tm);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      service.setUploadExecutor(executor);
+      Set<String> mpeIds = new LinkedHashSet<>();
+      mpeIds.add("presenter-mp4");
+      mpeIds.add("presenter-m3u8");
+      MediaPackageElement[] mpes = service.distributeElements("channelId", mp, mpeIds, false);
+      Assert.assertEquals(2, mpes.length);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(2, requests.getValues().size());
+    for (PutObjectRequest request : requests.getValues()) {
+      Assert.assertNotNull(request.getMetadata().getUserMetaDataOf(AwsS3DistributionServiceImpl.CHECKSUM_METADATA));
+    }
+    Assert.assertEquals(2, service.getUploadedObjects());
+    Assert.assertEquals(0, service.getRunningUploads());
+    Assert.assertEquals(0, service.getPendingBytes());
+  }
+
+  @Test
+  public void testSkipUnchangedElement() throws Exception {
+    String objectName = defaultOrganization.getId()
+        + "/channelId/efd6e4df-63b6-49af-be5f-15f598778877/presenter-delivery/video-presenter-delivery.mp4";
+    Checksum checksum = Checksum.create(ChecksumType.DEFAULT_TYPE,
+        getClass().getResourceAsStream("/video-presenter-delivery.mp4"));
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.addUserMetadata(AwsS3DistributionServiceImpl.CHECKSUM_METADATA, checksum.toString());
+    EasyMock.expect(s3.getObjectMetadata(BUCKET_NAME, objectName)).andReturn(metadata).once();
+    // Any upload fails the test
+    TransferManager strictTm = EasyMock.createMock(TransferManager.class);
+    EasyMock.replay(s3, strictTm);
+    service.setS3TransferManager(strictTm);
+
+    Set<String> mpeIds = new LinkedHashSet<>();
+    mpeIds.add("presenter-delivery");
+    MediaPackageElement[] mpes = service.distributeElements("channelId", mp, mpeIds, false);
+
+    Assert.assertEquals(new URI(DOWNLOAD_URL + objectName), mpes[0].getURI());
+    Assert.assertEquals(1, service.getSkippedObjects());
+    Assert.assertEquals(0, service.getUploadedObjects());
+    EasyMock.verify(s3, strictTm);
+  }
+
   @Test
   public void testBuildObjectName() {
     MediaPackageElement element = mp.getElementById("presenter-delivery");
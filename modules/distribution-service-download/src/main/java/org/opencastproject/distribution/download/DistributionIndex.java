@@ -0,0 +1,313 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.distribution.download;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import org.opencastproject.mediapackage.AdaptivePlaylist;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Persistent index of the files distributed for a media package, with their size and the checksum of their content.
+ * It allows finding a file already distributed to another channel without comparing the content of all distributed
+ * files. The index is kept outside of the publicly served distribution directory, its layout is
+ * <pre>
+ * &lt;index root&gt;/&lt;org&gt;/&lt;mp&gt;   one line per distributed file: checksum, size, last modified, path
+ * </pre>
+ * Files are only hashed once another file of the same size is distributed, the checksum field is empty until then.
+ * The paths are relative to the organization directory. Since the files may be changed or removed behind the index'
+ * back, an entry is only used if its file still exists with the recorded size and modification time. Media packages
+ * without an index, e.g. distributed before the index was introduced, are indexed from their distributed files once
+ * they are distributed again.
+ */
+final class DistributionIndex {
+  /** Log facility */
+  private static final Logger logger = LoggerFactory.getLogger(DistributionIndex.class);
+
+  /** Name of the index directory that older versions kept within each organization directory */
+  static final String LEGACY_INDEX_DIR = ".checksums";
+
+  /** Separator between the fields of an index entry */
+  private static final String INDEX_SEPARATOR = "\t";
+
+  /** Number of lock stripes */
+  private static final int LOCK_STRIPES = 64;
+
+  /** The distribution directory */
+  private final File root;
+
+  /** The directory holding the index files */
+  private final File indexRoot;
+
+  /** Locks for index files, striped by media package */
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  DistributionIndex(File root, File indexRoot) {
+    this.root = root;
+    this.indexRoot = indexRoot;
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Finds a distributed file of a media package with the same content as the given file. Checksums are only computed
+   * if a distributed file has the same size, and the checksum of a distributed file is computed only once.
+   *
+   * @return the file or none, if there is no such file or the index entry is outdated
+   */
+  Optional<File> find(String orgId, String mpId, File source) throws IOException {
+    final File orgDir = new File(root, orgId);
+    final long size = source.length();
+    final Map<String, Entry> candidates = new LinkedHashMap<>();
+    synchronized (lock(orgId, mpId)) {
+      for (Map.Entry<String, Entry> e : loadIndex(orgId, mpId).entrySet()) {
+        if (e.getValue().size == size) {
+          candidates.put(e.getKey(), e.getValue());
+        }
+      }
+    }
+    if (candidates.isEmpty()) {
+      return Optional.empty();
+    }
+
+    // Hash outside of the lock, the entries are checked against their files anyway
+    final Checksum checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, source);
+    final Map<String, Entry> hashed = new LinkedHashMap<>();
+    Optional<File> result = Optional.empty();
+    for (Map.Entry<String, Entry> e : candidates.entrySet()) {
+      final File file = new File(orgDir, e.getKey());
+      Entry entry = e.getValue();
+      if (!entry.matches(file)) {
+        logger.debug("Ignoring outdated entry for {} in the distribution index of media package {}", file, mpId);
+        continue;
+      }
+      if (entry.checksum == null) {
+        entry = new Entry(Checksum.create(ChecksumType.DEFAULT_TYPE, file), entry.size, entry.lastModified);
+        hashed.put(e.getKey(), entry);
+      }
+      if (entry.checksum.equals(checksum)) {
+        result = Optional.of(file);
+        break;
+      }
+    }
+
+    // Remember the computed checksums, unless the files have been redistributed in the meantime
+    if (!hashed.isEmpty()) {
+      synchronized (lock(orgId, mpId)) {
+        final Map<String, Entry> index = readIndex(orgId, mpId);
+        hashed.forEach((path, entry) -> index.computeIfPresent(path, (p, current) -> current.checksum == null
+                && current.size == entry.size && current.lastModified == entry.lastModified ? entry : current));
+        writeIndex(orgId, mpId, index);
+      }
+    }
+    return result;
+  }
+
+  /** Records a file distributed for a media package. Its checksum is computed once it is needed. */
+  void add(String orgId, String mpId, File file) throws IOException {
+    final String path = relativePath(orgId, file);
+    synchronized (lock(orgId, mpId)) {
+      final Map<String, Entry> index = loadIndex(orgId, mpId);
+      index.put(path, new Entry(null, file.length(), file.lastModified()));
+      writeIndex(orgId, mpId, index);
+    }
+  }
+
+  /** Removes the entries of all files of a media package within the given file or directory. */
+  void remove(String orgId, String mpId, File fileOrDir) throws IOException {
+    final String path = relativePath(orgId, fileOrDir);
+    synchronized (lock(orgId, mpId)) {
+      final Map<String, Entry> index = readIndex(orgId, mpId);
+      if (index.keySet().removeIf(p -> p.equals(path) || p.startsWith(path + "/"))) {
+        writeIndex(orgId, mpId, index);
+      }
+    }
+  }
+
+  /**
+   * Moves the index files that older versions kept in the distribution directory, where they were publicly served, to
+   * the index root.
+   */
+  void migrateLegacyIndexes() throws IOException {
+    final File[] orgDirs = root.listFiles(File::isDirectory);
+    if (orgDirs == null) {
+      return;
+    }
+    for (File orgDir : orgDirs) {
+      final File legacyDir = new File(orgDir, LEGACY_INDEX_DIR);
+      final File[] indexFiles = legacyDir.listFiles(File::isFile);
+      if (indexFiles == null) {
+        continue;
+      }
+      logger.info("Moving the distribution index of organization {} from {} to {}", orgDir.getName(), legacyDir,
+              indexRoot);
+      for (File file : indexFiles) {
+        final File target = indexFile(orgDir.getName(), file.getName());
+        synchronized (lock(orgDir.getName(), file.getName())) {
+          if (file.getName().startsWith(".") || target.exists()) {
+            Files.delete(file.toPath());
+          } else {
+            Files.createDirectories(target.getParentFile().toPath());
+            Files.move(file.toPath(), target.toPath());
+          }
+        }
+      }
+      Files.delete(legacyDir.toPath());
+    }
+  }
+
+  /**
+   * Reads the index of a media package. If there is none yet, it is built from the files already distributed for the
+   * media package, without computing their checksums.
+   */
+  private Map<String, Entry> loadIndex(String orgId, String mpId) throws IOException {
+    if (indexFile(orgId, mpId).isFile()) {
+      return readIndex(orgId, mpId);
+    }
+    final Map<String, Entry> index = new LinkedHashMap<>();
+    final Path orgDir = new File(root, orgId).toPath();
+    if (!Files.isDirectory(orgDir)) {
+      return index;
+    }
+    try (DirectoryStream<Path> channels = Files.newDirectoryStream(orgDir,
+            channel -> !channel.getFileName().toString().startsWith(".") && Files.isDirectory(channel.resolve(mpId)))) {
+      for (Path channel : channels) {
+        try (Stream<Path> files = Files.find(channel.resolve(mpId), Integer.MAX_VALUE,
+                (path, attrs) -> attrs.isRegularFile() && !AdaptivePlaylist.isPlaylist(path.toFile()))) {
+          files.forEach(file -> {
+            final File f = file.toFile();
+            index.put(relativePath(orgId, f), new Entry(null, f.length(), f.lastModified()));
+          });
+        }
+      }
+    }
+    if (!index.isEmpty()) {
+      logger.debug("Indexed {} files already distributed for media package {}", index.size(), mpId);
+      writeIndex(orgId, mpId, index);
+    }
+    return index;
+  }
+
+  private String relativePath(String orgId, File file) {
+    final Path orgDir = new File(root, orgId).getAbsoluteFile().toPath().normalize();
+    final Path path = file.getAbsoluteFile().toPath().normalize();
+    if (!path.startsWith(orgDir)) {
+      throw new IllegalArgumentException(file + " is not within the distribution directory of " + orgId);
+    }
+    return orgDir.relativize(path).toString().replace(File.separatorChar, '/');
+  }
+
+  private File indexFile(String orgId, String mpId) {
+    return new File(new File(indexRoot, orgId), mpId);
+  }
+
+  private Map<String, Entry> readIndex(String orgId, String mpId) throws IOException {
+    final Map<String, Entry> index = new LinkedHashMap<>();
+    final File file = indexFile(orgId, mpId);
+    if (!file.isFile()) {
+      return index;
+    }
+    for (String line : Files.readAllLines(file.toPath(), UTF_8)) {
+      final String[] entry = line.split(INDEX_SEPARATOR, 4);
+      if (entry.length != 4) {
+        continue;
+      }
+      try {
+        final Checksum checksum = entry[0].isEmpty() ? null : Checksum.fromString(entry[0]);
+        index.put(entry[3], new Entry(checksum, NumberUtils.toLong(entry[1], -1), NumberUtils.toLong(entry[2], -1)));
+      } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+        logger.warn("Ignoring invalid entry '{}' in {}", line, file);
+      }
+    }
+    return index;
+  }
+
+  private void writeIndex(String orgId, String mpId, Map<String, Entry> index) throws IOException {
+    final File file = indexFile(orgId, mpId);
+    if (index.isEmpty()) {
+      Files.deleteIfExists(file.toPath());
+      return;
+    }
+    final StringBuilder content = new StringBuilder();
+    for (Map.Entry<String, Entry> e : index.entrySet()) {
+      final Entry entry = e.getValue();
+      content.append(entry.checksum == null ? "" : entry.checksum).append(INDEX_SEPARATOR)
+              .append(entry.size).append(INDEX_SEPARATOR)
+              .append(entry.lastModified).append(INDEX_SEPARATOR)
+              .append(e.getKey()).append('\n');
+    }
+    Files.createDirectories(file.getParentFile().toPath());
+    final Path tmp = new File(file.getParentFile(), "." + file.getName() + "." + UUID.randomUUID() + ".tmp").toPath();
+    try {
+      Files.write(tmp, content.toString().getBytes(UTF_8));
+      try {
+        Files.move(tmp, file.toPath(), ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tmp, file.toPath(), REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private Object lock(String orgId, String mpId) {
+    return locks[Math.floorMod((orgId + "/" + mpId).hashCode(), LOCK_STRIPES)];
+  }
+
+  /** A distributed file as recorded in the index. The checksum is <code>null</code> until it has been computed. */
+  private static final class Entry {
+    private final Checksum checksum;
+    private final long size;
+    private final long lastModified;
+
+    Entry(Checksum checksum, long size, long lastModified) {
+      this.checksum = checksum;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    /** Whether the file still looks like it did when it was recorded. */
+    boolean matches(File file) {
+      return file.isFile() && file.length() == size && file.lastModified() == lastModified;
+    }
+  }
+}
@@ -63,7 +63,6 @@ import com.google.gson.reflect.TypeToken;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
@@ -76,16 +75,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Dictionary;
@@ -150,6 +141,12 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
 
   private Gson gson = new Gson();
 
+  /** Suffix of the name of the distribution index directory, which is kept next to the distribution directory */
+  static final String INDEX_DIRECTORY_SUFFIX = "-index";
+
+  /** Index of the files distributed for each media package, used to find files with the same content */
+  private DistributionIndex distributionIndex;
+
   private String systemUserName = null;
 
   /**
@@ -181,6 +178,17 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
     }
     this.distributionDirectory = new File(ccDistributionDirectory);
     logger.info("Download distribution directory is {}", distributionDirectory);
+    // Keep the index next to the distribution directory, it must not be served to the public
+    final File indexDirectory = new File(distributionDirectory.getAbsoluteFile().getParentFile(),
+            distributionDirectory.getName() + INDEX_DIRECTORY_SUFFIX);
+    this.distributionIndex = new DistributionIndex(distributionDirectory, indexDirectory);
+    logger.info("Download distribution index directory is {}", indexDirectory);
+    try {
+      distributionIndex.migrateLegacyIndexes();
+    } catch (IOException e) {
+      logger.warn("Unable to move the distribution index out of {}: {}", distributionDirectory,
+              ExceptionUtils.getMessage(e));
+    }
     this.distributionChannel = OsgiUtil.getComponentContextProperty(cc, CONFIG_KEY_STORE_TYPE);
     systemUserName = cc.getBundleContext().getProperty(DIGEST_USER_PROPERTY);
   }
@@ -328,11 +336,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
       }
 
       // Try to find a duplicated element source
-      try {
-        source = findDuplicatedElementSource(source, mediapackageId);
-      } catch (IOException e) {
-        logger.warn("Unable to find duplicated source {}: {}", source, ExceptionUtils.getMessage(e));
-      }
+      source = findDuplicatedElementSource(source, mediapackageId);
 
       File destination = getDistributionFile(channelId, mediapackage, element);
       if (!destination.equals(source)) {
@@ -350,6 +354,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
         } catch (IOException e) {
           throw new DistributionException(format("Unable to copy %s to %s", source, destination), e);
         }
+        addToIndex(destination, mediapackageId);
       }
       // Create a media package element representation of the distributed file
       MediaPackageElement distributedElement = (MediaPackageElement) element.clone();
@@ -451,11 +456,10 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
       throw new DistributionException("Error loading " + element.getURI() + " from the workspace", e);
     }
 
-    // Try to find a duplicated element source
-    try {
+    // Try to find a duplicated element source. Playlists are rewritten after distribution and therefore not indexed.
+    final boolean isPlaylist = AdaptivePlaylist.isPlaylist(source);
+    if (!isPlaylist) {
       source = findDuplicatedElementSource(source, mediapackageId);
-    } catch (IOException e) {
-      logger.warn("Unable to find duplicated source {}: {}", source, ExceptionUtils.getMessage(e));
     }
 
     File destination = getDistributionFile(channelId, mediapackage, element);
@@ -470,7 +474,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
               mediapackageId, channelId, destination);
 
       try {
-        if (AdaptivePlaylist.isPlaylist(source)) { // do not link text files
+        if (isPlaylist) { // do not link text files
           FileSupport.copy(source, destination, true);
         } else {
           FileSupport.link(source, destination, true);
@@ -478,6 +482,9 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
       } catch (IOException e) {
         throw new DistributionException(format("Unable to copy %s to %s", source, destination), e);
       }
+      if (!isPlaylist) {
+        addToIndex(destination, mediapackageId);
+      }
     }
 
     MediaPackageElement distributeElement = (MediaPackageElement) element.clone();
@@ -656,6 +663,13 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
         // TODO Removing a folder containing deleted files may fail on NFS volumes. This needs a cleanup strategy.
         logger.debug("Unable to delete folder {}", elementFile.getParentFile().getAbsolutePath());
       }
+      try {
+        distributionIndex.remove(securityService.getOrganization().getId(), mediapackageId,
+            elementFile.getParentFile());
+      } catch (IOException e) {
+        logger.warn("Unable to remove {} from the distribution index: {}", elementFile.getParentFile(),
+            ExceptionUtils.getMessage(e));
+      }
 
       if (mediapackageDir.isDirectory() && mediapackageDir.list().length == 0) {
         FileSupport.delete(mediapackageDir);
@@ -745,64 +759,32 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
    * @param mpId
    *          the element's mediapackage id
    * @return the found duplicated file or the given source if nothing has been found
-   * @throws IOException
-   *           if an I/O error occurs
    */
-  private File findDuplicatedElementSource(final File source, final String mpId) throws IOException {
+  private File findDuplicatedElementSource(final File source, final String mpId) {
     String orgId = securityService.getOrganization().getId();
-    final Path rootPath = Paths.get(distributionDirectory.getAbsolutePath(), orgId);
-
-    if (!Files.exists(rootPath)) {
-      return source;
-    }
-
-    List<Path> mediaPackageDirectories = new ArrayList<>();
-    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(rootPath)) {
-      for (Path path : directoryStream) {
-        Path mpDir = path.resolve(mpId);
-        if (Files.exists(mpDir)) {
-          mediaPackageDirectories.add(mpDir);
-        }
-      }
-    }
-
-    if (mediaPackageDirectories.isEmpty()) {
+    try {
+      return distributionIndex.find(orgId, mpId, source).orElse(source);
+    } catch (IOException e) {
+      logger.warn("Unable to find duplicated source {}: {}", source, ExceptionUtils.getMessage(e));
       return source;
     }
+  }
 
-    final long size = Files.size(source.toPath());
-
-    final File[] result = new File[1];
-    for (Path p : mediaPackageDirectories) {
-      Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
-        @Override
-        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-          if (attrs.isDirectory()) {
-            return FileVisitResult.CONTINUE;
-          }
-
-          if (size != attrs.size()) {
-            return FileVisitResult.CONTINUE;
-          }
-
-          try (InputStream is1 = Files.newInputStream(source.toPath()); InputStream is2 = Files.newInputStream(file)) {
-            if (!IOUtils.contentEquals(is1, is2)) {
-              return FileVisitResult.CONTINUE;
-            }
-          }
-          result[0] = file.toFile();
-          return FileVisitResult.TERMINATE;
-        }
-      });
-      if (result[0] != null) {
-        break;
-      }
-    }
-    if (result[0] != null) {
-      return result[0];
+  /**
+   * Records a distributed file in the distribution index of its media package, so that it can be reused when the same
+   * content is distributed again.
+   *
+   * @param file
+   *          the distributed file
+   * @param mpId
+   *          the element's mediapackage id
+   */
+  private void addToIndex(final File file, final String mpId) {
+    try {
+      distributionIndex.add(securityService.getOrganization().getId(), mpId, file);
+    } catch (IOException | IllegalArgumentException e) {
+      logger.warn("Unable to add {} to the distribution index: {}", file, ExceptionUtils.getMessage(e));
     }
-
-    return source;
   }
 
   /**
@@ -70,6 +70,7 @@ import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -81,6 +82,7 @@ public class DownloadDistributionServiceImplTest {
   private DownloadDistributionServiceImpl service = null;
   private MediaPackage mp = null;
   private File distributionRoot = null;
+  private File indexRoot = null;
   private ServiceRegistry serviceRegistry = null;
   private DefaultOrganization defaultOrganization;
 
@@ -90,6 +92,7 @@ public class DownloadDistributionServiceImplTest {
     mp = MediaPackageParser.getFromXml(IOUtils.toString(getClass().getResourceAsStream("/mediapackage.xml"), "UTF-8"));
 
     distributionRoot = new File(mediaPackageRoot, "static");
+    indexRoot = new File(mediaPackageRoot, "static" + DownloadDistributionServiceImpl.INDEX_DIRECTORY_SUFFIX);
     service = new DownloadDistributionServiceImpl();
 
     StatusLine statusLine = EasyMock.createNiceMock(StatusLine.class);
@@ -178,6 +181,7 @@ public class DownloadDistributionServiceImplTest {
   @After
   public void tearDown() throws Exception {
     FileUtils.deleteDirectory(distributionRoot);
+    FileUtils.deleteDirectory(indexRoot);
     ((ServiceRegistryInMemoryImpl) serviceRegistry).dispose();
   }
 
@@ -253,6 +257,74 @@ public class DownloadDistributionServiceImplTest {
     Assert.assertTrue(service.getDistributionFile("oai-pmh", mp, mp.getElementById("track-1")).isFile());
   }
 
+  @Test
+  public void testDistributionIndex() throws Exception {
+    File index = new File(indexRoot, PathSupport.path(defaultOrganization.getId(), mp.getIdentifier().toString()));
+    Job job1 = service.distribute("engage-player", mp, "track-1");
+    new JobBarrier(null, serviceRegistry, 500, job1).waitForJobs();
+
+    // Files are not hashed as long as there is no other file of the same size
+    Assert.assertTrue(index.isFile());
+    Assert.assertTrue(Files.readAllLines(index.toPath()).get(0).startsWith("\t"));
+
+    Job job2 = service.distribute("oai-pmh", mp, "track-1");
+    Job job3 = service.distribute("oai-pmh", mp, "catalog-1");
+    new JobBarrier(null, serviceRegistry, 500, job2, job3).waitForJobs();
+
+    // Both channels share the file, the catalog must not be mistaken for the track
+    List<String> entries = Files.readAllLines(index.toPath());
+    Assert.assertEquals(3, entries.size());
+    Assert.assertEquals(1, entries.stream().filter(entry -> !entry.startsWith("\t")).count());
+    File engageTrack = service.getDistributionFile("engage-player", mp, mp.getElementById("track-1"));
+    File oaiTrack = service.getDistributionFile("oai-pmh", mp, mp.getElementById("track-1"));
+    File oaiCatalog = service.getDistributionFile("oai-pmh", mp, mp.getElementById("catalog-1"));
+    Assert.assertTrue(FileUtils.contentEquals(engageTrack, oaiTrack));
+    Assert.assertTrue(FileUtils.contentEquals(new File(getClass().getResource("/dublincore.xml").toURI()),
+            oaiCatalog));
+
+    // Retracting removes the entries and finally the index itself
+    Job job4 = service.retract("engage-player", mp, "track-1");
+    new JobBarrier(null, serviceRegistry, 500, job4).waitForJobs();
+    Assert.assertEquals(2, Files.readAllLines(index.toPath()).size());
+    Job job5 = service.retract("oai-pmh", mp, "track-1");
+    Job job6 = service.retract("oai-pmh", mp, "catalog-1");
+    new JobBarrier(null, serviceRegistry, 500, job5, job6).waitForJobs();
+    Assert.assertFalse(index.exists());
+    Assert.assertFalse(oaiTrack.exists());
+  }
+
+  @Test
+  public void testDistributionIndexOfExistingFiles() throws Exception {
+    // A file distributed without an index, as done by older versions
+    File engageTrack = service.getDistributionFile("engage-player", mp, mp.getElementById("track-1"));
+    FileUtils.copyFile(new File(getClass().getResource("/media.mov").toURI()), engageTrack);
+    File index = new File(indexRoot, PathSupport.path(defaultOrganization.getId(), mp.getIdentifier().toString()));
+    Assert.assertFalse(index.exists());
+
+    Job job = service.distribute("oai-pmh", mp, "track-1");
+    new JobBarrier(null, serviceRegistry, 500, job).waitForJobs();
+
+    // The existing file has been indexed and found as a duplicate
+    List<String> entries = Files.readAllLines(index.toPath());
+    Assert.assertEquals(2, entries.size());
+    Assert.assertEquals(1, entries.stream().filter(entry -> !entry.startsWith("\t")).count());
+    Assert.assertTrue(entries.stream().anyMatch(entry -> entry.endsWith("/engage-player/" + mp.getIdentifier()
+            + "/track-1/" + engageTrack.getName())));
+  }
+
+  @Test
+  public void testLegacyDistributionIndexIsMoved() throws Exception {
+    File legacyIndex = new File(distributionRoot, PathSupport.path(defaultOrganization.getId(),
+            DistributionIndex.LEGACY_INDEX_DIR, mp.getIdentifier().toString()));
+    FileUtils.write(legacyIndex, "\t1\t1\tengage-player/mp/track-1/track.mp4\n", "UTF-8");
+
+    new DistributionIndex(distributionRoot, indexRoot).migrateLegacyIndexes();
+
+    Assert.assertFalse(legacyIndex.getParentFile().exists());
+    File index = new File(indexRoot, PathSupport.path(defaultOrganization.getId(), mp.getIdentifier().toString()));
+    Assert.assertEquals(1, Files.readAllLines(index.toPath()).size());
+  }
+
   @Test
   public void testRetractByDistributed() throws Exception {
     int elementCount = mp.getElements().length;
@@ -42,6 +42,8 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.GetRequest;
@@ -284,6 +286,57 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
     return indexResponse;
   }
 
+  /**
+   * Posts the input documents to the search index in a single bulk request. Failures of single documents do not fail
+   * the whole request, they need to be checked on the returned response.
+   *
+   * @param maxRetryAttempts
+   *          How often to retry the bulk request in case of ElasticsearchStatusException
+   * @param retryWaitingPeriod
+   *          How long to wait (in ms) between retries
+   * @param documents
+   *          The Elasticsearch documents
+   * @return the bulk response
+   *
+   * @throws IOException
+   *         If updating the index fails
+   * @throws InterruptedException
+   *         If waiting during retry is interrupted
+   */
+  protected BulkResponse bulkUpdate(int maxRetryAttempts, int retryWaitingPeriod, List<ElasticsearchDocument> documents)
+          throws IOException, InterruptedException {
+
+    final BulkRequest bulkRequest = new BulkRequest().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+    for (ElasticsearchDocument document : documents) {
+      bulkRequest.add(new IndexRequest(getSubIndexIdentifier(document.getType())).id(document.getUID())
+              .source(document));
+    }
+
+    BulkResponse bulkResponse = null;
+    int retryAttempts = 0;
+    do {
+      try {
+        bulkResponse = client.bulk(bulkRequest, RequestOptions.DEFAULT);
+      } catch (ElasticsearchStatusException e) {
+        retryAttempts++;
+
+        if (retryAttempts <= maxRetryAttempts) {
+          logger.warn("Could not update {} documents in index {} because of {}, retrying in {} ms.", documents.size(),
+                  getIndexName(), e.getMessage(), retryWaitingPeriod);
+          if (retryWaitingPeriod > 0) {
+            Thread.sleep(retryWaitingPeriod);
+          }
+        } else {
+          logger.error("Could not update {} documents in index {} because of {}, not retrying.", documents.size(),
+                  getIndexName(), e.getMessage());
+          throw e;
+        }
+      }
+    } while (bulkResponse == null);
+
+    return bulkResponse;
+  }
+
   /**
    * Delete document from index.
    *
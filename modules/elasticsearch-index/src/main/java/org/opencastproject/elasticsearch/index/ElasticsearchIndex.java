@@ -26,14 +26,17 @@ import static org.opencastproject.util.data.functions.Misc.chuck;
 import org.opencastproject.elasticsearch.api.SearchIndexException;
 import org.opencastproject.elasticsearch.api.SearchMetadata;
 import org.opencastproject.elasticsearch.api.SearchResult;
+import org.opencastproject.elasticsearch.api.SearchResultItem;
 import org.opencastproject.elasticsearch.impl.AbstractElasticsearchIndex;
 import org.opencastproject.elasticsearch.impl.ElasticsearchDocument;
 import org.opencastproject.elasticsearch.impl.SearchMetadataCollection;
 import org.opencastproject.elasticsearch.index.objects.event.Event;
+import org.opencastproject.elasticsearch.index.objects.event.EventIndexSchema;
 import org.opencastproject.elasticsearch.index.objects.event.EventIndexUtils;
 import org.opencastproject.elasticsearch.index.objects.event.EventQueryBuilder;
 import org.opencastproject.elasticsearch.index.objects.event.EventSearchQuery;
 import org.opencastproject.elasticsearch.index.objects.series.Series;
+import org.opencastproject.elasticsearch.index.objects.series.SeriesIndexSchema;
 import org.opencastproject.elasticsearch.index.objects.series.SeriesIndexUtils;
 import org.opencastproject.elasticsearch.index.objects.series.SeriesQueryBuilder;
 import org.opencastproject.elasticsearch.index.objects.series.SeriesSearchQuery;
@@ -47,8 +50,12 @@ import com.google.common.util.concurrent.Striped;
 
 import org.apache.commons.lang3.math.NumberUtils;
 import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentException;
 import org.osgi.service.component.annotations.Activate;
@@ -59,9 +66,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 
@@ -97,6 +109,15 @@ public class ElasticsearchIndex extends AbstractElasticsearchIndex {
   private static final String RETRY_WAITING_PERIOD_UPDATE_PROPERTY = "retry.waiting.period.update";
   private static final int DEFAULT_RETRY_WAITING_PERIOD_UPDATE = 1000;
 
+  /** Bulk update configuration */
+  private int bulkSize;
+  private static final String BULK_SIZE_PROPERTY = "bulk.size";
+  private static final int DEFAULT_BULK_SIZE = 100;
+
+  private Semaphore bulkRequestPermits;
+  private static final String BULK_MAX_CONCURRENT_REQUESTS_PROPERTY = "bulk.max.concurrent.requests";
+  private static final int DEFAULT_BULK_MAX_CONCURRENT_REQUESTS = 4;
+
   /** The required index version */
   private static final int INDEX_VERSION = 101;
 
@@ -176,6 +197,27 @@ public class ElasticsearchIndex extends AbstractElasticsearchIndex {
       logger.warn("You have configured negative values for max attempts or retry periods. Is this intended? This is "
               + "equivalent to setting those values to 0.");
     }
+
+    bulkSize = NumberUtils.toInt((String) properties.get(BULK_SIZE_PROPERTY), DEFAULT_BULK_SIZE);
+    int bulkMaxConcurrentRequests = NumberUtils.toInt((String) properties.get(BULK_MAX_CONCURRENT_REQUESTS_PROPERTY),
+            DEFAULT_BULK_MAX_CONCURRENT_REQUESTS);
+    if (bulkSize < 1 || bulkMaxConcurrentRequests < 1) {
+      logger.warn("Bulk size and maximum number of concurrent bulk requests must be positive, using defaults.");
+      bulkSize = DEFAULT_BULK_SIZE;
+      bulkMaxConcurrentRequests = DEFAULT_BULK_MAX_CONCURRENT_REQUESTS;
+    }
+    bulkRequestPermits = new Semaphore(bulkMaxConcurrentRequests);
+    logger.info("Bulk updates limited to {} documents per request and {} concurrent requests.", bulkSize,
+            bulkMaxConcurrentRequests);
+  }
+
+  /**
+   * Returns the maximum number of documents written to the index in a single bulk request.
+   *
+   * @return the bulk size
+   */
+  public int getBulkSize() {
+    return bulkSize;
   }
 
   /**
@@ -416,6 +458,59 @@ public class ElasticsearchIndex extends AbstractElasticsearchIndex {
     }
   }
 
+  /**
+   * Adds or updates multiple events in the search index, using bulk requests of at most {@link #getBulkSize()} events.
+   * Like {@link #addOrUpdateEvent(String, Function, String, User)}, the events are locked while being updated.
+   * <p>
+   * Events whose update function fails or which cannot be written to the index are logged and skipped. They are not
+   * part of the returned map.
+   *
+   * @param updateFunctions
+   *          The functions that do the actual updating by the identifiers of the events to update
+   * @param orgId
+   *          The organization the events belong to
+   * @param user
+   *          The user
+   * @return the results of the update functions of all events that have been processed successfully
+   *
+   * @throws SearchIndexException
+   *          Thrown if the index cannot be queried or a bulk request fails as a whole.
+   */
+  public Map<String, Optional<Event>> bulkAddOrUpdateEvents(
+          Map<String, Function<Optional<Event>, Optional<Event>>> updateFunctions, String orgId, User user)
+          throws SearchIndexException {
+    return bulkAddOrUpdate("event", updateFunctions, ids -> getEvents(ids, orgId, user),
+            EventIndexUtils::toSearchMetadata);
+  }
+
+  /**
+   * Loads multiple events from the search index.
+   *
+   * @param ids
+   *          The identifiers of the events
+   * @param organization
+   *          The organization
+   * @param user
+   *          The user
+   * @return the events found by identifier
+   *
+   * @throws SearchIndexException
+   *          If querying the search index fails
+   */
+  private Map<String, Event> getEvents(List<String> ids, String organization, User user)
+          throws SearchIndexException {
+    EventSearchQuery query = new EventSearchQuery(organization, user).withoutActions();
+    query.withLimit(ids.size());
+    QueryBuilder queryBuilder = QueryBuilders.boolQuery().must(new EventQueryBuilder(query))
+            .filter(QueryBuilders.termsQuery(EventIndexSchema.UID, ids));
+    Map<String, Event> events = new HashMap<>();
+    for (SearchResultItem<Event> item : getByQuery(query, queryBuilder, maxRetryAttemptsUpdate,
+            retryWaitingPeriodUpdate).getItems()) {
+      events.put(item.getSource().getIdentifier(), item.getSource());
+    }
+    return events;
+  }
+
   /**
    * Adds or updates the series in the search index. Uses a locking mechanism to avoid issues like Lost Update.
    *
@@ -475,6 +570,172 @@ public class ElasticsearchIndex extends AbstractElasticsearchIndex {
     }
   }
 
+  /**
+   * Adds or updates multiple series in the search index, using bulk requests of at most {@link #getBulkSize()} series.
+   * Like {@link #addOrUpdateSeries(String, Function, String, User)}, the series are locked while being updated.
+   * <p>
+   * Series whose update function fails or which cannot be written to the index are logged and skipped. They are not
+   * part of the returned map.
+   *
+   * @param updateFunctions
+   *          The functions that do the actual updating by the identifiers of the series to update
+   * @param orgId
+   *          The organization the series belong to
+   * @param user
+   *          The user
+   * @return the results of the update functions of all series that have been processed successfully
+   *
+   * @throws SearchIndexException
+   *          Thrown if the index cannot be queried or a bulk request fails as a whole.
+   */
+  public Map<String, Optional<Series>> bulkAddOrUpdateSeries(
+          Map<String, Function<Optional<Series>, Optional<Series>>> updateFunctions, String orgId, User user)
+          throws SearchIndexException {
+    return bulkAddOrUpdate("series", updateFunctions, ids -> getSeries(ids, orgId, user),
+            SeriesIndexUtils::toSearchMetadata);
+  }
+
+  /**
+   * Loads multiple series from the search index.
+   *
+   * @param ids
+   *          The identifiers of the series
+   * @param organization
+   *          The organization
+   * @param user
+   *          The user
+   * @return the series found by identifier
+   *
+   * @throws SearchIndexException
+   *          If querying the search index fails
+   */
+  private Map<String, Series> getSeries(List<String> ids, String organization, User user)
+          throws SearchIndexException {
+    SeriesSearchQuery query = new SeriesSearchQuery(organization, user).withoutActions();
+    query.withLimit(ids.size());
+    QueryBuilder queryBuilder = QueryBuilders.boolQuery().must(new SeriesQueryBuilder(query))
+            .filter(QueryBuilders.termsQuery(SeriesIndexSchema.UID, ids));
+    Map<String, Series> series = new HashMap<>();
+    for (SearchResultItem<Series> item : getByQuery(query, queryBuilder, maxRetryAttemptsUpdate,
+            retryWaitingPeriodUpdate).getItems()) {
+      series.put(item.getSource().getIdentifier(), item.getSource());
+    }
+    return series;
+  }
+
+  /**
+   * Adds or updates multiple index objects of the same type. The objects are processed in chunks of at most
+   * {@link #getBulkSize()} objects. All objects of a chunk are locked, loaded with a single query, updated and written
+   * back with a single bulk request. The number of concurrent bulk requests is limited across all callers.
+   *
+   * @param typeName
+   *          The name of the object type, used for logging
+   * @param updateFunctions
+   *          The functions that do the actual updating by object identifier
+   * @param loader
+   *          Loads the current state of multiple objects from the index
+   * @param toSearchMetadata
+   *          Converts an object to its index representation
+   * @return the results of the update functions of all objects that have been processed successfully
+   *
+   * @throws SearchIndexException
+   *          Thrown if the index cannot be queried or a bulk request fails as a whole.
+   */
+  private <T> Map<String, Optional<T>> bulkAddOrUpdate(String typeName,
+          Map<String, Function<Optional<T>, Optional<T>>> updateFunctions, BulkLoader<T> loader,
+          Function<T, SearchMetadataCollection> toSearchMetadata) throws SearchIndexException {
+    final Map<String, Optional<T>> results = new LinkedHashMap<>();
+    final List<String> allIds = new ArrayList<>(updateFunctions.keySet());
+    for (int offset = 0; offset < allIds.size(); offset += bulkSize) {
+      final List<String> ids = allIds.subList(offset, Math.min(offset + bulkSize, allIds.size()));
+
+      // Striped returns the locks in a consistent order, which prevents deadlocks between concurrent bulk updates
+      final List<Lock> chunkLocks = new ArrayList<>();
+      for (Lock lock : this.locks.bulkGet(ids)) {
+        lock.lock();
+        chunkLocks.add(lock);
+      }
+      logger.debug("Locked {} {} documents", ids.size(), typeName);
+
+      try {
+        final Map<String, T> currentObjects = loader.load(ids);
+        final Map<String, Optional<T>> chunkResults = new LinkedHashMap<>();
+        final List<String> documentIds = new ArrayList<>();
+        final List<ElasticsearchDocument> documents = new ArrayList<>();
+        for (String id : ids) {
+          try {
+            Optional<T> updatedOpt = updateFunctions.get(id).apply(Optional.ofNullable(currentObjects.get(id)));
+            if (updatedOpt.isPresent()) {
+              SearchMetadataCollection inputDocument = toSearchMetadata.apply(updatedOpt.get());
+              documents.add(new ElasticsearchDocument(inputDocument.getIdentifier(), inputDocument.getDocumentType(),
+                      inputDocument.getMetadata()));
+              documentIds.add(id);
+            }
+            chunkResults.put(id, updatedOpt);
+          } catch (Throwable t) {
+            logger.error("Unable to update {} '{}' in the {} index, skipping.", typeName, id, getIndexName(), t);
+          }
+        }
+
+        if (!documents.isEmpty()) {
+          for (BulkItemResponse item : bulkUpdate(typeName, documents).getItems()) {
+            if (item.isFailed()) {
+              final String id = documentIds.get(item.getItemId());
+              logger.error("Unable to write {} '{}' to the {} index: {}", typeName, id, getIndexName(),
+                      item.getFailureMessage());
+              chunkResults.remove(id);
+            }
+          }
+        }
+        results.putAll(chunkResults);
+      } finally {
+        for (int i = chunkLocks.size() - 1; i >= 0; i--) {
+          chunkLocks.get(i).unlock();
+        }
+        logger.debug("Released {} locked {} documents", ids.size(), typeName);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Writes documents to the index with a single bulk request, waiting for one of the limited bulk request permits.
+   *
+   * @param typeName
+   *          The name of the document type, used for logging
+   * @param documents
+   *          The documents to write
+   * @return the bulk response
+   *
+   * @throws SearchIndexException
+   *          If the bulk request fails as a whole
+   */
+  private BulkResponse bulkUpdate(String typeName, Collection<ElasticsearchDocument> documents)
+          throws SearchIndexException {
+    final Semaphore permits = bulkRequestPermits;
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SearchIndexException("Interrupted while waiting to write " + typeName + " documents to index", e);
+    }
+    try {
+      return bulkUpdate(maxRetryAttemptsUpdate, retryWaitingPeriodUpdate, new ArrayList<>(documents));
+    } catch (Throwable t) {
+      throw new SearchIndexException("Cannot write " + documents.size() + " " + typeName + " documents to index", t);
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Loads the current state of multiple index objects.
+   */
+  @FunctionalInterface
+  private interface BulkLoader<T> {
+    Map<String, T> load(List<String> ids) throws SearchIndexException;
+  }
+
   /**
    * Adds or updates the theme in the search index. Uses a locking mechanism to avoid issues like Lost Update.
    *
@@ -716,9 +977,28 @@ public class ElasticsearchIndex extends AbstractElasticsearchIndex {
    */
   private SearchResult<Event> getByQuery(EventSearchQuery query, int maxRetryAttempts, int retryWaitingPeriod)
           throws SearchIndexException {
+    return getByQuery(query, new EventQueryBuilder(query), maxRetryAttempts, retryWaitingPeriod);
+  }
+
+  /**
+   * @param query
+   *          The query to use to retrieve the events that match the query
+   * @param queryBuilder
+   *          The query builder created for the query
+   * @param maxRetryAttempts
+   *          How often to retry query in case of ElasticsearchStatusException
+   * @param retryWaitingPeriod
+   *          How long to wait (in ms) between retries
+   * @return {@link SearchResult} collection of {@link Event} from a query.
+   *
+   * @throws SearchIndexException
+   *          Thrown if there is an error getting the results.
+   */
+  private SearchResult<Event> getByQuery(EventSearchQuery query, QueryBuilder queryBuilder, int maxRetryAttempts,
+          int retryWaitingPeriod) throws SearchIndexException {
     logger.debug("Searching index using event query '{}'", query);
     // Create the request
-    final SearchRequest searchRequest = getSearchRequest(query, new EventQueryBuilder(query));
+    final SearchRequest searchRequest = getSearchRequest(query, queryBuilder);
 
     try {
       final Unmarshaller unmarshaller = Event.createUnmarshaller();
@@ -762,9 +1042,29 @@ public class ElasticsearchIndex extends AbstractElasticsearchIndex {
    */
   private SearchResult<Series> getByQuery(SeriesSearchQuery query, int maxRetryAttempts, int retryWaitingPeriod)
           throws SearchIndexException {
+    return getByQuery(query, new SeriesQueryBuilder(query), maxRetryAttempts, retryWaitingPeriod);
+  }
+
+  /**
+   * @param query
+   *          The query to use to retrieve the series that match the query
+   * @param queryBuilder
+   *          The query builder created for the query
+   * @param maxRetryAttempts
+   *          How often to retry query in case of ElasticsearchStatusException
+   * @param retryWaitingPeriod
+   *          How long to wait (in ms) between retries
+   *
+   * @return {@link SearchResult} collection of {@link Series} from a query.
+   *
+   * @throws SearchIndexException
+   *          Thrown if there is an error getting the results.
+   */
+  private SearchResult<Series> getByQuery(SeriesSearchQuery query, QueryBuilder queryBuilder, int maxRetryAttempts,
+          int retryWaitingPeriod) throws SearchIndexException {
     logger.debug("Searching index using series query '{}'", query);
     // Create the request
-    final SearchRequest searchRequest = getSearchRequest(query, new SeriesQueryBuilder(query));
+    final SearchRequest searchRequest = getSearchRequest(query, queryBuilder);
     try {
       final Unmarshaller unmarshaller = Series.createUnmarshaller();
       return executeQuery(query, searchRequest, metadata -> {
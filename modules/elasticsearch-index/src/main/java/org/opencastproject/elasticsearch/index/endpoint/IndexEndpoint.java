@@ -41,6 +41,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -150,15 +151,18 @@ public class IndexEndpoint {
   @Path("rebuild")
   @RestQuery(name = "rebuild", description = "Clear and repopulates the Index directly from the "
           + "Services",
-      returnDescription = "OK if repopulation has started", responses = {
+      returnDescription = "OK if repopulation has started", restParameters = {
+      @RestParameter(name = "parallel", isRequired = false, description = "Whether to repopulate the index from "
+        + "services that don't depend on each other at the same time.", defaultValue = "false",
+        type = RestParameter.Type.BOOLEAN) }, responses = {
       @RestResponse(description = "OK if repopulation has started", responseCode = HttpServletResponse.SC_OK) })
-  public Response rebuildIndex() {
+  public Response rebuildIndex(@FormParam("parallel") final boolean parallel) {
     final SecurityContext securityContext = new SecurityContext(securityService, securityService.getOrganization(),
             securityService.getUser());
     executor.execute(() -> securityContext.runInContext(() -> {
       try {
         logger.info("Starting to repopulate the index");
-        indexRebuildService.rebuildIndex(elasticsearchIndex);
+        indexRebuildService.rebuildIndex(elasticsearchIndex, parallel);
       } catch (Throwable t) {
         logger.error("Repopulating the index failed", t);
       }
@@ -35,8 +35,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The bundle activator is defined in the pom.xml of this bundle.
@@ -67,6 +74,23 @@ public class IndexRebuildService implements BundleActivator {
     Themes, Series, Scheduler, Workflow, AssetManager, Comments
   }
 
+  /**
+   * The services grouped into stages for a parallel index rebuild. The services of a stage are rebuilt at the same
+   * time, the stages themselves are processed in the order of the {@link Service} enum:
+   * <ul>
+   *   <li>Themes and series are independent of each other.</li>
+   *   <li>The scheduler and the workflow service update different fields of events. The metadata and access control
+   *   lists both of them write are overridden by the asset manager afterwards.</li>
+   *   <li>Comments are only added to events that already exist.</li>
+   * </ul>
+   */
+  private static final Service[][] PARALLEL_REBUILD_STAGES = {
+      { Service.Themes, Service.Series },
+      { Service.Scheduler, Service.Workflow },
+      { Service.AssetManager },
+      { Service.Comments }
+  };
+
   private static final Logger logger = LoggerFactory.getLogger(IndexRebuildService.class);
   private final Map<IndexRebuildService.Service, IndexProducer> indexProducers = new ConcurrentHashMap<>();
   private ServiceRegistration<?> serviceRegistration = null;
@@ -122,10 +146,40 @@ public class IndexRebuildService implements BundleActivator {
    */
   public synchronized void rebuildIndex(ElasticsearchIndex index)
           throws IOException, IndexRebuildException {
+    rebuildIndex(index, false);
+  }
+
+  /**
+   * Clear and rebuild the index from all services, optionally rebuilding from independent services in parallel.
+   *
+   * @param index
+   *           The index to rebuild.
+   * @param parallel
+   *           Whether to rebuild from independent services at the same time.
+   *
+   * @throws IOException
+   *           Thrown if the index cannot be cleared.
+   * @throws IndexRebuildException
+   *           Thrown if the index rebuild failed.
+   */
+  public synchronized void rebuildIndex(ElasticsearchIndex index, boolean parallel)
+          throws IOException, IndexRebuildException {
     index.clear();
-    logger.info("{} Index cleared, starting complete rebuild.", index.getIndexName());
-    for (IndexRebuildService.Service service: IndexRebuildService.Service.values()) {
-      rebuildIndex(index, service);
+    logger.info("{} Index cleared, starting complete {}rebuild.", index.getIndexName(), parallel ? "parallel " : "");
+    if (!parallel) {
+      for (IndexRebuildService.Service service: IndexRebuildService.Service.values()) {
+        rebuildIndex(index, service);
+      }
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (Service[] stage : PARALLEL_REBUILD_STAGES) {
+        rebuildIndex(index, stage, executor);
+      }
+    } finally {
+      executor.shutdownNow();
     }
   }
 
@@ -197,6 +251,61 @@ public class IndexRebuildService implements BundleActivator {
     logger.info("Finished to rebuild the {} index from service '{}'", index.getIndexName(), service);
   }
 
+  /**
+   * Trigger repopulation of the index with data from multiple services at the same time.
+   *
+   * @param index
+   *           The index to rebuild.
+   * @param services
+   *           The services to re-add data from.
+   * @param executor
+   *           The executor to run the repopulation with.
+   *
+   * @throws IndexRebuildException
+   *           Thrown if the index rebuild failed for any of the services.
+   */
+  private void rebuildIndex(ElasticsearchIndex index, Service[] services, ExecutorService executor)
+          throws IndexRebuildException {
+    if (services.length == 1) {
+      rebuildIndex(index, services[0]);
+      return;
+    }
+
+    List<Callable<Void>> tasks = new ArrayList<>(services.length);
+    for (Service service : services) {
+      tasks.add(() -> {
+        rebuildIndex(index, service);
+        return null;
+      });
+    }
+
+    IndexRebuildException failure = null;
+    try {
+      for (Future<Void> result : executor.invokeAll(tasks)) {
+        try {
+          result.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IndexRebuildException) {
+            if (failure == null) {
+              failure = (IndexRebuildException) e.getCause();
+            }
+          } else if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          } else {
+            throw new IllegalStateException(e.getCause());
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while rebuilding the " + index.getIndexName() + " index", e);
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
   /**
    * Add IndexProducer service to internal map.
    *
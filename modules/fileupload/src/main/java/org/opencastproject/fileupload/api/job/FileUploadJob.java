@@ -24,6 +24,7 @@ package org.opencastproject.fileupload.api.job;
 import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.mediapackage.MediaPackageElementFlavor;
 
+import java.util.BitSet;
 import java.util.UUID;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -34,6 +35,8 @@ import javax.xml.bind.annotation.XmlEnum;
 import javax.xml.bind.annotation.XmlEnumValue;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
  * A Class representing the information about an upload job.
@@ -65,6 +68,10 @@ public class FileUploadJob {
   private long chunksTotal = 1; // total number of chunks the upload consists of
   @XmlElement(name = "current-chunk")
   private Chunk currentChunk = new Chunk(); // information about the current chunk
+  @XmlJavaTypeAdapter(ChunkSetAdapter.class)
+  @XmlElement(name = "chunks-received")
+  private BitSet chunksReceived = new BitSet(); // chunks that have been completely received
+  private BitSet chunksInProgress = new BitSet(); // chunks that are currently being received
 
   public FileUploadJob() {
     this.id = UUID.randomUUID().toString();
@@ -135,10 +142,84 @@ public class FileUploadJob {
     this.currentChunk = currentChunk;
   }
 
+  /** Returns true if the chunk with the given number has been completely received. */
+  public synchronized boolean isChunkReceived(long number) {
+    return chunksReceived.get((int) number);
+  }
+
+  /** Returns the number of chunks that have been completely received. */
+  public synchronized long getChunksReceived() {
+    return chunksReceived.cardinality();
+  }
+
+  /**
+   * Marks a chunk as being received.
+   *
+   * @return false if the chunk has already been received or is currently being received
+   */
+  public synchronized boolean startChunk(long number) {
+    if (chunksReceived.get((int) number) || chunksInProgress.get((int) number)) {
+      return false;
+    }
+    chunksInProgress.set((int) number);
+    return true;
+  }
+
+  /**
+   * Marks a chunk as no longer being received.
+   *
+   * @param received
+   *          whether the chunk has been completely received
+   * @return true if no other chunk is being received
+   */
+  public synchronized boolean finishChunk(long number, boolean received) {
+    chunksInProgress.clear((int) number);
+    if (received) {
+      chunksReceived.set((int) number);
+    }
+    return chunksInProgress.isEmpty();
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder().append("FileUploadJob(id=").append(this.id).append(", filename=")
             .append(this.payload.getFilename()).append(")");
     return sb.toString();
   }
+
+  /** Writes a set of chunk numbers as comma separated ranges, e.g. <code>0-41,43,45-99</code>. */
+  public static class ChunkSetAdapter extends XmlAdapter<String, BitSet> {
+
+    @Override
+    public String marshal(BitSet chunks) {
+      StringBuilder sb = new StringBuilder();
+      for (int from = chunks.nextSetBit(0); from >= 0; from = chunks.nextSetBit(from)) {
+        int to = chunks.nextClearBit(from) - 1;
+        if (sb.length() > 0) {
+          sb.append(',');
+        }
+        sb.append(from);
+        if (to > from) {
+          sb.append('-').append(to);
+        }
+        from = to + 1;
+      }
+      return sb.toString();
+    }
+
+    @Override
+    public BitSet unmarshal(String ranges) {
+      BitSet chunks = new BitSet();
+      for (String range : ranges.split(",")) {
+        if (range.trim().isEmpty()) {
+          continue;
+        }
+        String[] bounds = range.trim().split("-");
+        int from = Integer.parseInt(bounds[0]);
+        int to = bounds.length > 1 ? Integer.parseInt(bounds[1]) : from;
+        chunks.set(from, to + 1);
+      }
+      return chunks;
+    }
+  }
 }
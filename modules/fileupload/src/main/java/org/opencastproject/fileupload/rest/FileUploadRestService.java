@@ -328,7 +328,7 @@ public class FileUploadRestService {
             }
           } else if (REQUESTFIELD_DATA.equalsIgnoreCase(item.getFieldName())) {
             uploadService.acceptChunk(job, chunkNum, item.openStream());
-            return Response.ok(job).build();
+            return Response.ok(uploadService.getJob(jobId)).build();
           }
         }
         throw new FileUploadException("No payload!");
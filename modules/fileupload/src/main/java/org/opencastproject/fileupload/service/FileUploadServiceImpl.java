@@ -42,6 +42,7 @@ import org.opencastproject.workspace.api.Workspace;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.osgi.service.component.ComponentContext;
@@ -59,15 +60,22 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Dictionary;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Marshaller;
@@ -87,12 +95,14 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
   static final String PROPKEY_KARAF_DATA = "karaf.data";
   static final String PROPKEY_CLEANER_MAXTTL = "org.opencastproject.upload.cleaner.maxttl";
   static final String PROPKEY_UPLOAD_WORKDIR = "org.opencastproject.upload.workdir";
+  static final String PROPKEY_PARALLEL = "org.opencastproject.upload.parallel";
   static final String DEFAULT_UPLOAD_WORKDIR = "tmp/fileupload"; /* The default location is the storage dir */
   static final String UPLOAD_COLLECTION = "uploaded";
   static final String FILEEXT_DATAFILE = ".payload";
   static final String FILENAME_CHUNKFILE = "chunk.part";
   static final String FILENAME_JOBFILE = "job.xml";
   static final int READ_BUFFER_LENGTH = 512;
+  static final int CHUNK_BUFFER_LENGTH = 64 * 1024;
   static final int DEFAULT_CLEANER_MAXTTL = 6;
 
   private File workRoot = null;
@@ -100,9 +110,10 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
   private Workspace workspace;
   private Marshaller jobMarshaller;
   private Unmarshaller jobUnmarshaller;
-  private HashMap<String, FileUploadJob> jobCache = new HashMap<String, FileUploadJob>();
+  private Map<String, FileUploadJob> jobCache = new ConcurrentHashMap<String, FileUploadJob>();
   private FileUploadServiceCleaner cleaner;
   private int jobMaxTTL = DEFAULT_CLEANER_MAXTTL;
+  private boolean parallel = false;
 
   // <editor-fold defaultstate="collapsed" desc="OSGi Service Stuff" >
   @Activate
@@ -151,6 +162,8 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
       logger.warn("Unable to update configuration. {}", e.getMessage());
     }
     logger.info("Configuration updated. Jobs older than {} hours are deleted.", jobMaxTTL);
+    parallel = Boolean.parseBoolean(StringUtils.trimToEmpty((String) properties.get(PROPKEY_PARALLEL)));
+    logger.info("Configuration updated. Parallel chunk uploads are {}.", parallel ? "enabled" : "disabled");
   }
 
   @Reference
@@ -180,7 +193,13 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
     try {
       File jobDir = getJobDir(job.getId()); // create working dir
       FileUtils.forceMkdir(jobDir);
-      ensureExists(getPayloadFile(job.getId())); // create empty payload file
+      File payloadFile = ensureExists(getPayloadFile(job.getId())); // create empty payload file
+      if (parallel && chunksize > 0 && filesize > 0) {
+        // preallocate the payload file so chunks can be written to their position in any order
+        try (RandomAccessFile raf = new RandomAccessFile(payloadFile, "rw")) {
+          raf.setLength(filesize);
+        }
+      }
       storeJob(job); // create job file
     } catch (FileUploadException e) {
       deleteJob(job.getId());
@@ -255,15 +274,15 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
       if (dir.getParentFile().equals(workRoot) && dir.isDirectory()) {
         try {
           String id = dir.getName(); // assuming that the dir name is the ID of a job..
-          if (!isLocked(id)) { // ..true if not in cache or job is in cache and not locked
-            FileUploadJob job = getJob(id);
-            Calendar cal = Calendar.getInstance();
-            cal.add(Calendar.HOUR, -jobMaxTTL);
-            if (job.lastModified() < cal.getTimeInMillis()) {
-              FileUtils.forceDelete(dir);
-              jobCache.remove(id);
-              logger.info("Deleted outdated job {}", id);
-            }
+          FileUploadJob job = getJob(id); // ..taken from the cache if it is locked or receives parallel chunks
+          Calendar cal = Calendar.getInstance();
+          cal.add(Calendar.HOUR, -jobMaxTTL);
+          // Cached jobs are deleted as well once they have been inactive for too long. Parallel uploads stay in the
+          // cache while chunks are missing, so abandoned ones would never be cleaned up otherwise.
+          if (job.lastModified() < cal.getTimeInMillis()) {
+            FileUtils.forceDelete(dir);
+            jobCache.remove(id);
+            logger.info("Deleted outdated job {}", id);
           }
         } catch (Exception e) { // something went wrong, so we assume the dir is corrupted
           FileUtils.forceDelete(dir); // ..and delete it right away
@@ -312,6 +331,11 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
       throw fileUploadException(Severity.warn, "Job is already complete.");
     }
 
+    if (parallel && job.getChunksize() > 0) {
+      acceptChunkAtPosition(job, chunkNumber, content);
+      return;
+    }
+
     // job ready to receive data?
     if (isLocked(job.getId())) {
       throw fileUploadException(Severity.error,
@@ -387,6 +411,7 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
         IOUtils.copy(in, out);
         Payload payload = job.getPayload();
         payload.setCurrentSize(payload.getCurrentSize() + actualSize);
+        job.finishChunk(chunkNumber, true);
 
       } catch (IOException e) {
         removeFromCache(job);
@@ -415,6 +440,113 @@ public class FileUploadServiceImpl implements FileUploadService, ManagedService
     removeFromCache(job);
   }
 
+  /**
+   * Writes a chunk to its position in the payload file. Chunks may arrive in any order and concurrently. Received
+   * chunks are recorded in the job so that an interrupted upload can be resumed by sending the missing chunks only.
+   *
+   * @param job
+   *          the upload job
+   * @param chunkNumber
+   *          the number of the chunk
+   * @param content
+   *          the chunk data
+   * @throws FileUploadException
+   *           if the chunk is invalid or cannot be stored
+   */
+  private void acceptChunkAtPosition(FileUploadJob job, long chunkNumber, InputStream content)
+          throws FileUploadException {
+    if (chunkNumber < 0 || chunkNumber >= job.getChunksTotal()) {
+      IOUtils.closeQuietly(content);
+      throw fileUploadException(Severity.error,
+              format("Wrong chunk number. Awaiting #0 to #%d but #%d was offered.", job.getChunksTotal() - 1,
+                      chunkNumber));
+    }
+
+    // all requests for this job have to work on the same instance
+    FileUploadJob cached = jobCache.putIfAbsent(job.getId(), job);
+    if (cached != null) {
+      job = cached;
+    }
+    synchronized (job) {
+      if (!job.startChunk(chunkNumber)) {
+        IOUtils.closeQuietly(content);
+        throw fileUploadException(Severity.warn,
+                format("Chunk #%d has already been received or is being received.", chunkNumber));
+      }
+      job.setState(FileUploadJob.JobState.INPROGRESS);
+    }
+    logger.debug("Receiving chunk #{} of job {}", chunkNumber, job);
+
+    long supposedSize = job.getChunksize();
+    if (chunkNumber == job.getChunksTotal() - 1 && job.getPayload().getTotalSize() % job.getChunksize() != 0) {
+      supposedSize = job.getPayload().getTotalSize() % job.getChunksize();
+    }
+    long position = chunkNumber * job.getChunksize();
+    long bytesReadTotal = 0L;
+    boolean received = false;
+    try (FileChannel out = FileChannel.open(getPayloadFile(job.getId()).toPath(), StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BUFFER_LENGTH);
+      ReadableByteChannel in = Channels.newChannel(content);
+      while (in.read(buffer) != -1) {
+        buffer.flip();
+        bytesReadTotal += buffer.remaining();
+        if (bytesReadTotal > supposedSize) {
+          break;
+        }
+        while (buffer.hasRemaining()) {
+          position += out.write(buffer, position);
+        }
+        buffer.clear();
+      }
+      received = bytesReadTotal == supposedSize;
+    } catch (IOException e) {
+      finishChunk(job, chunkNumber, false, 0L);
+      throw fileUploadException(Severity.error, "Failed to store chunk data", e);
+    } finally {
+      IOUtils.closeQuietly(content);
+    }
+
+    if (!received) {
+      finishChunk(job, chunkNumber, false, 0L);
+      throw fileUploadException(Severity.warn,
+              format("Chunk has wrong size. Awaited: %d bytes, received at least: %d bytes.", supposedSize,
+                      bytesReadTotal));
+    }
+
+    if (finishChunk(job, chunkNumber, true, bytesReadTotal)) {
+      finalizeJob(job);
+      logger.info("Upload job completed: {}", job);
+      storeJob(job);
+      removeFromCache(job);
+    }
+  }
+
+  /**
+   * Records the result of a chunk upload and stores the job.
+   *
+   * @return true if this was the last missing chunk and the job has to be finalized
+   */
+  private boolean finishChunk(FileUploadJob job, long chunkNumber, boolean received, long size)
+          throws FileUploadException {
+    synchronized (job) {
+      boolean idle = job.finishChunk(chunkNumber, received);
+      if (received) {
+        Payload payload = job.getPayload();
+        payload.setCurrentSize(payload.getCurrentSize() + size);
+        job.setCurrentChunk(new Chunk((int) chunkNumber, size));
+      }
+      if (job.getChunksReceived() == job.getChunksTotal()) {
+        job.setState(FileUploadJob.JobState.FINALIZING);
+        return true;
+      }
+      if (idle) {
+        job.setState(FileUploadJob.JobState.READY);
+      }
+      storeJob(job);
+      return false;
+    }
+  }
+
   @Override
   public InputStream getPayload(FileUploadJob job) throws FileUploadException {
     // job not locked?
@@ -0,0 +1,67 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.fileupload.api.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+public class FileUploadJobTest {
+
+  @Test
+  public void testChunkSetAdapter() throws Exception {
+    FileUploadJob.ChunkSetAdapter adapter = new FileUploadJob.ChunkSetAdapter();
+    BitSet chunks = new BitSet();
+    chunks.set(0, 3);
+    chunks.set(4);
+    chunks.set(6, 8);
+
+    assertEquals("0-2,4,6-7", adapter.marshal(chunks));
+    assertEquals(chunks, adapter.unmarshal("0-2,4,6-7"));
+    assertEquals("", adapter.marshal(new BitSet()));
+    assertEquals(new BitSet(), adapter.unmarshal(""));
+  }
+
+  @Test
+  public void testChunksInProgress() {
+    FileUploadJob job = new FileUploadJob("test.txt", 10, 4, null, null);
+
+    assertTrue(job.startChunk(1));
+    assertTrue(job.startChunk(0));
+    assertFalse(job.startChunk(1));
+    assertFalse(job.finishChunk(1, false));
+    assertTrue(job.finishChunk(0, true));
+
+    // Failed chunks may be sent again, received ones may not
+    assertTrue(job.startChunk(1));
+    assertFalse(job.startChunk(0));
+    assertTrue(job.finishChunk(1, true));
+    assertEquals(2, job.getChunksReceived());
+    assertTrue(job.isChunkReceived(0));
+    assertFalse(job.isChunkReceived(2));
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.fileupload.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.fileupload.api.exception.FileUploadException;
+import org.opencastproject.fileupload.api.job.FileUploadJob;
+import org.opencastproject.workspace.api.Workspace;
+
+import org.apache.commons.io.IOUtils;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.service.component.ComponentContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Hashtable;
+
+public class FileUploadServiceImplTest {
+
+  private static final String CONTENT = "0123456789";
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private FileUploadServiceImpl service;
+  private File workDir;
+  private String uploaded;
+
+  @Before
+  public void setUp() throws Exception {
+    workDir = testFolder.newFolder();
+
+    Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.putInCollection(EasyMock.anyString(), EasyMock.anyString(),
+            EasyMock.anyObject(InputStream.class))).andAnswer(() -> {
+              uploaded = IOUtils.toString((InputStream) EasyMock.getCurrentArguments()[2], StandardCharsets.UTF_8);
+              return new URI("http://localhost/files/collection/uploaded/payload");
+            }).anyTimes();
+    EasyMock.replay(workspace);
+
+    Hashtable<String, String> properties = new Hashtable<>();
+    properties.put(FileUploadServiceImpl.PROPKEY_UPLOAD_WORKDIR, workDir.getAbsolutePath());
+    properties.put(FileUploadServiceImpl.PROPKEY_CLEANER_MAXTTL, "1");
+    properties.put(FileUploadServiceImpl.PROPKEY_PARALLEL, "true");
+
+    service = new FileUploadServiceImpl();
+    service.setWorkspace(workspace);
+    service.updated(properties);
+    service.activate(EasyMock.createNiceMock(ComponentContext.class));
+  }
+
+  @After
+  public void tearDown() {
+    service.deactivate(null);
+  }
+
+  /** Sends a chunk of {@link #CONTENT} split into chunks of four bytes. */
+  private void sendChunk(FileUploadJob job, int chunkNumber) throws FileUploadException {
+    String chunk = CONTENT.substring(chunkNumber * 4, Math.min(CONTENT.length(), chunkNumber * 4 + 4));
+    service.acceptChunk(service.getJob(job.getId()), chunkNumber,
+            new ByteArrayInputStream(chunk.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testChunksOutOfOrder() throws Exception {
+    FileUploadJob job = service.createJob("test.txt", CONTENT.length(), 4, null, null);
+    assertEquals(3, job.getChunksTotal());
+
+    sendChunk(job, 2);
+    sendChunk(job, 0);
+    assertEquals(FileUploadJob.JobState.READY, service.getJob(job.getId()).getState());
+    assertEquals(2, service.getJob(job.getId()).getChunksReceived());
+    assertFalse(service.getJob(job.getId()).isChunkReceived(1));
+
+    sendChunk(job, 1);
+    FileUploadJob completed = service.getJob(job.getId());
+    assertEquals(FileUploadJob.JobState.COMPLETE, completed.getState());
+    assertEquals(3, completed.getChunksReceived());
+    assertEquals(CONTENT, uploaded);
+  }
+
+  @Test
+  public void testDuplicateChunk() throws Exception {
+    FileUploadJob job = service.createJob("test.txt", CONTENT.length(), 4, null, null);
+
+    sendChunk(job, 1);
+    try {
+      sendChunk(job, 1);
+      fail("A chunk must not be accepted twice");
+    } catch (FileUploadException e) {
+      // Expected
+    }
+    assertEquals(1, service.getJob(job.getId()).getChunksReceived());
+
+    sendChunk(job, 0);
+    sendChunk(job, 2);
+    assertEquals(FileUploadJob.JobState.COMPLETE, service.getJob(job.getId()).getState());
+    assertEquals(CONTENT, uploaded);
+  }
+
+  @Test
+  public void testCleanAbandonedUpload() throws Exception {
+    FileUploadJob job = service.createJob("test.txt", CONTENT.length(), 4, null, null);
+    sendChunk(job, 0);
+
+    // Simulate a chunk that never finished
+    FileUploadJob cached = service.getJob(job.getId());
+    assertTrue(cached.startChunk(1));
+    cached.setState(FileUploadJob.JobState.INPROGRESS);
+
+    // Recently active uploads are kept
+    service.cleanOutdatedJobs();
+    assertTrue(service.hasJob(job.getId()));
+
+    cached.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000L);
+    service.cleanOutdatedJobs();
+    assertFalse(service.hasJob(job.getId()));
+    assertFalse(new File(workDir, job.getId()).exists());
+  }
+
+}
@@ -63,6 +63,8 @@ import org.opencastproject.series.api.SeriesService;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
 import org.opencastproject.smil.api.util.SmilUtil;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.ConfigurationException;
 import org.opencastproject.util.IoSupport;
 import org.opencastproject.util.LoadUtil;
@@ -124,6 +126,8 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Dictionary;
@@ -473,6 +477,10 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
 
     ZipArchiveInputStream zis = null;
     Set<String> collectionFilenames = new HashSet<>();
+    String mediaPackageId = null;
+    // Zip entries that have been written straight to their element's location, by element identifier
+    Map<String, String> placedEntries = new HashMap<>();
+    boolean ingested = false;
     try {
       // We don't need anybody to do the dispatching for us. Therefore we need to make sure that the job is never in
       // QUEUED state but set it to INSTANTIATED in the beginning and then manually switch it to RUNNING.
@@ -486,7 +494,10 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
       zis = new ZipArchiveInputStream(zipStream);
       ZipArchiveEntry entry;
       MediaPackage mp = null;
+      // Folder of the manifest within the zip, used to map entries to elements once the manifest is known
+      String manifestFolder = null;
       Map<String, URI> uris = new HashMap<>();
+      Map<String, Checksum> checksums = new HashMap<>();
       // Sequential number to append to file names so that, if two files have the same
       // name, one does not overwrite the other (see MH-9688)
       int seq = 1;
@@ -504,19 +515,43 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
             // Build the media package
             final InputStream is = new ZipEntryInputStream(zis, entry.getSize());
             mp = MediaPackageParser.getFromXml(IOUtils.toString(is, StandardCharsets.UTF_8));
+            // Determine the mediapackage identifier
+            if (mp.getIdentifier() == null || isBlank(mp.getIdentifier().toString()))
+              mp.setIdentifier(IdImpl.fromUUID());
+            mediaPackageId = mp.getIdentifier().toString();
+            manifestFolder = entry.getName().substring(0, entry.getName().lastIndexOf('/') + 1);
           } else {
-            logger.info("Storing zip entry {}/{} in working file repository collection '{}'", job.getId(),
-                    entry.getName(), wfrCollectionId);
-            // Since the directory structure is not being mirrored, makes sure the file
-            // name is different than the previous one(s) by adding a sequential number
-            String fileName = FilenameUtils.getBaseName(entry.getName()) + "_" + seq++ + "."
-                    + FilenameUtils.getExtension(entry.getName());
-            URI contentUri = workingFileRepository.putInCollection(wfrCollectionId, fileName,
-                    new ZipEntryInputStream(zis, entry.getSize()));
-            collectionFilenames.add(fileName);
+            // Compute the checksum while the entry is being stored
+            final DigestInputStream in = new DigestInputStream(new ZipEntryInputStream(zis, entry.getSize()),
+                    MessageDigest.getInstance(ChecksumType.DEFAULT_TYPE.getName()));
+            MediaPackageElement element = mp != null ? getZipEntryElement(mp, manifestFolder, entry) : null;
+            if (element != null && isElementStored(mediaPackageId, element.getIdentifier())) {
+              // Don't touch the files of an existing media package before the ingest succeeded
+              element = null;
+            }
+            final URI contentUri;
+            if (element != null) {
+              // The manifest has already been read, so the entry can go straight to its final location
+              logger.info("Storing zip entry {}/{} as element {} of mediapackage {}", job.getId(), entry.getName(),
+                      element.getIdentifier(), mediaPackageId);
+              contentUri = workingFileRepository.put(mediaPackageId, element.getIdentifier(),
+                      FilenameUtils.getName(element.getURI().toString()), in);
+              placedEntries.put(element.getIdentifier(), entry.getName());
+            } else {
+              logger.info("Storing zip entry {}/{} in working file repository collection '{}'", job.getId(),
+                      entry.getName(), wfrCollectionId);
+              // Since the directory structure is not being mirrored, makes sure the file
+              // name is different than the previous one(s) by adding a sequential number
+              String fileName = FilenameUtils.getBaseName(entry.getName()) + "_" + seq++ + "."
+                      + FilenameUtils.getExtension(entry.getName());
+              contentUri = workingFileRepository.putInCollection(wfrCollectionId, fileName, in);
+              collectionFilenames.add(fileName);
+            }
             // Key is the zip entry name as it is
             String key = entry.getName();
             uris.put(key, contentUri);
+            checksums.put(key, Checksum.create(ChecksumType.DEFAULT_TYPE,
+                    Checksum.convertToHex(in.getMessageDigest().digest())));
             ingestStatistics.add(entry.getSize());
             logger.info("Zip entry {}/{} stored at {}", job.getId(), entry.getName(), contentUri);
             // Figures out if there's a root folder. Does entry name starts with a folder?
@@ -541,12 +576,6 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
       if (mp == null)
         throw new MediaPackageException("No manifest found in this zip");
 
-      // Determine the mediapackage identifier
-      if (mp.getIdentifier() == null || isBlank(mp.getIdentifier().toString()))
-        mp.setIdentifier(IdImpl.fromUUID());
-
-      String mediaPackageId = mp.getIdentifier().toString();
-
       logger.info("Ingesting mediapackage {} is named '{}'", mediaPackageId, mp.getTitle());
 
       // Make sure there are tracks in the mediapackage
@@ -554,17 +583,44 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
         logger.warn("Mediapackage {} has no media tracks", mediaPackageId);
       }
 
-      // Update the element uris to point to their working file repository location
-      for (MediaPackageElement element : mp.elements()) {
+      // Map all elements to their zip entries before anything is moved into the mediapackage
+      MediaPackageElement[] elements = mp.getElements();
+      String[] keys = new String[elements.length];
+      for (int i = 0; i < elements.length; i++) {
         // Key has root folder name if there is one
-        URI uri = uris.get((hasRootFolder ? folderName + "/" : "") + element.getURI().toString());
+        String key = placedEntries.get(elements[i].getIdentifier());
+        if (key == null) {
+          key = (hasRootFolder ? folderName + "/" : "") + elements[i].getURI().toString();
+          if (!uris.containsKey(key))
+            throw new MediaPackageException("Unable to map element name '" + elements[i].getURI()
+                    + "' to workspace uri");
+        }
+        keys[i] = key;
+      }
 
-        if (uri == null)
-          throw new MediaPackageException("Unable to map element name '" + element.getURI() + "' to workspace uri");
-        logger.info("Ingested mediapackage element {}/{} located at {}", mediaPackageId, element.getIdentifier(), uri);
-        URI dest = workingFileRepository.moveTo(wfrCollectionId, FilenameUtils.getName(uri.toString()), mediaPackageId,
-                element.getIdentifier(), FilenameUtils.getName(element.getURI().toString()));
-        element.setURI(dest);
+      // Update the element uris to point to their working file repository location
+      for (int i = 0; i < elements.length; i++) {
+        MediaPackageElement element = elements[i];
+        String key = keys[i];
+        URI uri = uris.get(key);
+        if (placedEntries.containsKey(element.getIdentifier())) {
+          element.setURI(uri);
+        } else {
+          URI dest = workingFileRepository.moveTo(wfrCollectionId, FilenameUtils.getName(uri.toString()),
+                  mediaPackageId, element.getIdentifier(), FilenameUtils.getName(element.getURI().toString()));
+          element.setURI(dest);
+        }
+        logger.info("Ingested mediapackage element {}/{} located at {}", mediaPackageId, element.getIdentifier(),
+                element.getURI());
+
+        Checksum checksum = checksums.get(key);
+        if (element.getChecksum() == null) {
+          element.setChecksum(checksum);
+        } else if (element.getChecksum().getType().equals(checksum.getType())
+                && !element.getChecksum().getValue().equals(checksum.getValue())) {
+          logger.warn("Checksum of mediapackage element {}/{} does not match its content", mediaPackageId,
+                  element.getIdentifier());
+        }
 
         // TODO: This should be triggered somehow instead of being handled here
         if (MediaPackageElements.SERIES.equals(element.getFlavor())) {
@@ -576,6 +632,7 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
       // Now that all elements are in place, start with ingest
       logger.info("Initiating processing of ingested mediapackage {}", mediaPackageId);
       WorkflowInstance workflowInstance = ingest(mp, workflowDefinitionId, workflowConfig, workflowInstanceId);
+      ingested = true;
       logger.info("Ingest of mediapackage {} done", mediaPackageId);
       job.setStatus(Job.Status.FINISHED);
       return workflowInstance;
@@ -594,7 +651,63 @@ public class IngestServiceImpl extends AbstractJobProducer implements IngestServ
       for (String filename : collectionFilenames) {
         workingFileRepository.deleteFromCollection(Long.toString(job.getId()), filename, true);
       }
+      // Entries written straight to their element's location belong to no media package if the ingest failed
+      if (!ingested) {
+        for (String elementId : placedEntries.keySet()) {
+          try {
+            workingFileRepository.delete(mediaPackageId, elementId);
+          } catch (IOException e) {
+            logger.warn("Unable to remove element {} of failed ingest of mediapackage {}", elementId, mediaPackageId,
+                    e);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether the working file repository already holds the file of a media package element.
+   *
+   * @param mediaPackageId
+   *          the media package identifier
+   * @param elementId
+   *          the element identifier
+   * @return <code>true</code> if there is such a file
+   * @throws IOException
+   *           if the working file repository cannot be accessed
+   */
+  private boolean isElementStored(String mediaPackageId, String elementId) throws IOException {
+    try (InputStream in = workingFileRepository.get(mediaPackageId, elementId)) {
+      return true;
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the single element of a media package that refers to a zip entry.
+   *
+   * @param mp
+   *          the media package read from the zip's manifest
+   * @param manifestFolder
+   *          the folder containing the manifest within the zip
+   * @param entry
+   *          the zip entry
+   * @return the element or <code>null</code> if no or more than one element refers to the entry
+   */
+  private MediaPackageElement getZipEntryElement(MediaPackage mp, String manifestFolder, ZipArchiveEntry entry) {
+    if (!entry.getName().startsWith(manifestFolder))
+      return null;
+    String name = entry.getName().substring(manifestFolder.length());
+    MediaPackageElement result = null;
+    for (MediaPackageElement element : mp.elements()) {
+      if (element.getURI() == null || !name.equals(element.getURI().toString()))
+        continue;
+      if (result != null || element.getIdentifier() == null)
+        return null;
+      result = element;
     }
+    return result;
   }
 
   /**
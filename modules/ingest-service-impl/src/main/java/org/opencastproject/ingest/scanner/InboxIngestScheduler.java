@@ -0,0 +1,324 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.ingest.scanner;
+
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.serviceregistry.api.SystemLoad;
+import org.opencastproject.util.jmx.JmxUtil;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.osgi.service.cm.ManagedService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Dictionary;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.management.ObjectInstance;
+
+/**
+ * Decides when files found in the inboxes are ingested.
+ * <p>
+ * All inboxes share one queue of files waiting for ingest. The number of concurrent ingests can be limited, and no new
+ * ingest is started while the load of the cluster exceeds a configured share of its maximum load. If files of several
+ * inboxes are waiting, the inboxes take turns according to their weights.
+ *
+ * @see Ingestor
+ */
+@Component(
+  immediate = true,
+  service = {
+    InboxIngestScheduler.class,
+    ManagedService.class
+  },
+  property = {
+    "service.pid=org.opencastproject.ingest.scanner.InboxIngestScheduler",
+    "service.description=Inbox Ingest Scheduler"
+  }
+)
+public class InboxIngestScheduler implements ManagedService, InboxIngestSchedulerMXBean {
+
+  /** The logger */
+  private static final Logger logger = LoggerFactory.getLogger(InboxIngestScheduler.class);
+
+  /** The configuration key for the maximum number of concurrent inbox ingests */
+  public static final String MAX_CONCURRENT = "max.concurrent";
+
+  /** The configuration key for the maximum number of files waiting for ingest */
+  public static final String MAX_QUEUE = "max.queue";
+
+  /** The configuration key for the share of the cluster's maximum load above which no ingest is started */
+  public static final String MAX_LOAD = "max.load";
+
+  /** The configuration key for the number of seconds between two checks of the cluster load */
+  public static final String LOAD_CHECK_INTERVAL = "load.check.interval";
+
+  /** Time in milliseconds after which waiting ingests check again if they may start */
+  private static final long WAIT_INTERVAL = 5000L;
+
+  /** The state of an inbox */
+  private static final class Inbox {
+    private int weight = 1;
+    private int queued = 0;
+    private int waiting = 0;
+    private int granted = 0;
+    private int credit = 0;
+  }
+
+  private final Map<String, Inbox> inboxes = new LinkedHashMap<>();
+
+  private ServiceRegistry serviceRegistry;
+
+  private ObjectInstance mxBean;
+
+  private int maxConcurrent = 0;
+  private int maxQueue = 0;
+  private float maxLoad = 0F;
+  private long loadCheckInterval = 30000L;
+
+  private int queued = 0;
+  private int running = 0;
+  private long started = 0L;
+  private long rejected = 0L;
+  private float clusterLoad = 0F;
+  private long clusterLoadChecked = 0L;
+
+  /** OSGi callback. */
+  @Activate
+  public void activate() {
+    mxBean = JmxUtil.registerMXBean(this, "InboxIngestScheduler");
+  }
+
+  /** OSGi callback. */
+  @Deactivate
+  public void deactivate() {
+    if (mxBean != null) {
+      JmxUtil.unregisterMXBean(mxBean);
+    }
+  }
+
+  @Override
+  public synchronized void updated(Dictionary properties) {
+    if (properties == null) {
+      return;
+    }
+    maxConcurrent = NumberUtils.toInt(Objects.toString(properties.get(MAX_CONCURRENT), "0"));
+    maxQueue = NumberUtils.toInt(Objects.toString(properties.get(MAX_QUEUE), "0"));
+    maxLoad = NumberUtils.toFloat(Objects.toString(properties.get(MAX_LOAD), "0"));
+    loadCheckInterval = 1000L * NumberUtils.toInt(Objects.toString(properties.get(LOAD_CHECK_INTERVAL), "30"));
+    clusterLoadChecked = 0L;
+    logger.info("Inbox ingests limited to {} concurrent ingests, {} queued files and a cluster load of {}",
+            maxConcurrent > 0 ? maxConcurrent : "unlimited", maxQueue > 0 ? maxQueue : "unlimited",
+            maxLoad > 0 ? maxLoad : "unlimited");
+    dispatch();
+  }
+
+  /**
+   * Adds a file to the queue.
+   *
+   * @param inbox
+   *          the inbox the file was found in
+   * @param weight
+   *          the weight of the inbox
+   * @return false if the queue is full and the file has to be offered again later
+   */
+  public synchronized boolean offer(String inbox, int weight) {
+    Inbox state = getInbox(inbox);
+    state.weight = Math.max(1, weight);
+    if (maxQueue > 0 && queued >= maxQueue) {
+      rejected++;
+      return false;
+    }
+    queued++;
+    state.queued++;
+    return true;
+  }
+
+  /**
+   * Adds a file to the queue again, e.g. to retry a failed ingest. The queue limit does not apply.
+   *
+   * @param inbox
+   *          the inbox the file was found in
+   */
+  public synchronized void requeue(String inbox) {
+    queued++;
+    getInbox(inbox).queued++;
+  }
+
+  /**
+   * Waits until an ingest of a queued file of the given inbox may start.
+   *
+   * @param inbox
+   *          the inbox the file was found in
+   * @throws InterruptedException
+   *           if the thread was interrupted while waiting
+   */
+  public synchronized void acquire(String inbox) throws InterruptedException {
+    Inbox state = getInbox(inbox);
+    state.waiting++;
+    try {
+      dispatch();
+      while (state.granted == 0) {
+        wait(WAIT_INTERVAL);
+        dispatch();
+      }
+      state.granted--;
+      state.queued = Math.max(0, state.queued - 1);
+      queued = Math.max(0, queued - 1);
+      running++;
+      started++;
+    } finally {
+      state.waiting--;
+      if (state.granted > state.waiting) {
+        // give back the turn of an interrupted ingest
+        state.granted--;
+        dispatch();
+      }
+    }
+  }
+
+  /**
+   * Marks an ingest started with {@link #acquire(String)} as finished.
+   *
+   * @param inbox
+   *          the inbox the file was found in
+   */
+  public synchronized void release(String inbox) {
+    running--;
+    dispatch();
+  }
+
+  /**
+   * Hands out turns to waiting ingests as long as the limits allow it.
+   */
+  private void dispatch() {
+    int granted = 0;
+    for (Inbox state : inboxes.values()) {
+      granted += state.granted;
+    }
+    boolean changed = false;
+    while ((maxConcurrent <= 0 || running + granted < maxConcurrent) && !isOverloaded()) {
+      // smooth weighted round robin over the inboxes with waiting ingests
+      Inbox next = null;
+      int totalWeight = 0;
+      for (Inbox state : inboxes.values()) {
+        if (state.waiting > state.granted) {
+          state.credit += state.weight;
+          totalWeight += state.weight;
+          if (next == null || state.credit > next.credit) {
+            next = state;
+          }
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      next.credit -= totalWeight;
+      next.granted++;
+      granted++;
+      changed = true;
+    }
+    if (changed) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Checks if the load of the cluster is too high to start another ingest. The load is fetched from the service
+   * registry at most once per check interval.
+   */
+  private boolean isOverloaded() {
+    if (maxLoad <= 0 || serviceRegistry == null) {
+      return false;
+    }
+    long now = System.currentTimeMillis();
+    if (now - clusterLoadChecked >= loadCheckInterval) {
+      clusterLoadChecked = now;
+      try {
+        float current = 0F;
+        float max = 0F;
+        for (SystemLoad.NodeLoad nodeLoad : serviceRegistry.getCurrentHostLoads().getNodeLoads()) {
+          current += nodeLoad.getCurrentLoad();
+          max += nodeLoad.getMaxLoad();
+        }
+        clusterLoad = max > 0 ? current / max : 0F;
+        logger.debug("Current cluster load is {}", clusterLoad);
+      } catch (ServiceRegistryException e) {
+        logger.warn("Unable to get the current cluster load, not throttling inbox ingests", e);
+        clusterLoad = 0F;
+      }
+    }
+    return clusterLoad >= maxLoad;
+  }
+
+  private Inbox getInbox(String inbox) {
+    return inboxes.computeIfAbsent(inbox, i -> new Inbox());
+  }
+
+  @Override
+  public synchronized int getQueuedFiles() {
+    return queued;
+  }
+
+  @Override
+  public synchronized int getWaitingIngests() {
+    int waiting = 0;
+    for (Inbox state : inboxes.values()) {
+      waiting += state.waiting;
+    }
+    return waiting;
+  }
+
+  @Override
+  public synchronized int getRunningIngests() {
+    return running;
+  }
+
+  @Override
+  public synchronized long getStartedIngests() {
+    return started;
+  }
+
+  @Override
+  public synchronized long getRejectedFiles() {
+    return rejected;
+  }
+
+  @Override
+  public synchronized float getClusterLoad() {
+    return clusterLoad;
+  }
+
+  /** OSGi callback to set the service registry. */
+  @Reference
+  public void setServiceRegistry(ServiceRegistry serviceRegistry) {
+    this.serviceRegistry = serviceRegistry;
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.ingest.scanner;
+
+/**
+ * JMX Bean interface exposing the state of the inbox ingest scheduler.
+ */
+public interface InboxIngestSchedulerMXBean {
+
+  /**
+   * Gets the number of inbox files waiting to be ingested
+   *
+   * @return the number of files
+   */
+  int getQueuedFiles();
+
+  /**
+   * Gets the number of inbox files which are ready to be ingested but have not been allowed to start yet
+   *
+   * @return the number of files
+   */
+  int getWaitingIngests();
+
+  /**
+   * Gets the number of running inbox ingests
+   *
+   * @return the number of ingests
+   */
+  int getRunningIngests();
+
+  /**
+   * Gets the total number of started inbox ingests
+   *
+   * @return the number of ingests
+   */
+  long getStartedIngests();
+
+  /**
+   * Gets the number of inbox files which have been postponed because the queue was full
+   *
+   * @return the number of files
+   */
+  long getRejectedFiles();
+
+  /**
+   * Gets the last known load of the cluster as share of its maximum load
+   *
+   * @return the cluster load
+   */
+  float getClusterLoad();
+
+}
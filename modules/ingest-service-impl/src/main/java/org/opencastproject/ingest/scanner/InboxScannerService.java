@@ -115,6 +115,9 @@ public class InboxScannerService implements ArtifactInstaller, ManagedService {
   /** The configuration key to use for determining the polling interval in ms. */
   public static final String INBOX_POLL = "inbox.poll";
 
+  /** The configuration key to use for determining the share of ingests when files of several inboxes are waiting */
+  public static final String INBOX_WEIGHT = "inbox.weight";
+
   public static final String INBOX_THREADS = "inbox.threads";
   public static final String INBOX_TRIES = "inbox.tries";
   public static final String INBOX_TRIES_BETWEEN_SEC = "inbox.tries.between.sec";
@@ -134,6 +137,7 @@ public class InboxScannerService implements ArtifactInstaller, ManagedService {
   private OrganizationDirectoryService orgDir;
   private SeriesService seriesService;
   private SchedulerService schedulerService;
+  private InboxIngestScheduler inboxIngestScheduler;
 
   private ComponentContext cc;
 
@@ -183,6 +187,7 @@ public class InboxScannerService implements ArtifactInstaller, ManagedService {
     if (!inbox.canWrite()) {
       throw new ConfigurationException(INBOX_PATH, String.format("Cannot write to %s", inbox.getAbsolutePath()));
     }
+    final int weight = NumberUtils.toInt(Objects.toString(properties.get(INBOX_WEIGHT), "1"));
     final int maxThreads = NumberUtils.toInt(Objects.toString(properties.get(INBOX_THREADS), "1"));
     final int maxTries = NumberUtils.toInt(Objects.toString(properties.get(INBOX_TRIES), "3"));
     final int secondsBetweenTries = NumberUtils.toInt(Objects.toString(properties.get(INBOX_TRIES_BETWEEN_SEC), "300"));
@@ -221,8 +226,9 @@ public class InboxScannerService implements ArtifactInstaller, ManagedService {
     fileInstallCfg = configureFileInstall(cc.getBundleContext(), inbox, interval);
     // create new scanner
     this.ingestor = new Ingestor(ingestService, securityContext.get(), workflowDefinition,
-            workflowConfig, mediaFlavor, inbox, maxThreads, seriesService, maxTries, secondsBetweenTries,
-            metadataPattern, dateFormatter, schedulerService, ffprobe, matchSchedule, matchThreshold);
+            workflowConfig, mediaFlavor, inbox, weight, inboxIngestScheduler, maxThreads, seriesService, maxTries,
+            secondsBetweenTries, metadataPattern, dateFormatter, schedulerService, ffprobe, matchSchedule,
+            matchThreshold);
     new Thread(ingestor).start();
     logger.info("Now watching inbox {}", inbox.getAbsolutePath());
   }
@@ -361,4 +367,10 @@ public class InboxScannerService implements ArtifactInstaller, ManagedService {
   public void setSchedulerService(SchedulerService schedulerService) {
     this.schedulerService = schedulerService;
   }
+
+  /** OSGi callback to set the scheduler deciding when inbox files are ingested. */
+  @Reference
+  public void setInboxIngestScheduler(InboxIngestScheduler inboxIngestScheduler) {
+    this.inboxIngestScheduler = inboxIngestScheduler;
+  }
 }
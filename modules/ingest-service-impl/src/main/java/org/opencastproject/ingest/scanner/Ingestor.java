@@ -99,6 +99,10 @@ public class Ingestor implements Runnable {
 
   private final File inbox;
 
+  private final int inboxWeight;
+
+  private final InboxIngestScheduler scheduler;
+
   private final SeriesService seriesService;
   private final SchedulerService schedulerService;
 
@@ -155,12 +159,28 @@ public class Ingestor implements Runnable {
 
     @Override
     public RetriableIngestJob call() {
+      if (hasFailed()) {
+        logger.warn("This is retry number {} for file {}. We will wait for {} seconds before trying again",
+                retryCount, artifact.getName(), secondsBetweenTries);
+        throttle.acquire();
+      }
+      try {
+        scheduler.acquire(inbox.getAbsolutePath());
+      } catch (InterruptedException e) {
+        logger.warn("Interrupted while waiting to ingest inbox file {}", artifact.getName());
+        Thread.currentThread().interrupt();
+        failed = true;
+        return this;
+      }
+      try {
+        return ingestArtifact();
+      } finally {
+        scheduler.release(inbox.getAbsolutePath());
+      }
+    }
+
+    private RetriableIngestJob ingestArtifact() {
       return secCtx.runInContext(() -> {
-          if (hasFailed()) {
-            logger.warn("This is retry number {} for file {}. We will wait for {} seconds before trying again",
-                    retryCount, artifact.getName(), secondsBetweenTries);
-            throttle.acquire();
-          }
           try (InputStream in = new FileInputStream(artifact)) {
             failed = false;
             ++retryCount;
@@ -380,6 +400,7 @@ public class Ingestor implements Runnable {
           if (task.getRetryCount() < maxTries) {
             throttle.acquire();
             logger.warn("Retrying inbox ingest of {}", task.getArtifact().getAbsolutePath());
+            scheduler.requeue(inbox.getAbsolutePath());
             completionService.submit(task);
           } else {
             logger.error("Inbox ingest failed after {} tries for {}", maxTries, task.getArtifact().getAbsolutePath());
@@ -404,6 +425,8 @@ public class Ingestor implements Runnable {
    * @param workflowConfig        the workflow definition configuration
    * @param mediaFlavor           media flavor to use by default
    * @param inbox                 inbox directory to watch
+   * @param inboxWeight           share of ingests of this inbox when files of several inboxes are waiting
+   * @param scheduler             scheduler deciding when files are ingested
    * @param maxThreads            maximum worker threads doing the actual ingest
    * @param seriesService         reference to the active series service
    * @param maxTries              maximum tries for a ingest job
@@ -412,16 +435,18 @@ public class Ingestor implements Runnable {
    * @param dateFormatter         date formatter pattern for parsing temporal metadata
    */
   public Ingestor(IngestService ingestService, SecurityContext secCtx,
-          String workflowDefinition, Map<String, String> workflowConfig, String mediaFlavor, File inbox, int maxThreads,
-          SeriesService seriesService, int maxTries, int secondsBetweenTries, Optional<Pattern> metadataPattern,
-          DateTimeFormatter dateFormatter, SchedulerService schedulerService, String ffprobe, boolean matchSchedule,
-          float matchThreshold) {
+          String workflowDefinition, Map<String, String> workflowConfig, String mediaFlavor, File inbox,
+          int inboxWeight, InboxIngestScheduler scheduler, int maxThreads, SeriesService seriesService, int maxTries,
+          int secondsBetweenTries, Optional<Pattern> metadataPattern, DateTimeFormatter dateFormatter,
+          SchedulerService schedulerService, String ffprobe, boolean matchSchedule, float matchThreshold) {
     this.ingestService = ingestService;
     this.secCtx = secCtx;
     this.workflowDefinition = workflowDefinition;
     this.workflowConfig = workflowConfig;
     this.mediaFlavor = MediaPackageElementFlavor.parseFlavor(mediaFlavor);
     this.inbox = inbox;
+    this.inboxWeight = inboxWeight;
+    this.scheduler = scheduler;
     this.executorService = Executors.newFixedThreadPool(maxThreads);
     this.completionService = new ExecutorCompletionService<>(executorService);
     this.seriesService = seriesService;
@@ -437,8 +462,15 @@ public class Ingestor implements Runnable {
 
   /**
    * Asynchronous ingest of an artifact.
+   *
+   * @throws IllegalStateException
+   *           if the ingest queue is full and the artifact has to be offered again later
    */
   public void ingest(final File artifact) {
+    if (!scheduler.offer(inbox.getAbsolutePath(), inboxWeight)) {
+      throw new IllegalStateException(format("Inbox ingest queue is full, postponing ingest of %s",
+              artifact.getName()));
+    }
     logger.info("Try ingest of file {}", artifact.getName());
     completionService.submit(new RetriableIngestJob(artifact, secondsBetweenTries));
   }
@@ -22,6 +22,7 @@
 package org.opencastproject.ingest.impl;
 
 import org.opencastproject.capture.CaptureParameters;
+import org.opencastproject.ingest.api.IngestException;
 import org.opencastproject.inspection.api.MediaInspectionService;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
@@ -32,6 +33,7 @@ import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.mediapackage.MediaPackageElement;
 import org.opencastproject.mediapackage.MediaPackageElementParser;
 import org.opencastproject.mediapackage.MediaPackageElements;
+import org.opencastproject.mediapackage.MediaPackageException;
 import org.opencastproject.mediapackage.MediaPackageParser;
 import org.opencastproject.mediapackage.Publication;
 import org.opencastproject.mediapackage.Track;
@@ -54,10 +56,13 @@ import org.opencastproject.security.api.UserDirectoryService;
 import org.opencastproject.series.api.SeriesService;
 import org.opencastproject.serviceregistry.api.IncidentService;
 import org.opencastproject.serviceregistry.api.ServiceRegistryInMemoryImpl;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.MimeTypes;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.XmlUtil;
 import org.opencastproject.util.data.Either;
+import org.opencastproject.workflow.api.WorkflowDatabaseException;
 import org.opencastproject.workflow.api.WorkflowDefinition;
 import org.opencastproject.workflow.api.WorkflowDefinitionImpl;
 import org.opencastproject.workflow.api.WorkflowInstance;
@@ -88,17 +93,23 @@ import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public class IngestServiceImplTest {
   private IngestServiceImpl service = null;
@@ -126,6 +137,7 @@ public class IngestServiceImplTest {
   private static File packageFile;
 
   private static long workflowInstanceID = 1L;
+  private static final String WRONG_CHECKSUM = "00000000000000000000000000000000";
   private ServiceRegistryInMemoryImpl serviceRegistry;
 
   private MediaPackage ingestMediaPackage;
@@ -727,6 +739,74 @@ public class IngestServiceImplTest {
     Assert.assertEquals(1, serviceRegistry.getJobs(IngestServiceImpl.JOB_TYPE, Job.Status.FAILED).size());
   }
 
+  @Test
+  public void testZippedMediaPackagePlacesEntriesDirectly() throws Exception {
+    File repository = new File(ingestTempDir, "repository");
+    service.setWorkingFileRepository(new LocalWorkingFileRepository(repository));
+    service.setSchedulerService(createSchedulerWithoutEvents());
+    Capture<MediaPackage> ingested = EasyMock.newCapture();
+    service.setWorkflowService(createWorkflowService(ingested, null));
+
+    String coverChecksum = Checksum.create(ChecksumType.DEFAULT_TYPE, new File(urlAttachment)).getValue();
+    service.addZippedMediaPackage(new ByteArrayInputStream(createZippedMediaPackage(coverChecksum, true)));
+
+    MediaPackage mp = ingested.getValue();
+    File track = new File(repository, "mediapackage/zip-ingest/track-1/vonly.mov");
+    Assert.assertTrue(FileUtils.contentEquals(new File(urlTrack1), track));
+    Assert.assertEquals(track.toURI(), mp.getTrack("track-1").getURI());
+    File attachment = new File(repository, "mediapackage/zip-ingest/attachment-1/cover.png");
+    Assert.assertTrue(FileUtils.contentEquals(new File(urlAttachment), attachment));
+    Assert.assertEquals(attachment.toURI(), mp.getAttachment("attachment-1").getURI());
+    Assert.assertTrue(FileUtils.listFiles(new File(repository, "collection"), null, true).isEmpty());
+
+    // Missing checksums are taken from the content, given ones are kept even if they don't match
+    Assert.assertEquals(Checksum.create(ChecksumType.DEFAULT_TYPE, new File(urlTrack1)),
+            mp.getTrack("track-1").getChecksum());
+    Assert.assertEquals(coverChecksum, mp.getAttachment("attachment-1").getChecksum().getValue());
+    Assert.assertEquals(WRONG_CHECKSUM, mp.getCatalog("catalog-1").getChecksum().getValue());
+  }
+
+  @Test
+  public void testZippedMediaPackageCleanupOnFailedIngest() throws Exception {
+    File repository = new File(ingestTempDir, "repository");
+    service.setWorkingFileRepository(new LocalWorkingFileRepository(repository));
+    service.setSchedulerService(createSchedulerWithoutEvents());
+    service.setWorkflowService(createWorkflowService(EasyMock.newCapture(), new WorkflowDatabaseException()));
+
+    try {
+      service.addZippedMediaPackage(new ByteArrayInputStream(createZippedMediaPackage(WRONG_CHECKSUM, true)));
+      Assert.fail("Ingest should have failed");
+    } catch (IngestException e) {
+      // Expected
+    }
+
+    Assert.assertTrue(FileUtils.listFiles(repository, null, true).isEmpty());
+  }
+
+  @Test
+  public void testZippedMediaPackageKeepsExistingElementsOnFailedIngest() throws Exception {
+    File repository = new File(ingestTempDir, "repository");
+    WorkingFileRepository repo = new LocalWorkingFileRepository(repository);
+    service.setWorkingFileRepository(repo);
+    service.setSchedulerService(createSchedulerWithoutEvents());
+    service.setWorkflowService(createWorkflowService(EasyMock.newCapture(), null));
+
+    byte[] existing = "existing".getBytes(StandardCharsets.UTF_8);
+    repo.put("zip-ingest", "track-1", "vonly.mov", new ByteArrayInputStream(existing));
+
+    // The manifest references an element that is missing in the zip
+    try {
+      service.addZippedMediaPackage(new ByteArrayInputStream(createZippedMediaPackage(WRONG_CHECKSUM, false)));
+      Assert.fail("Ingest should have failed");
+    } catch (MediaPackageException e) {
+      // Expected
+    }
+
+    Assert.assertArrayEquals(existing, IOUtils.toByteArray(repo.get("zip-ingest", "track-1")));
+    Assert.assertFalse(new File(repository, "mediapackage/zip-ingest/catalog-1").exists());
+    Assert.assertTrue(FileUtils.listFiles(new File(repository, "collection"), null, true).isEmpty());
+  }
+
   private void testEpisodeUpdateNewAndExisting() throws Exception {
     boolean isAddOnlyNew = service.isAddOnlyNew;
     MediaPackage partialIngestMediaPackage = MediaPackageParser
@@ -857,4 +937,144 @@ public class IngestServiceImplTest {
     Assert.assertEquals("Always create a new series catalog.", true, service.updateSeries(urlCatalog2));
   }
 
+  /**
+   * Creates a zipped media package with a track, a catalog with a wrong checksum and an attachment that comes before
+   * the manifest. An incomplete media package references a second catalog that is not part of the zip.
+   */
+  private byte[] createZippedMediaPackage(String attachmentChecksum, boolean complete) throws Exception {
+    String manifest = "<mediapackage xmlns=\"http://mediapackage.opencastproject.org\" id=\"zip-ingest\">"
+            + "<media><track id=\"track-1\" type=\"presentation/source\"><mimetype>video/quicktime</mimetype>"
+            + "<url>vonly.mov</url></track></media>"
+            + "<metadata><catalog id=\"catalog-1\" type=\"dublincore/episode\"><mimetype>text/xml</mimetype>"
+            + "<url>dublincore.xml</url><checksum type=\"md5\">" + WRONG_CHECKSUM + "</checksum></catalog>"
+            + (complete ? "" : "<catalog id=\"catalog-2\" type=\"dublincore/series\"><url>missing.xml</url></catalog>")
+            + "</metadata>"
+            + "<attachments><attachment id=\"attachment-1\" type=\"cover/source\"><mimetype>image/png</mimetype>"
+            + "<url>cover.png</url><checksum type=\"md5\">" + attachmentChecksum + "</checksum></attachment>"
+            + "</attachments></mediapackage>";
+    ByteArrayOutputStream zip = new ByteArrayOutputStream();
+    try (ZipOutputStream out = new ZipOutputStream(zip)) {
+      addZipEntry(out, "data/cover.png", FileUtils.readFileToByteArray(new File(urlAttachment)));
+      addZipEntry(out, "data/manifest.xml", manifest.getBytes(StandardCharsets.UTF_8));
+      addZipEntry(out, "data/vonly.mov", FileUtils.readFileToByteArray(new File(urlTrack1)));
+      addZipEntry(out, "data/dublincore.xml", FileUtils.readFileToByteArray(new File(urlCatalog1)));
+    }
+    return zip.toByteArray();
+  }
+
+  private void addZipEntry(ZipOutputStream out, String name, byte[] content) throws IOException {
+    // Stored entries carry their size in the header, like the ones written by capture agents
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(ZipEntry.STORED);
+    entry.setSize(content.length);
+    entry.setCompressedSize(content.length);
+    CRC32 crc = new CRC32();
+    crc.update(content);
+    entry.setCrc(crc.getValue());
+    out.putNextEntry(entry);
+    out.write(content);
+    out.closeEntry();
+  }
+
+  private SchedulerService createSchedulerWithoutEvents() throws Exception {
+    SchedulerService schedulerService = EasyMock.createNiceMock(SchedulerService.class);
+    EasyMock.expect(schedulerService.getMediaPackage(EasyMock.anyString())).andThrow(new NotFoundException())
+            .anyTimes();
+    EasyMock.expect(schedulerService.getCaptureAgentConfiguration(EasyMock.anyString()))
+            .andThrow(new NotFoundException()).anyTimes();
+    EasyMock.replay(schedulerService);
+    return schedulerService;
+  }
+
+  @SuppressWarnings("unchecked")
+  private WorkflowService createWorkflowService(Capture<MediaPackage> mediaPackage, Exception startFailure)
+          throws Exception {
+    WorkflowService workflowService = EasyMock.createNiceMock(WorkflowService.class);
+    EasyMock.expect(workflowService.getWorkflowDefinitionById(EasyMock.anyString()))
+            .andReturn(new WorkflowDefinitionImpl()).anyTimes();
+    if (startFailure == null) {
+      EasyMock.expect(workflowService.start(EasyMock.anyObject(WorkflowDefinition.class),
+              EasyMock.capture(mediaPackage), EasyMock.anyObject(Map.class))).andReturn(workflowInstance);
+    } else {
+      EasyMock.expect(workflowService.start(EasyMock.anyObject(WorkflowDefinition.class),
+              EasyMock.anyObject(MediaPackage.class), EasyMock.anyObject(Map.class))).andThrow(startFailure);
+    }
+    EasyMock.replay(workflowService);
+    return workflowService;
+  }
+
+  /**
+   * Working file repository keeping its files in a local directory.
+   */
+  private static class LocalWorkingFileRepository extends WorkingFileRepositoryImpl {
+    private final File root;
+
+    LocalWorkingFileRepository(File root) {
+      this.root = root;
+    }
+
+    private File getElementDirectory(String mediaPackageID, String mediaPackageElementID) {
+      return new File(root, "mediapackage/" + mediaPackageID + "/" + mediaPackageElementID);
+    }
+
+    private File getCollectionFile(String collectionId, String fileName) {
+      return new File(root, "collection/" + collectionId + "/" + fileName);
+    }
+
+    private URI write(File file, InputStream in) throws IOException {
+      try (OutputStream out = FileUtils.openOutputStream(file)) {
+        IOUtils.copy(in, out);
+      }
+      return file.toURI();
+    }
+
+    @Override
+    public URI put(String mediaPackageID, String mediaPackageElementID, String filename, InputStream in)
+            throws IOException {
+      File directory = getElementDirectory(mediaPackageID, mediaPackageElementID);
+      FileUtils.deleteDirectory(directory);
+      return write(new File(directory, filename), in);
+    }
+
+    @Override
+    public InputStream get(String mediaPackageID, String mediaPackageElementID)
+            throws NotFoundException, IOException {
+      File[] files = getElementDirectory(mediaPackageID, mediaPackageElementID).listFiles();
+      if (files == null || files.length == 0)
+        throw new NotFoundException();
+      return new FileInputStream(files[0]);
+    }
+
+    @Override
+    public boolean delete(String mediaPackageID, String mediaPackageElementID) throws IOException {
+      File directory = getElementDirectory(mediaPackageID, mediaPackageElementID);
+      boolean exists = directory.exists();
+      FileUtils.deleteDirectory(directory);
+      return exists;
+    }
+
+    @Override
+    public URI putInCollection(String collectionId, String fileName, InputStream in) throws IOException {
+      return write(getCollectionFile(collectionId, fileName), in);
+    }
+
+    @Override
+    public URI moveTo(String fromCollection, String fromFileName, String toMediaPackage,
+            String toMediaPackageElement, String toFileName) throws NotFoundException, IOException {
+      File source = getCollectionFile(fromCollection, fromFileName);
+      if (!source.isFile())
+        throw new NotFoundException();
+      File directory = getElementDirectory(toMediaPackage, toMediaPackageElement);
+      FileUtils.deleteDirectory(directory);
+      File target = new File(directory, toFileName);
+      FileUtils.moveFile(source, target);
+      return target.toURI();
+    }
+
+    @Override
+    public boolean deleteFromCollection(String collectionId, String fileName, boolean removeCollection) {
+      return FileUtils.deleteQuietly(getCollectionFile(collectionId, fileName));
+    }
+  }
+
 }
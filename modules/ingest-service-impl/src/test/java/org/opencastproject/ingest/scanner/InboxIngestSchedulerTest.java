@@ -0,0 +1,137 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.ingest.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.serviceregistry.api.SystemLoad;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+
+public class InboxIngestSchedulerTest {
+
+  private static InboxIngestScheduler newScheduler(String key, String value) {
+    InboxIngestScheduler scheduler = new InboxIngestScheduler();
+    Hashtable<String, String> properties = new Hashtable<>();
+    properties.put(key, value);
+    scheduler.updated(properties);
+    return scheduler;
+  }
+
+  private static void awaitWaiting(InboxIngestScheduler scheduler, int waiting) throws InterruptedException {
+    for (int i = 0; i < 100 && scheduler.getWaitingIngests() < waiting; i++) {
+      Thread.sleep(50);
+    }
+    assertEquals(waiting, scheduler.getWaitingIngests());
+  }
+
+  @Test
+  public void testQueueLimit() {
+    InboxIngestScheduler scheduler = newScheduler(InboxIngestScheduler.MAX_QUEUE, "2");
+    assertTrue(scheduler.offer("a", 1));
+    assertTrue(scheduler.offer("b", 1));
+    assertFalse(scheduler.offer("a", 1));
+    scheduler.requeue("a");
+    assertEquals(3, scheduler.getQueuedFiles());
+    assertEquals(1, scheduler.getRejectedFiles());
+  }
+
+  @Test
+  public void testWeights() throws Exception {
+    InboxIngestScheduler scheduler = newScheduler(InboxIngestScheduler.MAX_CONCURRENT, "1");
+    scheduler.offer("blocker", 1);
+    scheduler.acquire("blocker");
+
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> threads = new ArrayList<>();
+    for (String inbox : new String[] { "a", "a", "a", "a", "a", "a", "b", "b" }) {
+      scheduler.offer(inbox, "a".equals(inbox) ? 3 : 1);
+      Thread thread = new Thread(() -> {
+        try {
+          scheduler.acquire(inbox);
+          order.add(inbox);
+          scheduler.release(inbox);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    awaitWaiting(scheduler, 8);
+    assertEquals(1, scheduler.getRunningIngests());
+
+    scheduler.release("blocker");
+    for (Thread thread : threads) {
+      thread.join(5000);
+    }
+    assertEquals(8, order.size());
+    assertEquals(3, Collections.frequency(order.subList(0, 4), "a"));
+    assertEquals(0, scheduler.getQueuedFiles());
+    assertEquals(0, scheduler.getRunningIngests());
+    assertEquals(9, scheduler.getStartedIngests());
+  }
+
+  @Test
+  public void testClusterLoad() throws Exception {
+    SystemLoad load = new SystemLoad();
+    load.addNodeLoad(new SystemLoad.NodeLoad("http://worker", 9F, 10F));
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.getCurrentHostLoads()).andReturn(load).anyTimes();
+    EasyMock.replay(serviceRegistry);
+
+    InboxIngestScheduler scheduler = new InboxIngestScheduler();
+    scheduler.setServiceRegistry(serviceRegistry);
+    Hashtable<String, String> properties = new Hashtable<>();
+    properties.put(InboxIngestScheduler.MAX_LOAD, "0.8");
+    properties.put(InboxIngestScheduler.LOAD_CHECK_INTERVAL, "0");
+    scheduler.updated(properties);
+
+    scheduler.offer("a", 1);
+    Thread thread = new Thread(() -> {
+      try {
+        scheduler.acquire("a");
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    awaitWaiting(scheduler, 1);
+    assertEquals(0, scheduler.getRunningIngests());
+    assertEquals(0.9F, scheduler.getClusterLoad(), 0.001F);
+
+    load.get("http://worker").setCurrentLoad(2F);
+    thread.join(10000);
+    assertEquals(1, scheduler.getRunningIngests());
+    assertEquals(0, scheduler.getWaitingIngests());
+  }
+}
@@ -22,9 +22,22 @@
 package org.opencastproject.kernel.security;
 
 /**
- * An MxBean that exposes the number of open http connections to a JXM agent
+ * An MxBean that exposes the number of open http connections and the state of the shared connection pool to a JXM
+ * agent
  */
 public interface HttpConnectionMXBean {
   /** Gets the number of open http connections */
   int getOpenConnections();
+
+  /** Gets the number of pooled connections currently leased to a request */
+  int getLeasedConnections();
+
+  /** Gets the number of requests waiting for a pooled connection */
+  int getPendingConnections();
+
+  /** Gets the number of idle, kept-alive connections available in the pool */
+  int getAvailableConnections();
+
+  /** Gets the maximum number of connections the pool will keep open in total */
+  int getMaxConnections();
 }
@@ -22,8 +22,6 @@
 package org.opencastproject.kernel.security;
 
 import static org.opencastproject.security.util.SecurityUtil.hostAndPort;
-import static org.opencastproject.util.data.Collections.map;
-import static org.opencastproject.util.data.Collections.toList;
 import static org.opencastproject.util.data.Tuple.tuple;
 
 import org.opencastproject.kernel.security.persistence.OrganizationDatabase;
@@ -47,6 +45,7 @@ import org.slf4j.LoggerFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -54,6 +53,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implements the organizational directory. As long as no organizations are published in the service registry, the
@@ -319,67 +321,92 @@ public class OrganizationDirectoryServiceImpl implements OrganizationDirectorySe
   }
 
   /**
-   * Very simple cache that does a <em>complete</em> refresh after a given interval. This type of cache is only suitable
-   * for small sets.
+   * Cache of all organizations which does a <em>complete</em> refresh after a given interval or after it has been
+   * invalidated. This type of cache is only suitable for small sets.
+   * <p>
+   * The organizations are held in an immutable lookup table which is replaced as a whole on refresh, so lookups are
+   * lock-free. While the table is being refreshed, concurrent lookups keep using the previous one.
    */
   private static final class OrgCache {
-    private final Object lock = new Object();
+    private final Lock refreshLock = new ReentrantLock();
 
-    // A simple hash map is sufficient here.
-    // No need to deal with soft references or an LRU map since the number of organizations
-    // will be quite low.
-    private final Map<Tuple<String, Integer>, Organization> byHost = map();
-    private final Map<String, Organization> byId = map();
+    /** Incremented on every invalidation to discard tables built from outdated data */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Organizations organizations;
     private final long refreshInterval;
-    private long lastRefresh;
 
     private final OrganizationDatabase persistence;
 
     OrgCache(long refreshInterval, OrganizationDatabase persistence) {
       this.refreshInterval = refreshInterval;
       this.persistence = persistence;
-      invalidate();
     }
 
     public Organization get(URL url) {
-      synchronized (lock) {
-        refresh();
-        return byHost.get(hostAndPort(url));
-      }
+      return organizations().byHost.get(hostAndPort(url));
     }
 
     public Organization get(String id) {
-      synchronized (lock) {
-        refresh();
-        return byId.get(id);
-      }
+      return organizations().byId.get(id);
     }
 
     public List<Organization> getAll() {
-      synchronized (lock) {
-        refresh();
-        return toList(byId.values());
-      }
+      return organizations().all;
     }
 
     public void invalidate() {
-      this.lastRefresh = System.currentTimeMillis() - 2 * refreshInterval;
+      generation.incrementAndGet();
     }
 
-    private void refresh() {
-      final long now = System.currentTimeMillis();
-      if (now - lastRefresh > refreshInterval) {
-        byId.clear();
-        byHost.clear();
-        for (Organization org : persistence.getOrganizations()) {
-          byId.put(org.getId(), org);
-          // (host, port)
-          for (Map.Entry<String, Integer> server : org.getServers().entrySet()) {
-            byHost.put(tuple(server.getKey(), server.getValue()), org);
-          }
+    private Organizations organizations() {
+      final Organizations current = organizations;
+      if (current != null && current.isValid(generation.get(), refreshInterval)) {
+        return current;
+      }
+      // Only wait for the refresh if there is nothing to serve yet
+      if (current == null) {
+        refreshLock.lock();
+      } else if (!refreshLock.tryLock()) {
+        return current;
+      }
+      try {
+        final long gen = generation.get();
+        if (organizations == null || !organizations.isValid(gen, refreshInterval)) {
+          organizations = new Organizations(persistence.getOrganizations(), gen);
         }
-        lastRefresh = now;
+        return organizations;
+      } finally {
+        refreshLock.unlock();
       }
     }
   }
+
+  /** Immutable lookup table of all organizations by identifier and by (host, port). */
+  private static final class Organizations {
+    private final Map<Tuple<String, Integer>, Organization> byHost;
+    private final Map<String, Organization> byId;
+    private final List<Organization> all;
+    private final long generation;
+    private final long created = System.currentTimeMillis();
+
+    Organizations(List<Organization> organizations, long generation) {
+      final Map<Tuple<String, Integer>, Organization> byHost = new HashMap<>();
+      final Map<String, Organization> byId = new HashMap<>();
+      for (Organization org : organizations) {
+        byId.put(org.getId(), org);
+        for (Map.Entry<String, Integer> server : org.getServers().entrySet()) {
+          byHost.put(tuple(server.getKey(), server.getValue()), org);
+        }
+      }
+      this.byHost = Collections.unmodifiableMap(byHost);
+      this.byId = Collections.unmodifiableMap(byId);
+      this.all = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+      this.generation = generation;
+    }
+
+    boolean isValid(long currentGeneration, long refreshInterval) {
+      return generation == currentGeneration && System.currentTimeMillis() - created <= refreshInterval;
+    }
+  }
 }
@@ -112,20 +112,22 @@ public class OrganizationFilter implements Filter {
           ServletException {
     HttpServletRequest httpRequest = (HttpServletRequest) request;
     HttpServletResponse httpResponse = (HttpServletResponse) response;
-    URL url = new URL(httpRequest.getRequestURL().toString());
+    URL url = null;
 
     Organization org = null;
 
     try {
 
-      try {
-        org = organizationDirectory.getOrganization(url);
-      } catch (NotFoundException e) {
-        logger.trace("No organization mapped to {}", url);
-        List<Organization> orgs = organizationDirectory.getOrganizations();
-        if (orgs.size() == 1) {
-          org = orgs.get(0);
-          logger.trace("Defaulting organization to {}", org);
+      // A single organization handles all requests, no matter which server they are addressed to
+      List<Organization> orgs = organizationDirectory.getOrganizations();
+      if (orgs.size() == 1) {
+        org = orgs.get(0);
+      } else {
+        url = new URL(httpRequest.getRequestURL().toString());
+        try {
+          org = organizationDirectory.getOrganization(url);
+        } catch (NotFoundException e) {
+          logger.trace("No organization mapped to {}", url);
         }
       }
 
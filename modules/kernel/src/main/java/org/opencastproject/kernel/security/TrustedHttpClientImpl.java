@@ -41,6 +41,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -48,14 +49,20 @@ import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.impl.auth.DigestScheme;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -66,11 +73,13 @@ import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
@@ -118,6 +127,39 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
   public static final String NONCE_TIMEOUT_RETRY_MAXIMUM_VARIABLE_TIME_KEY =
     "org.opencastproject.security.digest.nonce.variable.time";
 
+  /** The configuration property specifying the maximum number of pooled connections in total */
+  public static final String CONNECTION_POOL_MAX_TOTAL_KEY = "org.opencastproject.security.http.pool.max.total";
+
+  /** The configuration property specifying the maximum number of pooled connections per target host */
+  public static final String CONNECTION_POOL_MAX_PER_ROUTE_KEY = "org.opencastproject.security.http.pool.max.per.host";
+
+  /** The configuration property specifying the time in seconds after which idle pooled connections are closed */
+  public static final String CONNECTION_POOL_IDLE_TIMEOUT_KEY = "org.opencastproject.security.http.pool.idle.timeout";
+
+  /**
+   * The configuration property specifying the time in seconds a digest nonce obtained from a host is reused for
+   * subsequent requests to that host. Set to 0 to request a new nonce for every request.
+   */
+  public static final String NONCE_REUSE_TIME_KEY = "org.opencastproject.security.digest.nonce.reuse.time";
+
+  /** The default maximum number of pooled connections in total */
+  public static final int DEFAULT_CONNECTION_POOL_MAX_TOTAL = 200;
+
+  /** The default maximum number of pooled connections per target host */
+  public static final int DEFAULT_CONNECTION_POOL_MAX_PER_ROUTE = 20;
+
+  /** The default time in seconds after which idle pooled connections are closed */
+  public static final int DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT = 60;
+
+  /**
+   * The default time in seconds a digest nonce is reused. This needs to stay well below the nonce validity configured
+   * for the digest filter of the remote servers (300 seconds by default).
+   */
+  public static final int DEFAULT_NONCE_REUSE_TIME = 60;
+
+  /** The time in milliseconds after which an idle pooled connection is validated before it is leased again */
+  private static final int CONNECTION_POOL_VALIDATE_AFTER_INACTIVITY = 2000;
+
   /** The default time until a connection attempt fails */
   public static final int DEFAULT_CONNECTION_TIMEOUT = 60 * 1000;
 
@@ -151,8 +193,23 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
   /** The number of times to retry a request after a nonce timeout. */
   private int nonceTimeoutRetries = DEFAULT_NONCE_TIMEOUT_RETRIES;
 
-  /** The map of open responses to their http clients, which need to be closed after we are finished with the response */
-  protected Map<HttpResponse, CloseableHttpClient> responseMap = new ConcurrentHashMap<>();
+  /**
+   * The map of open responses to their resources (the raw response and its http client), which need to be closed after
+   * we are finished with the response to release the connection back to the pool
+   */
+  protected Map<HttpResponse, Closeable> responseMap = new ConcurrentHashMap<>();
+
+  /** The connection pool shared by all requests of this node */
+  private PoolingHttpClientConnectionManager connectionManager = null;
+
+  /** Closes expired and idle connections of the pool */
+  private IdleConnectionEvictor connectionEvictor = null;
+
+  /** The realm and nonce last obtained from a host, along with the time they were obtained */
+  private final Map<HttpHost, DigestChallenge> digestChallenges = new ConcurrentHashMap<>();
+
+  /** The time in milliseconds a digest nonce is reused for requests to the same host */
+  private long nonceReuseTime = DEFAULT_NONCE_REUSE_TIME * MILLISECONDS_IN_SECONDS;
 
   /** Used to add a random amount of time up to retryMaximumVariableTime to retry a request after a nonce timeout. */
   private final Random generator = new Random();
@@ -186,6 +243,26 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
     getRetryNumber(cc);
     getRetryBaseTime(cc);
     getRetryMaximumVariableTime(cc);
+    nonceReuseTime = (long) getIntFromComponentContext(cc, NONCE_REUSE_TIME_KEY, DEFAULT_NONCE_REUSE_TIME)
+            * MILLISECONDS_IN_SECONDS;
+    digestChallenges.clear();
+
+    // set up the connection pool shared by all requests
+    final int maxTotal = getIntFromComponentContext(cc, CONNECTION_POOL_MAX_TOTAL_KEY,
+            DEFAULT_CONNECTION_POOL_MAX_TOTAL);
+    final int maxPerRoute = getIntFromComponentContext(cc, CONNECTION_POOL_MAX_PER_ROUTE_KEY,
+            DEFAULT_CONNECTION_POOL_MAX_PER_ROUTE);
+    final int idleTimeout = getIntFromComponentContext(cc, CONNECTION_POOL_IDLE_TIMEOUT_KEY,
+            DEFAULT_CONNECTION_POOL_IDLE_TIMEOUT);
+    shutdownConnectionPool();
+    connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    connectionManager.setValidateAfterInactivity(CONNECTION_POOL_VALIDATE_AFTER_INACTIVITY);
+    connectionEvictor = new IdleConnectionEvictor(connectionManager, idleTimeout, TimeUnit.SECONDS);
+    connectionEvictor.start();
+    logger.debug("Pooling up to {} http connections ({} per host), closing them after {} seconds of idling",
+            maxTotal, maxPerRoute, idleTimeout);
 
     // register with jmx
     try {
@@ -320,6 +397,20 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
   @Deactivate
   public void deactivate() {
     logger.debug("deactivate");
+    shutdownConnectionPool();
+    digestChallenges.clear();
+  }
+
+  /** Closes all pooled connections and stops the idle connection eviction. */
+  private void shutdownConnectionPool() {
+    if (connectionEvictor != null) {
+      connectionEvictor.shutdown();
+      connectionEvictor = null;
+    }
+    if (connectionManager != null) {
+      connectionManager.shutdown();
+      connectionManager = null;
+    }
   }
 
   public TrustedHttpClientImpl() {
@@ -330,12 +421,42 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
     this.pass = pass;
   }
 
-  /** Creates a new HttpClientBuilder to use for making requests. */
+  /**
+   * Creates a new HttpClientBuilder to use for making requests. Clients built from it lease their connections from the
+   * shared connection pool, so closing such a client does not close the pooled connections.
+   */
   public HttpClientBuilder makeHttpClientBuilder(int connectionTimeout, int socketTimeout) {
     RequestConfig config = RequestConfig.custom()
         .setConnectionRequestTimeout(connectionTimeout)
+        .setConnectTimeout(connectionTimeout)
         .setSocketTimeout(socketTimeout).build();
-    return HttpClientBuilder.create().setDefaultRequestConfig(config);
+    final HttpClientBuilder builder = HttpClientBuilder.create().setDefaultRequestConfig(config);
+    final PoolingHttpClientConnectionManager pool = connectionManager;
+    if (pool != null) {
+      builder.setConnectionManager(pool).setConnectionManagerShared(true);
+    }
+    return builder;
+  }
+
+  /**
+   * Creates the handle releasing the resources of a response.
+   *
+   * @param response
+   *         the raw response, which releases its connection back to the pool once closed
+   * @param httpClient
+   *         the client that executed the request
+   * @return the handle closing both
+   */
+  private static Closeable releaseOf(CloseableHttpResponse response, CloseableHttpClient httpClient) {
+    return () -> {
+      try {
+        if (response != null) {
+          response.close();
+        }
+      } finally {
+        httpClient.close();
+      }
+    };
   }
 
   /**
@@ -380,8 +501,9 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
       // Run the request (the http client handles the multiple back-and-forth requests)
       try {
         httpUriRequest = getSignedUrl(httpUriRequest);
-        HttpResponse response = new HttpResponseWrapper(httpClient.execute(httpUriRequest));
-        responseMap.put(response, httpClient);
+        final CloseableHttpResponse rawResponse = httpClient.execute(httpUriRequest);
+        HttpResponse response = new HttpResponseWrapper(rawResponse);
+        responseMap.put(response, releaseOf(rawResponse, httpClient));
         return response;
       } catch (IOException e) {
         try {
@@ -397,13 +519,21 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
       // request), so we need to handle the details of the digest auth back-and-forth manually
       manuallyHandleDigestAuthentication(httpUriRequest, httpClient);
       HttpResponse response = null;
+      CloseableHttpResponse rawResponse = null;
       try {
-        response = new HttpResponseWrapper(httpClient.execute(httpUriRequest));
-        if (nonceTimeoutRetries > 0 && hadNonceTimeoutResponse(response)) {
-          httpClient.close();
-          response = retryAuthAndRequestAfterNonceTimeout(httpUriRequest, response);
+        rawResponse = httpClient.execute(httpUriRequest);
+        response = new HttpResponseWrapper(rawResponse);
+        if (hadNonceTimeoutResponse(response)) {
+          // the nonce we used is no longer accepted, so do not hand it out again
+          digestChallenges.remove(URIUtils.extractHost(httpUriRequest.getURI()));
+          if (nonceTimeoutRetries > 0) {
+            EntityUtils.consumeQuietly(rawResponse.getEntity());
+            releaseOf(rawResponse, httpClient).close();
+            rawResponse = null;
+            return retryAuthAndRequestAfterNonceTimeout(httpUriRequest, response);
+          }
         }
-        responseMap.put(response, httpClient);
+        responseMap.put(response, releaseOf(rawResponse, httpClient));
         return response;
       } catch (Exception e) {
         // if we have a response, remove it from the map
@@ -412,7 +542,7 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
         }
         // close the http connection(s)
         try {
-          httpClient.close();
+          releaseOf(rawResponse, httpClient).close();
         } catch (IOException ioException) {
           throw new TrustedHttpClientException(e);
         }
@@ -493,12 +623,15 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
         }
       }
       manuallyHandleDigestAuthentication(httpUriRequest, httpClient);
-      response = new HttpResponseWrapper(httpClient.execute(httpUriRequest));
-      if (!hadNonceTimeoutResponse(response)) {
-        responseMap.put(response, httpClient);
+      final CloseableHttpResponse rawResponse = httpClient.execute(httpUriRequest);
+      response = new HttpResponseWrapper(rawResponse);
+      if (!hadNonceTimeoutResponse(response) || i == nonceTimeoutRetries - 1) {
+        responseMap.put(response, releaseOf(rawResponse, httpClient));
         break;
       }
-      httpClient.close();
+      digestChallenges.remove(URIUtils.extractHost(httpUriRequest.getURI()));
+      EntityUtils.consumeQuietly(rawResponse.getEntity());
+      releaseOf(rawResponse, httpClient).close();
     }
     return response;
   }
@@ -535,7 +668,7 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
     }
     digestRequest.setURI(httpUriRequest.getURI());
     digestRequest.setHeader(REQUESTED_AUTH_HEADER, DIGEST_AUTH);
-    String[] realmAndNonce = getRealmAndNonce(digestRequest);
+    String[] realmAndNonce = getCachedRealmAndNonce(digestRequest);
 
     if (realmAndNonce != null) {
       // Set the user/pass
@@ -569,15 +702,40 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
   @Override
   public void close(HttpResponse response) throws IOException {
     if (response != null) {
-      CloseableHttpClient httpClient = responseMap.remove(response);
-      if (httpClient != null) {
-        httpClient.close();
+      Closeable resources = responseMap.remove(response);
+      if (resources != null) {
+        resources.close();
       }
     } else {
       logger.debug("Can not close a null response");
     }
   }
 
+  /**
+   * Get the realm and nonce of the request's target host, reusing the values obtained by a previous request to the same
+   * host if they are recent enough.
+   *
+   * @param request
+   *         The request to execute in order to obtain the realm and nonce if there are no recent values to reuse
+   * @return A String[] containing the {realm, nonce}
+   */
+  private String[] getCachedRealmAndNonce(HttpRequestBase request) throws TrustedHttpClientException {
+    final HttpHost host = URIUtils.extractHost(request.getURI());
+    if (host == null || nonceReuseTime <= 0) {
+      return getRealmAndNonce(request);
+    }
+    final long now = System.currentTimeMillis();
+    final DigestChallenge cached = digestChallenges.get(host);
+    if (cached != null && now - cached.obtained < nonceReuseTime) {
+      return cached.realmAndNonce;
+    }
+    final String[] realmAndNonce = getRealmAndNonce(request);
+    if (realmAndNonce != null && realmAndNonce[1] != null) {
+      digestChallenges.put(host, new DigestChallenge(realmAndNonce, now));
+    }
+    return realmAndNonce;
+  }
+
   /**
    * Perform a request, and extract the realm and nonce values
    *
@@ -589,8 +747,10 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
     CloseableHttpClient httpClient = makeHttpClientBuilder(DEFAULT_CONNECTION_TIMEOUT, DEFAULT_SOCKET_TIMEOUT).build();
     HttpResponse response;
     try {
-      try {
-        response = new HttpResponseWrapper(httpClient.execute(request));
+      try (CloseableHttpResponse rawResponse = httpClient.execute(request)) {
+        response = new HttpResponseWrapper(rawResponse);
+        // consume the challenge so that the connection can be kept alive
+        EntityUtils.consumeQuietly(rawResponse.getEntity());
         Header[] headers = response.getHeaders("WWW-Authenticate");
         if (headers == null || headers.length == 0) {
           logger.warn("URI {} does not support digest authentication", request.getURI());
@@ -620,6 +780,37 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
     return responseMap.size();
   }
 
+  @Override
+  public int getLeasedConnections() {
+    return getPoolStats().getLeased();
+  }
+
+  @Override
+  public int getPendingConnections() {
+    return getPoolStats().getPending();
+  }
+
+  @Override
+  public int getAvailableConnections() {
+    return getPoolStats().getAvailable();
+  }
+
+  @Override
+  public int getMaxConnections() {
+    return getPoolStats().getMax();
+  }
+
+  /**
+   * @return The usage statistics of the shared connection pool, or empty statistics if there is no pool.
+   */
+  private PoolStats getPoolStats() {
+    final PoolingHttpClientConnectionManager pool = connectionManager;
+    if (pool == null) {
+      return new PoolStats(0, 0, 0, 0);
+    }
+    return pool.getTotalStats();
+  }
+
   /**
    * @return Returns the number of times the TrustedHttpClient will retry a request if nonce timeouts are occuring.
    */
@@ -641,4 +832,15 @@ public class TrustedHttpClientImpl implements TrustedHttpClient, HttpConnectionM
     return retryMaximumVariableTime;
   }
 
+  /** The realm and nonce obtained from a host */
+  private static final class DigestChallenge {
+    private final String[] realmAndNonce;
+    private final long obtained;
+
+    private DigestChallenge(String[] realmAndNonce, long obtained) {
+      this.realmAndNonce = realmAndNonce;
+      this.obtained = obtained;
+    }
+  }
+
 }
@@ -28,6 +28,7 @@ import static org.junit.Assert.fail;
 
 import org.opencastproject.kernel.security.persistence.OrganizationDatabase;
 import org.opencastproject.kernel.security.persistence.OrganizationDatabaseException;
+import org.opencastproject.security.api.JaxbOrganization;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.util.NotFoundException;
 
@@ -35,9 +36,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.osgi.service.cm.ConfigurationException;
 
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Test class for {@link OrganizationDirectoryServiceImpl}
@@ -169,4 +174,70 @@ public class OrganizationDirectoryServiceTest {
       fail("Configuration exception occured");
     }
   }
+
+  @Test
+  public void testOrganizationLookup() throws Exception {
+    final List<Organization> organizations = new ArrayList<>();
+    final AtomicInteger reads = new AtomicInteger();
+    OrganizationDatabase organizationDatabase = new OrganizationDatabase() {
+      @Override
+      public void storeOrganization(Organization organization) {
+        organizations.add(organization);
+      }
+
+      @Override
+      public List<Organization> getOrganizations() {
+        reads.incrementAndGet();
+        return new ArrayList<>(organizations);
+      }
+
+      @Override
+      public Organization getOrganizationByHost(String host, int port) throws NotFoundException {
+        throw new NotFoundException();
+      }
+
+      @Override
+      public Organization getOrganization(String orgId) throws NotFoundException {
+        throw new NotFoundException();
+      }
+
+      @Override
+      public void deleteOrganization(String orgId) {
+      }
+
+      @Override
+      public int countOrganizations() {
+        return organizations.size();
+      }
+
+      @Override
+      public boolean containsOrganization(String orgId) {
+        return organizations.stream().anyMatch(org -> org.getId().equals(orgId));
+      }
+    };
+
+    OrganizationDirectoryServiceImpl directory = new OrganizationDirectoryServiceImpl();
+    directory.setOrgPersistence(organizationDatabase);
+    directory.addOrganization(new JaxbOrganization("org1", "Org 1", Collections.singletonMap("org1.example.org", 443),
+            "ROLE_ADMIN", "ROLE_ANONYMOUS", Collections.emptyMap()));
+
+    assertEquals("org1", directory.getOrganization(new URL("https://org1.example.org/engage")).getId());
+    assertEquals("org1", directory.getOrganization("org1").getId());
+    assertEquals(1, directory.getOrganizations().size());
+    assertEquals(1, reads.get());
+
+    // Changes are visible right away
+    directory.addOrganization(new JaxbOrganization("org2", "Org 2", Collections.singletonMap("org2.example.org", 80),
+            "ROLE_ADMIN", "ROLE_ANONYMOUS", Collections.emptyMap()));
+    assertEquals("org2", directory.getOrganization(new URL("http://org2.example.org/")).getId());
+    assertEquals(2, directory.getOrganizations().size());
+    assertEquals(2, reads.get());
+
+    try {
+      directory.getOrganization(new URL("http://org1.example.org/"));
+      fail("Organization mapped to wrong port");
+    } catch (NotFoundException e) {
+      // expected
+    }
+  }
 }
@@ -131,6 +131,12 @@ public class TrustedHttpClientImplTest {
         .andReturn(new BasicStatusLine(new ProtocolVersion("Http", 1, 1), 401, "Nonce has expired/timed out"))
         .anyTimes();
     expect(nonceResponse.getHeaders("WWW-Authenticate")).andReturn(new Header[] {}).anyTimes();
+    // Responses are consumed and closed to release their pooled connections
+    for (CloseableHttpResponse response : new CloseableHttpResponse[] { okResponse, digestResponse, nonceResponse }) {
+      expect(response.getEntity()).andReturn(null).anyTimes();
+      response.close();
+      EasyMock.expectLastCall().anyTimes();
+    }
     replay(okResponse, digestResponse, nonceResponse);
   }
 
@@ -145,6 +151,28 @@ public class TrustedHttpClientImplTest {
     }
   }
 
+  @Test
+  public void connectionPoolPropertiesSetOkay() {
+    bundleContextMock = createNiceMock(BundleContext.class);
+    expect(bundleContextMock.getProperty(TrustedHttpClientImpl.DIGEST_AUTH_USER_KEY)).andReturn("u");
+    expect(bundleContextMock.getProperty(TrustedHttpClientImpl.DIGEST_AUTH_PASS_KEY)).andReturn("p");
+    expect(bundleContextMock.getProperty(TrustedHttpClientImpl.CONNECTION_POOL_MAX_TOTAL_KEY)).andReturn("42")
+            .anyTimes();
+    replay(bundleContextMock);
+    componentContextMock = createNiceMock(ComponentContext.class);
+    expect(componentContextMock.getBundleContext()).andReturn(bundleContextMock).anyTimes();
+    replay(componentContextMock);
+
+    client = new TrustedHttpClientImpl("u", "p");
+    client.activate(componentContextMock);
+    Assert.assertEquals(42, client.getMaxConnections());
+    Assert.assertEquals(0, client.getLeasedConnections());
+    Assert.assertEquals(0, client.getPendingConnections());
+
+    client.deactivate();
+    Assert.assertEquals(0, client.getMaxConnections());
+  }
+
   @Test
   public void nonceTimeoutRetryPropertySetsOkay() {
     // Test Default value
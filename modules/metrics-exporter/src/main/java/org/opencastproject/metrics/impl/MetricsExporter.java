@@ -23,6 +23,8 @@ package org.opencastproject.metrics.impl;
 
 import org.opencastproject.assetmanager.api.AssetManager;
 import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobProgress;
+import org.opencastproject.job.api.ProcessingMetrics;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.serviceregistry.api.ServiceRegistration;
@@ -37,6 +39,7 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.Version;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
@@ -47,6 +50,7 @@ import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletResponse;
@@ -58,6 +62,7 @@ import javax.ws.rs.core.Response;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
 import io.prometheus.client.exporter.common.TextFormat;
 import io.prometheus.client.hotspot.DefaultExports;
 
@@ -84,7 +89,7 @@ import io.prometheus.client.hotspot.DefaultExports;
         "This can be used by <a href=https://prometheus.io>Prometheus</a>"
     }
 )
-public class MetricsExporter {
+public class MetricsExporter implements ProcessingMetrics.Recorder {
   /** The logger */
   private static final Logger logger = LoggerFactory.getLogger(MetricsExporter.class);
 
@@ -127,6 +132,64 @@ public class MetricsExporter {
       .register();
   private Gauge eventsInAssetManager;
 
+  // Processing times range from milliseconds for simple operations to hours for encoding jobs
+  private static final double[] PROCESSING_TIME_BUCKETS = {
+      0.1, 0.5, 1, 5, 15, 30, 60, 120, 300, 600, 1200, 1800, 3600, 7200, 14400 };
+
+  private final Histogram jobDispatchWait = Histogram.build()
+      .name("opencast_job_dispatch_wait_seconds")
+      .help("Time between creating and starting a job")
+      .labelNames("job_type", "operation")
+      .buckets(PROCESSING_TIME_BUCKETS)
+      .register();
+  private final Histogram jobExecutionTime = Histogram.build()
+      .name("opencast_job_execution_seconds")
+      .help("Time between starting and terminating a job")
+      .labelNames("job_type", "operation", "status")
+      .buckets(PROCESSING_TIME_BUCKETS)
+      .register();
+  private final Histogram workflowOperationQueueWait = Histogram.build()
+      .name("opencast_workflow_operation_queue_wait_seconds")
+      .help("Time a workflow operation spent waiting for its jobs to be dispatched")
+      .labelNames("operation")
+      .buckets(PROCESSING_TIME_BUCKETS)
+      .register();
+  private final Histogram workflowOperationRunTime = Histogram.build()
+      .name("opencast_workflow_operation_run_seconds")
+      .help("Time it took to execute a workflow operation")
+      .labelNames("operation", "outcome")
+      .buckets(PROCESSING_TIME_BUCKETS)
+      .register();
+
+  // Jobs not reporting any progress for this long are considered stalled
+  private static final long PROGRESS_STALLED_AFTER = 60000L;
+
+  private final Gauge jobProgressRunning = Gauge.build()
+      .name("opencast_job_progress_running")
+      .help("Jobs reporting their progress on this node")
+      .labelNames("job_type", "operation")
+      .register();
+  private final Gauge jobProgressStalled = Gauge.build()
+      .name("opencast_job_progress_stalled")
+      .help("Jobs on this node which have not reported any progress for a minute")
+      .labelNames("job_type", "operation")
+      .register();
+  private final Gauge jobProgressSpeed = Gauge.build()
+      .name("opencast_job_progress_speed")
+      .help("Sum of the current processing speeds of the jobs on this node as a multiple of real time")
+      .labelNames("job_type", "operation")
+      .register();
+  private final Counter processedMediaTime = Counter.build()
+      .name("opencast_job_processed_media_seconds_total")
+      .help("Media time processed by the jobs on this node")
+      .register();
+  private final Counter processedFrames = Counter.build()
+      .name("opencast_job_processed_frames_total")
+      .help("Frames processed by the jobs on this node")
+      .register();
+  private long lastProcessedMediaTime = 0L;
+  private long lastProcessedFrames = 0L;
+
   /** OSGi services */
   private ServiceRegistry serviceRegistry;
   private OrganizationDirectoryService organizationDirectoryService;
@@ -138,6 +201,30 @@ public class MetricsExporter {
     this.version.labels("major").set(version.getMajor());
     this.version.labels("minor").set(version.getMinor());
     DefaultExports.initialize();
+    ProcessingMetrics.setRecorder(this);
+  }
+
+  @Deactivate
+  public void deactivate() {
+    ProcessingMetrics.removeRecorder(this);
+  }
+
+  @Override
+  public void recordJob(String jobType, String operation, Job.Status status, Long dispatchWait, Long executionTime) {
+    if (dispatchWait != null) {
+      jobDispatchWait.labels(Objects.toString(jobType, ""), Objects.toString(operation, ""))
+          .observe(dispatchWait / 1000.0);
+    }
+    if (executionTime != null) {
+      jobExecutionTime.labels(Objects.toString(jobType, ""), Objects.toString(operation, ""), status.name())
+          .observe(executionTime / 1000.0);
+    }
+  }
+
+  @Override
+  public void recordWorkflowOperation(String operation, String outcome, long queueWait, long runTime) {
+    workflowOperationQueueWait.labels(operation).observe(queueWait / 1000.0);
+    workflowOperationRunTime.labels(operation, outcome).observe(runTime / 1000.0);
   }
 
   @GET
@@ -212,12 +299,40 @@ public class MetricsExporter {
       }
     }
 
+    // track the progress of the jobs running on this node
+    trackJobProgress();
+
     // collect metrics
     final StringWriter writer = new StringWriter();
     TextFormat.write004(writer, registry.metricFamilySamples());
     return Response.ok().entity(writer.toString()).build();
   }
 
+  /**
+   * Updates the metrics derived from the progress reported by the jobs running on this node.
+   */
+  private synchronized void trackJobProgress() {
+    final long now = System.currentTimeMillis();
+    jobProgressRunning.clear();
+    jobProgressStalled.clear();
+    jobProgressSpeed.clear();
+    for (JobProgress progress : JobProgress.getRunning()) {
+      final String jobType = Objects.toString(progress.getJobType(), "");
+      final String operation = Objects.toString(progress.getOperation(), "");
+      jobProgressRunning.labels(jobType, operation).inc();
+      jobProgressStalled.labels(jobType, operation).inc(now - progress.getUpdated() > PROGRESS_STALLED_AFTER ? 1 : 0);
+      jobProgressSpeed.labels(jobType, operation).inc(progress.getSpeed());
+    }
+
+    // the totals only ever grow, so the counters follow them
+    final long mediaTime = JobProgress.getTotalProcessedTime();
+    processedMediaTime.inc((mediaTime - lastProcessedMediaTime) / 1000.0);
+    lastProcessedMediaTime = mediaTime;
+    final long frames = JobProgress.getTotalFrames();
+    processedFrames.inc(frames - lastProcessedFrames);
+    lastProcessedFrames = frames;
+  }
+
   @Reference
   public void setServiceRegistry(ServiceRegistry service) {
     this.serviceRegistry = service;
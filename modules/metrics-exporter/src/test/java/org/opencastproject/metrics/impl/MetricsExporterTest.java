@@ -24,6 +24,7 @@ package org.opencastproject.metrics.impl;
 import org.opencastproject.assetmanager.api.AssetManager;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.job.api.ProcessingMetrics;
 import org.opencastproject.security.api.DefaultOrganization;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
@@ -99,9 +100,28 @@ public class MetricsExporterTest {
     exporter.setOrganizationDirectoryService(directoryService);
     exporter.setAssetManager(assetManager);
 
+    // record processing times
+    Job encode = new JobImpl();
+    encode.setJobType("org.opencastproject.composer");
+    encode.setOperation("Encode");
+    encode.setStatus(Job.Status.FINISHED);
+    encode.setQueueTime(2000L);
+    encode.setRunTime(45000L);
+    ProcessingMetrics.setRecorder(exporter);
+    ProcessingMetrics.jobTerminated(encode);
+    ProcessingMetrics.workflowOperationExecuted("encode", "SUCCEEDED", 2000L, 47000L);
+    ProcessingMetrics.removeRecorder(exporter);
+
     // test exporter
     final String body = exporter.metrics().getEntity().toString();
     Assert.assertTrue(body.contains("opencast_job_load_max{host=\"opencast.org\",} 12.3"));
     Assert.assertTrue(body.contains("opencast_asset_manager_events{organization=\"mh_default_org\",} 5.0"));
+    Assert.assertTrue(body.contains("opencast_job_execution_seconds_bucket{job_type=\"org.opencastproject.composer\","
+        + "operation=\"Encode\",status=\"FINISHED\",le=\"60.0\",} 1.0"));
+    Assert.assertTrue(body.contains("opencast_job_dispatch_wait_seconds_count{"
+        + "job_type=\"org.opencastproject.composer\",operation=\"Encode\",} 1.0"));
+    Assert.assertTrue(body.contains("opencast_workflow_operation_run_seconds_bucket{operation=\"encode\","
+        + "outcome=\"SUCCEEDED\",le=\"30.0\",} 0.0"));
+    Assert.assertTrue(body.contains("opencast_workflow_operation_queue_wait_seconds_sum{operation=\"encode\",} 2.0"));
   }
 }
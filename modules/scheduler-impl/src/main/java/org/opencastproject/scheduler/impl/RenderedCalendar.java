@@ -0,0 +1,124 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.scheduler.impl;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.ComponentList;
+import net.fortuna.ical4j.model.component.CalendarComponent;
+import net.fortuna.ical4j.model.component.VEvent;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A calendar rendered to iCalendar once, from which feeds for any cutoff date can be assembled without rendering the
+ * events again.
+ */
+final class RenderedCalendar {
+
+  /** The line ending a calendar */
+  private static final String END = "END:VCALENDAR";
+
+  /** A rendered event */
+  private static final class Event {
+    private final long start;
+    private final long end;
+    private final String text;
+
+    Event(long start, long end, String text) {
+      this.start = start;
+      this.end = end;
+      this.text = text;
+    }
+  }
+
+  private final String header;
+
+  private final String footer;
+
+  private final List<Event> events;
+
+  private final String lastModified;
+
+  private final int length;
+
+  /**
+   * Renders a calendar.
+   *
+   * @param calendar
+   *          the calendar
+   * @param lastModified
+   *          the last modified tag of the schedule the calendar was generated from or <code>null</code>
+   */
+  RenderedCalendar(Calendar calendar, String lastModified) {
+    // A calendar is rendered as its header, followed by its components and the end line
+    final Calendar empty = new Calendar(calendar.getProperties(), new ComponentList<>());
+    final String text = empty.toString();
+    final int footerStart = text.lastIndexOf(END);
+    this.header = text.substring(0, footerStart);
+    this.footer = text.substring(footerStart);
+    this.lastModified = lastModified;
+    this.events = new ArrayList<>(calendar.getComponents().size());
+    int length = header.length() + footer.length();
+    for (CalendarComponent component : calendar.getComponents()) {
+      final String rendered = component.toString();
+      if (component instanceof VEvent) {
+        final VEvent event = (VEvent) component;
+        events.add(new Event(event.getStartDate().getDate().getTime(), event.getEndDate().getDate().getTime(),
+                rendered));
+      } else {
+        events.add(new Event(Long.MIN_VALUE, Long.MAX_VALUE, rendered));
+      }
+      length += rendered.length();
+    }
+    this.length = length;
+  }
+
+  /**
+   * Returns the last modified tag of the schedule the calendar was generated from.
+   *
+   * @return the tag or <code>null</code> if the calendar does not belong to a single capture agent
+   */
+  String getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Assembles the feed of the calendar.
+   *
+   * @param cutoff
+   *          only include events starting before this date, or <code>null</code> to include all events
+   * @param endFrom
+   *          only include events ending at or after this date
+   * @return the iCalendar feed
+   */
+  String toString(Date cutoff, Date endFrom) {
+    final StringBuilder result = new StringBuilder(length).append(header);
+    for (Event event : events) {
+      if ((cutoff == null || event.start < cutoff.getTime()) && event.end >= endFrom.getTime())
+        result.append(event.text);
+    }
+    return result.append(footer).toString();
+  }
+
+}
@@ -0,0 +1,292 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.scheduler.impl;
+
+import org.opencastproject.scheduler.impl.persistence.ExtendedEventDto;
+
+import com.entwinemedia.fn.data.Opt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of the scheduled recordings of each capture agent, used to detect scheduling conflicts without
+ * querying the database for every single period of a recurring schedule.
+ * <p>
+ * The recordings of a capture agent that have not ended yet are loaded from the database the first time the agent is
+ * looked at, and recordings are dropped from the index once they have ended. Changes made by the scheduler service of
+ * this node are reported via {@link #update(ExtendedEventDto)} and {@link #remove(String)}. Like the calendars, the
+ * recordings of a capture agent are revalidated against the last modification of its schedule on every lookup, which
+ * picks up changes made by other nodes. Intervals reaching back before the indexed recordings are checked against the
+ * database.
+ */
+class ScheduleConflictIndex {
+
+  /** A time interval in milliseconds since the epoch, including its start and excluding its end */
+  static final class Interval {
+    private final long start;
+    private final long end;
+
+    Interval(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  /** A scheduled recording */
+  private static final class Entry {
+    private final String mediaPackageId;
+    private final String key;
+    private final long start;
+    private final long end;
+
+    Entry(String mediaPackageId, String key, long start, long end) {
+      this.mediaPackageId = mediaPackageId;
+      this.key = key;
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  private static final Comparator<Entry> BY_START = Comparator.<Entry> comparingLong(e -> e.start)
+          .thenComparing(e -> e.mediaPackageId);
+
+  /** The recordings of a capture agent, ordered by their start */
+  private static final class Schedule {
+    private final NavigableSet<Entry> entries = new TreeSet<>(BY_START);
+
+    /** The last modification of the schedule the recordings have been loaded for */
+    private final String lastModified;
+
+    /** All recordings ending after this time in milliseconds since the epoch are indexed */
+    private long horizon;
+
+    /** The longest duration of any recording ever added, bounding how far back an overlapping recording can start */
+    private long maxDuration = 0L;
+
+    Schedule(String lastModified, long horizon) {
+      this.lastModified = lastModified;
+      this.horizon = horizon;
+    }
+
+    void add(Entry entry) {
+      entries.add(entry);
+      maxDuration = Math.max(maxDuration, entry.end - entry.start);
+    }
+  }
+
+  /** The scheduler persistence */
+  private final SchedulerServiceDatabase persistence;
+
+  /** The schedules of the capture agents loaded so far by organization and capture agent */
+  private final Map<String, Schedule> schedules = new HashMap<>();
+
+  /** The indexed recordings by media package identifier */
+  private final Map<String, Entry> recordings = new HashMap<>();
+
+  ScheduleConflictIndex(SchedulerServiceDatabase persistence) {
+    this.persistence = persistence;
+  }
+
+  /**
+   * Finds the recordings of a capture agent that overlap any of the given intervals.
+   *
+   * @param organization
+   *          the identifier of the current organization
+   * @param captureAgentId
+   *          the capture agent
+   * @param lastModified
+   *          the last modification of the schedule of the capture agent, see
+   *          {@link org.opencastproject.scheduler.api.SchedulerService#getScheduleLastModified(String)}
+   * @param intervals
+   *          the intervals to check
+   * @param separationMillis
+   *          the minimum time between two recordings in milliseconds
+   * @return the media package identifiers of the conflicting recordings, ordered by their start
+   * @throws SchedulerServiceDatabaseException
+   *           if the recordings of the capture agent could not be loaded
+   */
+  synchronized List<String> findConflicts(String organization, String captureAgentId, String lastModified,
+          List<Interval> intervals, int separationMillis) throws SchedulerServiceDatabaseException {
+    if (intervals.isEmpty())
+      return new ArrayList<>();
+    Schedule schedule = getSchedule(organization, captureAgentId, lastModified);
+
+    final List<Interval> sorted = new ArrayList<>(intervals);
+    sorted.sort(Comparator.comparingLong(i -> i.start));
+
+    // Recordings that have ended before the indexed ones are only looked up if an interval reaches back that far
+    final long from = sorted.get(0).start - separationMillis;
+    if (from < schedule.horizon) {
+      long to = from;
+      for (Interval interval : sorted) {
+        to = Math.max(to, interval.end + separationMillis);
+      }
+      final Schedule merged = new Schedule(schedule.lastModified, from);
+      merged.entries.addAll(schedule.entries);
+      merged.maxDuration = schedule.maxDuration;
+      for (ExtendedEventDto event : persistence.search(Opt.some(captureAgentId), Opt.none(), Opt.some(new Date(to)),
+              Opt.some(new Date(from)), Opt.some(new Date(schedule.horizon)), Opt.none())) {
+        if (event.getStartDate() != null && event.getEndDate() != null)
+          merged.add(entry(event));
+      }
+      schedule = merged;
+    }
+
+    // Only recordings starting late enough to still be running at the start of the first interval are relevant
+    final long first = sorted.get(0).start - separationMillis - schedule.maxDuration;
+    final Iterator<Entry> candidates = schedule.entries.tailSet(new Entry("", null, first, first), true).iterator();
+
+    // Sweep through intervals and recordings in order of their start, keeping the recordings that have started but
+    // not ended yet
+    final Set<Entry> conflicts = new LinkedHashSet<>();
+    final List<Entry> active = new ArrayList<>();
+    Entry next = candidates.hasNext() ? candidates.next() : null;
+    for (Interval interval : sorted) {
+      final long start = interval.start - separationMillis;
+      final long end = interval.end + separationMillis;
+      while (next != null && next.start < end) {
+        active.add(next);
+        next = candidates.hasNext() ? candidates.next() : null;
+      }
+      // Intervals are visited by their start, so recordings ending before this one cannot overlap any later interval
+      active.removeIf(e -> e.end <= start);
+      for (Entry entry : active) {
+        if (entry.start < end)
+          conflicts.add(entry);
+      }
+    }
+
+    final List<Entry> result = new ArrayList<>(conflicts);
+    result.sort(BY_START);
+    final List<String> ids = new ArrayList<>(result.size());
+    for (Entry entry : result) {
+      ids.add(entry.mediaPackageId);
+    }
+    return ids;
+  }
+
+  /**
+   * Updates the index after a recording has been stored.
+   *
+   * @param event
+   *          the stored recording
+   */
+  synchronized void update(ExtendedEventDto event) {
+    remove(event.getMediaPackageId());
+    if (event.getOrganization() == null || event.getCaptureAgentId() == null || event.getStartDate() == null
+            || event.getEndDate() == null)
+      return;
+    final Schedule schedule = schedules.get(key(event.getOrganization(), event.getCaptureAgentId()));
+    // Schedules not loaded yet will pick up the change once they are
+    if (schedule != null && event.getEndDate().getTime() > schedule.horizon)
+      add(schedule, event);
+  }
+
+  /**
+   * Updates the index after a recording has been deleted.
+   *
+   * @param mediaPackageId
+   *          the media package identifier of the recording
+   */
+  synchronized void remove(String mediaPackageId) {
+    final Entry entry = recordings.remove(mediaPackageId);
+    if (entry == null)
+      return;
+    final Schedule schedule = schedules.get(entry.key);
+    if (schedule != null)
+      schedule.entries.remove(entry);
+  }
+
+  /**
+   * Returns the schedule of a capture agent without the recordings that have ended, loading it from the database if it
+   * has not been loaded yet or has been modified since.
+   */
+  private Schedule getSchedule(String organization, String captureAgentId, String lastModified)
+          throws SchedulerServiceDatabaseException {
+    final String key = key(organization, captureAgentId);
+    final long now = currentTimeMillis();
+    Schedule schedule = schedules.get(key);
+    if (schedule != null && !Objects.equals(lastModified, schedule.lastModified)) {
+      removeAll(schedule.entries);
+      schedule = null;
+    }
+    if (schedule == null) {
+      schedule = new Schedule(lastModified, now);
+      for (ExtendedEventDto event : persistence.search(Opt.some(captureAgentId), Opt.none(), Opt.none(),
+              Opt.some(new Date(now)), Opt.none(), Opt.none())) {
+        if (event.getStartDate() != null && event.getEndDate() != null)
+          add(schedule, event);
+      }
+      schedules.put(key, schedule);
+    } else if (now > schedule.horizon) {
+      // Only recordings that have already started can have ended
+      final List<Entry> ended = new ArrayList<>();
+      for (Entry entry : schedule.entries.headSet(new Entry("", null, now, now), false)) {
+        if (entry.end <= now)
+          ended.add(entry);
+      }
+      schedule.entries.removeAll(ended);
+      removeAll(ended);
+      schedule.horizon = now;
+    }
+    return schedule;
+  }
+
+  /** Removes recordings no longer part of a schedule from the index by media package identifier. */
+  private void removeAll(Iterable<Entry> entries) {
+    for (Entry entry : entries) {
+      recordings.remove(entry.mediaPackageId, entry);
+    }
+  }
+
+  private void add(Schedule schedule, ExtendedEventDto event) {
+    final Entry entry = entry(event);
+    schedule.add(entry);
+    recordings.put(entry.mediaPackageId, entry);
+  }
+
+  private static Entry entry(ExtendedEventDto event) {
+    return new Entry(event.getMediaPackageId(), key(event.getOrganization(), event.getCaptureAgentId()),
+            event.getStartDate().getTime(), event.getEndDate().getTime());
+  }
+
+  /** Returns the current time in milliseconds since the epoch. */
+  long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  private static String key(String organization, String captureAgentId) {
+    return organization + "/" + captureAgentId;
+  }
+
+}
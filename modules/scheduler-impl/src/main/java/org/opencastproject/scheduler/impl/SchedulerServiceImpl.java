@@ -179,12 +179,18 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   /** The last modifed cache configuration key */
   private static final String CFG_KEY_LAST_MODIFED_CACHE_EXPIRE = "last_modified_cache_expire";
 
+  /** The calendar cache configuration key */
+  private static final String CFG_KEY_CALENDAR_CACHE_EXPIRE = "calendar_cache_expire";
+
   /** The maintenance configuration key */
   private static final String CFG_KEY_MAINTENANCE = "maintenance";
 
   /** The default cache expire time in seconds */
   private static final int DEFAULT_CACHE_EXPIRE = 60;
 
+  /** The default calendar cache expire time in seconds */
+  private static final int DEFAULT_CALENDAR_CACHE_EXPIRE = 600;
+
   /** The Etag for an empty calendar */
   private static final String EMPTY_CALENDAR_ETAG = "mod0";
 
@@ -212,12 +218,19 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   protected Cache<String, String> lastModifiedCache = CacheBuilder.newBuilder()
           .expireAfterWrite(DEFAULT_CACHE_EXPIRE, TimeUnit.SECONDS).build();
 
+  /** The rendered calendars by organization, capture agent and series */
+  protected Cache<List<String>, RenderedCalendar> calendarCache = CacheBuilder.newBuilder()
+          .expireAfterWrite(DEFAULT_CALENDAR_CACHE_EXPIRE, TimeUnit.SECONDS).build();
+
   /** The message broker sender service */
   private MessageSender messageSender;
 
   /** Persistent storage for events */
   private SchedulerServiceDatabase persistence;
 
+  /** The index of scheduled recordings used to detect conflicts */
+  private ScheduleConflictIndex conflictIndex;
+
   /** The series service */
   private SeriesService seriesService;
 
@@ -265,6 +278,7 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   @Reference
   public void setPersistence(SchedulerServiceDatabase persistence) {
     this.persistence = persistence;
+    this.conflictIndex = new ScheduleConflictIndex(persistence);
   }
 
   /**
@@ -390,6 +404,10 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
       } else {
         logger.info("Set last modified cache to default {}", getHumanReadableTimeString(DEFAULT_CACHE_EXPIRE));
       }
+      final int calendarCacheExpire = OsgiUtil.getOptCfg(properties, CFG_KEY_CALENDAR_CACHE_EXPIRE)
+              .bind(Strings.toInt).getOrElse(DEFAULT_CALENDAR_CACHE_EXPIRE);
+      calendarCache = CacheBuilder.newBuilder().expireAfterWrite(calendarCacheExpire, TimeUnit.SECONDS).build();
+      logger.info("Set calendar cache to {}", getHumanReadableTimeString(calendarCacheExpire));
       final Option<Boolean> maintenance = OsgiUtil.getOptCfgAsBoolean(properties, CFG_KEY_MAINTENANCE);
       if (maintenance.getOrElse(false)) {
         final String name = SchedulerServiceImpl.class.getName();
@@ -867,6 +885,7 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
       if (extEvtOpt.isSome()) {
         String agentId = extEvtOpt.get().getCaptureAgentId();
         persistence.deleteEvent(mediaPackageId);
+        conflictIndex.remove(mediaPackageId);
         if (StringUtils.isNotEmpty(agentId))
           touchLastEntry(agentId);
       }
@@ -1040,14 +1059,26 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   @Override
   public List<MediaPackage> findConflictingEvents(String captureDeviceID, Date startDate, Date endDate)
       throws SchedulerException {
+    return findConflictingEvents(captureDeviceID, Collections.singletonList(
+            new ScheduleConflictIndex.Interval(startDate.getTime(), endDate.getTime())));
+  }
+
+  /**
+   * Finds the events of a capture agent conflicting with any of the given intervals. The intervals are checked against
+   * the schedule of the capture agent all at once and each conflicting event is loaded only once.
+   */
+  private List<MediaPackage> findConflictingEvents(String captureAgentId,
+          List<ScheduleConflictIndex.Interval> intervals) throws SchedulerException {
     try {
       final Organization organization = securityService.getOrganization();
       final User user = SecurityUtil.createSystemUser(systemUserName, organization);
+      final String lastModified = getScheduleLastModified(captureAgentId);
       List<MediaPackage> conflictingEvents = new ArrayList<>();
 
       SecurityUtil.runAs(securityService, organization, user, () -> {
         try {
-          persistence.getEvents(captureDeviceID, startDate, endDate, Util.EVENT_MINIMUM_SEPARATION_MILLISECONDS)
+          conflictIndex.findConflicts(organization.getId(), captureAgentId, lastModified, intervals,
+                  Util.EVENT_MINIMUM_SEPARATION_MILLISECONDS)
                   .stream()
                   .map(id -> getEventMediaPackage(id, false))
                   .forEach(conflictingEvents::add);
@@ -1108,23 +1139,17 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
       throw new IllegalArgumentException("RRULE periods overlap");
     }
 
+    final List<ScheduleConflictIndex.Interval> intervals = new ArrayList<>(periods.size());
     try {
       TimeZoneRegistry registry = TimeZoneRegistryFactory.getInstance().createRegistry();
-
-      Set<MediaPackage> events = new HashSet<>();
-
       for (Period event : periods) {
         event.setTimeZone(registry.getTimeZone(tz.getID()));
-        final Date startDate = event.getStart();
-        final Date endDate = event.getEnd();
-
-        events.addAll(findConflictingEvents(captureAgentId, startDate, endDate));
+        intervals.add(new ScheduleConflictIndex.Interval(event.getStart().getTime(), event.getEnd().getTime()));
       }
-
-      return new ArrayList<>(events);
     } catch (Exception e) {
       throw new SchedulerException(e);
     }
+    return findConflictingEvents(captureAgentId, intervals);
   }
 
   @Override
@@ -1132,7 +1157,37 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
           throws SchedulerException {
 
     try {
-      final Map<String, ExtendedEventDto> searchResult = persistence.search(captureAgentId, Opt.none(), cutoff,
+      // Calendars of a single capture agent must match its current schedule. Other calendars are invalidated whenever
+      // any schedule changes.
+      final String lastModified = captureAgentId.isSome() ? getScheduleLastModified(captureAgentId.get()) : null;
+      final List<String> key = Arrays.asList(securityService.getOrganization().getId(),
+              captureAgentId.isSome() ? captureAgentId.get() : null, seriesId.isSome() ? seriesId.get() : null);
+      RenderedCalendar calendar = calendarCache.getIfPresent(key);
+      if (calendar == null || !StringUtils.equals(lastModified, calendar.getLastModified())) {
+        calendar = new RenderedCalendar(generateCalendar(captureAgentId, seriesId).getCalendar(), lastModified);
+        calendarCache.put(key, calendar);
+      }
+      return calendar.toString(cutoff.isSome() ? cutoff.get() : null, DateTime.now().minusHours(1).toDate());
+    } catch (SchedulerException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SchedulerException(e);
+    }
+  }
+
+  /**
+   * Generates the calendar of all upcoming events, not limited by a cutoff date.
+   *
+   * @param captureAgentId
+   *          the capture agent to generate the calendar for
+   * @param seriesId
+   *          the series to generate the calendar for
+   * @return the calendar generator holding the validated calendar
+   */
+  private CalendarGenerator generateCalendar(Opt<String> captureAgentId, Opt<String> seriesId)
+          throws SchedulerException {
+    try {
+      final Map<String, ExtendedEventDto> searchResult = persistence.search(captureAgentId, Opt.none(), Opt.none(),
           Opt.some(DateTime.now().minusHours(1).toDate()), Opt.none(), Opt.none()).stream()
           .collect(Collectors.toMap(ExtendedEventDto::getMediaPackageId, Function.identity()));
       final AQueryBuilder query = assetManager.createQuery();
@@ -1187,7 +1242,7 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
         cal.getCalendar().validate();
       }
 
-      return cal.getCalendar().toString();
+      return cal;
 
     } catch (Exception e) {
       throw new SchedulerException(e);
@@ -1384,6 +1439,27 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
         wfProperties,
         caProperties
     );
+
+    // Keep the conflict index and the calendars current
+    for (ExtendedEventDto event : persistence.getEvent(mpId)) {
+      if (captureAgentId.isSome() || startDateTime.isSome() || endDateTime.isSome()) {
+        conflictIndex.update(event);
+      }
+      invalidateCalendars(event.getCaptureAgentId());
+    }
+  }
+
+  /**
+   * Removes the cached calendars of a capture agent of the current organization, along with the calendars not limited
+   * to a single capture agent.
+   *
+   * @param captureAgentId
+   *          the capture agent whose schedule has changed
+   */
+  private void invalidateCalendars(String captureAgentId) {
+    final String organization = securityService.getOrganization().getId();
+    calendarCache.asMap().keySet().removeIf(key -> organization.equals(key.get(0))
+            && (key.get(1) == null || key.get(1).equals(captureAgentId)));
   }
 
   /**
@@ -1564,6 +1640,7 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   }
 
   private void touchLastEntry(String captureAgentId) throws SchedulerException {
+    invalidateCalendars(captureAgentId);
     // touch last entry
     try {
       logger.debug("Marking calendar feed for {} as modified", captureAgentId);
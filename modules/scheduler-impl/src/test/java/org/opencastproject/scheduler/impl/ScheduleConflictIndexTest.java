@@ -0,0 +1,178 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.scheduler.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.scheduler.impl.ScheduleConflictIndex.Interval;
+import org.opencastproject.scheduler.impl.persistence.ExtendedEventDto;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class ScheduleConflictIndexTest {
+
+  private static final String ORGANIZATION = "mh_default_org";
+
+  private static final String AGENT = "agent";
+
+  private static final long HOUR = 60 * 60 * 1000L;
+
+  private static final int SEPARATION = 60 * 1000;
+
+  private static final String LAST_MODIFIED = "mod1";
+
+  private SchedulerServiceDatabase persistence;
+
+  private ScheduleConflictIndex index;
+
+  /** The current time as seen by the index */
+  private long now = 0L;
+
+  private static ExtendedEventDto event(String id, String agent, long start, long end) {
+    ExtendedEventDto event = new ExtendedEventDto();
+    event.setMediaPackageId(id);
+    event.setOrganization(ORGANIZATION);
+    event.setCaptureAgentId(agent);
+    event.setStartDate(new Date(start));
+    event.setEndDate(new Date(end));
+    return event;
+  }
+
+  private List<String> conflicts(Interval... intervals) throws Exception {
+    return conflicts(LAST_MODIFIED, intervals);
+  }
+
+  private List<String> conflicts(String lastModified, Interval... intervals) throws Exception {
+    return index.findConflicts(ORGANIZATION, AGENT, lastModified, Arrays.asList(intervals), SEPARATION);
+  }
+
+  private static List<ExtendedEventDto> search(SchedulerServiceDatabase persistence) throws Exception {
+    return persistence.search(EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject(),
+            EasyMock.anyObject(), EasyMock.anyObject());
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    persistence = EasyMock.createMock(SchedulerServiceDatabase.class);
+    EasyMock.expect(search(persistence))
+            .andReturn(Arrays.asList(
+                    event("a", AGENT, 10 * HOUR, 11 * HOUR),
+                    event("b", AGENT, 12 * HOUR, 14 * HOUR),
+                    event("c", AGENT, 100 * HOUR, 101 * HOUR)))
+            .once();
+    index = new ScheduleConflictIndex(persistence) {
+      @Override
+      long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  @Test
+  public void testFindConflicts() throws Exception {
+    EasyMock.replay(persistence);
+    assertEquals(Collections.emptyList(), conflicts(new Interval(0, HOUR)));
+    assertEquals(Collections.singletonList("a"), conflicts(new Interval(10 * HOUR + 10, 10 * HOUR + 20)));
+    assertEquals(Arrays.asList("a", "b"), conflicts(new Interval(10 * HOUR, 13 * HOUR)));
+    // Periods are checked all at once, in any order
+    assertEquals(Arrays.asList("b", "c"), conflicts(new Interval(100 * HOUR, 100 * HOUR + 1),
+            new Interval(0, HOUR), new Interval(13 * HOUR, 20 * HOUR)));
+    // The schedule of the agent has been loaded only once
+    EasyMock.verify(persistence);
+  }
+
+  @Test
+  public void testSeparation() throws Exception {
+    EasyMock.replay(persistence);
+    assertEquals(Collections.singletonList("a"),
+            conflicts(new Interval(11 * HOUR + SEPARATION - 1, 11 * HOUR + SEPARATION)));
+    assertEquals(Collections.emptyList(), conflicts(new Interval(11 * HOUR + SEPARATION, 12 * HOUR - SEPARATION)));
+  }
+
+  @Test
+  public void testUpdate() throws Exception {
+    EasyMock.replay(persistence);
+    conflicts(new Interval(0, HOUR));
+
+    // Move a recording
+    index.update(event("a", AGENT, 50 * HOUR, 51 * HOUR));
+    assertTrue(conflicts(new Interval(10 * HOUR, 11 * HOUR)).isEmpty());
+    assertEquals(Collections.singletonList("a"), conflicts(new Interval(50 * HOUR, 51 * HOUR)));
+
+    // A long recording must be found even if it started long before
+    index.update(event("d", AGENT, 200 * HOUR, 300 * HOUR));
+    assertEquals(Collections.singletonList("d"), conflicts(new Interval(290 * HOUR, 291 * HOUR)));
+
+    // Move a recording to another agent
+    index.update(event("b", "other", 12 * HOUR, 14 * HOUR));
+    assertTrue(conflicts(new Interval(12 * HOUR, 14 * HOUR)).isEmpty());
+
+    index.remove("c");
+    assertTrue(conflicts(new Interval(100 * HOUR, 101 * HOUR)).isEmpty());
+  }
+
+  @Test
+  public void testEndedRecordingsArePruned() throws Exception {
+    // Recordings ending before the index has been loaded are looked up in the database
+    EasyMock.expect(search(persistence)).andReturn(Collections.singletonList(event("a", AGENT, 10 * HOUR, 11 * HOUR)))
+            .times(2);
+    EasyMock.replay(persistence);
+
+    now = 12 * HOUR + HOUR / 2;
+    assertEquals(Collections.singletonList("c"), conflicts(new Interval(100 * HOUR, 101 * HOUR)));
+    assertEquals(Arrays.asList("a", "b"), conflicts(new Interval(10 * HOUR, 13 * HOUR)));
+
+    // Once ended, a recording is dropped from the index and updates to it are ignored
+    now = 20 * HOUR;
+    assertTrue(conflicts(new Interval(21 * HOUR, 22 * HOUR)).isEmpty());
+    index.update(event("b", AGENT, 12 * HOUR, 15 * HOUR));
+    assertEquals(Collections.singletonList("a"), conflicts(new Interval(10 * HOUR, 13 * HOUR)));
+    EasyMock.verify(persistence);
+  }
+
+  @Test
+  public void testRevalidateAgainstLastModified() throws Exception {
+    // Changes made by other nodes are picked up once the schedule has been modified
+    EasyMock.expect(search(persistence)).andReturn(Collections.singletonList(event("d", AGENT, 50 * HOUR, 51 * HOUR)))
+            .once();
+    EasyMock.replay(persistence);
+
+    assertEquals(Collections.singletonList("a"), conflicts(new Interval(10 * HOUR, 11 * HOUR)));
+    assertTrue(conflicts(new Interval(50 * HOUR, 51 * HOUR)).isEmpty());
+    assertEquals(Collections.singletonList("d"), conflicts("mod2", new Interval(50 * HOUR, 51 * HOUR)));
+    assertTrue(conflicts("mod2", new Interval(10 * HOUR, 11 * HOUR)).isEmpty());
+
+    // Recordings of the old schedule are no longer indexed
+    index.update(event("a", AGENT, 60 * HOUR, 61 * HOUR));
+    assertEquals(Collections.singletonList("a"), conflicts("mod2", new Interval(60 * HOUR, 61 * HOUR)));
+    EasyMock.verify(persistence);
+  }
+
+}
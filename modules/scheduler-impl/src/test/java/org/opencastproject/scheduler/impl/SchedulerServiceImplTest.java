@@ -633,6 +633,38 @@ public class SchedulerServiceImplTest {
     Assert.assertNotNull(response.getEntity());
   }
 
+  @Test
+  public void testCalendarCacheInvalidation() throws Exception {
+    long currentTime = System.currentTimeMillis();
+    MediaPackage mediaPackage = generateEvent(Opt.<String> none());
+    String mpId = mediaPackage.getIdentifier().toString();
+    schedSvc.addEvent(new Date(currentTime + 10 * 1000), new Date(currentTime + (60 * 60 * 1000)), "Device A",
+            Collections.<String> emptySet(), mediaPackage, wfProperties, Collections.<String, String> emptyMap(),
+            Opt.<String> none());
+
+    // Fill the cache
+    assertTrue(schedSvc.getCalendar(Opt.some("Device A"), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+    assertFalse(schedSvc.getCalendar(Opt.some("Device B"), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+    assertTrue(schedSvc.getCalendar(Opt.<String> none(), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+
+    // A cutoff before the start of the event is served from the cached calendar
+    assertFalse(schedSvc.getCalendar(Opt.some("Device A"), Opt.<String> none(), Opt.some(new Date(currentTime)))
+            .contains(mpId));
+
+    // Move the event to another capture agent
+    schedSvc.updateEvent(mpId, Opt.<Date> none(), Opt.<Date> none(), Opt.some("Device B"), Opt.<Set<String>> none(),
+            Opt.<MediaPackage> none(), Opt.<Map<String, String>> none(), Opt.<Map<String, String>> none());
+
+    assertFalse(schedSvc.getCalendar(Opt.some("Device A"), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+    assertTrue(schedSvc.getCalendar(Opt.some("Device B"), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+    assertTrue(schedSvc.getCalendar(Opt.<String> none(), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+
+    // Removed events disappear from all calendars
+    schedSvc.removeEvent(mpId);
+    assertFalse(schedSvc.getCalendar(Opt.some("Device B"), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+    assertFalse(schedSvc.getCalendar(Opt.<String> none(), Opt.<String> none(), Opt.<Date> none()).contains(mpId));
+  }
+
   @Test
   public void testCalendarCutoff() throws Exception {
     long currentTime = System.currentTimeMillis();
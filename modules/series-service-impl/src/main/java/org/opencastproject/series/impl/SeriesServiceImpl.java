@@ -79,6 +79,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -604,53 +605,27 @@ public class SeriesServiceImpl extends AbstractIndexProducer implements SeriesSe
     try {
       List<SeriesEntity> databaseSeries = persistence.getAllSeries();
       final int total = databaseSeries.size();
-      int current = 1;
       logIndexRebuildBegin(logger, index.getIndexName(), total, "series");
 
-      for (SeriesEntity series: databaseSeries) {
-        Organization organization = orgDirectory.getOrganization(series.getOrganization());
+      // Series are updated in bulk, which requires them to belong to the same organization
+      Map<String, List<SeriesEntity>> seriesByOrg = new LinkedHashMap<>();
+      for (SeriesEntity series : databaseSeries) {
+        seriesByOrg.computeIfAbsent(series.getOrganization(), org -> new ArrayList<>()).add(series);
+      }
+
+      int current = 0;
+      final int bulkSize = index.getBulkSize();
+      for (Entry<String, List<SeriesEntity>> orgSeries : seriesByOrg.entrySet()) {
+        Organization organization = orgDirectory.getOrganization(orgSeries.getKey());
         User systemUser = SecurityUtil.createSystemUser(systemUserName, organization);
-        SecurityUtil.runAs(securityService, organization, systemUser,
-                () -> {
-                  String seriesId = series.getSeriesId();
-                  logger.trace("Adding series {} for organization {} to the {} index.", seriesId,
-                          series.getOrganization(), index.getIndexName());
-                  List<Function<Optional<Series>, Optional<Series>>> updateFunctions = new ArrayList<>();
-
-                  DublinCoreCatalog catalog;
-                  try {
-                    catalog = DublinCoreXmlFormat.read(series.getDublinCoreXML());
-                    updateFunctions.add(getMetadataUpdateFunction(seriesId, catalog, organization.getId()));
-                  } catch (IOException | ParserConfigurationException | SAXException e) {
-                    logger.error("Could not read dublincore XML of series {}.", seriesId, e);
-                    return;
-                  }
-
-                  String aclStr = series.getAccessControl();
-                  if (StringUtils.isNotBlank(aclStr)) {
-                    try {
-                      AccessControlList acl = AccessControlParser.parseAcl(aclStr);
-                      updateFunctions.add(getAclUpdateFunction(seriesId, acl, organization.getId()));
-                    } catch (Exception ex) {
-                      logger.error("Unable to parse ACL of series {}.", seriesId, ex);
-                    }
-                  }
-
-                  try {
-                    Map<String, String> properties = persistence.getSeriesProperties(seriesId);
-                    updateFunctions.add(getThemePropertyUpdateFunction(seriesId,
-                            Optional.ofNullable(properties.get(THEME_PROPERTY_NAME)), organization.getId()));
-                  } catch (NotFoundException | SeriesServiceDatabaseException e) {
-                    logger.error("Error reading properties of series {}", seriesId, e);
-                  }
-
-                  // do the actual index update
-                  updateSeriesInIndex(seriesId, index, organization.getId(),
-                          updateFunctions.toArray(new Function[0]));
-
-                });
-        logIndexRebuildProgress(logger, index.getIndexName(), total, current);
-        current++;
+        final List<SeriesEntity> series = orgSeries.getValue();
+        for (int offset = 0; offset < series.size(); offset += bulkSize) {
+          final List<SeriesEntity> batch = series.subList(offset, Math.min(offset + bulkSize, series.size()));
+          SecurityUtil.runAs(securityService, organization, systemUser,
+                  () -> repopulateSeries(batch, index, organization.getId()));
+          current += batch.size();
+          logIndexRebuildProgress(logger, index.getIndexName(), total, current, batch.size());
+        }
       }
     } catch (Exception e) {
       logIndexRebuildError(logger, index.getIndexName(), e);
@@ -658,6 +633,72 @@ public class SeriesServiceImpl extends AbstractIndexProducer implements SeriesSe
     }
   }
 
+  /**
+   * Adds series of the same organization to the API index using a single bulk update. Series which cannot be read or
+   * written to the index are logged and skipped.
+   *
+   * @param batch
+   *          The series to add
+   * @param index
+   *          The API index to update
+   * @param orgId
+   *          The id of the organization of the series
+   */
+  private void repopulateSeries(List<SeriesEntity> batch, ElasticsearchIndex index, String orgId) {
+    Map<String, Function<Optional<Series>, Optional<Series>>> updateFunctions = new LinkedHashMap<>();
+    for (SeriesEntity series : batch) {
+      String seriesId = series.getSeriesId();
+      logger.trace("Adding series {} for organization {} to the {} index.", seriesId, orgId, index.getIndexName());
+      List<Function<Optional<Series>, Optional<Series>>> seriesUpdateFunctions = new ArrayList<>();
+
+      DublinCoreCatalog catalog;
+      try {
+        catalog = DublinCoreXmlFormat.read(series.getDublinCoreXML());
+        seriesUpdateFunctions.add(getMetadataUpdateFunction(seriesId, catalog, orgId));
+      } catch (IOException | ParserConfigurationException | SAXException e) {
+        logger.error("Could not read dublincore XML of series {}.", seriesId, e);
+        continue;
+      }
+
+      String aclStr = series.getAccessControl();
+      if (StringUtils.isNotBlank(aclStr)) {
+        try {
+          AccessControlList acl = AccessControlParser.parseAcl(aclStr);
+          seriesUpdateFunctions.add(getAclUpdateFunction(seriesId, acl, orgId));
+        } catch (Exception ex) {
+          logger.error("Unable to parse ACL of series {}.", seriesId, ex);
+        }
+      }
+
+      try {
+        Map<String, String> properties = persistence.getSeriesProperties(seriesId);
+        seriesUpdateFunctions.add(getThemePropertyUpdateFunction(seriesId,
+                Optional.ofNullable(properties.get(THEME_PROPERTY_NAME)), orgId));
+      } catch (NotFoundException | SeriesServiceDatabaseException e) {
+        logger.error("Error reading properties of series {}", seriesId, e);
+      }
+
+      updateFunctions.put(seriesId, seriesUpdateFunctions.stream().reduce(Function.identity(), Function::andThen));
+    }
+    if (updateFunctions.isEmpty()) {
+      return;
+    }
+
+    // do the actual index update
+    try {
+      Map<String, Optional<Series>> updated = index.bulkAddOrUpdateSeries(updateFunctions, orgId,
+              securityService.getUser());
+      for (String seriesId : updateFunctions.keySet()) {
+        if (!updated.containsKey(seriesId)) {
+          logger.warn("Series {} could not be added to the {} index, skipping.", seriesId, index.getIndexName());
+        }
+      }
+    } catch (SearchIndexException e) {
+      logger.error("Error adding {} series of organization '{}' to the {} index, skipping.", updateFunctions.size(),
+              orgId, index.getIndexName(), e);
+    }
+  }
+
   @Override
   public IndexRebuildService.Service getService() {
     return IndexRebuildService.Service.Series;
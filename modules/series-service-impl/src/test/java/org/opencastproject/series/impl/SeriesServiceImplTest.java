@@ -28,7 +28,9 @@ import static org.junit.Assert.assertTrue;
 import static org.opencastproject.util.data.Collections.list;
 import static org.opencastproject.util.persistence.PersistenceUtil.newTestEntityManagerFactory;
 
+import org.opencastproject.elasticsearch.api.SearchIndexException;
 import org.opencastproject.elasticsearch.index.ElasticsearchIndex;
+import org.opencastproject.elasticsearch.index.objects.series.Series;
 import org.opencastproject.message.broker.api.MessageSender;
 import org.opencastproject.metadata.dublincore.DublinCore;
 import org.opencastproject.metadata.dublincore.DublinCoreCatalog;
@@ -43,6 +45,7 @@ import org.opencastproject.security.api.AccessControlUtil;
 import org.opencastproject.security.api.DefaultOrganization;
 import org.opencastproject.security.api.JaxbRole;
 import org.opencastproject.security.api.JaxbUser;
+import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.Permissions;
 import org.opencastproject.security.api.SecurityConstants;
 import org.opencastproject.security.api.SecurityService;
@@ -57,6 +60,7 @@ import com.entwinemedia.fn.data.Opt;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.After;
 import org.junit.Assert;
@@ -67,7 +71,10 @@ import org.osgi.service.component.ComponentContext;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -191,6 +198,60 @@ public class SeriesServiceImplTest {
     }
   }
 
+  @Test
+  public void testRepopulateInBulk() throws Exception {
+    seriesService.updateSeries(testCatalog);
+    seriesService.updateSeries(testCatalog2);
+    final String seriesId1 = testCatalog.getFirst(DublinCore.PROPERTY_IDENTIFIER);
+    final String seriesId2 = testCatalog2.getFirst(DublinCore.PROPERTY_IDENTIFIER);
+    setUpOrgDirectory();
+
+    // Writing the second series fails, which must not affect the first one
+    final Capture<Map<String, Function<Optional<Series>, Optional<Series>>>> updateFunctions = Capture.newInstance();
+    ElasticsearchIndex esIndex = EasyMock.createNiceMock(ElasticsearchIndex.class);
+    EasyMock.expect(esIndex.getBulkSize()).andReturn(100).anyTimes();
+    EasyMock.expect(esIndex.bulkAddOrUpdateSeries(EasyMock.capture(updateFunctions),
+            EasyMock.eq(new DefaultOrganization().getId()), EasyMock.anyObject(User.class))).andAnswer(() ->
+            Collections.singletonMap(seriesId1, updateFunctions.getValue().get(seriesId1).apply(Optional.empty())))
+            .once();
+    EasyMock.replay(esIndex);
+
+    seriesService.repopulate(esIndex);
+    EasyMock.verify(esIndex);
+
+    assertEquals(new HashSet<>(list(seriesId1, seriesId2)), updateFunctions.getValue().keySet());
+    Optional<Series> series = updateFunctions.getValue().get(seriesId2).apply(Optional.empty());
+    assertTrue(series.isPresent());
+    assertEquals(testCatalog2.getFirst(DublinCore.PROPERTY_TITLE), series.get().getTitle());
+  }
+
+  @Test
+  public void testRepopulateContinuesAfterFailedBulkRequest() throws Exception {
+    seriesService.updateSeries(testCatalog);
+    seriesService.updateSeries(testCatalog2);
+    setUpOrgDirectory();
+
+    // One series per bulk request, the first request fails as a whole
+    ElasticsearchIndex esIndex = EasyMock.createNiceMock(ElasticsearchIndex.class);
+    EasyMock.expect(esIndex.getBulkSize()).andReturn(1).anyTimes();
+    EasyMock.expect(esIndex.bulkAddOrUpdateSeries(EasyMock.anyObject(Map.class), EasyMock.anyString(),
+            EasyMock.anyObject(User.class))).andThrow(new SearchIndexException("Bulk request failed")).once();
+    EasyMock.expect(esIndex.bulkAddOrUpdateSeries(EasyMock.anyObject(Map.class), EasyMock.anyString(),
+            EasyMock.anyObject(User.class))).andReturn(Collections.emptyMap()).once();
+    EasyMock.replay(esIndex);
+
+    seriesService.repopulate(esIndex);
+    EasyMock.verify(esIndex);
+  }
+
+  private void setUpOrgDirectory() throws Exception {
+    OrganizationDirectoryService orgDirectory = EasyMock.createNiceMock(OrganizationDirectoryService.class);
+    EasyMock.expect(orgDirectory.getOrganization(EasyMock.anyString())).andReturn(new DefaultOrganization())
+            .anyTimes();
+    EasyMock.replay(orgDirectory);
+    seriesService.setOrgDirectory(orgDirectory);
+  }
+
   @Test
   public void testSorting() throws Exception {
     seriesService.updateSeries(testCatalog);
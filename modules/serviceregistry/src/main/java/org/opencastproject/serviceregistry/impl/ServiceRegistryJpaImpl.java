@@ -38,6 +38,9 @@ import static org.opencastproject.util.OsgiUtil.getOptContextProperty;
 
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.job.api.JobCompletionNotifier;
+import org.opencastproject.job.api.JobProgress;
+import org.opencastproject.job.api.ProcessingMetrics;
 import org.opencastproject.job.jpa.JpaJob;
 import org.opencastproject.rest.RestConstants;
 import org.opencastproject.security.api.Organization;
@@ -78,6 +81,7 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.message.BasicNameValuePair;
@@ -113,8 +117,14 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -188,12 +198,21 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** Configuration key for the dispatch interval, in seconds */
   protected static final String OPT_DISPATCHINTERVAL = "dispatch.interval";
 
+  /** Configuration key for the number of jobs dispatched to their hosts in parallel */
+  protected static final String OPT_DISPATCHTHREADS = "dispatch.threads";
+
   /** Configuration key for the interval to check whether the hosts in the service registry are still alive, in seconds */
   protected static final String OPT_HEARTBEATINTERVAL = "heartbeat.interval";
 
   /** Configuration key for the collection of job statistics */
   protected static final String OPT_JOBSTATISTICS = "jobstats.collect";
 
+  /**
+   * Configuration key for the interval in seconds in which parties waiting for jobs fall back to polling while job
+   * completion notifications are published. Set to 0 to disable notifications.
+   */
+  protected static final String OPT_JOB_NOTIFICATION_FALLBACK_INTERVAL = "job.notification.fallback.interval";
+
   /** Configuration key for the retrieval of service statistics: Do not consider jobs older than max_job_age (in days) */
   protected static final String OPT_SERVICE_STATISTICS_MAX_JOB_AGE = "org.opencastproject.statistics.services.max_job_age";
 
@@ -209,10 +228,17 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** Default delay before starting job dispatching, in seconds */
   static final long DEFAULT_DISPATCH_START_DELAY = 60;
 
+  /** Default number of jobs dispatched to their hosts in parallel */
+  static final int DEFAULT_DISPATCH_THREADS = 4;
+
   /** Default jobs limit during dispatching
    * (larger value will fetch more entries from the database at the same time and increase RAM usage) */
   static final int DEFAULT_DISPATCH_JOBS_LIMIT = 100;
 
+  /** Default fallback polling interval while job completion notifications are published, in seconds */
+  static final long DEFAULT_JOB_NOTIFICATION_FALLBACK_INTERVAL =
+      JobCompletionNotifier.DEFAULT_FALLBACK_POLLING_INTERVAL / 1000;
+
   /** Default setting on job statistics collection */
   static final boolean DEFAULT_JOB_STATISTICS = false;
 
@@ -228,6 +254,9 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** Default value for {@link #maxAttemptsBeforeErrorState} */
   private static final int DEFAULT_MAX_ATTEMPTS_BEFORE_ERROR_STATE = 10;
 
+  /** Timeout in milliseconds when asking another node for the progress of a job */
+  private static final int JOB_PROGRESS_TIMEOUT = 2000;
+
   /** Default value for {@link #errorStatesEnabled} */
   private static final boolean DEFAULT_ERROR_STATES_ENABLED = true;
 
@@ -262,6 +291,15 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** The thread pool to use for dispatching queued jobs and checking on phantom services. */
   protected ScheduledExecutorService scheduledExecutor = null;
 
+  /** The thread pool used to send the planned dispatch requests of a dispatching round in parallel */
+  protected ExecutorService dispatchExecutor = null;
+
+  /** The thread used to notify other nodes about terminated jobs they are waiting for */
+  protected ExecutorService notificationExecutor = null;
+
+  /** Whether to publish job completion notifications */
+  protected boolean jobNotificationsEnabled = false;
+
   /** The security service */
   protected SecurityService securityService = null;
 
@@ -293,7 +331,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   }
 
   /** The dispatcher priority list */
-  protected final Map<Long, String> dispatchPriorityList = new HashMap<>();
+  protected final Map<Long, String> dispatchPriorityList = new ConcurrentHashMap<>();
 
   /** Whether to accept a job whose load exceeds the host’s max load */
   protected Boolean acceptJobLoadsExeedingMaxLoad = true;
@@ -426,6 +464,16 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
     }
 
+    if (dispatchExecutor != null) {
+      dispatchExecutor.shutdownNow();
+    }
+
+    if (notificationExecutor != null) {
+      notificationExecutor.shutdownNow();
+    }
+    jobNotificationsEnabled = false;
+    JobCompletionNotifier.disable();
+
     for (ObjectInstance mbean : jmxBeans) {
       JmxUtil.unregisterMXBean(mbean);
     }
@@ -789,6 +837,17 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
     }
 
+    int dispatchThreads = DEFAULT_DISPATCH_THREADS;
+    String dispatchThreadsString = StringUtils.trimToNull((String) properties.get(OPT_DISPATCHTHREADS));
+    if (dispatchThreadsString != null) {
+      try {
+        dispatchThreads = Integer.parseInt(dispatchThreadsString);
+      } catch (NumberFormatException e) {
+        logger.warn("Number of dispatch threads '{}' is malformed, setting to {}", dispatchThreadsString,
+                DEFAULT_DISPATCH_THREADS);
+      }
+    }
+
     long heartbeatInterval = DEFAULT_HEART_BEAT;
     String heartbeatIntervalString = StringUtils.trimToNull((String) properties.get(OPT_HEARTBEATINTERVAL));
     if (StringUtils.isNotBlank(heartbeatIntervalString)) {
@@ -830,6 +889,31 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
     }
 
+    long notificationFallbackInterval = DEFAULT_JOB_NOTIFICATION_FALLBACK_INTERVAL;
+    String notificationFallbackIntervalString = StringUtils.trimToNull(
+            (String) properties.get(OPT_JOB_NOTIFICATION_FALLBACK_INTERVAL));
+    if (notificationFallbackIntervalString != null) {
+      try {
+        notificationFallbackInterval = Long.parseLong(notificationFallbackIntervalString);
+      } catch (NumberFormatException e) {
+        logger.warn("Job notification fallback interval '{}' is malformed, setting to {}",
+                notificationFallbackIntervalString, DEFAULT_JOB_NOTIFICATION_FALLBACK_INTERVAL);
+      }
+    }
+    if (notificationFallbackInterval > 0) {
+      logger.info("Publishing job completion notifications, falling back to polling every {} seconds",
+              notificationFallbackInterval);
+      if (notificationExecutor == null) {
+        notificationExecutor = Executors.newSingleThreadExecutor();
+      }
+      jobNotificationsEnabled = true;
+      JobCompletionNotifier.enable(TimeUnit.SECONDS.toMillis(notificationFallbackInterval));
+    } else {
+      logger.info("Job completion notifications disabled");
+      jobNotificationsEnabled = false;
+      JobCompletionNotifier.disable();
+    }
+
     long dispatchDelay = DEFAULT_DISPATCH_START_DELAY;
 
     // Stop the current scheduled executors so we can configure new ones
@@ -840,6 +924,15 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
 
     scheduledExecutor = Executors.newScheduledThreadPool(2);
 
+    if (dispatchExecutor != null) {
+      dispatchExecutor.shutdown();
+      dispatchExecutor = null;
+    }
+    if (dispatchInterval > 0 && dispatchThreads > 1) {
+      logger.info("Dispatching up to {} jobs in parallel", dispatchThreads);
+      dispatchExecutor = Executors.newFixedThreadPool(dispatchThreads);
+    }
+
     // Schedule the service heartbeat if the interval is > 0
     if (heartbeatInterval > 0) {
       logger.debug("Starting service heartbeat at a custom interval of {}s", heartbeatInterval);
@@ -896,6 +989,47 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     return getJpaJob(id).toJob();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * Progress is only kept in memory by the node processing the job, so the job's processing host is asked for it if
+   * the job is running elsewhere.
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobProgress(long)
+   */
+  @Override
+  public Optional<JobProgress> getJobProgress(long id) throws NotFoundException, ServiceRegistryException {
+    final Optional<JobProgress> progress = JobProgress.get(id);
+    if (progress.isPresent())
+      return progress;
+
+    final Job job = getJob(id);
+    final String processingHost = job.getProcessingHost();
+    if (job.getStatus() != Status.RUNNING || processingHost == null || processingHost.equals(hostName))
+      return Optional.empty();
+
+    final HttpGet get = new HttpGet(
+            UrlSupport.concat(processingHost, "services", "job", Long.toString(id), "progress.json"));
+    HttpResponse response = null;
+    try {
+      response = client.execute(get, JOB_PROGRESS_TIMEOUT, JOB_PROGRESS_TIMEOUT);
+      if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+        logger.debug("{} did not report the progress of {}: {}", processingHost, job, response.getStatusLine());
+        return Optional.empty();
+      }
+      return Optional.of(JobProgress.fromJson(IOUtils.toString(response.getEntity().getContent(), UTF_8)));
+    } catch (Exception e) {
+      logger.debug("Unable to get the progress of {} from {}", job, processingHost, e);
+      return Optional.empty();
+    } finally {
+      try {
+        client.close(response);
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -933,6 +1067,12 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
         updateServiceForFailover(em, job);
       }
 
+      if (oldJob.getStatus() != job.getStatus() && job.getStatus().isTerminated()) {
+        final Job terminated = jpaJob.toJob();
+        ProcessingMetrics.jobTerminated(terminated);
+        publishJobCompletion(terminated);
+      }
+
       return jpaJob;
     } catch (PersistenceException e) {
       throw new ServiceRegistryException(e);
@@ -954,6 +1094,69 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     return updateJob(jpaJob).toJob();
   }
 
+  /**
+   * Notifies the parties waiting for a terminated job. Waiting parties on this node are notified right away. If the
+   * job's parent is processed on another node, that node is notified asynchronously, since that is usually where a
+   * {@link org.opencastproject.job.api.JobBarrier} is waiting for the job.
+   *
+   * @param job
+   *          the terminated job
+   */
+  private void publishJobCompletion(Job job) {
+    if (!jobNotificationsEnabled)
+      return;
+
+    JobCompletionNotifier.publish(job);
+
+    final Long parentJobId = job.getParentJobId();
+    if (parentJobId == null || notificationExecutor == null)
+      return;
+    try {
+      notificationExecutor.execute(() -> notifyParentHost(job, parentJobId));
+    } catch (Exception e) {
+      logger.debug("Unable to schedule the notification about {}", job, e);
+    }
+  }
+
+  /**
+   * Notifies the host processing the parent of a terminated job about its state change.
+   *
+   * @param job
+   *          the terminated job
+   * @param parentJobId
+   *          the identifier of the job's parent
+   */
+  private void notifyParentHost(Job job, long parentJobId) {
+    final String parentHost;
+    try {
+      parentHost = getJob(parentJobId).getProcessingHost();
+    } catch (NotFoundException | ServiceRegistryException e) {
+      logger.debug("Not notifying anybody about {}, its parent {} is not available", job, parentJobId);
+      return;
+    }
+    if (parentHost == null || parentHost.equals(hostName))
+      return;
+
+    final HttpPost post = new HttpPost(
+            UrlSupport.concat(parentHost, "services", "job", Long.toString(job.getId()), "completed"));
+    HttpResponse response = null;
+    try {
+      response = client.execute(post);
+      if (response.getStatusLine().getStatusCode() != HttpStatus.SC_NO_CONTENT) {
+        logger.debug("{} did not accept the notification about {}: {}", parentHost, job, response.getStatusLine());
+      }
+    } catch (Exception e) {
+      // The waiting party will eventually poll for the job itself
+      logger.debug("Unable to notify {} about {}", parentHost, job, e);
+    } finally {
+      try {
+        client.close(response);
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
   /**
    * Processes the job load changes for the *local* load cache
    *
@@ -2899,11 +3102,15 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /**
    * This dispatcher implementation will check for jobs in the QUEUED {@link Status}. If
    * new jobs are found, the dispatcher will attempt to dispatch each job to the least loaded service.
+   * <p>
+   * Jobs are handled in batches: the service and host registrations as well as the host loads are read once per batch,
+   * the assignment of the whole batch is planned in memory and the planned jobs are then sent to their hosts in
+   * parallel, using the {@link #dispatchExecutor} if there is one.
    */
   class JobDispatcher implements Runnable {
 
-    /** A list with job types that cannot be dispatched in each interation */
-    private List<String> undispatchableJobTypes = null;
+    /** A set with job types that cannot be dispatched in each interation */
+    private Set<String> undispatchableJobTypes = null;
 
     /**
      * {@inheritDoc}
@@ -2915,7 +3122,9 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
 
       logger.debug("Starting job dispatching");
 
-      undispatchableJobTypes = new ArrayList<String>();
+      final long dispatchStart = System.currentTimeMillis();
+      int dispatchedJobs = 0;
+      undispatchableJobTypes = ConcurrentHashMap.newKeySet();
       EntityManager em = null;
       try {
         em = emf.createEntityManager();
@@ -2958,7 +3167,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           if (dispatchableJobs.removeAll(workflowJobs) && dispatchableJobs.isEmpty())
             continue;
 
-          dispatchDispatchableJobs(em, dispatchableJobs);
+          dispatchedJobs += dispatchDispatchableJobs(em, dispatchableJobs);
         } while (jobsFound);
 
         jobsOffset = 0;
@@ -2978,11 +3187,11 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           if (dispatchableJobs.removeAll(workflowJobs) && dispatchableJobs.isEmpty())
             continue;
 
-          dispatchDispatchableJobs(em, dispatchableJobs);
+          dispatchedJobs += dispatchDispatchableJobs(em, dispatchableJobs);
         } while (jobsFound);
 
         if (!workflowJobs.isEmpty())
-          dispatchDispatchableJobs(em, workflowJobs);
+          dispatchedJobs += dispatchDispatchableJobs(em, workflowJobs);
 
       } catch (Throwable t) {
         logger.warn("Error dispatching jobs", t);
@@ -2992,19 +3201,31 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           em.close();
       }
 
-      logger.debug("Finished job dispatching");
+      final long dispatchDuration = System.currentTimeMillis() - dispatchStart;
+      if (jobsStatistics != null && dispatchedJobs > 0) {
+        jobsStatistics.updateDispatchRound(dispatchedJobs, dispatchDuration);
+      }
+      logger.debug("Finished job dispatching, dispatched {} jobs in {} ms", dispatchedJobs, dispatchDuration);
     }
 
     /**
-     * Dispatch the given jobs.
+     * Dispatch the given jobs. The assignment of all jobs is planned based on a single snapshot of the service and
+     * host registrations and the host loads, then the planned jobs are dispatched in parallel.
      *
      * @param em the entity manager
      * @param jobsToDispatch list with dispatchable jobs to dispatch
+     * @return the number of jobs that have been dispatched
      */
-    private void dispatchDispatchableJobs(EntityManager em, List<JpaJob> jobsToDispatch) {
-      //Get the current system load
+    private int dispatchDispatchableJobs(EntityManager em, List<JpaJob> jobsToDispatch) {
+      // Take a snapshot of the current system load and registrations for the whole batch
       SystemLoad systemLoad = getHostLoads(em);
+      List<ServiceRegistration> services = getServiceRegistrations(em);
+      List<HostRegistration> allHosts = getHostRegistrations(em);
 
+      // Whether a parent job has running children, by parent job id
+      Map<Long, Boolean> parentsWithRunningChildren = new HashMap<>();
+
+      List<PlannedDispatch> plannedDispatches = new ArrayList<>();
       for (JpaJob job : jobsToDispatch) {
 
         // Remember the job type
@@ -3032,47 +3253,35 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           continue;
         }
 
-        // Try to load the user
-        User user = userDirectoryService.loadUser(creator);
-        if (user == null) {
-          logger.warn("Unable to dispatch {}: creator '{}' is not available", job, creator);
-          continue;
-        }
-        securityService.setUser(user);
-
-        // Start dispatching
         try {
-          List<ServiceRegistration> services = getServiceRegistrations(em);
-          List<HostRegistration> hosts = $(getHostRegistrations(em)).filter(filterOutPriorityHosts._2(job.getId()))
-                  .toList();
+          // Try to load the user
+          User user = userDirectoryService.loadUser(creator);
+          if (user == null) {
+            logger.warn("Unable to dispatch {}: creator '{}' is not available", job, creator);
+            continue;
+          }
+
+          List<HostRegistration> hosts = $(allHosts).filter(filterOutPriorityHosts._2(job.getId())).toList();
           List<ServiceRegistration> candidateServices = null;
 
           // Depending on whether this running job is trying to reach out to other services or whether this is an
           // attempt to execute the next operation in a workflow, choose either from a limited or from the full list
-          // of services
-          Job parentJob = null;
-          try {
-            if (job.getParentJob() != null)
-              parentJob = getJob(job.getParentJob().getId());
-          } catch (NotFoundException e) {
-            // That's ok
-          }
-
+          // of services.
           // When a job A starts a series of child jobs, then those child jobs should only be dispatched at the
           // same time if there is processing capacity available.
-          boolean parentHasRunningChildren = false;
-          if (parentJob != null) {
-            for (Job child : getChildJobs(parentJob.getId())) {
-              if (Status.RUNNING.equals(child.getStatus())) {
-                parentHasRunningChildren = true;
-                break;
-              }
+          Boolean parentHasRunningChildren = null;
+          if (job.getParentJob() != null) {
+            final long parentJobId = job.getParentJob().getId();
+            parentHasRunningChildren = parentsWithRunningChildren.get(parentJobId);
+            if (parentHasRunningChildren == null && !parentsWithRunningChildren.containsKey(parentJobId)) {
+              parentHasRunningChildren = hasRunningChildren(parentJobId);
+              parentsWithRunningChildren.put(parentJobId, parentHasRunningChildren);
             }
           }
 
           // If this is a root job (a new workflow or a new workflow operation), then only dispatch if there is
           // capacity, i. e. the workflow service is ok dispatching the next workflow or the next workflow operation.
-          if (parentJob == null || TYPE_WORKFLOW.equals(jobType) || parentHasRunningChildren) {
+          if (parentHasRunningChildren == null || TYPE_WORKFLOW.equals(jobType) || parentHasRunningChildren) {
             logger.trace("Using available capacity only for dispatching of {} to a service of type '{}'", job,
                     jobType);
             candidateServices = getServiceRegistrationsWithCapacity(jobType, services, hosts, systemLoad);
@@ -3081,29 +3290,20 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
             candidateServices = getServiceRegistrationsByLoad(jobType, services, hosts, systemLoad);
           }
 
-          // Try to dispatch the job
-          String hostAcceptingJob = null;
-          try {
-            hostAcceptingJob = dispatchJob(em, job, candidateServices);
-            try {
-              systemLoad.updateNodeLoad(hostAcceptingJob, job.getJobLoad());
-            } catch (NotFoundException e) {
-              logger.info("Host {} not found in load list, cannot dispatch {} to it", hostAcceptingJob, job);
-            }
-
-            dispatchPriorityList.remove(job.getId());
-          } catch (ServiceUnavailableException e) {
+          if (candidateServices.isEmpty()) {
             logger.debug("Jobs of type {} currently cannot be dispatched", job.getOperation());
             // Don't mark workflow jobs as undispatchable to not impact worklfow operations
             if (!TYPE_WORKFLOW.equals(jobType))
               undispatchableJobTypes.add(jobSignature);
             continue;
-          } catch (UndispatchableJobException e) {
-            logger.debug("{} currently cannot be dispatched", job);
-            continue;
           }
 
-          logger.debug("{} dispatched to {}", job, hostAcceptingJob);
+          // Account for the job on the host that is most likely to accept it, so that the remaining jobs of this
+          // batch are planned based on the resulting load
+          String plannedHost = candidateServices.get(0).getHost();
+          updateNodeLoad(systemLoad, plannedHost, job, job.getJobLoad());
+
+          plannedDispatches.add(new PlannedDispatch(job, organization, user, candidateServices, plannedHost));
         } catch (ServiceRegistryException e) {
           Throwable cause = (e.getCause() != null) ? e.getCause() : e;
           logger.error("Error dispatching {}: {}", job, cause);
@@ -3112,6 +3312,131 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           securityService.setOrganization(null);
         }
       }
+
+      if (plannedDispatches.isEmpty()) {
+        return 0;
+      }
+
+      // Send the planned jobs to their hosts
+      int dispatched = 0;
+      final ExecutorService executor = dispatchExecutor;
+      if (executor == null || plannedDispatches.size() == 1) {
+        for (PlannedDispatch plannedDispatch : plannedDispatches) {
+          if (dispatchPlannedJob(em, plannedDispatch, systemLoad)) {
+            dispatched++;
+          }
+        }
+        return dispatched;
+      }
+
+      List<Callable<Boolean>> dispatchTasks = new ArrayList<>(plannedDispatches.size());
+      for (PlannedDispatch plannedDispatch : plannedDispatches) {
+        dispatchTasks.add(() -> {
+          // Entity managers must not be shared between threads
+          EntityManager dispatchEm = emf.createEntityManager();
+          try {
+            return dispatchPlannedJob(dispatchEm, plannedDispatch, systemLoad);
+          } finally {
+            dispatchEm.close();
+          }
+        });
+      }
+      try {
+        for (Future<Boolean> result : executor.invokeAll(dispatchTasks)) {
+          try {
+            if (result.get()) {
+              dispatched++;
+            }
+          } catch (ExecutionException e) {
+            logger.warn("Error dispatching jobs", e.getCause());
+          }
+        }
+      } catch (InterruptedException e) {
+        logger.warn("Interrupted while dispatching jobs");
+        Thread.currentThread().interrupt();
+      }
+      return dispatched;
+    }
+
+    /**
+     * Returns whether the given job has running children.
+     *
+     * @param parentJobId
+     *          the identifier of the parent job
+     * @return <code>true</code> if at least one of the child jobs is running, <code>null</code> if the parent job does
+     *         not exist
+     * @throws ServiceRegistryException
+     *           if the jobs can't be loaded
+     */
+    private Boolean hasRunningChildren(long parentJobId) throws ServiceRegistryException {
+      try {
+        getJob(parentJobId);
+      } catch (NotFoundException e) {
+        // That's ok
+        return null;
+      }
+      for (Job child : getChildJobs(parentJobId)) {
+        if (Status.RUNNING.equals(child.getStatus())) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Dispatches a planned job to one of its candidate services. The candidates are ranked again based on the load
+     * resulting from the jobs of this batch dispatched so far, and the load is accounted for on the host actually
+     * accepting the job.
+     *
+     * @param em
+     *          the entity manager
+     * @param plannedDispatch
+     *          the planned job
+     * @param systemLoad
+     *          the load of the hosts including the planned jobs of this batch
+     * @return whether the job has been dispatched
+     */
+    private boolean dispatchPlannedJob(EntityManager em, PlannedDispatch plannedDispatch, SystemLoad systemLoad) {
+      final JpaJob job = plannedDispatch.job;
+      final String jobSignature = job.getJobType() + '@' + job.getOperation();
+      final List<ServiceRegistration> candidateServices = new ArrayList<>(plannedDispatch.candidateServices);
+      synchronized (systemLoad) {
+        updateNodeLoad(systemLoad, plannedDispatch.plannedHost, job, -job.getJobLoad());
+        candidateServices.sort(new LoadComparator(systemLoad));
+      }
+
+      // Another job of the same type may have been refused since this job was planned
+      if (undispatchableJobTypes.contains(jobSignature) && !dispatchPriorityList.containsKey(job.getId())) {
+        logger.trace("Skipping dispatching of {} with type '{}' for this round of dispatching", job,
+                job.getJobType());
+        return false;
+      }
+
+      securityService.setOrganization(plannedDispatch.organization);
+      securityService.setUser(plannedDispatch.user);
+      try {
+        String hostAcceptingJob = dispatchJob(em, job, candidateServices);
+        synchronized (systemLoad) {
+          updateNodeLoad(systemLoad, hostAcceptingJob, job, job.getJobLoad());
+        }
+        dispatchPriorityList.remove(job.getId());
+        logger.debug("{} dispatched to {}", job, hostAcceptingJob);
+        return true;
+      } catch (ServiceUnavailableException e) {
+        logger.debug("Jobs of type {} currently cannot be dispatched", job.getOperation());
+        // Don't mark workflow jobs as undispatchable to not impact worklfow operations
+        if (!TYPE_WORKFLOW.equals(job.getJobType()))
+          undispatchableJobTypes.add(jobSignature);
+      } catch (UndispatchableJobException e) {
+        logger.debug("{} currently cannot be dispatched", job);
+      } catch (ServiceRegistryException e) {
+        Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+        logger.error("Error dispatching {}: {}", job, cause);
+      } finally {
+        securityService.setUser(null);
+        securityService.setOrganization(null);
+      }
+      return false;
     }
 
     /**
@@ -3258,6 +3583,45 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       throw new UndispatchableJobException(job + " is currently undispatchable");
     }
 
+    /**
+     * Adds the load of a job to a host.
+     *
+     * @param systemLoad
+     *          the load of the hosts
+     * @param host
+     *          the host
+     * @param job
+     *          the job
+     * @param load
+     *          the load to add, negative to remove it
+     */
+    private void updateNodeLoad(SystemLoad systemLoad, String host, JpaJob job, float load) {
+      try {
+        systemLoad.updateNodeLoad(host, load);
+      } catch (NotFoundException e) {
+        logger.info("Host {} not found in load list, cannot dispatch {} to it", host, job);
+      }
+    }
+
+    /** A job along with the context it is dispatched in and the services it may be dispatched to */
+    private final class PlannedDispatch {
+      private final JpaJob job;
+      private final Organization organization;
+      private final User user;
+      private final List<ServiceRegistration> candidateServices;
+      /** The host the load of the job has been accounted for while planning */
+      private final String plannedHost;
+
+      private PlannedDispatch(JpaJob job, Organization organization, User user,
+              List<ServiceRegistration> candidateServices, String plannedHost) {
+        this.job = job;
+        this.organization = organization;
+        this.user = user;
+        this.candidateServices = candidateServices;
+        this.plannedHost = plannedHost;
+      }
+    }
+
     private final Fn2<HostRegistration, Long, Boolean> filterOutPriorityHosts = new Fn2<HostRegistration, Long, Boolean>() {
       @Override
       public Boolean apply(HostRegistration host, Long jobId) {
@@ -33,6 +33,7 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import org.opencastproject.job.api.JaxbJob;
 import org.opencastproject.job.api.JaxbJobList;
 import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobCompletionNotifier;
 import org.opencastproject.job.api.JobParser;
 import org.opencastproject.rest.RestConstants;
 import org.opencastproject.security.api.SecurityService;
@@ -537,6 +538,23 @@ public class ServiceRegistryEndpoint {
     }
   }
 
+  @POST
+  @Path("job/{id}/completed")
+  @RestQuery(name = "jobcompleted", description = "Notifies this server that a job it may be waiting for has terminated", returnDescription = "No content", pathParameters = { @RestParameter(name = "id", isRequired = true, type = Type.STRING, description = "The job identifier") }, responses = {
+          @RestResponse(responseCode = SC_NO_CONTENT, description = "Notification accepted."),
+          @RestResponse(responseCode = SC_NOT_FOUND, description = "Job not found.") })
+  public Response jobCompleted(@PathParam("id") long id) throws NotFoundException {
+    // Only look the job up if anybody on this node is actually waiting for it
+    if (JobCompletionNotifier.hasListeners(id)) {
+      try {
+        JobCompletionNotifier.publish(serviceRegistry.getJob(id));
+      } catch (ServiceRegistryException e) {
+        throw new WebApplicationException(e);
+      }
+    }
+    return Response.status(Status.NO_CONTENT).build();
+  }
+
   @GET
   @Path("job/{id}.xml")
   @Produces(MediaType.TEXT_XML)
@@ -561,6 +579,22 @@ public class ServiceRegistryEndpoint {
     }
   }
 
+  @GET
+  @Path("job/{id}/progress.json")
+  @Produces(MediaType.APPLICATION_JSON)
+  @RestQuery(name = "jobprogressasjson", description = "Returns the progress reported by a running job as JSON, e.g. the media time an encoding has processed so far and its current speed.", returnDescription = "The job progress as JSON", pathParameters = { @RestParameter(name = "id", isRequired = true, type = Type.STRING, description = "The job identifier") }, responses = {
+          @RestResponse(responseCode = SC_OK, description = "Progress found."),
+          @RestResponse(responseCode = SC_NOT_FOUND, description = "No job with that identifier exists or it does not report any progress.") })
+  public Response getJobProgressAsJson(@PathParam("id") long id) throws NotFoundException {
+    try {
+      return serviceRegistry.getJobProgress(id)
+              .map(progress -> Response.ok(progress.toJson()).build())
+              .orElseGet(() -> Response.status(Status.NOT_FOUND).build());
+    } catch (ServiceRegistryException e) {
+      throw new WebApplicationException(e);
+    }
+  }
+
   @GET
   @Path("job/{id}/children.xml")
   @Produces(MediaType.TEXT_XML)
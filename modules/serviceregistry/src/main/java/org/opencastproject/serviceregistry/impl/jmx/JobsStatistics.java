@@ -43,6 +43,11 @@ public class JobsStatistics extends NotificationBroadcasterSupport implements Jo
   private Map<String, Long> avgRunTimes = new HashMap<String, Long>();
   private Map<String, Long> avgQueueTimes = new HashMap<String, Long>();
 
+  // Dispatching throughput
+  private volatile long dispatchedJobCount = 0;
+  private volatile int lastDispatchRoundJobCount = 0;
+  private volatile long lastDispatchRoundDuration = 0;
+
   // Job Table runTime, queueTime
   private long sequenceNumber = 1;
   private final String hostName;
@@ -73,6 +78,20 @@ public class JobsStatistics extends NotificationBroadcasterSupport implements Jo
     sendNotification(JmxUtil.createUpdateNotification(this, sequenceNumber++, "Job updated"));
   }
 
+  /**
+   * Records the outcome of a round of job dispatching.
+   *
+   * @param dispatchedJobs
+   *          the number of jobs dispatched in this round
+   * @param duration
+   *          the duration of the round in milliseconds
+   */
+  public synchronized void updateDispatchRound(int dispatchedJobs, long duration) {
+    dispatchedJobCount += dispatchedJobs;
+    lastDispatchRoundJobCount = dispatchedJobs;
+    lastDispatchRoundDuration = duration;
+  }
+
   @Override
   public MBeanNotificationInfo[] getNotificationInfo() {
     String[] types = new String[] { JmxUtil.OPENCAST_UPDATE_NOTIFICATION };
@@ -163,6 +182,40 @@ public class JobsStatistics extends NotificationBroadcasterSupport implements Jo
     return countJobs(hostName, Status.FAILED);
   }
 
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getDispatchedJobCount()
+   */
+  @Override
+  public long getDispatchedJobCount() {
+    return dispatchedJobCount;
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getLastDispatchRoundJobCount()
+   */
+  @Override
+  public int getLastDispatchRoundJobCount() {
+    return lastDispatchRoundJobCount;
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getLastDispatchRoundDuration()
+   */
+  @Override
+  public long getLastDispatchRoundDuration() {
+    return lastDispatchRoundDuration;
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getDispatchThroughput()
+   */
+  @Override
+  public synchronized double getDispatchThroughput() {
+    if (lastDispatchRoundDuration <= 0)
+      return lastDispatchRoundJobCount;
+    return lastDispatchRoundJobCount * 1000.0 / lastDispatchRoundDuration;
+  }
+
   /**
    * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getAverageJobRunTime()
    */
@@ -180,4 +180,32 @@ public interface JobsStatisticsMXBean {
    */
   String[] getAverageJobQueueTime();
 
+  /**
+   * Gets the number of jobs dispatched by this node since it has been started
+   *
+   * @return the number of dispatched jobs
+   */
+  long getDispatchedJobCount();
+
+  /**
+   * Gets the number of jobs dispatched by this node in the last dispatching round that dispatched any jobs
+   *
+   * @return the number of jobs dispatched in that round
+   */
+  int getLastDispatchRoundJobCount();
+
+  /**
+   * Gets the duration of the last dispatching round that dispatched any jobs
+   *
+   * @return the duration in milliseconds
+   */
+  long getLastDispatchRoundDuration();
+
+  /**
+   * Gets the dispatching throughput of the last dispatching round that dispatched any jobs
+   *
+   * @return the number of jobs dispatched per second
+   */
+  double getDispatchThroughput();
+
 }
@@ -36,12 +36,16 @@ import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.User;
 import org.opencastproject.security.api.UserDirectoryService;
 import org.opencastproject.security.api.UserProvider;
+import org.opencastproject.security.util.SecurityUtil;
 import org.opencastproject.util.data.Collections;
 import org.opencastproject.util.data.Tuple;
+import org.opencastproject.util.jmx.JmxUtil;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
 import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.component.ComponentContext;
@@ -66,11 +70,17 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.management.ObjectInstance;
+
 /**
  * Federates user and role providers, and exposes a spring UserDetailsService so user lookups can be used by spring
  * security.
@@ -82,7 +92,8 @@ import java.util.stream.Stream;
     immediate = true,
     service = { UserDirectoryService.class, RoleDirectoryService.class, UserDetailsService.class }
 )
-public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, UserDetailsService, RoleDirectoryService {
+public class UserAndRoleDirectoryServiceImpl
+    implements UserDirectoryService, UserDetailsService, RoleDirectoryService, UserDirectoryCacheMXBean {
 
   /** The logger */
   private static final Logger logger = LoggerFactory.getLogger(UserAndRoleDirectoryServiceImpl.class);
@@ -96,6 +107,15 @@ public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, Us
   /** The configuration property for the user cache expiry time */
   public static final String USER_CACHE_EXPIRY_KEY = "org.opencastproject.userdirectory.cache.expiry";
 
+  /** The configuration property for the time after which cached users are refreshed in the background */
+  public static final String USER_CACHE_REFRESH_KEY = "org.opencastproject.userdirectory.cache.refresh";
+
+  /** The configuration property for the time unknown user names are cached */
+  public static final String USER_CACHE_NEGATIVE_EXPIRY_KEY = "org.opencastproject.userdirectory.cache.negative.expiry";
+
+  /** The type of the JMX bean exposing the cache statistics */
+  public static final String JMX_USER_CACHE_TYPE = "UserDirectoryCache";
+
   /** The list of user providers */
   protected List<UserProvider> userProviders = new CopyOnWriteArrayList<>();
 
@@ -105,27 +125,62 @@ public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, Us
   /** The security service */
   protected SecurityService securityService = null;
 
-  /** A token to store in the miss cache */
-  private Object nullToken = new Object();
-
   private final CacheLoader<Tuple<String, String>, Object> userLoader
       = new CacheLoader<Tuple<String, String>, Object>() {
         @Override
         public Object load(Tuple<String, String> orgUser) {
           final User user = loadUser(orgUser);
-          return user == null ? nullToken : user;
+          return user == null ? new UnknownUser() : user;
+        }
+
+        @Override
+        public ListenableFuture<Object> reload(Tuple<String, String> orgUser, Object oldValue) throws Exception {
+          // Reload in the background, but within the security context of the request triggering the refresh since
+          // user providers look up the current organization
+          final Organization org = securityService.getOrganization();
+          if (org == null || !org.getId().equals(orgUser.getA())) {
+            return super.reload(orgUser, oldValue);
+          }
+          final User user = securityService.getUser();
+          final SettableFuture<Object> future = SettableFuture.create();
+          refreshExecutor.execute(() -> SecurityUtil.runAs(securityService, org, user, () -> {
+            try {
+              future.set(load(orgUser));
+            } catch (Throwable t) {
+              future.setException(t);
+            }
+          }));
+          return future;
         }
       };
 
-  /** The user cache */
+  /** The user cache, holding resolved users as well as {@link UnresolvedUser}s and {@link UnknownUser}s */
   private LoadingCache<Tuple<String, String>, Object> cache;
 
+  /** Runs background refreshes of cached users */
+  private ExecutorService refreshExecutor;
+
+  /** Number of users found per user provider */
+  private final Map<String, LongAdder> providerHits = new ConcurrentHashMap<>();
+
+  /** Number of users not found per user provider */
+  private final Map<String, LongAdder> providerMisses = new ConcurrentHashMap<>();
+
+  /** The registered cache statistics bean */
+  private ObjectInstance cacheMXBean;
+
   /** Size of the user cache */
   private int cacheSize = 200;
 
   /** Expiry time for elements in the user cache */
   private int cacheExpiryTimeInMinutes = 1;
 
+  /** Time in seconds after which cached users are refreshed, derived from the expiry time if negative */
+  private int cacheRefreshTimeInSeconds = -1;
+
+  /** Time in seconds unknown user names are cached */
+  private int negativeCacheExpiryTimeInSeconds = 30;
+
   /**
    * Callback to activate the component.
    *
@@ -135,38 +190,66 @@ public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, Us
   protected void activate(ComponentContext cc) {
 
     if (cc != null) {
-      String stringValue = cc.getBundleContext().getProperty(USER_CACHE_SIZE_KEY);
-      if (StringUtils.isNotEmpty(stringValue)) {
-        try {
-          cacheSize = Integer.parseInt(StringUtils.trimToNull(stringValue));
-        } catch (Exception e) {
-          logger.warn("Ignoring invalid value {} for user cache size", stringValue);
-        }
-      } else {
-        logger.info("Using default value {} for user cache size", cacheSize);
-      }
-
-      stringValue = cc.getBundleContext().getProperty(USER_CACHE_EXPIRY_KEY);
-      if (StringUtils.isNotBlank(stringValue)) {
-        try {
-          cacheExpiryTimeInMinutes = Integer.parseInt(StringUtils.trimToNull(stringValue));
-        } catch (Exception e) {
-          logger.warn("Ignoring invalid value {} for user cache expiry time", stringValue);
-        }
-      } else {
-        logger.info("Using default value {} for user cache expiry time", cacheExpiryTimeInMinutes);
-      }
+      cacheSize = getIntProperty(cc, USER_CACHE_SIZE_KEY, cacheSize, "user cache size");
+      cacheExpiryTimeInMinutes = getIntProperty(cc, USER_CACHE_EXPIRY_KEY, cacheExpiryTimeInMinutes,
+          "user cache expiry time");
+      cacheRefreshTimeInSeconds = getIntProperty(cc, USER_CACHE_REFRESH_KEY, cacheRefreshTimeInSeconds,
+          "user cache refresh time");
+      negativeCacheExpiryTimeInSeconds = getIntProperty(cc, USER_CACHE_NEGATIVE_EXPIRY_KEY,
+          negativeCacheExpiryTimeInSeconds, "user cache expiry time of unknown users");
     }
 
+    // Refresh users after three quarters of their lifetime by default
+    long refreshTime = cacheRefreshTimeInSeconds < 0
+        ? TimeUnit.MINUTES.toSeconds(cacheExpiryTimeInMinutes) * 3 / 4
+        : cacheRefreshTimeInSeconds;
+
     // Create the user cache
-    cache = CacheBuilder.newBuilder()
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
         .expireAfterWrite(cacheExpiryTimeInMinutes, TimeUnit.MINUTES)
         .maximumSize(cacheSize)
-        .build(userLoader);
+        .recordStats();
+    if (refreshTime > 0 && refreshTime < TimeUnit.MINUTES.toSeconds(cacheExpiryTimeInMinutes)) {
+      cacheBuilder.refreshAfterWrite(refreshTime, TimeUnit.SECONDS);
+    } else {
+      refreshTime = 0;
+    }
+    cache = cacheBuilder.build(userLoader);
+    refreshExecutor = Executors.newSingleThreadExecutor();
+    cacheMXBean = JmxUtil.registerMXBean(this, JMX_USER_CACHE_TYPE);
+
+    logger.info("Activated UserAndRoleDirectoryService with user cache of size {}, expiry time {} minutes, refresh "
+        + "time {} seconds and expiry time of unknown users {} seconds", cacheSize, cacheExpiryTimeInMinutes,
+        refreshTime, negativeCacheExpiryTimeInSeconds);
+
+  }
 
-    logger.info("Activated UserAndRoleDirectoryService with user cache of size {}, expiry time {} minutes",
-        cacheSize, cacheExpiryTimeInMinutes);
+  /**
+   * Callback to deactivate the component.
+   */
+  protected void deactivate() {
+    if (cacheMXBean != null) {
+      JmxUtil.unregisterMXBean(cacheMXBean);
+      cacheMXBean = null;
+    }
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+  }
 
+  /** Reads a numeric bundle property, returning the given default if it is not set or invalid. */
+  private static int getIntProperty(ComponentContext cc, String key, int defaultValue, String description) {
+    String stringValue = cc.getBundleContext().getProperty(key);
+    if (StringUtils.isNotBlank(stringValue)) {
+      try {
+        return Integer.parseInt(StringUtils.trimToNull(stringValue));
+      } catch (Exception e) {
+        logger.warn("Ignoring invalid value {} for {}", stringValue, description);
+      }
+    } else {
+      logger.info("Using default value {} for {}", defaultValue, description);
+    }
+    return defaultValue;
   }
 
   /**
@@ -262,42 +345,110 @@ public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, Us
       throw new IllegalStateException("No organization is set");
     }
 
-    Object user = cache.getUnchecked(tuple(org.getId(), userName));
-    if (user == nullToken) {
-      cache.invalidate(tuple(org.getId(), userName));
-      return null;
-    } else {
+    final Tuple<String, String> key = tuple(org.getId(), userName);
+    Object user = cache.getUnchecked(key);
+    if (user instanceof UnresolvedUser || isExpired(user)) {
+      // Users cached by bulk lookups lack the roles from the role providers
+      cache.invalidate(key);
+      user = cache.getUnchecked(key);
+    }
+    if (user instanceof User) {
       return (User) user;
     }
+    if (negativeCacheExpiryTimeInSeconds <= 0) {
+      cache.invalidate(key);
+    }
+    return null;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Users are served from the user cache if possible. The user providers are only asked for the remaining users, which
+   * are cached afterwards, as are the names none of the providers knows.
+   *
+   * @see org.opencastproject.security.api.UserDirectoryService#loadUsers(java.util.Collection)
+   */
   @Override
   public Iterator<User> loadUsers(Collection<String> userNames) {
     Organization org = securityService.getOrganization();
+    if (org == null) {
+      throw new IllegalStateException("No organization is set");
+    }
+
     Map<String, User> result = new HashMap<>(userNames.size());
-    Set<String> remainingNames = new HashSet<>(userNames);
+    Set<String> missingNames = new HashSet<>();
+    for (String userName : userNames) {
+      Object user = cache.getIfPresent(tuple(org.getId(), userName));
+      if (user instanceof User) {
+        result.put(userName, (User) user);
+      } else if (user instanceof UnresolvedUser) {
+        result.put(userName, ((UnresolvedUser) user).user);
+      } else if (user == null || isExpired(user)) {
+        missingNames.add(userName);
+      }
+    }
+    if (missingNames.isEmpty()) {
+      return result.values().iterator();
+    }
+
+    Map<String, User> loadedUsers = new HashMap<>(missingNames.size());
+    Set<String> remainingNames = new HashSet<>(missingNames);
     for (UserProvider userProvider : userProviders) {
       String providerOrgId = userProvider.getOrganization();
       if (!ALL_ORGANIZATIONS.equals(providerOrgId) && !org.getId().equals(providerOrgId)) {
         continue;
       }
+      int found = 0;
+      int requested = remainingNames.size();
       for (Iterator<User> it = userProvider.findUsers(remainingNames); it.hasNext();) {
         User user = it.next();
-        User priorUser = result.get(user.getUsername());
+        User priorUser = loadedUsers.get(user.getUsername());
         if (priorUser != null) {
-          result.put(user.getUsername(), mergeUsers(priorUser, user));
+          loadedUsers.put(user.getUsername(), mergeUsers(priorUser, user));
         } else {
-          result.put(user.getUsername(), user);
+          loadedUsers.put(user.getUsername(), user);
         }
+        found++;
         // Return super users without merging to avoid unnecessary requests to other user providers
         if (InMemoryUserAndRoleProvider.PROVIDER_NAME.equals(userProvider.getName())) {
           remainingNames.remove(user.getUsername());
         }
       }
+      recordProviderLookup(userProvider, found, requested - found);
+    }
+
+    for (String userName : missingNames) {
+      final User user = loadedUsers.get(userName);
+      final Object entry;
+      if (user != null) {
+        result.put(userName, user);
+        entry = new UnresolvedUser(user);
+      } else if (negativeCacheExpiryTimeInSeconds > 0) {
+        entry = new UnknownUser();
+      } else {
+        continue;
+      }
+      // Never replace a fully resolved user loaded in the meantime
+      cache.asMap().compute(tuple(org.getId(), userName), (key, value) -> value instanceof User ? value : entry);
     }
     return result.values().iterator();
   }
 
+  /** Checks if the given cache entry is an unknown user which is to be looked up again. */
+  private boolean isExpired(Object entry) {
+    return entry instanceof UnknownUser && negativeCacheExpiryTimeInSeconds > 0
+        && System.currentTimeMillis() - ((UnknownUser) entry).created
+            > TimeUnit.SECONDS.toMillis(negativeCacheExpiryTimeInSeconds);
+  }
+
+  /** Counts the users found and not found by a user provider. */
+  private void recordProviderLookup(UserProvider userProvider, long hits, long misses) {
+    final String name = StringUtils.defaultIfBlank(userProvider.getName(), userProvider.getClass().getSimpleName());
+    providerHits.computeIfAbsent(name, n -> new LongAdder()).add(hits);
+    providerMisses.computeIfAbsent(name, n -> new LongAdder()).add(misses);
+  }
+
   /** Load a user of an organization. */
   private User loadUser(Tuple<String, String> orgUser) {
     // Collect all of the roles known from each of the user providers for this user
@@ -309,8 +460,10 @@ public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, Us
       }
       User providerUser = userProvider.loadUser(orgUser.getB());
       if (providerUser == null) {
+        recordProviderLookup(userProvider, 0, 1);
         continue;
       }
+      recordProviderLookup(userProvider, 1, 0);
 
       User tmpUser = JaxbUser.fromUser(providerUser);
       if (user == null) {
@@ -530,4 +683,66 @@ public class UserAndRoleDirectoryServiceImpl implements UserDirectoryService, Us
     logger.trace("Invalidated user {} from user directories", userName);
   }
 
+  /**
+   * @see org.opencastproject.userdirectory.UserDirectoryCacheMXBean#getHitCount()
+   */
+  @Override
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  /**
+   * @see org.opencastproject.userdirectory.UserDirectoryCacheMXBean#getMissCount()
+   */
+  @Override
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /**
+   * @see org.opencastproject.userdirectory.UserDirectoryCacheMXBean#getHitRate()
+   */
+  @Override
+  public double getHitRate() {
+    return cache.stats().hitRate();
+  }
+
+  /**
+   * @see org.opencastproject.userdirectory.UserDirectoryCacheMXBean#getSize()
+   */
+  @Override
+  public long getSize() {
+    return cache.size();
+  }
+
+  /**
+   * @see org.opencastproject.userdirectory.UserDirectoryCacheMXBean#getProviderHitCounts()
+   */
+  @Override
+  public Map<String, Long> getProviderHitCounts() {
+    return providerHits.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+  }
+
+  /**
+   * @see org.opencastproject.userdirectory.UserDirectoryCacheMXBean#getProviderMissCounts()
+   */
+  @Override
+  public Map<String, Long> getProviderMissCounts() {
+    return providerMisses.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+  }
+
+  /** A user returned by a bulk lookup, lacking the roles from the role providers. */
+  private static final class UnresolvedUser {
+    private final User user;
+
+    private UnresolvedUser(User user) {
+      this.user = user;
+    }
+  }
+
+  /** Marks a user name none of the user providers knows. */
+  private static final class UnknownUser {
+    private final long created = System.currentTimeMillis();
+  }
+
 }
@@ -0,0 +1,74 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.userdirectory;
+
+import java.util.Map;
+
+/**
+ * JMX Bean interface exposing statistics of the user cache of the user and role directory
+ */
+public interface UserDirectoryCacheMXBean {
+
+  /**
+   * Gets the number of user lookups served from the cache
+   *
+   * @return the number of cache hits
+   */
+  long getHitCount();
+
+  /**
+   * Gets the number of user lookups which had to be passed on to the user providers
+   *
+   * @return the number of cache misses
+   */
+  long getMissCount();
+
+  /**
+   * Gets the ratio of user lookups served from the cache
+   *
+   * @return the hit rate between 0 and 1
+   */
+  double getHitRate();
+
+  /**
+   * Gets the number of users currently cached, including users known not to exist
+   *
+   * @return the number of cache entries
+   */
+  long getSize();
+
+  /**
+   * Gets the number of users found by each user provider, keyed by provider name
+   *
+   * @return the number of users found per provider
+   */
+  Map<String, Long> getProviderHitCounts();
+
+  /**
+   * Gets the number of users requested from but not found by each user provider, keyed by provider name
+   *
+   * @return the number of users not found per provider
+   */
+  Map<String, Long> getProviderMissCounts();
+
+}
@@ -23,6 +23,7 @@ package org.opencastproject.userdirectory;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.opencastproject.security.api.DefaultOrganization;
@@ -42,8 +43,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Tests the combined user and role directory service.
@@ -220,4 +226,62 @@ public class UserAndRoleDirectoryServiceImplTest {
             || "ROLE_MATH_2012".equals(roles.get(0).getName()));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testLoadUsersFromCache() {
+    final Set<String> knownNames = new HashSet<>(Arrays.asList("user1", "user2"));
+    final List<Set<String>> requests = new ArrayList<>();
+
+    UserProvider provider = EasyMock.createNiceMock(UserProvider.class);
+    EasyMock.expect(provider.getOrganization()).andReturn(org.getId()).anyTimes();
+    EasyMock.expect(provider.getName()).andReturn("bulk").anyTimes();
+    EasyMock.expect(provider.findUsers(EasyMock.<Collection<String>> anyObject())).andAnswer(() -> {
+      Set<String> names = new HashSet<>((Collection<String>) EasyMock.getCurrentArguments()[0]);
+      requests.add(names);
+      return names.stream().filter(knownNames::contains)
+          .map(name -> (User) new JaxbUser(name, "bulk", org, role1))
+          .iterator();
+    }).anyTimes();
+    EasyMock.expect(provider.loadUser("user1")).andReturn(new JaxbUser("user1", "bulk", org, role1)).once();
+
+    RoleProvider roleProvider = EasyMock.createNiceMock(RoleProvider.class);
+    EasyMock.expect(roleProvider.getOrganization()).andReturn(org.getId()).anyTimes();
+    EasyMock.expect(roleProvider.getRolesForUser("user1")).andReturn(Arrays.asList(role2)).anyTimes();
+
+    SecurityService securityService = EasyMock.createNiceMock(SecurityService.class);
+    EasyMock.expect(securityService.getOrganization()).andReturn(org).anyTimes();
+    EasyMock.replay(provider, roleProvider, securityService);
+
+    UserAndRoleDirectoryServiceImpl bulkDirectory = new UserAndRoleDirectoryServiceImpl();
+    bulkDirectory.activate(null);
+    bulkDirectory.setSecurityService(securityService);
+    bulkDirectory.addUserProvider(provider);
+    bulkDirectory.addRoleProvider(roleProvider);
+
+    List<User> users = IteratorUtils.toList(bulkDirectory.loadUsers(Arrays.asList("user1", "user2", "unknown")));
+    assertEquals(knownNames, users.stream().map(User::getUsername).collect(Collectors.toSet()));
+    assertEquals(1, requests.size());
+
+    // Cached users and unknown names are not requested again
+    users = IteratorUtils.toList(bulkDirectory.loadUsers(Arrays.asList("user1", "user2", "unknown")));
+    assertEquals(2, users.size());
+    assertEquals(1, requests.size());
+
+    users = IteratorUtils.toList(bulkDirectory.loadUsers(Arrays.asList("user1", "user3")));
+    assertEquals(1, users.size());
+    assertEquals(2, requests.size());
+    assertEquals(Collections.singleton("user3"), requests.get(1));
+
+    assertEquals(Long.valueOf(2), bulkDirectory.getProviderHitCounts().get("bulk"));
+    assertEquals(Long.valueOf(2), bulkDirectory.getProviderMissCounts().get("bulk"));
+
+    // Single lookups resolve the roles of users cached by bulk lookups, but not of unknown users
+    User user = bulkDirectory.loadUser("user1");
+    assertTrue(user.getRoles().stream().anyMatch(role -> role2.getName().equals(role.getName())));
+    assertNull(bulkDirectory.loadUser("unknown"));
+    bulkDirectory.loadUser("user1");
+    EasyMock.verify(provider);
+    bulkDirectory.deactivate();
+  }
+
 }
@@ -2,10 +2,10 @@ grammar WorkflowCondition;
 
 booleanExpression : booleanTerm ( OR booleanExpression )? ;
 booleanTerm : booleanValue ( AND booleanTerm )? ;
-booleanValue : ( NOT )* ( '(' booleanExpression ')' | relation | BOOL ) ;
+booleanValue : ( NOT )* ( '(' booleanExpression ')' | relation | BOOL | VARIABLE ) ;
 relation : relationOperand COMPARISONOPERATOR relationOperand ;
 relationOperand : atom ( NUMERICALOPERATOR atom )* | atom ;
-atom : '(' relationOperand ')' | NUMBER | STRING | BOOL ;
+atom : '(' relationOperand ')' | NUMBER | STRING | BOOL | VARIABLE ;
 
 AND: 'AND' ;
 OR: 'OR' ;
@@ -15,5 +15,6 @@ COMPARISONOPERATOR: '<=' | '<' | '==' | '>' | '!=' | '>=' ;
 NUMERICALOPERATOR: '+' | '-' | '*' | '/' ;
 BOOL: 'true' | 'false' ;
 STRING : '\'' ( '\'\'' | ~['] )* '\'';
+VARIABLE : '${' ~[:}]+ ( ':' ~[}]+ )? '}' ;
 WS: [ \t\r\n]+ -> skip ;
 
@@ -0,0 +1,99 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.conditionparser;
+
+import java.util.function.Function;
+
+/**
+ * A compiled workflow condition, which can be evaluated any number of times without parsing it again. Variables of the
+ * form <code>${name:default}</code> are bound when the condition is evaluated. Instances are immutable and may be
+ * shared between threads.
+ */
+public final class WorkflowCondition {
+
+  /** A part of a condition evaluating to a boolean value */
+  interface BooleanNode {
+    boolean evaluate(Function<String, String> variables);
+  }
+
+  /** A part of a condition evaluating to a string or a number */
+  interface ValueNode {
+    Atom evaluate(Function<String, String> variables);
+  }
+
+  private final String expression;
+  private final BooleanNode root;
+
+  WorkflowCondition(String expression, BooleanNode root) {
+    this.expression = expression;
+    this.root = root;
+  }
+
+  /**
+   * Parses and compiles a condition.
+   *
+   * @param expression
+   *          the condition
+   * @return the compiled condition
+   * @throws IllegalArgumentException
+   *           if the condition is not valid
+   */
+  public static WorkflowCondition parse(String expression) throws IllegalArgumentException {
+    return WorkflowConditionCompiler.compile(expression);
+  }
+
+  /**
+   * Evaluates the condition. Variables which are not set or blank are replaced by their default value, or by
+   * <code>false</code> if there is none.
+   *
+   * @param variables
+   *          returns the value of a variable or <code>null</code> if it is not set
+   * @return the result of the condition
+   * @throws IllegalArgumentException
+   *           if the condition cannot be evaluated with the given variables, e.g. if a variable used as boolean value
+   *           is neither <code>true</code> nor <code>false</code>
+   */
+  public boolean evaluate(Function<String, String> variables) throws IllegalArgumentException {
+    return root.evaluate(variables);
+  }
+
+  /**
+   * Evaluates the condition, replacing all variables by their default value.
+   *
+   * @return the result of the condition
+   * @throws IllegalArgumentException
+   *           if the condition cannot be evaluated
+   */
+  public boolean evaluate() throws IllegalArgumentException {
+    return evaluate(name -> null);
+  }
+
+  /** Returns the condition as written. */
+  public String getExpression() {
+    return expression;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+}
@@ -0,0 +1,269 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.conditionparser;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import org.opencastproject.workflow.conditionparser.WorkflowCondition.BooleanNode;
+import org.opencastproject.workflow.conditionparser.WorkflowCondition.ValueNode;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionLexer;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser.AtomContext;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser.BooleanExpressionContext;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser.BooleanTermContext;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser.BooleanValueContext;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser.RelationContext;
+import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser.RelationOperandContext;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the parse tree of a condition into a tree of closures, so the condition can be evaluated repeatedly without
+ * parsing or visiting the parse tree again.
+ */
+final class WorkflowConditionCompiler {
+
+  /** Numbers as understood by the condition language */
+  private static final Pattern NUMBER_PATTERN = Pattern.compile("-?[0-9]+(\\.[0-9]+)?");
+
+  /** Default values of variables which can be bound at evaluation time */
+  private static final Pattern LITERAL_PATTERN = Pattern.compile("true|false|-?[0-9]+(\\.[0-9]+)?|'(''|[^'])*'");
+
+  private static final ANTLRErrorListener ERROR_LISTENER = new BaseErrorListener() {
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+            String msg, RecognitionException e)
+            throws ParseCancellationException {
+      throw new IllegalArgumentException("line " + line + ":" + charPositionInLine + " " + msg);
+    }
+  };
+
+  private WorkflowConditionCompiler() {
+  }
+
+  /**
+   * Parses and compiles a condition.
+   * <p>
+   * Variables are bound at evaluation time as long as they are used as values and their defaults are plain values.
+   * Otherwise, e.g. if a variable is part of a string or its default is a partial expression, the defaults are
+   * substituted before parsing, as they have always been.
+   *
+   * @param expression
+   *          the condition
+   * @return the compiled condition
+   * @throws IllegalArgumentException
+   *           if the condition is not valid
+   */
+  static WorkflowCondition compile(String expression) throws IllegalArgumentException {
+    List<? extends Token> tokens = tokenize(expression);
+    if (!hasBindableVariables(expression, tokens)) {
+      tokens = tokenize(WorkflowConditionInterpreter.replaceDefaults(expression));
+    }
+    final WorkflowConditionParser parser = new WorkflowConditionParser(
+            new CommonTokenStream(new ListTokenSource(tokens)));
+    parser.removeErrorListeners();
+    parser.addErrorListener(ERROR_LISTENER);
+    return new WorkflowCondition(expression, compileBooleanExpression(parser.booleanExpression()));
+  }
+
+  private static List<? extends Token> tokenize(String expression) {
+    final WorkflowConditionLexer lexer = new WorkflowConditionLexer(CharStreams.fromString(expression));
+    lexer.removeErrorListeners();
+    return lexer.getAllTokens();
+  }
+
+  /** Checks if all variables are tokens of their own with plain default values. */
+  private static boolean hasBindableVariables(String expression, List<? extends Token> tokens) {
+    int variables = 0;
+    for (Token token : tokens) {
+      if (token.getType() == WorkflowConditionLexer.VARIABLE) {
+        final String defaultValue = new Variable(token.getText()).defaultValue;
+        if (defaultValue != null && !LITERAL_PATTERN.matcher(defaultValue).matches()) {
+          return false;
+        }
+        variables++;
+      }
+    }
+    final Matcher matcher = WorkflowConditionInterpreter.PROPERTY_PATTERN.matcher(expression);
+    while (matcher.find()) {
+      variables--;
+    }
+    return variables == 0;
+  }
+
+  private static BooleanNode compileBooleanExpression(BooleanExpressionContext ctx) {
+    final BooleanNode base = compileBooleanTerm(ctx.booleanTerm());
+    if (ctx.booleanExpression() == null) {
+      return base;
+    }
+    final BooleanNode other = compileBooleanExpression(ctx.booleanExpression());
+    return variables -> base.evaluate(variables) || other.evaluate(variables);
+  }
+
+  private static BooleanNode compileBooleanTerm(BooleanTermContext ctx) {
+    final BooleanNode base = compileBooleanValue(ctx.booleanValue());
+    if (ctx.booleanTerm() == null) {
+      return base;
+    }
+    final BooleanNode other = compileBooleanTerm(ctx.booleanTerm());
+    return variables -> base.evaluate(variables) && other.evaluate(variables);
+  }
+
+  private static BooleanNode compileBooleanValue(BooleanValueContext ctx) {
+    final BooleanNode value;
+    if (ctx.BOOL() != null) {
+      final boolean result = Boolean.parseBoolean(ctx.BOOL().getText());
+      value = variables -> result;
+    } else if (ctx.VARIABLE() != null) {
+      value = new Variable(ctx.VARIABLE().getText())::evaluateBoolean;
+    } else if (ctx.booleanExpression() != null) {
+      value = compileBooleanExpression(ctx.booleanExpression());
+    } else {
+      value = compileRelation(ctx.relation());
+    }
+    if (ctx.NOT() != null && ctx.NOT().size() % 2 != 0) {
+      return variables -> !value.evaluate(variables);
+    }
+    return value;
+  }
+
+  private static BooleanNode compileRelation(RelationContext ctx) {
+    final ValueNode left = compileRelationOperand(ctx.relationOperand(0));
+    final ValueNode right = compileRelationOperand(ctx.relationOperand(1));
+    switch (ComparisonOperator.parseComparisonOperator(ctx.COMPARISONOPERATOR().getText())) {
+      case LE:
+        return variables -> left.evaluate(variables).compareTo(right.evaluate(variables)) <= 0;
+      case LT:
+        return variables -> left.evaluate(variables).compareTo(right.evaluate(variables)) < 0;
+      case EQ:
+        return variables -> left.evaluate(variables).compareTo(right.evaluate(variables)) == 0;
+      case NE:
+        return variables -> left.evaluate(variables).compareTo(right.evaluate(variables)) != 0;
+      case GT:
+        return variables -> left.evaluate(variables).compareTo(right.evaluate(variables)) > 0;
+      default:
+        return variables -> left.evaluate(variables).compareTo(right.evaluate(variables)) >= 0;
+    }
+  }
+
+  private static ValueNode compileRelationOperand(RelationOperandContext ctx) {
+    ValueNode base = compileAtom(ctx.atom(0));
+    for (int i = 1; i < ctx.atom().size(); i++) {
+      final ValueNode left = base;
+      final ValueNode right = compileAtom(ctx.atom(i));
+      final NumericalOperator operator = NumericalOperator.parseNumericalOperator(
+              ctx.NUMERICALOPERATOR(i - 1).getText());
+      base = variables -> left.evaluate(variables).reduce(right.evaluate(variables), operator);
+    }
+    return base;
+  }
+
+  private static ValueNode compileAtom(AtomContext ctx) {
+    if (ctx.NUMBER() != null) {
+      final Atom atom = Atom.parseNumber(ctx.NUMBER().getText());
+      return variables -> atom;
+    }
+    if (ctx.STRING() != null) {
+      final Atom atom = parseStringLiteral(ctx.STRING().getText());
+      return variables -> atom;
+    }
+    if (ctx.BOOL() != null) {
+      final Atom atom = Atom.fromString(ctx.BOOL().getText());
+      return variables -> atom;
+    }
+    if (ctx.VARIABLE() != null) {
+      return new Variable(ctx.VARIABLE().getText())::evaluateValue;
+    }
+    return compileRelationOperand(ctx.relationOperand());
+  }
+
+  private static Atom parseStringLiteral(String literal) {
+    final String replaced = literal.replace("''", "'");
+    return Atom.parseString(replaced.substring(1, replaced.length() - 1));
+  }
+
+  /**
+   * A variable of the form <code>${name:default}</code>. Values are interpreted the way the workflow service
+   * substitutes variables in conditions: <code>true</code>, <code>false</code> and numbers as such, anything else as
+   * string.
+   */
+  private static final class Variable {
+    private final String name;
+    private final String defaultValue;
+    private final Atom defaultAtom;
+
+    Variable(String token) {
+      final Matcher matcher = WorkflowConditionInterpreter.PROPERTY_PATTERN.matcher(token);
+      if (!matcher.matches()) {
+        throw new IllegalArgumentException("Invalid variable " + token);
+      }
+      name = matcher.group("varname");
+      defaultValue = matcher.group("def");
+      if (defaultValue == null) {
+        defaultAtom = Atom.fromString("false");
+      } else if (defaultValue.startsWith("'")) {
+        defaultAtom = parseStringLiteral(defaultValue);
+      } else {
+        defaultAtom = toAtom(defaultValue);
+      }
+    }
+
+    private static Atom toAtom(String value) {
+      if (NUMBER_PATTERN.matcher(value).matches()) {
+        return Atom.parseNumber(value);
+      }
+      return Atom.fromString(value);
+    }
+
+    Atom evaluateValue(Function<String, String> variables) {
+      final String value = variables.apply(name);
+      return isNotBlank(value) ? toAtom(value) : defaultAtom;
+    }
+
+    boolean evaluateBoolean(Function<String, String> variables) {
+      String value = variables.apply(name);
+      if (!isNotBlank(value)) {
+        value = defaultValue == null ? "false" : defaultValue;
+      }
+      if ("true".equals(value)) {
+        return true;
+      }
+      if ("false".equals(value)) {
+        return false;
+      }
+      throw new IllegalArgumentException("Variable " + name + " is not a boolean value: " + value);
+    }
+  }
+}
@@ -23,17 +23,10 @@ package org.opencastproject.workflow.conditionparser;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
-import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionLexer;
-import org.opencastproject.workflow.conditionparser.antlr.WorkflowConditionParser;
-
-import org.antlr.v4.runtime.ANTLRErrorListener;
-import org.antlr.v4.runtime.BaseErrorListener;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.RecognitionException;
-import org.antlr.v4.runtime.Recognizer;
-import org.antlr.v4.runtime.misc.ParseCancellationException;
-import org.antlr.v4.runtime.tree.ParseTree;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import java.util.Map;
 import java.util.function.Function;
@@ -41,7 +34,15 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public final class WorkflowConditionInterpreter {
-  private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{(?<varname>[^:}]+)(:(?<def>[^}]+))?}");
+  static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{(?<varname>[^:}]+)(:(?<def>[^}]+))?}");
+
+  /** Maximum number of compiled conditions to cache */
+  private static final int CONDITION_CACHE_SIZE = 1000;
+
+  /** Compiled conditions by expression */
+  private static final LoadingCache<String, WorkflowCondition> CONDITIONS = CacheBuilder.newBuilder()
+          .maximumSize(CONDITION_CACHE_SIZE)
+          .build(CacheLoader.from(WorkflowCondition::parse));
 
   private WorkflowConditionInterpreter() {
   }
@@ -134,22 +135,28 @@ public final class WorkflowConditionInterpreter {
   }
 
 
-  public static boolean interpret(final String input) throws IllegalArgumentException {
-    final String s = replaceDefaults(input);
-    final WorkflowConditionLexer l = new WorkflowConditionLexer(CharStreams.fromString(s));
-    l.removeErrorListeners();
-    final ANTLRErrorListener listener = new BaseErrorListener() {
-      @Override
-      public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
-              String msg, RecognitionException e)
-              throws ParseCancellationException {
-        throw new IllegalArgumentException("line " + line + ":" + charPositionInLine + " " + msg);
+  /**
+   * Returns the compiled form of a condition. Compiled conditions are cached, so repeated evaluations of the same
+   * condition do not parse it again.
+   *
+   * @param condition
+   *          the condition
+   * @return the compiled condition
+   * @throws IllegalArgumentException
+   *           if the condition is not valid
+   */
+  public static WorkflowCondition compile(final String condition) throws IllegalArgumentException {
+    try {
+      return CONDITIONS.getUnchecked(condition);
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof IllegalArgumentException) {
+        throw (IllegalArgumentException) e.getCause();
       }
-    };
-    final WorkflowConditionParser p = new WorkflowConditionParser(new CommonTokenStream(l));
-    p.removeErrorListeners();
-    p.addErrorListener(listener);
-    ParseTree tree = p.booleanExpression();
-    return new WorkflowConditionBooleanInterpreter().visit(tree);
+      throw e;
+    }
+  }
+
+  public static boolean interpret(final String input) throws IllegalArgumentException {
+    return compile(input).evaluate();
   }
 }
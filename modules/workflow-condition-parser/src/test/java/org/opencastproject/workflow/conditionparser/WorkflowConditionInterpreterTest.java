@@ -23,10 +23,14 @@ package org.opencastproject.workflow.conditionparser;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class WorkflowConditionInterpreterTest {
   @Test
   public void replaceDefaultWithoutDefaultValue() {
@@ -102,4 +106,55 @@ public class WorkflowConditionInterpreterTest {
   public void interpretDecimalEquality() {
     assertTrue(WorkflowConditionInterpreter.interpret("5.0 == 5"));
   }
+
+  @Test
+  public void interpretVariableWithoutDefaultValue() {
+    assertFalse(WorkflowConditionInterpreter.interpret("${foo}"));
+    assertTrue(WorkflowConditionInterpreter.interpret("NOT ${foo}"));
+  }
+
+  @Test
+  public void interpretVariableWithDefaultValue() {
+    assertTrue(WorkflowConditionInterpreter.interpret("${foo:5} > 3"));
+    assertTrue(WorkflowConditionInterpreter.interpret("${foo:'it''s'} == 'it''s'"));
+  }
+
+  @Test
+  public void interpretVariableWithExpressionAsDefaultValue() {
+    assertTrue(WorkflowConditionInterpreter.interpret("${foo:1 + 1} == 2"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void interpretInvalidCondition() {
+    WorkflowConditionInterpreter.interpret("true AND");
+  }
+
+  @Test
+  public void evaluateCompiledCondition() {
+    final WorkflowCondition condition = WorkflowConditionInterpreter.compile(
+            "${count} + 1 < 3 AND ${publisher:'admin'} != 'admin' AND NOT ${skip}");
+    final Map<String, String> variables = new HashMap<>();
+    variables.put("count", "1");
+    variables.put("publisher", "opencast");
+    assertTrue(condition.evaluate(variables::get));
+    variables.put("skip", "true");
+    assertFalse(condition.evaluate(variables::get));
+    variables.remove("skip");
+    variables.put("count", "2");
+    assertFalse(condition.evaluate(variables::get));
+    variables.put("count", "1");
+    variables.remove("publisher");
+    assertFalse(condition.evaluate(variables::get));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void evaluateNonBooleanVariable() {
+    WorkflowConditionInterpreter.compile("${foo}").evaluate(name -> "maybe");
+  }
+
+  @Test
+  public void compiledConditionsAreCached() {
+    assertSame(WorkflowConditionInterpreter.compile("${foo} OR true"),
+            WorkflowConditionInterpreter.compile("${foo} OR true"));
+  }
 }
@@ -108,6 +108,10 @@ public class WorkflowInstanceImpl implements WorkflowInstance {
   @XmlTransient
   protected boolean initialized = false;
 
+  /** The media package shared with copies of this instance, until this instance accesses it */
+  @XmlTransient
+  private SharedMediaPackage sharedMediaPackage;
+
   /**
    * Default no-arg constructor needed by JAXB
    */
@@ -153,6 +157,50 @@ public class WorkflowInstanceImpl implements WorkflowInstance {
     extend(def);
   }
 
+  /**
+   * Creates a copy of another workflow instance which can be handed out while the original is still being modified.
+   * Operations and configurations are copied in memory. The media package is shared with the original and only cloned
+   * once either of them gets it, see {@link #getMediaPackage()}, which spares the round trip through XML that cloning
+   * a media package means if it is never accessed.
+   *
+   * @param workflow
+   *          the workflow instance to copy
+   */
+  public WorkflowInstanceImpl(WorkflowInstanceImpl workflow) {
+    this.id = workflow.id;
+    this.state = workflow.state;
+    this.template = workflow.template;
+    this.title = workflow.title;
+    this.description = workflow.description;
+    this.parentId = workflow.parentId;
+    this.creator = workflow.creator;
+    this.creatorName = workflow.creatorName;
+    this.organization = workflow.organization;
+    this.organizationId = workflow.organizationId;
+    if (workflow.mediaPackage != null) {
+      if (workflow.sharedMediaPackage == null) {
+        workflow.sharedMediaPackage = new SharedMediaPackage(workflow.mediaPackage);
+      } else {
+        workflow.sharedMediaPackage.join();
+      }
+      this.mediaPackage = workflow.mediaPackage;
+      this.sharedMediaPackage = workflow.sharedMediaPackage;
+    }
+    if (workflow.operations != null) {
+      this.operations = new ArrayList<WorkflowOperationInstance>(workflow.operations.size());
+      for (WorkflowOperationInstance operation : workflow.operations) {
+        operations.add(new WorkflowOperationInstanceImpl((WorkflowOperationInstanceImpl) operation));
+      }
+    }
+    if (workflow.configurations != null) {
+      this.configurations = new TreeSet<WorkflowConfiguration>();
+      for (WorkflowConfiguration config : workflow.configurations) {
+        configurations.add(new WorkflowConfigurationImpl(config.getKey(), config.getValue()));
+      }
+    }
+    init();
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -419,10 +467,18 @@ public class WorkflowInstanceImpl implements WorkflowInstance {
   /**
    * {@inheritDoc}
    *
+   * As long as the media package is shared with copies of this instance, it can't tell whether the caller is going to
+   * modify it. The media package is therefore cloned on the first call, unless all other instances sharing it have
+   * already got their own.
+   *
    * @see org.opencastproject.workflow.api.WorkflowInstance#getMediaPackage()
    */
   @Override
   public MediaPackage getMediaPackage() {
+    if (sharedMediaPackage != null) {
+      mediaPackage = sharedMediaPackage.take();
+      sharedMediaPackage = null;
+    }
     return mediaPackage;
   }
 
@@ -433,6 +489,10 @@ public class WorkflowInstanceImpl implements WorkflowInstance {
    */
   @Override
   public void setMediaPackage(MediaPackage mediaPackage) {
+    if (sharedMediaPackage != null) {
+      sharedMediaPackage.release();
+      sharedMediaPackage = null;
+    }
     this.mediaPackage = mediaPackage;
   }
 
@@ -693,4 +753,34 @@ public class WorkflowInstanceImpl implements WorkflowInstance {
       return new WorkflowOperationInstanceImpl(wod, -1);
     }
   };
+
+  /**
+   * A media package shared by a workflow instance and its copies. Nobody modifies it while it is shared: each instance
+   * gets a clone when accessing it, except for the last one, which gets the shared media package itself.
+   */
+  private static final class SharedMediaPackage {
+    private final MediaPackage mediaPackage;
+
+    /** The number of instances that still share the media package */
+    private int sharers = 2;
+
+    SharedMediaPackage(MediaPackage mediaPackage) {
+      this.mediaPackage = mediaPackage;
+    }
+
+    /** Adds another copy to the instances sharing the media package. */
+    synchronized void join() {
+      sharers++;
+    }
+
+    /** Removes an instance that no longer needs the media package. */
+    synchronized void release() {
+      sharers--;
+    }
+
+    /** Hands out the media package to an instance, which no longer shares it afterwards. */
+    synchronized MediaPackage take() {
+      return --sharers == 0 ? mediaPackage : (MediaPackage) mediaPackage.clone();
+    }
+  }
 }
@@ -191,6 +191,43 @@ public class WorkflowOperationInstanceImpl implements WorkflowOperationInstance
     }
   }
 
+  /**
+   * Creates a copy of another workflow operation instance. Configurations and the execution history are copied, so
+   * changes to either instance are not visible in the other one.
+   *
+   * @param operation
+   *          the operation to copy
+   */
+  public WorkflowOperationInstanceImpl(WorkflowOperationInstanceImpl operation) {
+    this.template = operation.template;
+    this.jobId = operation.jobId;
+    this.state = operation.state;
+    this.description = operation.description;
+    if (operation.configurations != null) {
+      this.configurations = new TreeSet<WorkflowConfiguration>();
+      for (WorkflowConfiguration config : operation.configurations) {
+        configurations.add(new WorkflowConfigurationImpl(config.getKey(), config.getValue()));
+      }
+    }
+    this.holdStateUserInterfaceUrl = operation.holdStateUserInterfaceUrl;
+    this.holdActionTitle = operation.holdActionTitle;
+    this.failWorkflowOnException = operation.failWorkflowOnException;
+    this.executeCondition = operation.executeCondition;
+    this.skipCondition = operation.skipCondition;
+    this.exceptionHandlingWorkflow = operation.exceptionHandlingWorkflow;
+    this.abortable = operation.abortable;
+    this.continuable = operation.continuable;
+    this.dateStarted = operation.dateStarted != null ? new Date(operation.dateStarted.getTime()) : null;
+    this.dateCompleted = operation.dateCompleted != null ? new Date(operation.dateCompleted.getTime()) : null;
+    this.timeInQueue = operation.timeInQueue;
+    this.maxAttempts = operation.maxAttempts;
+    this.failedAttempts = operation.failedAttempts;
+    this.executionHost = operation.executionHost;
+    this.executionHistory = new ArrayList<Long>(operation.executionHistory);
+    this.retryStrategy = operation.retryStrategy;
+    this.position = operation.position;
+  }
+
   /**
    * Constructs a new operation instance with the given id and initial state.
    *
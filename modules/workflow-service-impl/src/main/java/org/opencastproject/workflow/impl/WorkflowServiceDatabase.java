@@ -0,0 +1,96 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl;
+
+import org.opencastproject.util.NotFoundException;
+import org.opencastproject.workflow.api.WorkflowDatabaseException;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+
+import java.util.List;
+
+/**
+ * Permanent storage for workflow instances. Does not support searching.
+ * <p>
+ * Workflow instances are stored normalized: the instance, each of its operations and its media package are separate
+ * records, and an update only writes the records that have changed.
+ */
+public interface WorkflowServiceDatabase {
+
+  /**
+   * Gets a workflow instance by its identifier.
+   *
+   * @param id
+   *          the workflow instance identifier
+   * @return the workflow instance
+   * @throws NotFoundException
+   *           if there is no workflow instance with this identifier
+   * @throws WorkflowDatabaseException
+   *           if loading the workflow instance fails
+   */
+  WorkflowInstanceImpl getWorkflowInstance(long id) throws NotFoundException, WorkflowDatabaseException;
+
+  /**
+   * Gets a page of workflow instances, ordered by their identifiers.
+   *
+   * @param limit
+   *          the maximum number of workflow instances to return
+   * @param offset
+   *          the number of workflow instances to skip
+   * @return the workflow instances
+   * @throws WorkflowDatabaseException
+   *           if loading the workflow instances fails
+   */
+  List<WorkflowInstance> getWorkflowInstances(int limit, int offset) throws WorkflowDatabaseException;
+
+  /**
+   * Counts the stored workflow instances.
+   *
+   * @return the number of workflow instances
+   * @throws WorkflowDatabaseException
+   *           if counting fails
+   */
+  int countWorkflowInstances() throws WorkflowDatabaseException;
+
+  /**
+   * Creates or updates a workflow instance. Only the operations, configuration and media package that differ from the
+   * stored version are written.
+   *
+   * @param instance
+   *          the workflow instance
+   * @throws WorkflowDatabaseException
+   *           if storing the workflow instance fails
+   */
+  void updateWorkflowInstance(WorkflowInstance instance) throws WorkflowDatabaseException;
+
+  /**
+   * Removes a workflow instance along with its operations and media package.
+   *
+   * @param id
+   *          the workflow instance identifier
+   * @throws WorkflowDatabaseException
+   *           if removing the workflow instance fails
+   */
+  void removeWorkflowInstance(long id) throws WorkflowDatabaseException;
+
+}
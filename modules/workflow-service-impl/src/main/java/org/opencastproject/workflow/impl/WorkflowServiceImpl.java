@@ -44,6 +44,7 @@ import org.opencastproject.elasticsearch.index.rebuild.IndexRebuildService;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobProducer;
+import org.opencastproject.job.api.ProcessingMetrics;
 import org.opencastproject.mediapackage.Catalog;
 import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.mediapackage.MediaPackageElement;
@@ -152,6 +153,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -224,6 +226,9 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
   /** The data access object responsible for storing and retrieving workflow instances */
   protected WorkflowServiceIndex index;
 
+  /** The persistent storage for workflow instances */
+  protected WorkflowServiceDatabase persistence;
+
   /** The list of workflow listeners */
   private final List<WorkflowListener> listeners = new CopyOnWriteArrayList<WorkflowListener>();
 
@@ -495,7 +500,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         throw new NotFoundException("Workflow '" + id + "' has been deleted");
       }
       if (JOB_TYPE.equals(job.getJobType()) && Operation.START_WORKFLOW.toString().equals(job.getOperation())) {
-        WorkflowInstanceImpl workflow = WorkflowParser.parseWorkflowInstance(job.getPayload());
+        WorkflowInstanceImpl workflow = loadWorkflowInstance(job);
         assertPermission(workflow, Permissions.Action.READ.toString(), job.getOrganization());
         return workflow;
       } else {
@@ -503,11 +508,35 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
       }
     } catch (WorkflowParsingException e) {
       throw new IllegalStateException("The workflow job payload is malformed");
+    } catch (WorkflowDatabaseException e) {
+      throw new IllegalStateException("Error loading workflow from the database", e);
     } catch (ServiceRegistryException e) {
       throw new IllegalStateException("Error loading workflow job from the service registry");
     }
   }
 
+  /**
+   * Loads the workflow instance of a workflow job from the workflow database. Workflows which have not been updated
+   * since they were moved out of the job payload are parsed from the payload instead.
+   *
+   * @param job
+   *          the workflow job
+   * @return the workflow instance
+   * @throws NotFoundException
+   *           if the workflow instance has not been stored yet
+   */
+  private WorkflowInstanceImpl loadWorkflowInstance(Job job) throws NotFoundException, WorkflowDatabaseException,
+          WorkflowParsingException {
+    try {
+      return persistence.getWorkflowInstance(job.getId());
+    } catch (NotFoundException e) {
+      if (StringUtils.isBlank(job.getPayload())) {
+        throw e;
+      }
+      return WorkflowParser.parseWorkflowInstance(job.getPayload());
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -599,9 +628,8 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
 
       // Create and configure the workflow instance
       try {
-        // Create a new job for this workflow instance
+        // Create a new job for this workflow instance. The instance itself is stored in the workflow database.
         String workflowDefinitionXml = WorkflowParser.toXml(workflowDefinition);
-        String workflowInstanceXml = WorkflowParser.toXml(workflowInstance);
         String mediaPackageXml = MediaPackageParser.getAsXml(sourceMediaPackage);
 
         List<String> arguments = new ArrayList<>();
@@ -616,7 +644,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         }
 
         Job job = serviceRegistry.createJob(JOB_TYPE, Operation.START_WORKFLOW.toString(), arguments,
-                workflowInstanceXml, false, null, WORKFLOW_JOB_LOAD);
+                null, false, null, WORKFLOW_JOB_LOAD);
 
         // Have the workflow take on the job's identity
         workflowInstance.setId(job.getId());
@@ -801,12 +829,18 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
     // Execute the operation handler
     WorkflowOperationHandler operationHandler = selectOperationHandler(processingOperation);
     WorkflowOperationWorker worker = new WorkflowOperationWorker(operationHandler, workflow, properties, this);
+    final long started = System.nanoTime();
     workflow = worker.execute();
+    final long runTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
 
     // The workflow has been serialized/deserialized in between, so we need to refresh the reference
     int currentOperationPosition = processingOperation.getPosition();
     processingOperation = workflow.getOperations().get(currentOperationPosition);
 
+    final Long timeInQueue = processingOperation.getTimeInQueue();
+    ProcessingMetrics.workflowOperationExecuted(processingOperation.getTemplate(),
+            processingOperation.getState().name(), timeInQueue == null ? 0L : timeInQueue, runTime);
+
     Long currentOperationJobId = processingOperation.getId();
     try {
       updateOperationJob(currentOperationJobId, processingOperation.getState());
@@ -1044,6 +1078,9 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
           logger.info("No workflow instance job '%d' found in the service registry", workflowInstanceId);
         }
 
+        // Fourth, remove the stored workflow instance
+        persistence.removeWorkflowInstance(workflowInstanceId);
+
         // At last, remove workflow instance from the index
         try {
           index.remove(workflowInstanceId);
@@ -1280,20 +1317,17 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         logger.error("Metadata for mediapackage {} could not be updated", updatedMediaPackage, e);
       }
 
+      // Store the workflow instance. Only the operations, configuration and media package that changed are written.
+      persistence.updateWorkflowInstance(workflowInstance);
+
       // Synchronize the job status with the workflow
       WorkflowState workflowState = workflowInstance.getState();
-      String xml;
-      try {
-        xml = WorkflowParser.toXml(workflowInstance);
-      } catch (Exception e) {
-        // Can't happen, since we are converting from an in-memory object
-        throw new IllegalStateException("In-memory workflow instance could not be serialized", e);
-      }
-
       Job job;
       try {
         job = serviceRegistry.getJob(workflowInstance.getId());
-        job.setPayload(xml);
+        // Drop the serialized workflow instance of workflows which have been started before it was moved to the
+        // workflow database
+        job.setPayload(null);
 
         // Synchronize workflow and job state
         switch (workflowState) {
@@ -1366,18 +1400,34 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         workflowsStatistics.updateWorkflow(getBeanStatistics(), getHoldWorkflows());
       }
 
-      try {
-        WorkflowInstance clone = WorkflowParser.parseWorkflowInstance(WorkflowParser.toXml(workflowInstance));
-        fireListeners(originalWorkflowInstance, clone);
-      } catch (Exception e) {
-        // Can't happen, since we are converting from an in-memory object
-        throw new IllegalStateException("In-memory workflow instance could not be serialized", e);
+      if (!listeners.isEmpty()) {
+        fireListeners(originalWorkflowInstance, snapshot(workflowInstance));
       }
     } finally {
       lock.unlock();
     }
   }
 
+  /**
+   * Creates a copy of a workflow instance that is handed to the listeners, since the caller may keep modifying the
+   * instance while the listeners are running.
+   *
+   * @param workflowInstance
+   *          the workflow instance
+   * @return the copy
+   */
+  private WorkflowInstance snapshot(WorkflowInstance workflowInstance) {
+    if (workflowInstance instanceof WorkflowInstanceImpl) {
+      return new WorkflowInstanceImpl((WorkflowInstanceImpl) workflowInstance);
+    }
+    try {
+      return WorkflowParser.parseWorkflowInstance(WorkflowParser.toXml(workflowInstance));
+    } catch (Exception e) {
+      // Can't happen, since we are converting from an in-memory object
+      throw new IllegalStateException("In-memory workflow instance could not be serialized", e);
+    }
+  }
+
   /**
    * Updates the search index entries for this workflow instance.
    *
@@ -1807,7 +1857,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         op = Operation.valueOf(operation);
         switch (op) {
           case START_WORKFLOW:
-            workflowInstance = WorkflowParser.parseWorkflowInstance(job.getPayload());
+            workflowInstance = getWorkflowById(job.getId());
             logger.debug("Starting new workflow %s", workflowInstance);
             runWorkflow(workflowInstance);
             break;
@@ -2078,6 +2128,17 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
     this.organizationDirectoryService = organizationDirectory;
   }
 
+  /**
+   * Sets the workflow database
+   *
+   * @param persistence
+   *          the persistent storage for workflow instances
+   */
+  @Reference
+  protected void setPersistence(WorkflowServiceDatabase persistence) {
+    this.persistence = persistence;
+  }
+
   /**
    * Sets the search indexer to use in this service.
    *
@@ -2349,7 +2410,29 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
     if (total > 0) {
       logIndexRebuildBegin(logger.getSlf4jLogger(), index.getIndexName(), total, "workflows");
       int current = 0;
+
+      // Workflows stored in the workflow database
       int offset = 0;
+      List<WorkflowInstance> instances;
+      do {
+        try {
+          instances = persistence.getWorkflowInstances(limit, offset);
+        } catch (WorkflowDatabaseException e) {
+          logIndexRebuildError(logger.getSlf4jLogger(), index.getIndexName(), total, current, e);
+          throw new IndexRebuildException(index.getIndexName(), getService(), e);
+        }
+        logger.debug("Got {} workflows for re-indexing", instances.size());
+        offset += limit;
+
+        for (final WorkflowInstance instance : instances) {
+          current += 1;
+          repopulateWorkflow(index, instance);
+          logIndexRebuildProgress(logger.getSlf4jLogger(), index.getIndexName(), total, current);
+        }
+      } while (instances.size() == limit);
+
+      // Workflows which have not been updated since they were moved out of the job payload
+      offset = 0;
       List<String> workflows;
       do {
         try {
@@ -2358,15 +2441,14 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
           logIndexRebuildError(logger.getSlf4jLogger(), index.getIndexName(), total, current, e);
           throw new IndexRebuildException(index.getIndexName(), getService(), e);
         }
-        logger.debug("Got {} workflows for re-indexing", workflows.size());
         offset += limit;
 
         for (final String workflow : workflows) {
-          current += 1;
           if (StringUtils.isEmpty(workflow)) {
-            logger.warn("Skipping restore of workflow #{}: Payload is empty", current);
+            // Stored in the workflow database
             continue;
           }
+          current += 1;
           WorkflowInstance instance;
           try {
             instance = WorkflowParser.parseWorkflowInstance(workflow);
@@ -2374,37 +2456,49 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
             logger.warn("Skipping restore of workflow. Error parsing: {}", workflow, e);
             continue;
           }
-          Organization organization = null;
-          try {
-            organization = organizationDirectoryService.getOrganization(instance.getOrganizationId());
-          } catch (NotFoundException e) {
-            logger.error("Found workflow with non-existing organization {}", instance.getOrganizationId());
-            continue;
-          }
-
-          // get metadata for index update
-          final DublinCoreCatalog episodeDublinCoreCatalog = getEpisodeDublinCoreCatalog(instance.getMediaPackage());
-
-          // get acl for active workflows.
-          // don't try this for terminated workflows since the ACLs are no longer in the working file repository and
-          // they will be overwritten later in the re-indexing process by ACLs from the asset manager anyway.
-          final AccessControlList accessControlList;
-          if (instance.getState().isTerminated()) {
-            accessControlList = new AccessControlList();
-          } else {
-            accessControlList = authorizationService.getActiveAcl(instance.getMediaPackage()).getA();
-          }
-
-          SecurityUtil.runAs(securityService, organization,
-                  SecurityUtil.createSystemUser(componentContext, organization), () -> {
-                    updateWorkflowInstanceInIndex(instance, accessControlList, episodeDublinCoreCatalog, index);
-                  });
+          repopulateWorkflow(index, instance);
           logIndexRebuildProgress(logger.getSlf4jLogger(), index.getIndexName(), total, current);
         }
-      } while (current < total);
+      } while (workflows.size() == limit);
     }
   }
 
+  /**
+   * Adds a workflow instance to the index while it is being rebuilt.
+   *
+   * @param index
+   *          the index to update
+   * @param instance
+   *          the workflow instance
+   */
+  private void repopulateWorkflow(final ElasticsearchIndex index, final WorkflowInstance instance) {
+    Organization organization = null;
+    try {
+      organization = organizationDirectoryService.getOrganization(instance.getOrganizationId());
+    } catch (NotFoundException e) {
+      logger.error("Found workflow with non-existing organization {}", instance.getOrganizationId());
+      return;
+    }
+
+    // get metadata for index update
+    final DublinCoreCatalog episodeDublinCoreCatalog = getEpisodeDublinCoreCatalog(instance.getMediaPackage());
+
+    // get acl for active workflows.
+    // don't try this for terminated workflows since the ACLs are no longer in the working file repository and
+    // they will be overwritten later in the re-indexing process by ACLs from the asset manager anyway.
+    final AccessControlList accessControlList;
+    if (instance.getState().isTerminated()) {
+      accessControlList = new AccessControlList();
+    } else {
+      accessControlList = authorizationService.getActiveAcl(instance.getMediaPackage()).getA();
+    }
+
+    SecurityUtil.runAs(securityService, organization,
+            SecurityUtil.createSystemUser(componentContext, organization), () -> {
+              updateWorkflowInstanceInIndex(instance, accessControlList, episodeDublinCoreCatalog, index);
+            });
+  }
+
   private DublinCoreCatalog getEpisodeDublinCoreCatalog(MediaPackage mediaPackage) {
     for (Catalog catalog: mediaPackage.getCatalogs(MediaPackageElements.EPISODE)) {
       try {
@@ -99,6 +99,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 /**
  * Provides data access to the workflow service through file storage in the workspace, indexed via solr.
@@ -197,6 +198,9 @@ public class WorkflowServiceSolrIndex implements WorkflowServiceIndex {
   /** The service registry, managing jobs */
   private ServiceRegistry serviceRegistry = null;
 
+  /** The persistent storage for workflow instances */
+  private WorkflowServiceDatabase persistence = null;
+
   /** The authorization service */
   private AuthorizationService authorizationService = null;
 
@@ -294,15 +298,19 @@ public class WorkflowServiceSolrIndex implements WorkflowServiceIndex {
       logger.info("The workflow index is empty, looking for workflows to index");
       // this may be a new index, so get all of the existing workflows and index them
       List<String> workflowPayloads;
+      final int storedWorkflows;
 
       try {
-        workflowPayloads =  serviceRegistry.getJobPayloads(WorkflowServiceImpl.Operation.START_WORKFLOW.toString());
-      } catch (ServiceRegistryException e) {
-        logger.error("Unable to load the workflows jobs: {}", e.getMessage());
+        // Workflows which have not been updated since they were moved out of the job payload
+        workflowPayloads = serviceRegistry.getJobPayloads(WorkflowServiceImpl.Operation.START_WORKFLOW.toString())
+                .stream().filter(StringUtils::isNotEmpty).collect(Collectors.toList());
+        storedWorkflows = persistence.countWorkflowInstances();
+      } catch (ServiceRegistryException | WorkflowDatabaseException e) {
+        logger.error("Unable to load the workflows: {}", e.getMessage());
         throw new ServiceException(e.getMessage());
       }
 
-      final int total = workflowPayloads.size();
+      final int total = storedWorkflows + workflowPayloads.size();
       if (total == 0) {
         logger.info("No workflows found. Repopulating index finished.");
         return;
@@ -311,28 +319,62 @@ public class WorkflowServiceSolrIndex implements WorkflowServiceIndex {
       logger.info("Populating the workflow index with {} workflows", total);
 
       int current = 0;
+      final int limit = 1000;
+      for (int offset = 0; offset < storedWorkflows; offset += limit) {
+        List<WorkflowInstance> instances;
+        try {
+          instances = persistence.getWorkflowInstances(limit, offset);
+        } catch (WorkflowDatabaseException e) {
+          logger.error("Unable to load the workflows: {}", e.getMessage());
+          throw new ServiceException(e.getMessage());
+        }
+        for (WorkflowInstance instance : instances) {
+          current++;
+          try {
+            restore(instance, systemUserName);
+          } catch (WorkflowDatabaseException | NotFoundException e) {
+            logger.warn("Skipping restoring of workflow {}", instance.getId(), e);
+          }
+          logProgress(current, total);
+        }
+      }
+
       for (String payload : workflowPayloads) {
         current++;
-        WorkflowInstance instance = null;
         try {
-          instance = WorkflowParser.parseWorkflowInstance(payload);
-          Organization organization = orgDirectory.getOrganization(instance.getOrganizationId());
-          securityService.setOrganization(organization);
-          securityService.setUser(SecurityUtil.createSystemUser(systemUserName, organization));
-          index(instance);
+          restore(WorkflowParser.parseWorkflowInstance(payload), systemUserName);
         } catch (WorkflowParsingException | WorkflowDatabaseException | NotFoundException e) {
           logger.warn("Skipping restoring of workflow {}", payload, e);
         }
-        if (current % 100 == 0) {
-          logger.info("Indexing workflow {}/{} ({} percent done)", current, total, current * 100 / total);
-        }
+        logProgress(current, total);
       }
 
-
       logger.info("Finished populating the workflow search index");
     }
   }
 
+  /**
+   * Adds a workflow instance to the index while it is being populated.
+   *
+   * @param instance
+   *          the workflow instance
+   * @param systemUserName
+   *          the name of the system user
+   */
+  private void restore(WorkflowInstance instance, String systemUserName)
+          throws NotFoundException, WorkflowDatabaseException {
+    Organization organization = orgDirectory.getOrganization(instance.getOrganizationId());
+    securityService.setOrganization(organization);
+    securityService.setUser(SecurityUtil.createSystemUser(systemUserName, organization));
+    index(instance);
+  }
+
+  private void logProgress(int current, int total) {
+    if (current % 100 == 0) {
+      logger.info("Indexing workflow {}/{} ({} percent done)", current, total, current * 100 / total);
+    }
+  }
+
   /**
    * Prepares the embedded solr environment.
    *
@@ -1101,6 +1143,17 @@ public class WorkflowServiceSolrIndex implements WorkflowServiceIndex {
     }
   }
 
+  /**
+   * Callback for the OSGi environment to register with the <code>WorkflowServiceDatabase</code>.
+   *
+   * @param persistence
+   *          the persistent storage for workflow instances
+   */
+  @Reference
+  protected void setPersistence(WorkflowServiceDatabase persistence) {
+    this.persistence = persistence;
+  }
+
   /**
    * Callback for the OSGi environment to register with the <code>ServiceRegistry</code>.
    *
@@ -0,0 +1,175 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl.persistence;
+
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstance.WorkflowState;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Entity object for storing workflow instances in persistence storage. Operations and the media package are stored
+ * separately, see {@link WorkflowOperationDto} and {@link WorkflowMediaPackageDto}.
+ */
+@Entity(name = "WorkflowInstance")
+@NamedQueries({
+    @NamedQuery(name = "WorkflowInstance.findAll", query = "SELECT w FROM WorkflowInstance w ORDER BY w.id ASC"),
+    @NamedQuery(name = "WorkflowInstance.countAll", query = "SELECT COUNT(w) FROM WorkflowInstance w")
+})
+@Table(name = "oc_workflow", indexes = {
+    @Index(name = "IX_oc_workflow_mediapackage_id", columnList = ("mediapackage_id")),
+    @Index(name = "IX_oc_workflow_organization_id", columnList = ("organization_id"))
+})
+public class WorkflowInstanceDto {
+
+  /** Workflow instance ID, which is the ID of the workflow job */
+  @Id
+  @Column(name = "id")
+  private long id;
+
+  @Column(name = "state", length = 128)
+  private String state;
+
+  @Column(name = "template")
+  private String template;
+
+  @Column(name = "title")
+  private String title;
+
+  @Lob
+  @Column(name = "description", length = 65535)
+  private String description;
+
+  @Column(name = "parent_id")
+  private Long parentId;
+
+  @Column(name = "creator_id")
+  private String creatorName;
+
+  @Column(name = "organization_id", length = 128)
+  private String organizationId;
+
+  @Column(name = "mediapackage_id", length = 128)
+  private String mediaPackageId;
+
+  @Column(name = "series_id", length = 128)
+  private String seriesId;
+
+  /** Checksum of the media package, used to find out whether it has to be written */
+  @Column(name = "mediapackage_checksum", length = 64)
+  private String mediaPackageChecksum;
+
+  @Lob
+  @ElementCollection(fetch = FetchType.EAGER)
+  @MapKeyColumn(name = "configuration_key", nullable = false)
+  @Column(name = "configuration_value", length = 65535)
+  @CollectionTable(name = "oc_workflow_configuration",
+      joinColumns = @JoinColumn(name = "workflow_id", referencedColumnName = "id", nullable = false))
+  private Map<String, String> configurations = new HashMap<>();
+
+  /**
+   * Default constructor without any import.
+   */
+  public WorkflowInstanceDto() {
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getMediaPackageChecksum() {
+    return mediaPackageChecksum;
+  }
+
+  /**
+   * Updates this entity from a workflow instance. Fields are only touched if their value changes, so unchanged
+   * instances don't cause any database writes.
+   *
+   * @param instance
+   *          the workflow instance
+   * @param checksum
+   *          the checksum of the serialized media package
+   */
+  public void update(WorkflowInstance instance, String checksum) {
+    id = instance.getId();
+    state = instance.getState() == null ? null : instance.getState().name();
+    template = instance.getTemplate();
+    title = instance.getTitle();
+    description = instance.getDescription();
+    parentId = instance.getParentId();
+    creatorName = instance.getCreatorName();
+    organizationId = instance.getOrganizationId();
+    mediaPackageId = instance.getMediaPackage().getIdentifier().toString();
+    seriesId = instance.getMediaPackage().getSeries();
+    mediaPackageChecksum = checksum;
+
+    Map<String, String> updated = new HashMap<>();
+    for (String key : instance.getConfigurationKeys()) {
+      updated.put(key, instance.getConfiguration(key));
+    }
+    // Only touch the collection if it has changed, since this rewrites all configuration rows
+    if (!Objects.equals(configurations, updated)) {
+      configurations.clear();
+      configurations.putAll(updated);
+    }
+  }
+
+  /**
+   * Creates a workflow instance without operations and media package from this entity.
+   *
+   * @return the workflow instance
+   */
+  public WorkflowInstanceImpl toWorkflowInstance() {
+    WorkflowInstanceImpl instance = new WorkflowInstanceImpl();
+    instance.setId(id);
+    instance.setState(state == null ? null : WorkflowState.valueOf(state));
+    instance.setTemplate(template);
+    instance.setTitle(title);
+    instance.setDescription(description);
+    instance.setParentId(parentId);
+    instance.setCreatorName(creatorName);
+    instance.setOrganizationId(organizationId);
+    for (Map.Entry<String, String> entry : configurations.entrySet()) {
+      instance.setConfiguration(entry.getKey(), entry.getValue());
+    }
+    return instance;
+  }
+
+}
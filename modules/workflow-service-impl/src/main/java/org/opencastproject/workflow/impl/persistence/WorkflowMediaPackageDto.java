@@ -0,0 +1,78 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Entity object for storing the media package of a workflow instance in persistence storage. The media package is kept
+ * apart from the workflow instance so that it is only written if it has actually changed.
+ */
+@Entity(name = "WorkflowMediaPackage")
+@NamedQueries({
+    @NamedQuery(name = "WorkflowMediaPackage.findByWorkflows",
+        query = "SELECT m FROM WorkflowMediaPackage m WHERE m.workflowId IN :workflowIds"),
+    @NamedQuery(name = "WorkflowMediaPackage.update",
+        query = "UPDATE WorkflowMediaPackage m SET m.mediaPackageXml = :xml WHERE m.workflowId = :workflowId"),
+    @NamedQuery(name = "WorkflowMediaPackage.delete",
+        query = "DELETE FROM WorkflowMediaPackage m WHERE m.workflowId = :workflowId")
+})
+@Table(name = "oc_workflow_mediapackage")
+public class WorkflowMediaPackageDto {
+
+  /** Workflow instance ID, primary key */
+  @Id
+  @Column(name = "workflow_id")
+  private long workflowId;
+
+  /** The serialized media package */
+  @Lob
+  @Column(name = "mediapackage", length = 16777215)
+  private String mediaPackageXml;
+
+  /**
+   * Default constructor without any import.
+   */
+  public WorkflowMediaPackageDto() {
+  }
+
+  public WorkflowMediaPackageDto(long workflowId, String mediaPackageXml) {
+    this.workflowId = workflowId;
+    this.mediaPackageXml = mediaPackageXml;
+  }
+
+  public long getWorkflowId() {
+    return workflowId;
+  }
+
+  public String getMediaPackageXml() {
+    return mediaPackageXml;
+  }
+
+}
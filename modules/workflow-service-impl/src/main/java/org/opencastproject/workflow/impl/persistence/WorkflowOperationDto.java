@@ -0,0 +1,274 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl.persistence;
+
+import org.opencastproject.workflow.api.RetryStrategy;
+import org.opencastproject.workflow.api.WorkflowConfiguration;
+import org.opencastproject.workflow.api.WorkflowConfigurationImpl;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationInstance.OperationState;
+import org.opencastproject.workflow.api.WorkflowOperationInstanceImpl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.MapKeyColumn;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+
+/**
+ * Entity object for storing a single operation of a workflow instance in persistence storage.
+ */
+@IdClass(WorkflowOperationIdPK.class)
+@Entity(name = "WorkflowOperation")
+@NamedQueries({
+    @NamedQuery(name = "WorkflowOperation.findByWorkflow",
+        query = "SELECT o FROM WorkflowOperation o WHERE o.workflowId = :workflowId ORDER BY o.position ASC"),
+    @NamedQuery(name = "WorkflowOperation.findByWorkflows",
+        query = "SELECT o FROM WorkflowOperation o WHERE o.workflowId IN :workflowIds "
+            + "ORDER BY o.workflowId ASC, o.position ASC")
+})
+@Table(name = "oc_workflow_operation")
+public class WorkflowOperationDto {
+
+  /** Workflow instance ID, primary key */
+  @Id
+  @Column(name = "workflow_id")
+  private long workflowId;
+
+  /** Position of the operation within the workflow, primary key */
+  @Id
+  @Column(name = "position")
+  private int position;
+
+  @Column(name = "template")
+  private String template;
+
+  @Column(name = "job_id")
+  private Long jobId;
+
+  @Column(name = "state", length = 128)
+  private String state;
+
+  @Lob
+  @Column(name = "description", length = 65535)
+  private String description;
+
+  @Lob
+  @ElementCollection(fetch = FetchType.EAGER)
+  @MapKeyColumn(name = "configuration_key", nullable = false)
+  @Column(name = "configuration_value", length = 65535)
+  @CollectionTable(name = "oc_workflow_operation_configuration", joinColumns = {
+      @JoinColumn(name = "workflow_id", referencedColumnName = "workflow_id", nullable = false),
+      @JoinColumn(name = "position", referencedColumnName = "position", nullable = false) })
+  private Map<String, String> configurations = new HashMap<>();
+
+  @Lob
+  @Column(name = "hold_state_ui_url", length = 65535)
+  private String holdStateUserInterfaceUrl;
+
+  @Column(name = "hold_action_title")
+  private String holdActionTitle;
+
+  @Column(name = "fail_on_error")
+  private boolean failWorkflowOnException;
+
+  @Lob
+  @Column(name = "execute_condition", length = 65535)
+  private String executeCondition;
+
+  @Lob
+  @Column(name = "skip_condition", length = 65535)
+  private String skipCondition;
+
+  @Column(name = "exception_handler_workflow")
+  private String exceptionHandlingWorkflow;
+
+  @Column(name = "abortable")
+  private Boolean abortable;
+
+  @Column(name = "continuable")
+  private Boolean continuable;
+
+  /** Start date in milliseconds since the epoch */
+  @Column(name = "date_started")
+  private Long dateStarted;
+
+  /** Completion date in milliseconds since the epoch */
+  @Column(name = "date_completed")
+  private Long dateCompleted;
+
+  @Column(name = "time_in_queue")
+  private Long timeInQueue;
+
+  @Column(name = "max_attempts")
+  private int maxAttempts;
+
+  @Column(name = "failed_attempts")
+  private int failedAttempts;
+
+  @Column(name = "execution_host")
+  private String executionHost;
+
+  @Column(name = "retry_strategy", length = 128)
+  private String retryStrategy;
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  @Column(name = "job_id")
+  @OrderColumn(name = "history_index")
+  @CollectionTable(name = "oc_workflow_operation_history", joinColumns = {
+      @JoinColumn(name = "workflow_id", referencedColumnName = "workflow_id", nullable = false),
+      @JoinColumn(name = "position", referencedColumnName = "position", nullable = false) })
+  private List<Long> executionHistory = new ArrayList<>();
+
+  /**
+   * Default constructor without any import.
+   */
+  public WorkflowOperationDto() {
+  }
+
+  /**
+   * Creates the entity for an operation of a workflow instance.
+   *
+   * @param workflowId
+   *          the workflow instance ID
+   * @param position
+   *          the position of the operation within the workflow
+   */
+  public WorkflowOperationDto(long workflowId, int position) {
+    this.workflowId = workflowId;
+    this.position = position;
+  }
+
+  public long getWorkflowId() {
+    return workflowId;
+  }
+
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * Updates this entity from a workflow operation instance. Fields are only touched if their value changes, so
+   * unchanged operations don't cause any database writes.
+   *
+   * @param operation
+   *          the workflow operation instance
+   */
+  public void update(WorkflowOperationInstance operation) {
+    template = operation.getTemplate();
+    jobId = operation.getId();
+    state = operation.getState() == null ? null : operation.getState().name();
+    description = operation.getDescription();
+    holdStateUserInterfaceUrl = operation.getHoldStateUserInterfaceUrl();
+    holdActionTitle = operation.getHoldActionTitle();
+    failWorkflowOnException = operation.isFailWorkflowOnException();
+    executeCondition = operation.getExecutionCondition();
+    skipCondition = operation.getSkipCondition();
+    exceptionHandlingWorkflow = operation.getExceptionHandlingWorkflow();
+    abortable = operation.isAbortable();
+    continuable = operation.isContinuable();
+    dateStarted = operation.getDateStarted() == null ? null : operation.getDateStarted().getTime();
+    dateCompleted = operation.getDateCompleted() == null ? null : operation.getDateCompleted().getTime();
+    timeInQueue = operation.getTimeInQueue();
+    maxAttempts = operation.getMaxAttempts();
+    failedAttempts = operation.getFailedAttempts();
+    executionHost = operation.getExecutionHost();
+    retryStrategy = operation.getRetryStrategy() == null ? null : operation.getRetryStrategy().name();
+
+    // Only touch the collections if they have changed, since this rewrites all of their rows
+    Map<String, String> updatedConfigurations = new HashMap<>();
+    for (String key : operation.getConfigurationKeys()) {
+      updatedConfigurations.put(key, operation.getConfiguration(key));
+    }
+    if (!Objects.equals(configurations, updatedConfigurations)) {
+      configurations.clear();
+      configurations.putAll(updatedConfigurations);
+    }
+    List<Long> updatedHistory = operation.getExecutionHistory() == null
+            ? new ArrayList<>() : operation.getExecutionHistory();
+    if (!Objects.equals(executionHistory, updatedHistory)) {
+      executionHistory.clear();
+      executionHistory.addAll(updatedHistory);
+    }
+  }
+
+  /**
+   * Creates a workflow operation instance from this entity.
+   *
+   * @return the workflow operation instance
+   */
+  public WorkflowOperationInstanceImpl toWorkflowOperationInstance() {
+    WorkflowOperationInstanceImpl operation = new WorkflowOperationInstanceImpl();
+    operation.setPosition(position);
+    operation.setTemplate(template);
+    operation.setId(jobId);
+    // Setting the state touches the dates, so they have to be restored afterwards
+    operation.setState(state == null ? null : OperationState.valueOf(state));
+    operation.setDateStarted(dateStarted == null ? null : new Date(dateStarted));
+    operation.setDateCompleted(dateCompleted == null ? null : new Date(dateCompleted));
+    operation.setDescription(description);
+    operation.setHoldStateUserInterfaceUrl(holdStateUserInterfaceUrl);
+    operation.setHoldActionTitle(holdActionTitle);
+    operation.setFailWorkflowOnException(failWorkflowOnException);
+    operation.setExecutionCondition(executeCondition);
+    operation.setSkipCondition(skipCondition);
+    operation.setExceptionHandlingWorkflow(exceptionHandlingWorkflow);
+    operation.setAbortable(abortable);
+    operation.setContinuable(continuable);
+    if (timeInQueue != null) {
+      operation.setTimeInQueue(timeInQueue);
+    }
+    operation.setMaxAttempts(maxAttempts);
+    operation.setFailedAttempts(failedAttempts);
+    operation.setExecutionHost(executionHost);
+    operation.setRetryStrategy(retryStrategy == null ? null : RetryStrategy.valueOf(retryStrategy));
+    for (Long historyEntry : executionHistory) {
+      operation.addToExecutionHistory(historyEntry);
+    }
+    Set<WorkflowConfiguration> operationConfigurations = new TreeSet<>();
+    for (Map.Entry<String, String> entry : configurations.entrySet()) {
+      operationConfigurations.add(new WorkflowConfigurationImpl(entry.getKey(), entry.getValue()));
+    }
+    operation.setConfiguration(operationConfigurations);
+    return operation;
+  }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl.persistence;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class WorkflowOperationIdPK implements Serializable {
+
+  /**
+   * Serial UUID
+   */
+  private static final long serialVersionUID = -3094715728315283421L;
+
+  private long workflowId;
+  private int position;
+
+  public WorkflowOperationIdPK() {
+  }
+
+  public WorkflowOperationIdPK(long workflowId, int position) {
+    this.workflowId = workflowId;
+    this.position = position;
+  }
+
+  public long getWorkflowId() {
+    return workflowId;
+  }
+
+  public int getPosition() {
+    return position;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(workflowId, position);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this)
+      return true;
+    if (!(obj instanceof WorkflowOperationIdPK))
+      return false;
+    WorkflowOperationIdPK pk = (WorkflowOperationIdPK) obj;
+    return pk.getWorkflowId() == workflowId && pk.getPosition() == position;
+  }
+
+}
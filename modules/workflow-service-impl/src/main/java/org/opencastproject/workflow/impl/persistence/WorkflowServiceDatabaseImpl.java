@@ -0,0 +1,277 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl.persistence;
+
+import org.opencastproject.mediapackage.MediaPackageParser;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.NotFoundException;
+import org.opencastproject.workflow.api.WorkflowDatabaseException;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.impl.WorkflowServiceDatabase;
+
+import org.apache.commons.io.IOUtils;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+/**
+ * Implements {@link WorkflowServiceDatabase}.
+ */
+@Component(
+    immediate = true,
+    service = WorkflowServiceDatabase.class
+)
+public class WorkflowServiceDatabaseImpl implements WorkflowServiceDatabase {
+
+  /** JPA persistence unit name */
+  public static final String PERSISTENCE_UNIT = "org.opencastproject.workflow.impl.persistence";
+
+  /** Logging utilities */
+  private static final Logger logger = LoggerFactory.getLogger(WorkflowServiceDatabaseImpl.class);
+
+  /** Factory used to create {@link EntityManager}s for transactions */
+  private EntityManagerFactory emf;
+
+  /** OSGi DI */
+  @Reference(target = "(osgi.unit.name=org.opencastproject.workflow.impl.persistence)")
+  public void setEntityManagerFactory(EntityManagerFactory emf) {
+    this.emf = emf;
+  }
+
+  /**
+   * Creates {@link EntityManagerFactory} using persistence provider and properties passed via OSGi.
+   *
+   * @param cc
+   */
+  @Activate
+  public void activate(ComponentContext cc) {
+    logger.info("Activating persistence manager for workflows");
+  }
+
+  @Override
+  public WorkflowInstanceImpl getWorkflowInstance(long id) throws NotFoundException, WorkflowDatabaseException {
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      WorkflowInstanceDto entity = em.find(WorkflowInstanceDto.class, id);
+      if (entity == null)
+        throw new NotFoundException("Workflow instance " + id + " does not exist");
+
+      List<WorkflowOperationDto> operations = em
+              .createNamedQuery("WorkflowOperation.findByWorkflow", WorkflowOperationDto.class)
+              .setParameter("workflowId", id)
+              .getResultList();
+      return toWorkflowInstance(entity, operations, em.find(WorkflowMediaPackageDto.class, id));
+    } catch (NotFoundException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new WorkflowDatabaseException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  @Override
+  public List<WorkflowInstance> getWorkflowInstances(int limit, int offset) throws WorkflowDatabaseException {
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      List<WorkflowInstanceDto> entities = em
+              .createNamedQuery("WorkflowInstance.findAll", WorkflowInstanceDto.class)
+              .setFirstResult(offset)
+              .setMaxResults(limit)
+              .getResultList();
+      if (entities.isEmpty())
+        return Collections.emptyList();
+
+      List<Long> ids = entities.stream().map(WorkflowInstanceDto::getId).collect(Collectors.toList());
+      Map<Long, List<WorkflowOperationDto>> operations = em
+              .createNamedQuery("WorkflowOperation.findByWorkflows", WorkflowOperationDto.class)
+              .setParameter("workflowIds", ids)
+              .getResultList().stream()
+              .collect(Collectors.groupingBy(WorkflowOperationDto::getWorkflowId));
+      Map<Long, WorkflowMediaPackageDto> mediaPackages = new HashMap<>();
+      for (WorkflowMediaPackageDto mediaPackage : em
+              .createNamedQuery("WorkflowMediaPackage.findByWorkflows", WorkflowMediaPackageDto.class)
+              .setParameter("workflowIds", ids)
+              .getResultList()) {
+        mediaPackages.put(mediaPackage.getWorkflowId(), mediaPackage);
+      }
+
+      List<WorkflowInstance> instances = new ArrayList<>(entities.size());
+      for (WorkflowInstanceDto entity : entities) {
+        instances.add(toWorkflowInstance(entity,
+                operations.getOrDefault(entity.getId(), Collections.emptyList()),
+                mediaPackages.get(entity.getId())));
+      }
+      return instances;
+    } catch (Exception e) {
+      throw new WorkflowDatabaseException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  @Override
+  public int countWorkflowInstances() throws WorkflowDatabaseException {
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      return em.createNamedQuery("WorkflowInstance.countAll", Long.class).getSingleResult().intValue();
+    } catch (Exception e) {
+      throw new WorkflowDatabaseException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  @Override
+  public void updateWorkflowInstance(WorkflowInstance instance) throws WorkflowDatabaseException {
+    EntityManager em = null;
+    EntityTransaction tx = null;
+    try {
+      final long id = instance.getId();
+      final String mediaPackageXml = MediaPackageParser.getAsXml(instance.getMediaPackage());
+      final String checksum = Checksum.create(ChecksumType.DEFAULT_TYPE,
+              IOUtils.toInputStream(mediaPackageXml, StandardCharsets.UTF_8)).getValue();
+
+      em = emf.createEntityManager();
+      tx = em.getTransaction();
+      tx.begin();
+
+      // Store the media package only if it has changed since the last update
+      WorkflowInstanceDto entity = em.find(WorkflowInstanceDto.class, id);
+      if (entity == null) {
+        entity = new WorkflowInstanceDto();
+        entity.update(instance, checksum);
+        em.persist(entity);
+        em.persist(new WorkflowMediaPackageDto(id, mediaPackageXml));
+      } else {
+        boolean mediaPackageChanged = !checksum.equals(entity.getMediaPackageChecksum());
+        entity.update(instance, checksum);
+        if (mediaPackageChanged && em.createNamedQuery("WorkflowMediaPackage.update")
+                .setParameter("xml", mediaPackageXml)
+                .setParameter("workflowId", id)
+                .executeUpdate() == 0) {
+          em.persist(new WorkflowMediaPackageDto(id, mediaPackageXml));
+        }
+      }
+
+      // Update the operations in place. Unchanged operations are not written.
+      List<WorkflowOperationDto> storedOperations = em
+              .createNamedQuery("WorkflowOperation.findByWorkflow", WorkflowOperationDto.class)
+              .setParameter("workflowId", id)
+              .getResultList();
+      List<WorkflowOperationInstance> operations = instance.getOperations();
+      for (int i = 0; i < operations.size(); i++) {
+        if (i < storedOperations.size()) {
+          storedOperations.get(i).update(operations.get(i));
+        } else {
+          WorkflowOperationDto operation = new WorkflowOperationDto(id, i);
+          operation.update(operations.get(i));
+          em.persist(operation);
+        }
+      }
+      for (int i = operations.size(); i < storedOperations.size(); i++) {
+        em.remove(storedOperations.get(i));
+      }
+
+      tx.commit();
+    } catch (Exception e) {
+      if (tx != null && tx.isActive())
+        tx.rollback();
+      throw new WorkflowDatabaseException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  @Override
+  public void removeWorkflowInstance(long id) throws WorkflowDatabaseException {
+    EntityManager em = null;
+    EntityTransaction tx = null;
+    try {
+      em = emf.createEntityManager();
+      tx = em.getTransaction();
+      tx.begin();
+      for (WorkflowOperationDto operation : em
+              .createNamedQuery("WorkflowOperation.findByWorkflow", WorkflowOperationDto.class)
+              .setParameter("workflowId", id)
+              .getResultList()) {
+        em.remove(operation);
+      }
+      em.createNamedQuery("WorkflowMediaPackage.delete").setParameter("workflowId", id).executeUpdate();
+      WorkflowInstanceDto entity = em.find(WorkflowInstanceDto.class, id);
+      if (entity != null)
+        em.remove(entity);
+      tx.commit();
+    } catch (Exception e) {
+      if (tx != null && tx.isActive())
+        tx.rollback();
+      throw new WorkflowDatabaseException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  /**
+   * Assembles a workflow instance from its entities.
+   */
+  private static WorkflowInstanceImpl toWorkflowInstance(WorkflowInstanceDto entity,
+          List<WorkflowOperationDto> operations, WorkflowMediaPackageDto mediaPackage) throws Exception {
+    WorkflowInstanceImpl instance = entity.toWorkflowInstance();
+    List<WorkflowOperationInstance> operationInstances = new ArrayList<>(operations.size());
+    for (WorkflowOperationDto operation : operations) {
+      operationInstances.add(operation.toWorkflowOperationInstance());
+    }
+    instance.setOperations(operationInstances);
+    if (mediaPackage != null) {
+      instance.setMediaPackage(MediaPackageParser.getFromXml(mediaPackage.getMediaPackageXml()));
+    }
+    return instance;
+  }
+
+}
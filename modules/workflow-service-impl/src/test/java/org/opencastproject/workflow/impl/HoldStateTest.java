@@ -22,6 +22,7 @@
 package org.opencastproject.workflow.impl;
 
 import static org.easymock.EasyMock.createNiceMock;
+import static org.opencastproject.util.persistence.PersistenceUtil.newTestEntityManagerFactory;
 import static org.opencastproject.workflow.impl.SecurityServiceStub.DEFAULT_ORG_ADMIN;
 
 import org.opencastproject.assetmanager.api.AssetManager;
@@ -67,6 +68,7 @@ import org.opencastproject.workflow.api.WorkflowOperationResult.Action;
 import org.opencastproject.workflow.api.WorkflowParser;
 import org.opencastproject.workflow.api.WorkflowStateListener;
 import org.opencastproject.workflow.impl.WorkflowServiceImpl.HandlerRegistration;
+import org.opencastproject.workflow.impl.persistence.WorkflowServiceDatabaseImpl;
 
 import com.entwinemedia.fn.Stream;
 import com.entwinemedia.fn.data.Opt;
@@ -232,8 +234,12 @@ public class HoldStateTest {
     dao.setSecurityService(securityService);
     dao.setOrgDirectory(organizationDirectoryService);
     dao.setAssetManager(assetManager);
+    WorkflowServiceDatabaseImpl persistence = new WorkflowServiceDatabaseImpl();
+    persistence.setEntityManagerFactory(newTestEntityManagerFactory(WorkflowServiceDatabaseImpl.PERSISTENCE_UNIT));
+    dao.setPersistence(persistence);
     dao.activate("System Admin");
     service.setDao(dao);
+    service.setPersistence(persistence);
     service.activate(null);
     service.setServiceRegistry(serviceRegistry);
 
@@ -22,6 +22,7 @@
 package org.opencastproject.workflow.impl;
 
 import static org.easymock.EasyMock.createNiceMock;
+import static org.opencastproject.util.persistence.PersistenceUtil.newTestEntityManagerFactory;
 import static org.opencastproject.workflow.impl.SecurityServiceStub.DEFAULT_ORG_ADMIN;
 
 import org.opencastproject.assetmanager.api.AssetManager;
@@ -57,6 +58,7 @@ import org.opencastproject.workflow.api.WorkflowInstance.WorkflowState;
 import org.opencastproject.workflow.api.WorkflowParser;
 import org.opencastproject.workflow.api.WorkflowStateListener;
 import org.opencastproject.workflow.impl.WorkflowServiceImpl.HandlerRegistration;
+import org.opencastproject.workflow.impl.persistence.WorkflowServiceDatabaseImpl;
 import org.opencastproject.workspace.api.Workspace;
 
 import com.entwinemedia.fn.Stream;
@@ -209,8 +211,12 @@ public class PauseWorkflowTest {
     dao.solrRoot = sRoot + File.separator + "solr";
     dao.setSecurityService(securityService);
     dao.setOrgDirectory(organizationDirectoryService);
+    WorkflowServiceDatabaseImpl persistence = new WorkflowServiceDatabaseImpl();
+    persistence.setEntityManagerFactory(newTestEntityManagerFactory(WorkflowServiceDatabaseImpl.PERSISTENCE_UNIT));
+    dao.setPersistence(persistence);
     dao.activate("System Admin");
     service.setDao(dao);
+    service.setPersistence(persistence);
     service.setServiceRegistry(serviceRegistry);
     service.activate(null);
 
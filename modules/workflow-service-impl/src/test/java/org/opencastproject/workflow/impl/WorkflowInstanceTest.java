@@ -28,19 +28,34 @@ import org.opencastproject.mediapackage.MediaPackageElements;
 import org.opencastproject.mediapackage.MediaPackageParser;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.JaxbOrganization;
+import org.opencastproject.security.api.JaxbRole;
+import org.opencastproject.security.api.JaxbUser;
+import org.opencastproject.workflow.api.RetryStrategy;
 import org.opencastproject.workflow.api.WorkflowDefinition;
 import org.opencastproject.workflow.api.WorkflowDefinitionImpl;
 import org.opencastproject.workflow.api.WorkflowInstance;
 import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationInstance.OperationState;
+import org.opencastproject.workflow.api.WorkflowOperationInstanceImpl;
 import org.opencastproject.workflow.api.WorkflowParser;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import junit.framework.Assert;
 
@@ -127,4 +142,111 @@ public class WorkflowInstanceTest {
     Assert.assertEquals(workflow.getMediaPackage().getTracks()[0].getFlavor(),
             instance3.getMediaPackage().getTracks()[0].getFlavor());
   }
+
+  @Test
+  public void testCopyMatchesXmlRoundTrip() throws Exception {
+    WorkflowDefinition def;
+    try (InputStream in = getClass().getResourceAsStream("/workflow-definition-1.xml")) {
+      def = WorkflowParser.parseWorkflowDefinition(in);
+    }
+    MediaPackage mp;
+    try (InputStream in = getClass().getResourceAsStream("/mediapackage-1.xml")) {
+      mp = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().loadFromXml(in);
+    }
+    JaxbOrganization organization = new DefaultOrganization();
+    JaxbUser user = new JaxbUser("admin", "test", organization, new JaxbRole("ROLE_ADMIN", organization));
+    Map<String, String> props = new HashMap<String, String>();
+    props.put("key1", "value1");
+    props.put("key2", "value2");
+    WorkflowInstanceImpl workflow = new WorkflowInstanceImpl(def, mp, 7L, user, organization, props);
+    workflow.setId(42L);
+    workflow.setDescription("a description");
+
+    // Set every property of the operations, so that forgetting to copy one of them shows up in the XML
+    WorkflowOperationInstanceImpl finished = (WorkflowOperationInstanceImpl) workflow.next();
+    finished.setId(100L);
+    finished.setState(OperationState.SUCCEEDED);
+    finished.setConfiguration("op-key", "op-value");
+    finished.setDateStarted(new Date(1000L));
+    finished.setDateCompleted(new Date(2000L));
+    finished.setTimeInQueue(50L);
+    finished.setExecutionHost("http://worker");
+    finished.setFailedAttempts(1);
+    finished.setMaxAttempts(3);
+    finished.setRetryStrategy(RetryStrategy.RETRY);
+    finished.addToExecutionHistory(99L);
+    finished.addToExecutionHistory(100L);
+    finished.setExecutionCondition("${key1}");
+    finished.setSkipCondition("${key2}");
+    finished.setExceptionHandlingWorkflow("error");
+    finished.setAbortable(true);
+    finished.setContinuable(false);
+    WorkflowOperationInstanceImpl paused = (WorkflowOperationInstanceImpl) workflow.next();
+    paused.setState(OperationState.PAUSED);
+    paused.setHoldStateUserInterfaceUrl("http://localhost/hold");
+    paused.setHoldActionTitle("Review");
+
+    String original = WorkflowParser.toXml(workflow);
+    String roundTrip = WorkflowParser.toXml(WorkflowParser.parseWorkflowInstance(original));
+    WorkflowInstanceImpl copy = new WorkflowInstanceImpl(workflow);
+    Assert.assertEquals(roundTrip, WorkflowParser.toXml(copy));
+
+    // The copy must not share mutable state with the original
+    WorkflowOperationInstance copiedOperation = copy.getOperations().get(0);
+    copiedOperation.setConfiguration("op-key", "changed");
+    copiedOperation.addToExecutionHistory(101L);
+    copy.setConfiguration("key1", "changed");
+    copy.getMediaPackage().setTitle("changed");
+    Assert.assertEquals(original, WorkflowParser.toXml(workflow));
+  }
+
+  @Test
+  public void testCopySharesMediaPackageUntilAccessed() throws Exception {
+    WorkflowDefinition def;
+    try (InputStream in = getClass().getResourceAsStream("/workflow-definition-1.xml")) {
+      def = WorkflowParser.parseWorkflowDefinition(in);
+    }
+    MediaPackage mp;
+    try (InputStream in = getClass().getResourceAsStream("/mediapackage-1.xml")) {
+      mp = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().loadFromXml(in);
+    }
+    WorkflowInstanceImpl workflow = new WorkflowInstanceImpl(def, mp, null, null, null, null);
+    WorkflowInstanceImpl copy1 = new WorkflowInstanceImpl(workflow);
+    WorkflowInstanceImpl copy2 = new WorkflowInstanceImpl(workflow);
+
+    // Only the last instance to access the media package gets the shared one, the others get a clone
+    MediaPackage workflowMediaPackage = workflow.getMediaPackage();
+    Assert.assertNotSame(mp, workflowMediaPackage);
+    Assert.assertSame(workflowMediaPackage, workflow.getMediaPackage());
+    workflowMediaPackage.setTitle("changed");
+    Assert.assertNotSame(mp, copy1.getMediaPackage());
+    Assert.assertSame(mp, copy2.getMediaPackage());
+    Assert.assertFalse("changed".equals(copy1.getMediaPackage().getTitle()));
+    Assert.assertEquals(MediaPackageParser.getAsXml(mp), MediaPackageParser.getAsXml(copy1.getMediaPackage()));
+
+    // An instance replacing the media package leaves the shared one to the copy without cloning it
+    WorkflowInstanceImpl copy3 = new WorkflowInstanceImpl(copy2);
+    copy2.setMediaPackage(workflowMediaPackage);
+    Assert.assertSame(mp, copy3.getMediaPackage());
+  }
+
+  @Test
+  public void testCopyConstructorsKnowAllFields() throws Exception {
+    // Adding a field requires copying it in the copy constructor, update these lists once that is done
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("id", "state", "template", "title", "description", "parentId",
+            "creator", "creatorName", "organization", "organizationId", "mediaPackage", "operations",
+            "configurations", "initialized", "sharedMediaPackage")), getInstanceFields(WorkflowInstanceImpl.class));
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("template", "jobId", "state", "description", "configurations",
+            "holdStateUserInterfaceUrl", "holdActionTitle", "failWorkflowOnException", "executeCondition",
+            "skipCondition", "exceptionHandlingWorkflow", "abortable", "continuable", "dateStarted",
+            "dateCompleted", "timeInQueue", "maxAttempts", "failedAttempts", "executionHost", "executionHistory",
+            "retryStrategy", "position")), getInstanceFields(WorkflowOperationInstanceImpl.class));
+  }
+
+  private static Set<String> getInstanceFields(Class<?> type) {
+    return Arrays.stream(type.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()) && !field.isSynthetic())
+            .map(Field::getName)
+            .collect(Collectors.toCollection(TreeSet::new));
+  }
 }
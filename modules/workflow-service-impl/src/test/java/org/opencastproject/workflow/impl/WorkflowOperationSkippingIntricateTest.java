@@ -24,6 +24,7 @@ package org.opencastproject.workflow.impl;
 import static org.easymock.EasyMock.createNiceMock;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.opencastproject.util.persistence.PersistenceUtil.newTestEntityManagerFactory;
 import static org.opencastproject.workflow.impl.SecurityServiceStub.DEFAULT_ORG_ADMIN;
 
 import org.opencastproject.assetmanager.api.AssetManager;
@@ -70,6 +71,7 @@ import org.opencastproject.workflow.api.WorkflowOperationResult.Action;
 import org.opencastproject.workflow.api.WorkflowParser;
 import org.opencastproject.workflow.api.WorkflowStateListener;
 import org.opencastproject.workflow.impl.WorkflowServiceImpl.HandlerRegistration;
+import org.opencastproject.workflow.impl.persistence.WorkflowServiceDatabaseImpl;
 import org.opencastproject.workspace.api.Workspace;
 
 import com.entwinemedia.fn.Stream;
@@ -224,8 +226,12 @@ public final class WorkflowOperationSkippingIntricateTest {
     dao.setAuthorizationService(authzService);
     dao.setOrgDirectory(organizationDirectoryService);
     dao.setAssetManager(assetManager);
+    WorkflowServiceDatabaseImpl persistence = new WorkflowServiceDatabaseImpl();
+    persistence.setEntityManagerFactory(newTestEntityManagerFactory(WorkflowServiceDatabaseImpl.PERSISTENCE_UNIT));
+    dao.setPersistence(persistence);
     dao.activate("System Admin");
     service.setDao(dao);
+    service.setPersistence(persistence);
     service.setServiceRegistry(serviceRegistry);
     service.setUserDirectoryService(userDirectoryService);
     service.activate(null);
@@ -96,6 +96,11 @@ public class WorkflowServiceSolrIndexTest {
             .andReturn(Collections.singletonList(jobPayload));
     EasyMock.replay(serviceRegistry);
 
+    // The workflow has not been moved to the workflow database yet
+    WorkflowServiceDatabase persistence = EasyMock.createMock(WorkflowServiceDatabase.class);
+    EasyMock.expect(persistence.countWorkflowInstances()).andReturn(0);
+    EasyMock.replay(persistence);
+
     MessageSender messageSender = EasyMock.createNiceMock(MessageSender.class);
     EasyMock.replay(messageSender);
 
@@ -103,6 +108,7 @@ public class WorkflowServiceSolrIndexTest {
     dao = new WorkflowServiceSolrIndex();
     dao.solrRoot = PathSupport.concat("target", Long.toString(System.currentTimeMillis()));
     dao.setServiceRegistry(serviceRegistry);
+    dao.setPersistence(persistence);
     dao.setSecurityService(securityService);
     dao.setOrgDirectory(orgDirectroy);
     dao.activate("System Admin");
@@ -0,0 +1,174 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.workflow.impl.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.opencastproject.util.persistence.PersistenceUtil.newTestEntityManagerFactory;
+
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
+import org.opencastproject.util.NotFoundException;
+import org.opencastproject.workflow.api.RetryStrategy;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstance.WorkflowState;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationInstance.OperationState;
+import org.opencastproject.workflow.api.WorkflowOperationInstanceImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WorkflowServiceDatabaseImplTest {
+
+  private WorkflowServiceDatabaseImpl persistence;
+
+  @Before
+  public void setUp() throws Exception {
+    persistence = new WorkflowServiceDatabaseImpl();
+    persistence.setEntityManagerFactory(newTestEntityManagerFactory(WorkflowServiceDatabaseImpl.PERSISTENCE_UNIT));
+    persistence.activate(null);
+  }
+
+  private WorkflowInstanceImpl createWorkflow(long id) throws Exception {
+    MediaPackage mediaPackage = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew();
+    mediaPackage.setSeries("series");
+    WorkflowInstanceImpl workflow = new WorkflowInstanceImpl();
+    workflow.setId(id);
+    workflow.setTemplate("template");
+    workflow.setTitle("title");
+    workflow.setState(WorkflowState.RUNNING);
+    workflow.setOrganizationId("org");
+    workflow.setCreatorName("admin");
+    workflow.setMediaPackage(mediaPackage);
+    workflow.setConfiguration("key", "value");
+
+    List<WorkflowOperationInstance> operations = new ArrayList<>();
+    WorkflowOperationInstanceImpl first = new WorkflowOperationInstanceImpl("inspect", OperationState.SUCCEEDED);
+    first.setId(12L);
+    first.setConfiguration("flavor", "presenter/source");
+    first.setRetryStrategy(RetryStrategy.RETRY);
+    first.setMaxAttempts(2);
+    first.addToExecutionHistory(12L);
+    first.setExecutionCondition("${key} == 'value'");
+    operations.add(first);
+    WorkflowOperationInstanceImpl second = new WorkflowOperationInstanceImpl("encode", OperationState.RUNNING);
+    second.setTimeInQueue(42L);
+    operations.add(second);
+    operations.add(new WorkflowOperationInstanceImpl("publish", OperationState.INSTANTIATED));
+    workflow.setOperations(operations);
+    return workflow;
+  }
+
+  private void assertWorkflow(WorkflowInstance expected, WorkflowInstance actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getState(), actual.getState());
+    assertEquals(expected.getTemplate(), actual.getTemplate());
+    assertEquals(expected.getTitle(), actual.getTitle());
+    assertEquals(expected.getOrganizationId(), actual.getOrganizationId());
+    assertEquals(expected.getCreatorName(), actual.getCreatorName());
+    assertEquals(expected.getConfigurationKeys(), actual.getConfigurationKeys());
+    assertEquals(expected.getMediaPackage().getIdentifier(), actual.getMediaPackage().getIdentifier());
+    assertEquals(expected.getMediaPackage().getSeries(), actual.getMediaPackage().getSeries());
+    assertEquals(expected.getOperations().size(), actual.getOperations().size());
+    for (int i = 0; i < expected.getOperations().size(); i++) {
+      WorkflowOperationInstance expectedOperation = expected.getOperations().get(i);
+      WorkflowOperationInstance actualOperation = actual.getOperations().get(i);
+      assertEquals(expectedOperation.getTemplate(), actualOperation.getTemplate());
+      assertEquals(i, actualOperation.getPosition());
+      assertEquals(expectedOperation.getId(), actualOperation.getId());
+      assertEquals(expectedOperation.getState(), actualOperation.getState());
+      assertEquals(expectedOperation.getDateStarted(), actualOperation.getDateStarted());
+      assertEquals(expectedOperation.getDateCompleted(), actualOperation.getDateCompleted());
+      assertEquals(expectedOperation.getTimeInQueue(), actualOperation.getTimeInQueue());
+      assertEquals(expectedOperation.getRetryStrategy(), actualOperation.getRetryStrategy());
+      assertEquals(expectedOperation.getMaxAttempts(), actualOperation.getMaxAttempts());
+      assertEquals(expectedOperation.getExecutionCondition(), actualOperation.getExecutionCondition());
+      assertEquals(expectedOperation.getExecutionHistory(), actualOperation.getExecutionHistory());
+      for (String key : expectedOperation.getConfigurationKeys()) {
+        assertEquals(expectedOperation.getConfiguration(key), actualOperation.getConfiguration(key));
+      }
+    }
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    WorkflowInstanceImpl workflow = createWorkflow(1L);
+    persistence.updateWorkflowInstance(workflow);
+    assertWorkflow(workflow, persistence.getWorkflowInstance(1L));
+  }
+
+  @Test
+  public void testUpdate() throws Exception {
+    WorkflowInstanceImpl workflow = createWorkflow(1L);
+    persistence.updateWorkflowInstance(workflow);
+
+    // Finish the running operation, drop the last one and change the media package
+    List<WorkflowOperationInstance> operations = workflow.getOperations();
+    operations.get(1).setState(OperationState.SUCCEEDED);
+    operations.remove(2);
+    workflow.setOperations(operations);
+    workflow.setState(WorkflowState.SUCCEEDED);
+    workflow.removeConfiguration("key");
+    workflow.getMediaPackage().setSeries("other");
+    persistence.updateWorkflowInstance(workflow);
+
+    WorkflowInstance stored = persistence.getWorkflowInstance(1L);
+    assertWorkflow(workflow, stored);
+    assertEquals("other", stored.getMediaPackage().getSeries());
+    assertNull(stored.getConfiguration("key"));
+  }
+
+  @Test
+  public void testGetWorkflowInstances() throws Exception {
+    for (long id = 1; id <= 5; id++) {
+      persistence.updateWorkflowInstance(createWorkflow(id));
+    }
+    assertEquals(5, persistence.countWorkflowInstances());
+    List<WorkflowInstance> page = persistence.getWorkflowInstances(2, 2);
+    assertEquals(2, page.size());
+    assertEquals(3L, page.get(0).getId());
+    assertEquals(3, page.get(0).getOperations().size());
+    assertEquals(4L, page.get(1).getId());
+    assertEquals(1, persistence.getWorkflowInstances(2, 4).size());
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    persistence.updateWorkflowInstance(createWorkflow(1L));
+    persistence.removeWorkflowInstance(1L);
+    assertEquals(0, persistence.countWorkflowInstances());
+    try {
+      persistence.getWorkflowInstance(1L);
+      fail("Removed workflow instance should not be found");
+    } catch (NotFoundException e) {
+      // Expected
+    }
+  }
+
+}
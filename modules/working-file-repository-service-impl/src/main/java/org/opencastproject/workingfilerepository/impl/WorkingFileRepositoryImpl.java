@@ -27,7 +27,7 @@ import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.systems.OpencastConstants;
 import org.opencastproject.util.Checksum;
-import org.opencastproject.util.FileSupport;
+import org.opencastproject.util.FileTransfer;
 import org.opencastproject.util.Log;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.PathSupport;
@@ -685,7 +685,7 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     File destFile;
     try {
       destFile = new File(destDir, PathSupport.toSafeName(toFileName));
-      FileSupport.link(source, destFile);
+      FileTransfer.transfer(source, destFile, true);
       createMd5(destFile);
     } catch (Exception e) {
       FileUtils.deleteDirectory(destDir);
@@ -728,8 +728,8 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     }
 
     try {
-      FileUtils.moveFile(source, dest);
-      FileUtils.moveFile(sourceMd5, getMd5File(dest));
+      FileTransfer.move(source, dest);
+      FileTransfer.move(sourceMd5, getMd5File(dest));
     } catch (IOException e) {
       FileUtils.deleteDirectory(destDir);
       throw new IllegalStateException("unable to copy file" + e);
@@ -43,6 +43,7 @@ import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.TrustedHttpClient;
 import org.opencastproject.security.api.TrustedHttpClientException;
 import org.opencastproject.util.FileSupport;
+import org.opencastproject.util.FileTransfer;
 import org.opencastproject.util.HttpUtil;
 import org.opencastproject.util.IoSupport;
 import org.opencastproject.util.NotFoundException;
@@ -63,6 +64,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -84,9 +86,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
@@ -126,6 +126,8 @@ public final class WorkspaceImpl implements Workspace {
   public static final String WORKSPACE_CLEANUP_PERIOD_KEY = "org.opencastproject.workspace.cleanup.period";
   /** Configuration key for garbage collection max age. */
   public static final String WORKSPACE_CLEANUP_MAX_AGE_KEY = "org.opencastproject.workspace.cleanup.max.age";
+  /** Configuration key for enabling copy-on-write clones of files which cannot be hard linked. */
+  public static final String WORKSPACE_REFLINK_KEY = "org.opencastproject.workspace.reflink";
 
   /** Workspace JMX type */
   private static final String JMX_WORKSPACE_TYPE = "Workspace";
@@ -233,6 +235,11 @@ public final class WorkspaceImpl implements Workspace {
       }
     }
 
+    // Copy-on-write clones are used as long as they are not disabled explicitly
+    if (ensureContextProp(cc, WORKSPACE_REFLINK_KEY)) {
+      FileTransfer.setReflinkEnabled(BooleanUtils.toBoolean(cc.getBundleContext().getProperty(WORKSPACE_REFLINK_KEY)));
+    }
+
     // Test whether hard linking between working file repository and workspace is possible
     if (pathMappable != null) {
       String wfrRoot = pathMappable.getPathPrefix();
@@ -378,7 +385,8 @@ public final class WorkspaceImpl implements Workspace {
     final File asset = AssetPathUtils.getLocalFile(assetManagerPath, securityService.getOrganization().getId(), uri);
     if (asset != null) {
       logger.debug("Copy local file {} from asset manager to workspace", asset);
-      Files.copy(asset.toPath(), inWs.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      // Never link archived files, the workspace copy may be modified
+      FileTransfer.transfer(asset, inWs, false);
       return new File(inWs.getAbsolutePath());
     }
 
@@ -423,12 +431,7 @@ public final class WorkspaceImpl implements Workspace {
 
   /** Copy or link <code>src</code> to <code>dst</code>. */
   private void copyOrLink(final File src, final File dst) throws IOException {
-    if (linkingEnabled) {
-      FileUtils.deleteQuietly(dst);
-      FileSupport.link(src, dst);
-    } else {
-      FileSupport.copy(src, dst);
-    }
+    FileTransfer.transfer(src, dst, linkingEnabled);
   }
 
   /** {@link #copyOrLink(java.io.File, java.io.File)} as an effect. <code>src -> dst -> ()</code> */
@@ -668,7 +671,7 @@ public final class WorkspaceImpl implements Workspace {
       File workingFileRepoDirectory = workingFileRepositoryFile(WorkingFileRepository.MEDIAPACKAGE_PATH_PREFIX,
               mediaPackageID, mediaPackageElementID);
       File workingFileRepoCopy = new File(workingFileRepoDirectory, safeFileName);
-      FileSupport.link(workingFileRepoCopy, workspaceFile, true);
+      FileTransfer.transfer(workingFileRepoCopy, workspaceFile, true);
     } else {
       try (FileOutputStream out = new FileOutputStream(workspaceFile)) {
         try (InputStream tee = new TeeInputStream(in, out, true)) {
@@ -705,7 +708,7 @@ public final class WorkspaceImpl implements Workspace {
         File workingFileRepoDirectory = workingFileRepositoryFile(WorkingFileRepository.COLLECTION_PATH_PREFIX,
                 collectionId);
         File workingFileRepoCopy = new File(workingFileRepoDirectory, safeFileName);
-        FileSupport.link(workingFileRepoCopy, tempFile, true);
+        FileTransfer.transfer(workingFileRepoCopy, tempFile, true);
       } else {
         tee = new TeeInputStream(in, out, true);
         wfr.putInCollection(collectionId, fileName, tee);
@@ -21,6 +21,8 @@
 
 package org.opencastproject.workspace.impl.jmx;
 
+import org.opencastproject.util.FileTransfer;
+import org.opencastproject.util.FileTransfer.Mode;
 import org.opencastproject.util.data.Option.Match;
 import org.opencastproject.workspace.api.Workspace;
 
@@ -86,4 +88,52 @@ public class WorkspaceBean implements WorkspaceMXBean {
     });
   }
 
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getLinkedFiles()
+   */
+  @Override
+  public long getLinkedFiles() {
+    return FileTransfer.getFileCount(Mode.LINK);
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getReflinkedFiles()
+   */
+  @Override
+  public long getReflinkedFiles() {
+    return FileTransfer.getFileCount(Mode.REFLINK);
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getRenamedFiles()
+   */
+  @Override
+  public long getRenamedFiles() {
+    return FileTransfer.getFileCount(Mode.RENAME);
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getChannelCopiedFiles()
+   */
+  @Override
+  public long getChannelCopiedFiles() {
+    return FileTransfer.getFileCount(Mode.CHANNEL);
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getStreamCopiedFiles()
+   */
+  @Override
+  public long getStreamCopiedFiles() {
+    return FileTransfer.getFileCount(Mode.STREAM);
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCopiedBytes()
+   */
+  @Override
+  public long getCopiedBytes() {
+    return FileTransfer.getByteCount(Mode.CHANNEL) + FileTransfer.getByteCount(Mode.STREAM);
+  }
+
 }
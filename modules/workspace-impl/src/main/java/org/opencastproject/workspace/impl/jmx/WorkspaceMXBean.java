@@ -22,7 +22,8 @@
 package org.opencastproject.workspace.impl.jmx;
 
 /**
- * JMX Bean interface exposing workspace storage information
+ * JMX Bean interface exposing workspace storage information and the number of files transferred between the storage
+ * areas of this node
  */
 public interface WorkspaceMXBean {
 
@@ -47,4 +48,46 @@ public interface WorkspaceMXBean {
    */
   long getTotalSpace();
 
+  /**
+   * Gets the number of files transferred by creating a hard link
+   *
+   * @return number of files
+   */
+  long getLinkedFiles();
+
+  /**
+   * Gets the number of files transferred by creating a copy-on-write clone
+   *
+   * @return number of files
+   */
+  long getReflinkedFiles();
+
+  /**
+   * Gets the number of files transferred by renaming them
+   *
+   * @return number of files
+   */
+  long getRenamedFiles();
+
+  /**
+   * Gets the number of files transferred by a kernel side copy
+   *
+   * @return number of files
+   */
+  long getChannelCopiedFiles();
+
+  /**
+   * Gets the number of files transferred by a stream copy
+   *
+   * @return number of files
+   */
+  long getStreamCopiedFiles();
+
+  /**
+   * Gets the number of bytes actually copied while transferring files, i.e. excluding links, clones and renames
+   *
+   * @return copied bytes
+   */
+  long getCopiedBytes();
+
 }